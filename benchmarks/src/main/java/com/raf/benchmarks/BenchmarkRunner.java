@@ -0,0 +1,28 @@
+package com.raf.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code benchmarks.jar}. Accepts the usual JMH command line
+ * (benchmark regex, {@code -p rows=10000}, {@code -f}, ...) and always adds
+ * the GC profiler, so every run reports {@code gc.alloc.rate.norm} (bytes
+ * allocated per operation) next to the timings.
+ */
+public final class BenchmarkRunner {
+
+private BenchmarkRunner() {
+}
+
+public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+CommandLineOptions commandLine = new CommandLineOptions(args);
+new Runner(new OptionsBuilder()
+.parent(commandLine)
+.addProfiler(GCProfiler.class)
+.build()).run();
+}
+}
@@ -0,0 +1,140 @@
+package com.raf.benchmarks;
+
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import com.raf.enums.CropCategory;
+import com.raf.enums.DeliveryStatus;
+import com.raf.enums.InventoryStatus;
+import com.raf.enums.PaymentStatus;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic, database-free entity graph shaped like production data:
+ * a few dozen crop types, a few hundred warehouses and a few thousand users
+ * shared by {@code rows} inventories and {@code rows} transactions. The same
+ * {@code rows} always produces the same graph, so runs are comparable.
+ */
+public final class SyntheticGraph {
+
+private static final String[] CROPS = {
+"Maize", "Beans", "Sorghum", "Irish Potatoes", "Sweet Potatoes", "Cassava", "Rice", "Wheat",
+"Soybeans", "Groundnuts", "Peas", "Bananas", "Coffee", "Tea", "Pyrethrum", "Avocado"
+};
+private static final String[] PLACES = {
+"Musanze", "Huye", "Rubavu", "Nyagatare", "Rwamagana", "Muhanga", "Karongi", "Rusizi",
+"Kayonza", "Gicumbi", "Nyanza", "Bugesera", "Kirehe", "Ngoma", "Gatsibo", "Burera"
+};
+private static final String[] FIRST_NAMES = {
+"Jean", "Marie", "Eric", "Aline", "Claude", "Diane", "Patrick", "Grace", "Emmanuel", "Josiane"
+};
+private static final String[] LAST_NAMES = {
+"Habimana", "Uwase", "Niyonzima", "Mukamana", "Nshimiyimana", "Ingabire", "Bizimana", "Uwimana"
+};
+private static final String[] NOTES = {
+"Dried to 13% moisture before intake",
+"Bagged in 50kg sacks, stacked on pallets",
+"Sorted and graded at the cooperative",
+"Fumigated on arrival",
+"Awaiting quality inspection",
+null
+};
+private static final String[] GRADES = {"A", "B", "C", "Premium"};
+
+private final List<Inventory> inventories;
+private final List<Transaction> transactions;
+
+private SyntheticGraph(List<Inventory> inventories, List<Transaction> transactions) {
+this.inventories = inventories;
+this.transactions = transactions;
+}
+
+public static SyntheticGraph generate(int rows) {
+Random random = new Random(rows);
+
+List<CropType> cropTypes = new ArrayList<>();
+for (int i = 0; i < CROPS.length; i++) {
+CropType cropType = new CropType();
+cropType.setId((long) i + 1);
+cropType.setCropName(CROPS[i]);
+cropType.setCropCode(String.format("CRP-%03d", i + 1));
+cropType.setCategory(CropCategory.values()[i % CropCategory.values().length]);
+cropType.setPricePerKg(BigDecimal.valueOf(300 + 25L * i));
+cropTypes.add(cropType);
+}
+
+List<StorageWarehouse> warehouses = new ArrayList<>();
+for (int i = 0; i < 400; i++) {
+StorageWarehouse warehouse = new StorageWarehouse();
+warehouse.setId((long) i + 1);
+warehouse.setWarehouseName(PLACES[i % PLACES.length] + " Store " + (i / PLACES.length + 1));
+warehouse.setWarehouseCode(String.format("WH-%04d", i + 1));
+warehouse.setWarehouseType(WarehouseType.values()[i % WarehouseType.values().length]);
+warehouses.add(warehouse);
+}
+
+List<User> users = new ArrayList<>();
+for (int i = 0; i < 5000; i++) {
+User user = new User();
+user.setId((long) i + 1);
+user.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+user.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+user.setEmail("user" + (i + 1) + "@rangira.rw");
+user.setUserCode(String.format("USR-%05d", i + 1));
+user.setUserType(i % 2 == 0 ? UserType.FARMER : UserType.BUYER);
+users.add(user);
+}
+
+List<Inventory> inventories = new ArrayList<>(rows);
+for (int i = 0; i < rows; i++) {
+Inventory inventory = new Inventory();
+inventory.setId((long) i + 1);
+inventory.setInventoryCode(String.format("INV-%07d", i + 1));
+inventory.setCropType(cropTypes.get(random.nextInt(cropTypes.size())));
+inventory.setWarehouse(warehouses.get(random.nextInt(warehouses.size())));
+inventory.setFarmer(users.get(random.nextInt(users.size() / 2) * 2));
+inventory.setQualityGrade(GRADES[random.nextInt(GRADES.length)]);
+inventory.setNotes(NOTES[random.nextInt(NOTES.length)]);
+inventory.setQuantityKg(BigDecimal.valueOf(100 + random.nextInt(5000)));
+inventory.setRemainingQuantityKg(inventory.getQuantityKg());
+inventory.setStatus(InventoryStatus.values()[random.nextInt(InventoryStatus.values().length)]);
+inventories.add(inventory);
+}
+
+List<Transaction> transactions = new ArrayList<>(rows);
+for (int i = 0; i < rows; i++) {
+Inventory inventory = inventories.get(random.nextInt(rows));
+Transaction transaction = new Transaction();
+transaction.setId((long) i + 1);
+transaction.setTransactionCode(String.format("TXN-%07d", i + 1));
+transaction.setInventory(inventory);
+transaction.setSeller(inventory.getFarmer());
+transaction.setBuyer(users.get(random.nextInt(users.size() / 2) * 2 + 1));
+transaction.setQuantityKg(BigDecimal.valueOf(10 + random.nextInt(500)));
+transaction.setUnitPrice(inventory.getCropType().getPricePerKg());
+transaction.setTotalAmount(transaction.getQuantityKg().multiply(transaction.getUnitPrice()));
+transaction.setPaymentStatus(PaymentStatus.values()[random.nextInt(PaymentStatus.values().length)]);
+transaction.setDeliveryStatus(DeliveryStatus.values()[random.nextInt(DeliveryStatus.values().length)]);
+transaction.setTransactionDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i));
+transactions.add(transaction);
+}
+return new SyntheticGraph(inventories, transactions);
+}
+
+public List<Inventory> inventories() {
+return inventories;
+}
+
+public List<Transaction> transactions() {
+return transactions;
+}
+}
@@ -0,0 +1,66 @@
+package com.raf.service;
+
+import com.raf.benchmarks.SyntheticGraph;
+import com.raf.entity.Inventory;
+import com.raf.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.objenesis.SpringObjenesis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning one page of matched entities into the {@code Map} results
+ * returned by the search endpoints ({@code map*ToResult}). Independent of the
+ * table size, so it runs on a single page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResultMappingBenchmark {
+
+private List<Inventory> inventories;
+private List<Transaction> transactions;
+private DashboardSearchService dashboardSearch;
+
+@Setup(Level.Trial)
+public void setUp() {
+SyntheticGraph graph = SyntheticGraph.generate(SearchMatcherBenchmark.LIMIT);
+inventories = graph.inventories();
+transactions = graph.transactions();
+dashboardSearch = new SpringObjenesis().newInstance(DashboardSearchService.class);
+}
+
+@Benchmark
+public List<Map<String, Object>> mapInventoryPage() {
+List<Map<String, Object>> results = new ArrayList<>(inventories.size());
+for (Inventory inventory : inventories) {
+results.add(dashboardSearch.mapInventoryToResult(inventory));
+}
+return results;
+}
+
+@Benchmark
+public List<Map<String, Object>> mapTransactionPage() {
+List<Map<String, Object>> results = new ArrayList<>(transactions.size());
+for (Transaction transaction : transactions) {
+results.add(dashboardSearch.mapTransactionToResult(transaction));
+}
+return results;
+}
+}
@@ -0,0 +1,169 @@
+package com.raf.service;
+
+import com.raf.benchmarks.SyntheticGraph;
+import com.raf.entity.Inventory;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import com.raf.util.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Cost of one search leg over {@code rows} entities: the scan fallback that
+ * runs the {@link SearchMatchers} predicates until a page is full, against an
+ * {@link InvertedIndex} lookup of the same page. The scan is what every
+ * search pays while the index is disabled or still building. The
+ * {@code concatenating*} benchmarks keep the previous matcher, which joined
+ * and lower-cased all fields per row, as a baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SearchMatcherBenchmark {
+
+/** Page size of a search leg, as in {@code DashboardSearchService}. */
+static final int LIMIT = 50;
+
+@State(Scope.Benchmark)
+public static class Graph {
+
+@Param({"10000", "100000", "1000000"})
+public int rows;
+
+/** A frequent hit, a rare hit and a miss (which scans every row). */
+@Param({"maize", "fumigated", "zucchini"})
+public String term;
+
+List<Inventory> inventories;
+List<Transaction> transactions;
+
+@Setup(Level.Trial)
+public void setUp() {
+SyntheticGraph graph = SyntheticGraph.generate(rows);
+inventories = graph.inventories();
+transactions = graph.transactions();
+}
+}
+
+@State(Scope.Benchmark)
+public static class Indexes {
+
+InvertedIndex<Long> inventoryIndex;
+InvertedIndex<Long> transactionIndex;
+
+@Setup(Level.Trial)
+public void setUp(Graph graph) {
+inventoryIndex = new InvertedIndex<>();
+for (Inventory inventory : graph.inventories) {
+inventoryIndex.put(inventory.getId(), fields(inventory.getInventoryCode(),
+inventory.getCropType().getCropName(), inventory.getCropType().getCropCode(),
+inventory.getQualityGrade(), inventory.getNotes(), inventory.getStatus(),
+inventory.getWarehouse().getWarehouseName()), null);
+}
+transactionIndex = new InvertedIndex<>();
+for (Transaction transaction : graph.transactions) {
+transactionIndex.put(transaction.getId(), fields(transaction.getTransactionCode(),
+transaction.getPaymentStatus(), transaction.getDeliveryStatus(), transaction.getTotalAmount(),
+transaction.getInventory().getCropType().getCropName(),
+person(transaction.getBuyer()), person(transaction.getSeller())), null);
+}
+}
+
+private static String person(User user) {
+return user.getFirstName() + " " + user.getLastName() + " " + user.getEmail();
+}
+
+private static List<String> fields(Object... values) {
+return Arrays.stream(values)
+.filter(Objects::nonNull)
+.map(Object::toString)
+.collect(Collectors.toList());
+}
+}
+
+@Benchmark
+public List<Inventory> scanInventories(Graph graph) {
+return scan(graph.inventories, SearchMatchers.inventories(graph.term));
+}
+
+@Benchmark
+public List<Transaction> scanTransactions(Graph graph) {
+return scan(graph.transactions, SearchMatchers.transactions(graph.term));
+}
+
+@Benchmark
+public List<Inventory> concatenatingScanInventories(Graph graph) {
+String term = graph.term;
+return scan(graph.inventories, inventory -> concatenatedText(inventory).toLowerCase().contains(term));
+}
+
+@Benchmark
+public List<Transaction> concatenatingScanTransactions(Graph graph) {
+String term = graph.term;
+return scan(graph.transactions, transaction -> concatenatedText(transaction).toLowerCase().contains(term));
+}
+
+@Benchmark
+public List<Long> indexedInventories(Graph graph, Indexes indexes) {
+return indexes.inventoryIndex.search(graph.term, null, LIMIT);
+}
+
+@Benchmark
+public List<Long> indexedTransactions(Graph graph, Indexes indexes) {
+return indexes.transactionIndex.search(graph.term, null, LIMIT);
+}
+
+private static <T> List<T> scan(List<T> rows, Predicate<T> matches) {
+List<T> page = new ArrayList<>(LIMIT);
+for (T row : rows) {
+if (matches.test(row) && page.add(row) && page.size() == LIMIT) {
+break;
+}
+}
+return page;
+}
+
+private static String concatenatedText(Inventory inventory) {
+return (inventory.getInventoryCode() != null ? inventory.getInventoryCode() : "") +
+" " + (inventory.getCropType() != null && inventory.getCropType().getCropName() != null ? inventory.getCropType().getCropName() : "") +
+" " + (inventory.getCropType() != null && inventory.getCropType().getCropCode() != null ? inventory.getCropType().getCropCode() : "") +
+" " + (inventory.getQualityGrade() != null ? inventory.getQualityGrade() : "") +
+" " + (inventory.getNotes() != null ? inventory.getNotes() : "") +
+" " + (inventory.getStatus() != null ? inventory.getStatus().toString() : "") +
+" " + (inventory.getWarehouse() != null && inventory.getWarehouse().getWarehouseName() != null ? inventory.getWarehouse().getWarehouseName() : "");
+}
+
+private static String concatenatedText(Transaction transaction) {
+return (transaction.getTransactionCode() != null ? transaction.getTransactionCode() : "") +
+" " + (transaction.getPaymentStatus() != null ? transaction.getPaymentStatus().toString() : "") +
+" " + (transaction.getDeliveryStatus() != null ? transaction.getDeliveryStatus().toString() : "") +
+" " + (transaction.getTotalAmount() != null ? transaction.getTotalAmount().toString() : "") +
+" " + (transaction.getInventory() != null && transaction.getInventory().getCropType() != null && transaction.getInventory().getCropType().getCropName() != null ? transaction.getInventory().getCropType().getCropName() : "") +
+" " + (transaction.getBuyer() != null && transaction.getBuyer().getFirstName() != null ? transaction.getBuyer().getFirstName() : "") +
+" " + (transaction.getBuyer() != null && transaction.getBuyer().getLastName() != null ? transaction.getBuyer().getLastName() : "") +
+" " + (transaction.getBuyer() != null && transaction.getBuyer().getEmail() != null ? transaction.getBuyer().getEmail() : "") +
+" " + (transaction.getSeller() != null && transaction.getSeller().getFirstName() != null ? transaction.getSeller().getFirstName() : "") +
+" " + (transaction.getSeller() != null && transaction.getSeller().getLastName() != null ? transaction.getSeller().getLastName() : "") +
+" " + (transaction.getSeller() != null && transaction.getSeller().getEmail() != null ? transaction.getSeller().getEmail() : "");
+}
+}
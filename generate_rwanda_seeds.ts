@@ -2,8 +2,7 @@ import fs from 'fs';
 import { Rwanda } from './data-Rwanda/provinces/index';
 
 const generateSeeds = () => {
-  const BATCH_SIZE = 1000;
-  let sql = 'TRUNCATE TABLE location CASCADE;\n';
+  let tsv = 'code\tprovince\tdistrict\tsector\tcell\tvillage\n';
   const records: string[] = [];
 
   const addRecord = (province: string, district: string, sector: string, cell: string, village: string) => {
@@ -11,15 +10,9 @@ const generateSeeds = () => {
     const baseCode = `VIL-${village}-${cell}-${sector}`.toUpperCase().replace(/\s+/g, '');
     let code = baseCode.substring(0, 100);
     
-    // Quick sanitization for SQL
-    const p = province.replace(/'/g, "''");
-    const d = district.replace(/'/g, "''");
-    const s = sector.replace(/'/g, "''");
-    const c = cell.replace(/'/g, "''");
-    const v = village.replace(/'/g, "''");
-    const cd = code.replace(/'/g, "''");
-    
-    records.push(`(gen_random_uuid(), '${cd}', '${p}', '${d}', '${s}', '${c}', '${v}', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)`);
+    // Tabs, newlines and backslashes would break the TSV (COPY text format) columns
+    const clean = (value: string) => value.replace(/[\t\r\n\\]+/g, ' ');
+    records.push([code, province, district, sector, cell, village].map(clean).join('\t'));
   };
 
   const provinces = Object.keys(Rwanda);
@@ -59,15 +52,10 @@ const generateSeeds = () => {
     }
   }
 
-  // Insert in batches
-  for (let i = 0; i < records.length; i += BATCH_SIZE) {
-    const batch = records.slice(i, i + BATCH_SIZE);
-    sql += `INSERT INTO location (id, code, province, district, sector, cell, village, created_at, updated_at) VALUES\n`;
-    sql += batch.join(',\n') + ';\n';
-  }
+  tsv += records.join('\n') + '\n';
 
-  fs.writeFileSync('seeds.sql', sql);
-  console.log(`Generated seeds.sql with ${records.length} locations`);
+  fs.writeFileSync('src/main/resources/locations.tsv', tsv);
+  console.log(`Generated locations.tsv with ${records.length} locations`);
 };
 
 generateSeeds();
@@ -4,8 +4,7 @@ const fs = require('fs');
 const { v4: uuidv4 } = require('./frontend/node_modules/uuid');
 
 const generateSeeds = () => {
-  const BATCH_SIZE = 1000;
-  let sql = 'TRUNCATE TABLE location CASCADE;\n';
+  let tsv = 'code\tprovince\tdistrict\tsector\tcell\tvillage\n';
   const records = [];
 
   const addRecord = (province, district, sector, cell, village) => {
@@ -13,19 +12,10 @@ const generateSeeds = () => {
     const baseCode = `VIL-${village}-${cell}-${sector}`.toUpperCase().replace(/\s+/g, '');
     let code = baseCode.substring(0, 100);
     
-    // Quick sanitization
-    const p = province.replace(/'/g, "''");
-    const d = district.replace(/'/g, "''");
-    const s = sector.replace(/'/g, "''");
-    const c = cell.replace(/'/g, "''");
-    const v = village.replace(/'/g, "''");
-    const cd = code.replace(/'/g, "''");
+    // Tabs, newlines and backslashes would break the TSV (COPY text format) columns
+    const clean = (value) => value.replace(/[\t\r\n\\]+/g, ' ');
     
-    // Generating UUID on the app side isn't strictly necessary if backend creates it,
-    // but for SQL inserts without a default function we need md5 or we can use gen_random_uuid().
-    // We'll use gen_random_uuid().
-    
-    records.push(`(gen_random_uuid(), '${cd}', '${p}', '${d}', '${s}', '${c}', '${v}', CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)`);
+    records.push([code, province, district, sector, cell, village].map(clean).join('\t'));
   };
 
   const provinces = Provinces();
@@ -52,15 +42,10 @@ const generateSeeds = () => {
     }
   }
 
-  // Insert in batches
-  for (let i = 0; i < records.length; i += BATCH_SIZE) {
-    const batch = records.slice(i, i + BATCH_SIZE);
-    sql += `INSERT INTO location (id, code, province, district, sector, cell, village, created_at, updated_at) VALUES\n`;
-    sql += batch.join(',\n') + ';\n';
-  }
+  tsv += records.join('\n') + '\n';
 
-  fs.writeFileSync('seeds.sql', sql);
-  console.log(`Generated seeds.sql with ${records.length} locations`);
+  fs.writeFileSync('src/main/resources/locations.tsv', tsv);
+  console.log(`Generated locations.tsv with ${records.length} locations`);
 };
 
 generateSeeds();
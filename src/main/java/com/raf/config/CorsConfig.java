@@ -37,7 +37,7 @@ config.setAllowedOrigins(origins);
 config.setAllowedHeaders(Arrays.asList(
 "Origin", "Content-Type", "Accept", "Authorization",
 "X-Requested-With", "Access-Control-Request-Method",
-"Access-Control-Request-Headers"
+"Access-Control-Request-Headers", "Idempotency-Key"
 ));
 
 
@@ -45,7 +45,7 @@ config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "PATCH", "DELETE",
 
 
 config.setExposedHeaders(Arrays.asList(
-"Authorization", "Content-Type", "X-Total-Count"
+"Authorization", "Content-Type", "X-Total-Count", "Idempotent-Replayed"
 ));
 
 
@@ -54,7 +54,7 @@ private final WarehouseAccessRepository warehouseAccessRepository;
 private final InventoryRepository inventoryRepository;
 private final TransactionRepository transactionRepository;
 private final PasswordEncoder passwordEncoder;
-private final javax.sql.DataSource dataSource;
+private final LocationSeedLoader locationSeedLoader;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -81,9 +81,9 @@ log.info("📍 [1/7] Seeding locations...");
 seedLocationsIfEmpty();
 long locationRows = locationRepository.count();
 if (locationRows == 0) {
-log.error("❌ Location table is empty — province dropdowns will be empty. Check PostgreSQL and seeds.sql errors above.");
+log.error("❌ Location table is empty — province dropdowns will be empty. Check PostgreSQL and locations.tsv errors above.");
 } else if (locationRows < 14800) {
-log.warn("⚠️ Location count is {} (expected ~14837). Address cascades may be incomplete; re-run or restore seeds.sql.", locationRows);
+log.warn("⚠️ Location count is {} (expected ~14837). Address cascades may be incomplete; re-run or restore locations.tsv.", locationRows);
 }
 log.info("   ✅ Locations seeding completed");
 
@@ -229,17 +229,10 @@ log.warn("Continuing with next seeding operation...");
 
 private void seedLocationsIfEmpty() {
 safeExecute("seedLocationsIfEmpty", () -> {
-if (locationRepository.count() < 14800) {
-log.info("Location table dataset incomplete (expected ~14837). Executing seeds.sql...");
-try (java.sql.Connection connection = dataSource.getConnection()) {
-org.springframework.core.io.Resource resource = new org.springframework.core.io.ClassPathResource("seeds.sql");
-org.springframework.jdbc.datasource.init.ScriptUtils.executeSqlScript(connection, resource);
-log.info("seeds.sql executed successfully.");
+try {
+locationSeedLoader.loadIfNeeded();
 } catch (Exception e) {
-log.error("Failed to execute seeds.sql", e);
-}
-} else {
-log.info("Locations already exist in database (count: {}), skipping external seeds application.", locationRepository.count());
+log.error("Failed to load {}", LocationSeedLoader.RESOURCE, e);
 }
 });
 }
@@ -0,0 +1,30 @@
+package com.raf.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Worker pool finance exports stream on, kept apart from the MVC task executor
+ * so long downloads cannot starve other async requests. There is one thread per
+ * allowed concurrent export; admission is decided before an export starts, by
+ * {@link com.raf.service.ExportRequestLimiter}, and the small queue only covers
+ * a thread that has freed its slot but not yet gone back to the pool.
+ */
+@Configuration
+public class ExportExecutorConfig {
+
+@Bean(name = "exportExecutor")
+public ThreadPoolTaskExecutor exportExecutor(@Value("${app.export.max-concurrent:2}") int maxConcurrent) {
+ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+executor.setCorePoolSize(maxConcurrent);
+executor.setMaxPoolSize(maxConcurrent);
+executor.setQueueCapacity(maxConcurrent);
+executor.setThreadNamePrefix("export-");
+executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+return executor;
+}
+}
@@ -0,0 +1,216 @@
+package com.raf.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Loads the Rwanda location dataset from {@code locations.tsv}
+ * (code, province, district, sector, cell, village; one header line).
+ * On PostgreSQL the file is streamed through {@code COPY FROM STDIN} into a
+ * temporary table and merged with {@code ON CONFLICT (code) DO NOTHING};
+ * other databases (H2 in tests) get JDBC batch inserts of the missing codes.
+ * Existing rows are never deleted, so users and warehouses keep their locations.
+ * The SHA-256 of the file is stored in {@code seed_checksum} after a load, and a
+ * restart with the same file and a complete table skips the work entirely.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LocationSeedLoader {
+
+static final String RESOURCE = "locations.tsv";
+private static final String SEED_NAME = "location";
+private static final int BATCH_SIZE = 1000;
+
+private final DataSource dataSource;
+
+/**
+ * @return The number of rows inserted, 0 when the dataset was already loaded.
+ */
+public int loadIfNeeded() throws IOException, SQLException {
+Resource resource = new ClassPathResource(RESOURCE);
+SeedFile seed = inspect(resource);
+
+try (Connection connection = dataSource.getConnection()) {
+boolean autoCommit = connection.getAutoCommit();
+connection.setAutoCommit(false);
+try {
+ensureChecksumTable(connection);
+long existing = countLocations(connection);
+if (seed.checksum().equals(storedChecksum(connection)) && existing >= seed.rows()) {
+connection.commit();
+log.info("Location seed {} already loaded ({} rows, checksum {}), skipping", RESOURCE, existing, seed.checksum().substring(0, 12));
+return 0;
+}
+
+long started = System.currentTimeMillis();
+boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+int inserted = postgres ? copyIn(connection, resource) : batchInsert(connection, resource);
+saveChecksum(connection, seed);
+connection.commit();
+log.info("Loaded {} new locations from {} in {} ms using {}", inserted, RESOURCE,
+System.currentTimeMillis() - started, postgres ? "COPY" : "JDBC batch");
+return inserted;
+} catch (IOException | SQLException | RuntimeException e) {
+connection.rollback();
+throw e;
+} finally {
+connection.setAutoCommit(autoCommit);
+}
+}
+}
+
+private int copyIn(Connection connection, Resource resource) throws IOException, SQLException {
+try (Statement statement = connection.createStatement()) {
+statement.execute("CREATE TEMP TABLE location_seed (code varchar(100), province varchar(100), district varchar(100), " +
+"sector varchar(100), cell varchar(100), village varchar(100)) ON COMMIT DROP");
+}
+CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+try (BufferedReader reader = open(resource)) {
+reader.readLine();
+copyManager.copyIn("COPY location_seed (code, province, district, sector, cell, village) FROM STDIN", reader);
+}
+try (Statement statement = connection.createStatement()) {
+return statement.executeUpdate("INSERT INTO \"location\" (\"id\", \"code\", \"province\", \"district\", \"sector\", \"cell\", \"village\", \"created_at\", \"updated_at\") " +
+"SELECT gen_random_uuid(), code, province, district, sector, cell, village, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM location_seed " +
+"ON CONFLICT (\"code\") DO NOTHING");
+}
+}
+
+private int batchInsert(Connection connection, Resource resource) throws IOException, SQLException {
+Set<String> existingCodes = new HashSet<>();
+try (Statement statement = connection.createStatement();
+ResultSet rows = statement.executeQuery("SELECT \"code\" FROM \"location\"")) {
+while (rows.next()) {
+existingCodes.add(rows.getString(1));
+}
+}
+
+int inserted = 0;
+Timestamp now = new Timestamp(System.currentTimeMillis());
+try (BufferedReader reader = open(resource);
+PreparedStatement insert = connection.prepareStatement("INSERT INTO \"location\" (\"id\", \"code\", \"province\", \"district\", " +
+"\"sector\", \"cell\", \"village\", \"created_at\", \"updated_at\") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+reader.readLine();
+int pending = 0;
+String line;
+while ((line = reader.readLine()) != null) {
+String[] fields = line.split("\t", -1);
+if (fields.length != 6 || !existingCodes.add(fields[0])) {
+continue;
+}
+insert.setObject(1, UUID.randomUUID());
+for (int i = 0; i < 6; i++) {
+insert.setString(i + 2, fields[i]);
+}
+insert.setTimestamp(8, now);
+insert.setTimestamp(9, now);
+insert.addBatch();
+if (++pending == BATCH_SIZE) {
+insert.executeBatch();
+inserted += pending;
+pending = 0;
+}
+}
+if (pending > 0) {
+insert.executeBatch();
+inserted += pending;
+}
+}
+return inserted;
+}
+
+/**
+ * Reads the file once to get its checksum and data row count.
+ */
+private SeedFile inspect(Resource resource) throws IOException {
+MessageDigest digest;
+try {
+digest = MessageDigest.getInstance("SHA-256");
+} catch (NoSuchAlgorithmException e) {
+throw new IllegalStateException(e);
+}
+int lines = 0;
+try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+byte[] buffer = new byte[64 * 1024];
+int read;
+while ((read = in.read(buffer)) > 0) {
+for (int i = 0; i < read; i++) {
+if (buffer[i] == '\n') {
+lines++;
+}
+}
+}
+}
+return new SeedFile(HexFormat.of().formatHex(digest.digest()), Math.max(0, lines - 1));
+}
+
+private BufferedReader open(Resource resource) throws IOException {
+return new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8), 64 * 1024);
+}
+
+private void ensureChecksumTable(Connection connection) throws SQLException {
+try (Statement statement = connection.createStatement()) {
+statement.execute("CREATE TABLE IF NOT EXISTS \"seed_checksum\" (\"name\" varchar(100) PRIMARY KEY, " +
+"\"checksum\" varchar(64) NOT NULL, \"row_count\" integer NOT NULL, \"loaded_at\" timestamp NOT NULL)");
+}
+}
+
+private long countLocations(Connection connection) throws SQLException {
+try (Statement statement = connection.createStatement();
+ResultSet rows = statement.executeQuery("SELECT COUNT(*) FROM \"location\"")) {
+return rows.next() ? rows.getLong(1) : 0;
+}
+}
+
+private String storedChecksum(Connection connection) throws SQLException {
+try (PreparedStatement select = connection.prepareStatement("SELECT \"checksum\" FROM \"seed_checksum\" WHERE \"name\" = ?")) {
+select.setString(1, SEED_NAME);
+try (ResultSet rows = select.executeQuery()) {
+return rows.next() ? rows.getString(1) : null;
+}
+}
+}
+
+private void saveChecksum(Connection connection, SeedFile seed) throws SQLException {
+try (PreparedStatement delete = connection.prepareStatement("DELETE FROM \"seed_checksum\" WHERE \"name\" = ?")) {
+delete.setString(1, SEED_NAME);
+delete.executeUpdate();
+}
+try (PreparedStatement insert = connection.prepareStatement("INSERT INTO \"seed_checksum\" (\"name\", \"checksum\", \"row_count\", \"loaded_at\") VALUES (?, ?, ?, ?)")) {
+insert.setString(1, SEED_NAME);
+insert.setString(2, seed.checksum());
+insert.setInt(3, seed.rows());
+insert.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+insert.executeUpdate();
+}
+}
+
+private record SeedFile(String checksum, int rows) {
+}
+}
@@ -0,0 +1,63 @@
+package com.raf.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Installs pg_trgm and the trigram GIN indexes behind fuzzy location search
+ * when {@code app.location.search.mode=trigram} and the database is PostgreSQL.
+ * Village, cell and sector carry almost all of the 14k+ distinct names; province
+ * and district are indexed too so every level of the ranked query uses an index.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(111)
+public class LocationTrigramInitializer implements CommandLineRunner {
+
+private static final String[] COLUMNS = {"village", "cell", "sector", "district", "province"};
+
+private final JdbcTemplate jdbcTemplate;
+
+@Value("${app.location.search.mode:trigram}")
+private String locationSearchMode;
+
+private volatile boolean ready;
+
+/**
+ * @return true once pg_trgm and the trigram indexes exist.
+ */
+public boolean isReady() {
+return ready;
+}
+
+@Override
+public void run(String... args) {
+if (!"trigram".equalsIgnoreCase(locationSearchMode)) {
+return;
+}
+try {
+String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+connection.getMetaData().getDatabaseProductName());
+if (product == null || !product.toLowerCase().contains("postgres")) {
+log.info("Trigram location search needs PostgreSQL (found {}); using the in-memory matcher", product);
+return;
+}
+
+jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+for (String column : COLUMNS) {
+jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_location_" + column + "_trgm ON location USING GIN (" + column + " gin_trgm_ops)");
+}
+ready = true;
+log.info("Trigram indexes ready on location ({})", String.join(", ", COLUMNS));
+} catch (Exception e) {
+log.warn("Failed to prepare trigram location search: {}. Using the in-memory matcher.", e.getMessage());
+}
+}
+}
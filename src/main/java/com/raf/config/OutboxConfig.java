@@ -0,0 +1,30 @@
+package com.raf.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded worker pool the outbox dispatcher sends messages on. The pool size
+ * caps how many messages are in flight, and how many database connections the
+ * dispatcher holds, however many events pile up.
+ */
+@Configuration
+public class OutboxConfig {
+
+@Bean(name = "outboxExecutor")
+public ThreadPoolTaskExecutor outboxExecutor(
+@Value("${app.outbox.threads:4}") int threads,
+@Value("${app.outbox.batch-size:50}") int batchSize) {
+ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+executor.setCorePoolSize(threads);
+executor.setMaxPoolSize(threads);
+executor.setQueueCapacity(batchSize);
+executor.setThreadNamePrefix("outbox-");
+executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+return executor;
+}
+}
@@ -0,0 +1,32 @@
+package com.raf.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Bounded worker pool used to run the per-entity dashboard search legs in parallel.
+ * The pool size also caps how many database connections search can hold at once.
+ * Declaring it makes Boot skip its default task executor unless
+ * {@code spring.task.execution.mode=force} is set, which application.properties does.
+ */
+@Configuration
+public class SearchExecutorConfig {
+
+@Bean(name = "searchExecutor")
+public ThreadPoolTaskExecutor searchExecutor(
+@Value("${app.search.fanout.threads:8}") int threads,
+@Value("${app.search.fanout.queue-capacity:200}") int queueCapacity) {
+ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+executor.setCorePoolSize(threads);
+executor.setMaxPoolSize(threads);
+executor.setQueueCapacity(queueCapacity);
+executor.setThreadNamePrefix("search-leg-");
+// Refuse rather than run on the request thread, which would ignore the latency budget
+executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+return executor;
+}
+}
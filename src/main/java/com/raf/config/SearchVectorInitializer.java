@@ -0,0 +1,69 @@
+package com.raf.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the generated tsvector columns and GIN indexes used by the full-text
+ * public search mode. Hibernate's ddl-auto cannot express generated columns, so
+ * they are added here on PostgreSQL when {@code app.search.public.mode=fts}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(110)
+public class SearchVectorInitializer implements CommandLineRunner {
+
+private static final String[][] SEARCH_VECTORS = {
+{"crop_type", "coalesce(crop_name, '') || ' ' || coalesce(crop_code, '') || ' ' || coalesce(category, '') || ' ' || coalesce(description, '')"},
+{"storage_warehouse", "coalesce(warehouse_name, '') || ' ' || coalesce(warehouse_code, '') || ' ' || coalesce(warehouse_type, '') || ' ' || coalesce(status, '')"},
+{"location", "coalesce(province, '') || ' ' || coalesce(district, '') || ' ' || coalesce(sector, '') || ' ' || coalesce(cell, '') || ' ' || coalesce(village, '') || ' ' || coalesce(code, '')"},
+{"inventory", "coalesce(inventory_code, '') || ' ' || coalesce(quality_grade, '') || ' ' || coalesce(notes, '') || ' ' || coalesce(status, '')"}
+};
+
+private final JdbcTemplate jdbcTemplate;
+
+@Value("${app.search.public.mode:java}")
+private String publicSearchMode;
+
+private volatile boolean ready;
+
+/**
+ * @return true once the search vectors exist and full-text queries can be issued.
+ */
+public boolean isReady() {
+return ready;
+}
+
+@Override
+public void run(String... args) {
+if (!"fts".equalsIgnoreCase(publicSearchMode)) {
+return;
+}
+try {
+String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+connection.getMetaData().getDatabaseProductName());
+if (product == null || !product.toLowerCase().contains("postgres")) {
+log.warn("Full-text public search needs PostgreSQL (found {}); falling back to the Java matcher", product);
+return;
+}
+
+for (String[] vector : SEARCH_VECTORS) {
+String table = vector[0];
+jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN IF NOT EXISTS search_vector tsvector " +
+"GENERATED ALWAYS AS (to_tsvector('simple'::regconfig, " + vector[1] + ")) STORED");
+jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_" + table + "_search_vector ON " + table + " USING GIN (search_vector)");
+}
+ready = true;
+log.info("Full-text search vectors ready on {} tables", SEARCH_VECTORS.length);
+} catch (Exception e) {
+log.warn("Failed to prepare full-text search vectors: {}. Public search keeps using the Java matcher.", e.getMessage());
+}
+}
+}
@@ -104,7 +104,8 @@ org.springframework.http.HttpMethod.GET,
 
 .requestMatchers(
 org.springframework.http.HttpMethod.GET,
-"/api/public/search/**"
+"/api/public/search/**",
+"/api/autocomplete/**"
 ).permitAll()
 
 .requestMatchers(
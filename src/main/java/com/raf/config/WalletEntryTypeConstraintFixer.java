@@ -0,0 +1,40 @@
+package com.raf.config;
+
+import com.raf.enums.WalletEntryType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Rewrites the check constraint Hibernate put on the ledger's entry type when
+ * the table was created; schema updates never widen it, so databases created
+ * before REFUND existed would reject refunds.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(100)
+public class WalletEntryTypeConstraintFixer implements CommandLineRunner {
+
+private final JdbcTemplate jdbcTemplate;
+
+@Override
+public void run(String... args) {
+String types = Arrays.stream(WalletEntryType.values())
+.map(type -> "'" + type.name() + "'")
+.collect(Collectors.joining(", "));
+try {
+jdbcTemplate.execute("ALTER TABLE \"wallet_ledger_entry\" DROP CONSTRAINT IF EXISTS \"wallet_ledger_entry_entry_type_check\"");
+jdbcTemplate.execute("ALTER TABLE \"wallet_ledger_entry\" ADD CONSTRAINT \"wallet_ledger_entry_entry_type_check\" CHECK (\"entry_type\" IN (" + types + "))");
+log.info("Updated wallet_ledger_entry_entry_type_check constraint with entry types {}", types);
+} catch (Exception e) {
+log.warn("Failed to update wallet_ledger_entry_entry_type_check constraint: {}", e.getMessage());
+}
+}
+}
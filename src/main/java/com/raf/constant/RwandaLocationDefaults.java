@@ -3,7 +3,7 @@ package com.raf.constant;
 import java.util.List;
 
 /**
- * Fallback province names aligned with {@code seeds.sql} / {@code generate_seeds.js} when the DB is empty.
+ * Fallback province names aligned with {@code locations.tsv} / {@code generate_seeds.js} when the DB is empty.
  */
 public final class RwandaLocationDefaults {
 
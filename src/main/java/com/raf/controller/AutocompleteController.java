@@ -0,0 +1,29 @@
+package com.raf.controller;
+
+import com.raf.dto.AutocompleteSuggestion;
+import com.raf.service.AutocompleteService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/autocomplete")
+@RequiredArgsConstructor
+@Tag(name = "Autocomplete", description = "Search box completions for crop types, warehouses and locations")
+public class AutocompleteController {
+
+private final AutocompleteService autocompleteService;
+
+@GetMapping
+@Operation(summary = "Complete a search prefix", description = "Top completions from crop type, warehouse and location names, most stocked first. types is a comma-separated subset of crop_type, warehouse, location.")
+public ResponseEntity<List<AutocompleteSuggestion>> complete(
+@RequestParam String q,
+@RequestParam(defaultValue = "10") int limit,
+@RequestParam(required = false) List<String> types) {
+return ResponseEntity.ok(autocompleteService.complete(q, limit, types));
+}
+}
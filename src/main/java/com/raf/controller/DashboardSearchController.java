@@ -68,6 +68,45 @@ return ResponseEntity.status(500).body(errorResponse);
 }
 }
 
+@GetMapping("/cursor")
+@Operation(summary = "Search dashboard data with a cursor", description = "Cursor-paged dashboard search. Pass the nextCursor of the previous response to get the following page.")
+public ResponseEntity<Map<String, Object>> searchWithCursor(
+@RequestParam String q,
+@RequestParam(required = false) String cursor,
+@RequestParam(defaultValue = "10") int size,
+HttpServletRequest request) {
+
+try {
+Long userId = getCurrentUserId(request);
+User user = userService.getUserById(userId);
+
+if (user == null) {
+log.error("User not found for ID: {}", userId);
+return ResponseEntity.status(401).build();
+}
+
+return ResponseEntity.ok(dashboardSearchService.searchWithCursor(
+q, userId, user.getUserType(), cursor, size));
+} catch (IllegalArgumentException e) {
+Map<String, Object> errorResponse = new HashMap<>();
+errorResponse.put("error", e.getMessage());
+return ResponseEntity.badRequest().body(errorResponse);
+} catch (RuntimeException e) {
+String errorMsg = e.getMessage();
+if (errorMsg != null && (errorMsg.contains("Authorization") ||
+errorMsg.contains("token") ||
+errorMsg.contains("Unable to extract") ||
+errorMsg.contains("User not found"))) {
+log.error("Authentication error in dashboard cursor search: {}", errorMsg);
+return ResponseEntity.status(401).build();
+}
+log.error("Error in dashboard cursor search: {}", errorMsg, e);
+Map<String, Object> errorResponse = new HashMap<>();
+errorResponse.put("error", "Search failed: " + (errorMsg != null ? errorMsg : "Internal server error"));
+return ResponseEntity.status(500).body(errorResponse);
+}
+}
+
 private Long getCurrentUserId(HttpServletRequest request) {
 try {
 String authHeader = request.getHeader("Authorization");
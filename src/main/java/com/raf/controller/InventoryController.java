@@ -1,9 +1,14 @@
 package com.raf.controller;
 
+import com.raf.dto.InventoryImportResult;
 import com.raf.dto.InventoryRequest;
+import com.raf.dto.MarketplaceListing;
 import com.raf.entity.Inventory;
+import com.raf.enums.InventoryImportFormat;
 import com.raf.enums.InventoryStatus;
+import com.raf.service.InventoryImportService;
 import com.raf.service.InventoryService;
+import com.raf.service.MarketplaceListings;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -12,12 +17,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 /**
  * REST Controller for managing crop inventory operations.
@@ -32,8 +41,10 @@ import java.util.List;
 @Tag(name = "Inventory", description = "Inventory management APIs")
 public class InventoryController {
 private final InventoryService inventoryService;
+private final InventoryImportService inventoryImportService;
 private final com.raf.util.JwtUtil jwtUtil;
 private final com.raf.service.UserService userService;
+private final MarketplaceListings marketplaceListings;
 
 @PostMapping
 @Operation(summary = "Create new inventory - use InventoryRequest with IDs", description = "FARMER ONLY - Only farmers can create inventory")
@@ -77,7 +88,7 @@ if (page != null && size != null) {
 PageRequest pageRequest = PageRequest.of(page, size, Sort.by("storageDate").descending());
 
 if (status != null) {
-Page<Inventory> inventories = inventoryService.getInventoriesByStatus(status, pageRequest);
+Page<Inventory> inventories = inventoryService.getInventoriesPaginated(status, false, pageRequest);
 return ResponseEntity.ok(inventories);
 } else if (farmerId != null) {
 Page<Inventory> inventories = inventoryService.getInventoriesByFarmer(farmerId, pageRequest);
@@ -86,7 +97,7 @@ return ResponseEntity.ok(inventories);
 Page<Inventory> inventories = inventoryService.getInventoriesByWarehouse(warehouseId, pageRequest);
 return ResponseEntity.ok(inventories);
 } else {
-Page<Inventory> inventories = inventoryService.getInventoriesPaginated(pageRequest);
+Page<Inventory> inventories = inventoryService.getInventoriesPaginated(null, false, pageRequest);
 return ResponseEntity.ok(inventories);
 }
 }
@@ -133,17 +144,46 @@ return ResponseEntity.ok(inventories);
 public ResponseEntity<Page<Inventory>> getInventoriesPaginated(
 @RequestParam(defaultValue = "0") int page,
 @RequestParam(defaultValue = "10") int size,
-@RequestParam(required = false) InventoryStatus status) {
+@RequestParam(required = false) InventoryStatus status,
+@RequestParam(defaultValue = "false") boolean inStock) {
 
 PageRequest pageRequest = PageRequest.of(page, size, Sort.by("storageDate").descending());
-
-if (status != null) {
-Page<Inventory> inventories = inventoryService.getInventoriesByStatus(status, pageRequest);
+Page<Inventory> inventories = inventoryService.getInventoriesPaginated(status, inStock, pageRequest);
 return ResponseEntity.ok(inventories);
 }
 
-Page<Inventory> inventories = inventoryService.getInventoriesPaginated(pageRequest);
-return ResponseEntity.ok(inventories);
+@GetMapping("/cursor")
+@Operation(summary = "Get inventories with a cursor", description = "Keyset-paged listing, newest first. Pass the nextCursor of the previous response to get the following page.")
+public ResponseEntity<Map<String, Object>> getInventoriesWithCursor(
+@RequestParam(required = false) String cursor,
+@RequestParam(defaultValue = "20") int size,
+@RequestParam(required = false) InventoryStatus status,
+@RequestParam(required = false) Long warehouseId,
+@RequestParam(required = false) Long storekeeperId,
+@RequestParam(defaultValue = "false") boolean inStock) {
+
+return ResponseEntity.ok(inventoryService.getInventoriesAfter(cursor, size, status, warehouseId, storekeeperId, inStock));
+}
+
+@GetMapping("/marketplace")
+@Operation(summary = "Get the buyer marketplace", description = "Stored lots with stock left, served from a precomputed snapshot. Send the ETag back in If-None-Match to get 304 Not Modified while nothing has changed.")
+public ResponseEntity<List<MarketplaceListing>> getMarketplace(
+@RequestParam(required = false) Long cropTypeId,
+@RequestParam(required = false) String district) {
+
+MarketplaceListings.Snapshot snapshot = marketplaceListings.current();
+List<MarketplaceListing> listings = snapshot.listings();
+if (cropTypeId != null || district != null) {
+listings = listings.stream()
+.filter(listing -> cropTypeId == null || cropTypeId.equals(listing.getCropTypeId()))
+.filter(listing -> district == null || district.equalsIgnoreCase(listing.getDistrict()))
+.toList();
+}
+// A matching If-None-Match turns this into 304 Not Modified.
+return ResponseEntity.ok()
+.eTag(snapshot.etag())
+.cacheControl(CacheControl.noCache())
+.body(listings);
 }
 
 @GetMapping("/available")
@@ -320,6 +360,31 @@ log.info("✅ API Response: Successfully created inventory {} by storekeeper {}"
 return new ResponseEntity<>(createdInventory, HttpStatus.CREATED);
 }
 
+@PostMapping(value = "/storekeeper/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+@Operation(summary = "Bulk import inventory by storekeeper", description = "Storekeeper only - Import lots into assigned warehouses from a CSV file with a header row or an NDJSON file (one InventoryRequest per line). The format follows the file extension unless given. Returns a per-row error report.")
+public ResponseEntity<?> importInventoriesByStorekeeper(
+@RequestParam("file") MultipartFile file,
+@RequestParam(required = false) InventoryImportFormat format,
+jakarta.servlet.http.HttpServletRequest httpRequest) {
+Long storekeeperId = getCurrentUserId(httpRequest);
+if (format == null) {
+format = InventoryImportFormat.detect(file.getOriginalFilename(), file.getContentType());
+}
+if (file.isEmpty() || format == null) {
+return ResponseEntity.badRequest().body(Map.of("error", "A non-empty .csv or .ndjson file is required"));
+}
+log.info("🌐 API Request: POST /api/inventories/storekeeper/import - Storekeeper {} importing {} ({} bytes)",
+storekeeperId, format, file.getSize());
+try (java.io.InputStream input = file.getInputStream()) {
+InventoryImportResult result = inventoryImportService.importInventories(input, format, storekeeperId);
+log.info("✅ API Response: Storekeeper {} imported {} lots, {} rows rejected",
+storekeeperId, result.getImportedCount(), result.getFailedCount());
+return ResponseEntity.ok(result);
+} catch (IllegalArgumentException | java.io.IOException e) {
+return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+}
+}
+
 @DeleteMapping("/{id}")
 @Operation(summary = "Delete inventory")
 public ResponseEntity<Void> deleteInventory(@PathVariable Long id) {
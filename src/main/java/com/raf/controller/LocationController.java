@@ -1,5 +1,6 @@
 package com.raf.controller;
 
+import com.raf.dto.LocationMatch;
 import com.raf.entity.Location;
 import com.raf.service.LocationService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -131,5 +132,11 @@ return ResponseEntity.ok(locationService.getVillages(province, district, sector,
 public ResponseEntity<List<Location>> searchLocations(@RequestParam String name) {
 return ResponseEntity.ok(locationService.searchByName(name));
 }
+
+@GetMapping("/search/fuzzy")
+@Operation(summary = "Fuzzy location search", description = "Typo-tolerant search across provinces, districts, sectors, cells and villages, ranked by trigram similarity. Village hits carry their code; GET /api/locations/code/{code} turns it into the locationId that registration and warehouse creation take.")
+public ResponseEntity<List<LocationMatch>> fuzzySearchLocations(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+return ResponseEntity.ok(locationService.fuzzySearch(q, limit));
+}
 }
 
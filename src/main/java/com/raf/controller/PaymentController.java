@@ -3,6 +3,13 @@ package com.raf.controller;
 import com.raf.dto.PaymentRequest;
 import com.raf.entity.Payment;
 import com.raf.entity.User;
+import com.raf.enums.ExportFormat;
+import com.raf.enums.PaymentStatus;
+import com.raf.enums.UserType;
+import com.raf.exception.UnauthorizedException;
+import com.raf.service.ExportRequestLimiter;
+import com.raf.service.IdempotencyService;
+import com.raf.service.LedgerExportService;
 import com.raf.service.PurchaseFlowService;
 import com.raf.service.UserService;
 import com.raf.util.JwtUtil;
@@ -12,9 +19,18 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -25,16 +41,55 @@ public class PaymentController {
 
 private final PurchaseFlowService purchaseFlowService;
 private final UserService userService;
+private final LedgerExportService ledgerExportService;
+private final ExportRequestLimiter exportRequestLimiter;
+private final IdempotencyService idempotencyService;
 private final JwtUtil jwtUtil;
 
 @PostMapping
-@Operation(summary = "Process payment (Buyer only)")
-public ResponseEntity<Payment> processPayment(
+@Operation(summary = "Process payment (Buyer only)", description = "Send an Idempotency-Key header to retry safely: a retry with the same key and body returns the first response without paying again.")
+public ResponseEntity<?> processPayment(
 @Valid @RequestBody PaymentRequest request,
+@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
 HttpServletRequest httpRequest) {
 Long buyerId = getCurrentUserId(httpRequest);
+return idempotencyService.execute(buyerId, "POST /api/payments", idempotencyKey, request, () -> {
 Payment payment = purchaseFlowService.processPayment(buyerId, request);
 return new ResponseEntity<>(payment, HttpStatus.CREATED);
+});
+}
+
+@GetMapping("/export")
+@Operation(summary = "Export payments (Admin only)", description = "Streams payments as CSV or NDJSON, optionally gzip-compressed. Filters by the day the payment was recorded (from and to, both included) and status are optional.")
+public ResponseEntity<?> exportPayments(
+@RequestParam(defaultValue = "CSV") ExportFormat format,
+@RequestParam(defaultValue = "false") boolean gzip,
+@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+@RequestParam(required = false) PaymentStatus status,
+HttpServletRequest httpRequest) {
+Long userId = getCurrentUserId(httpRequest);
+if (userService.getUserById(userId).getUserType() != UserType.ADMIN) {
+throw new UnauthorizedException("Only admins can export payments");
+}
+try {
+LedgerExportService.checkRange(from, to);
+} catch (IllegalArgumentException e) {
+return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+}
+log.info("🌐 API Request: GET /api/payments/export - Admin {} exporting payments as {} (from: {}, to: {}, status: {})",
+userId, format, from, to, status);
+StreamingResponseBody body = output -> ledgerExportService.exportPayments(output, format, gzip, from, to, status);
+Optional<StreamingResponseBody> started = exportRequestLimiter.start(httpRequest, body);
+if (started.isEmpty()) {
+return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+.body(Map.of("error", "Too many exports are running, please try again shortly"));
+}
+String fileName = "payments_" + LocalDate.now() + format.getExtension() + (gzip ? ".gz" : "");
+return ResponseEntity.ok()
+.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+.contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+.body(started.get());
 }
 
 private Long getCurrentUserId(HttpServletRequest request) {
@@ -27,5 +27,18 @@ public ResponseEntity<Map<String, Object>> search(
 Map<String, Object> results = publicSearchService.search(q, page, size);
 return ResponseEntity.ok(results);
 }
-}
 
+@GetMapping("/cursor")
+@Operation(summary = "Search public data with a cursor", description = "Cursor-paged public search. Pass the nextCursor of the previous response to get the following page.")
+public ResponseEntity<Map<String, Object>> searchWithCursor(
+@RequestParam String q,
+@RequestParam(required = false) String cursor,
+@RequestParam(defaultValue = "10") int size) {
+
+try {
+return ResponseEntity.ok(publicSearchService.searchWithCursor(q, cursor, size));
+} catch (IllegalArgumentException e) {
+return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+}
+}
+}
@@ -1,9 +1,15 @@
 package com.raf.controller;
 
+import com.raf.dto.TransactionSummary;
 import com.raf.entity.Transaction;
 import com.raf.enums.DeliveryStatus;
+import com.raf.enums.ExportFormat;
 import com.raf.enums.PaymentStatus;
+import com.raf.enums.UserType;
+import com.raf.exception.UnauthorizedException;
+import com.raf.service.ExportRequestLimiter;
 import com.raf.service.InvoiceService;
+import com.raf.service.LedgerExportService;
 import com.raf.service.TransactionService;
 import com.raf.service.UserService;
 import com.raf.util.JwtUtil;
@@ -14,14 +20,20 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/transactions")
@@ -33,6 +45,8 @@ private final TransactionService transactionService;
 private final InvoiceService invoiceService;
 private final JwtUtil jwtUtil;
 private final UserService userService;
+private final LedgerExportService ledgerExportService;
+private final ExportRequestLimiter exportRequestLimiter;
 
 
 
@@ -60,7 +74,7 @@ if (page != null && size != null) {
 log.info("🌐 API Request: GET /api/transactions - Fetching transactions (page: {}, size: {}){}",
 page, size, userId != null ? " for user " + userId : "");
 PageRequest pageRequest = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-Page<Transaction> transactions = transactionService.getTransactionsPaginated(pageRequest, userId);
+Page<TransactionSummary> transactions = transactionService.getTransactionsPaginated(pageRequest, userId);
 log.info("✅ API Response: Returning {} transactions to client (page {} of {}, total: {})",
 transactions.getNumberOfElements(),
 transactions.getNumber() + 1,
@@ -71,14 +85,14 @@ return ResponseEntity.ok(transactions);
 
 
 log.info("🌐 API Request: GET /api/transactions - Fetching all transactions{}", userId != null ? " for user " + userId : "");
-List<Transaction> transactions = transactionService.getAllTransactions(userId);
+List<TransactionSummary> transactions = transactionService.getAllTransactions(userId);
 log.info("✅ API Response: Returning {} transactions to client", transactions.size());
 return ResponseEntity.ok(transactions);
 }
 
 @GetMapping("/paginated")
 @Operation(summary = "Get transactions with pagination")
-public ResponseEntity<Page<Transaction>> getTransactionsPaginated(
+public ResponseEntity<Page<TransactionSummary>> getTransactionsPaginated(
 @RequestParam(defaultValue = "0") int page,
 @RequestParam(defaultValue = "10") int size,
 jakarta.servlet.http.HttpServletRequest request) {
@@ -92,10 +106,45 @@ log.debug("No authenticated user for transaction filtering: {}", e.getMessage())
 }
 
 PageRequest pageRequest = PageRequest.of(page, size, Sort.by("transactionDate").descending());
-Page<Transaction> transactions = transactionService.getTransactionsPaginated(pageRequest, userId);
+Page<TransactionSummary> transactions = transactionService.getTransactionsPaginated(pageRequest, userId);
 return ResponseEntity.ok(transactions);
 }
 
+@GetMapping("/export")
+@Operation(summary = "Export transactions (Admin only)", description = "Streams transactions as CSV or NDJSON, optionally gzip-compressed. Filters by transaction date (from and to, both included), payment status and delivery status are optional.")
+public ResponseEntity<?> exportTransactions(
+@RequestParam(defaultValue = "CSV") ExportFormat format,
+@RequestParam(defaultValue = "false") boolean gzip,
+@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+@RequestParam(required = false) PaymentStatus paymentStatus,
+@RequestParam(required = false) DeliveryStatus deliveryStatus,
+jakarta.servlet.http.HttpServletRequest request) {
+Long userId = getCurrentUserId(request);
+if (userService.getUserById(userId).getUserType() != UserType.ADMIN) {
+throw new UnauthorizedException("Only admins can export transactions");
+}
+try {
+LedgerExportService.checkRange(from, to);
+} catch (IllegalArgumentException e) {
+return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+}
+log.info("🌐 API Request: GET /api/transactions/export - Admin {} exporting transactions as {} (from: {}, to: {}, payment: {}, delivery: {})",
+userId, format, from, to, paymentStatus, deliveryStatus);
+StreamingResponseBody body = output ->
+ledgerExportService.exportTransactions(output, format, gzip, from, to, paymentStatus, deliveryStatus);
+Optional<StreamingResponseBody> started = exportRequestLimiter.start(request, body);
+if (started.isEmpty()) {
+return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+.body(Map.of("error", "Too many exports are running, please try again shortly"));
+}
+String fileName = "transactions_" + LocalDate.now() + format.getExtension() + (gzip ? ".gz" : "");
+return ResponseEntity.ok()
+.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+.contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+.body(started.get());
+}
+
 @GetMapping("/{id}")
 @Operation(summary = "Get transaction by ID")
 public ResponseEntity<Transaction> getTransactionById(@PathVariable Long id) {
@@ -1,9 +1,14 @@
 package com.raf.controller;
 
+import com.raf.dto.PayoutRunResult;
 import com.raf.dto.WithdrawalRequest;
 import com.raf.entity.User;
 import com.raf.entity.Wallet;
 import com.raf.entity.Withdrawal;
+import com.raf.enums.UserType;
+import com.raf.exception.UnauthorizedException;
+import com.raf.service.IdempotencyService;
+import com.raf.service.PayoutService;
 import com.raf.service.UserService;
 import com.raf.service.WalletService;
 import com.raf.util.JwtUtil;
@@ -13,7 +18,11 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -28,6 +37,8 @@ import java.util.List;
 public class WalletController {
 
 private final WalletService walletService;
+private final IdempotencyService idempotencyService;
+private final PayoutService payoutService;
 private final UserService userService;
 private final JwtUtil jwtUtil;
 
@@ -39,18 +50,21 @@ return ResponseEntity.ok(walletService.getWalletByUserId(userId));
 }
 
 @PostMapping("/withdraw")
-@Operation(summary = "Request withdrawal (sends OTP to email)")
-public ResponseEntity<Withdrawal> requestWithdrawal(
+@Operation(summary = "Request withdrawal (sends OTP to email)", description = "Send an Idempotency-Key header to retry safely: a retry with the same key and body returns the first withdrawal instead of creating another.")
+public ResponseEntity<?> requestWithdrawal(
 @Valid @RequestBody WithdrawalRequest request,
+@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
 HttpServletRequest httpRequest) {
 Long userId = getCurrentUserId(httpRequest);
+return idempotencyService.execute(userId, "POST /api/wallet/withdraw", idempotencyKey, request, () -> {
 Withdrawal withdrawal = walletService.requestWithdrawal(userId, request);
 return new ResponseEntity<>(withdrawal, HttpStatus.CREATED);
+});
 }
 
 @PostMapping("/withdraw/{withdrawalId}/verify-otp")
-@Operation(summary = "Verify OTP and complete withdrawal")
-public ResponseEntity<Withdrawal> verifyOtpAndCompleteWithdrawal(
+@Operation(summary = "Verify OTP and queue withdrawal for payout")
+public ResponseEntity<Withdrawal> verifyOtpAndQueueWithdrawal(
 @PathVariable Long withdrawalId,
 @RequestBody WithdrawalRequest request,
 HttpServletRequest httpRequest) {
@@ -61,8 +75,8 @@ Withdrawal withdrawal = walletService.getWithdrawalsByUserId(userId).stream()
 .findFirst()
 .orElseThrow(() -> new RuntimeException("Withdrawal not found or unauthorized"));
 
-Withdrawal completed = walletService.verifyOtpAndCompleteWithdrawal(withdrawalId, request.getOtpCode());
-return ResponseEntity.ok(completed);
+Withdrawal queued = walletService.verifyOtpAndQueueWithdrawal(withdrawalId, request.getOtpCode());
+return ResponseEntity.ok(queued);
 }
 
 @GetMapping("/withdrawals")
@@ -78,6 +92,43 @@ public ResponseEntity<BigDecimal> getTotalCommission() {
 return ResponseEntity.ok(walletService.getTotalSystemCommission());
 }
 
+@PostMapping("/payouts")
+@Operation(summary = "Run payouts (Admin only)", description = "Completes every OTP-verified withdrawal and writes one payout CSV per withdrawal method.")
+public ResponseEntity<PayoutRunResult> runPayouts(HttpServletRequest request) {
+Long userId = getCurrentUserId(request);
+if (userService.getUserById(userId).getUserType() != UserType.ADMIN) {
+throw new UnauthorizedException("Only admins can run payouts");
+}
+log.info("🌐 API Request: POST /api/wallet/payouts - Admin {} running payouts", userId);
+return ResponseEntity.ok(payoutService.runPayouts());
+}
+
+@PostMapping("/withdrawals/{withdrawalId}/fail")
+@Operation(summary = "Fail a bounced payout (Admin only)", description = "Marks a verified or paid-out withdrawal failed and refunds its amount to the wallet.")
+public ResponseEntity<Withdrawal> failPayout(@PathVariable Long withdrawalId,
+@RequestParam(required = false) String reason,
+HttpServletRequest request) {
+Long userId = getCurrentUserId(request);
+if (userService.getUserById(userId).getUserType() != UserType.ADMIN) {
+throw new UnauthorizedException("Only admins can fail payouts");
+}
+log.info("🌐 API Request: POST /api/wallet/withdrawals/{}/fail - Admin {} failing payout", withdrawalId, userId);
+return ResponseEntity.ok(walletService.failPayout(withdrawalId, reason));
+}
+
+@GetMapping("/payouts/files/{fileName}")
+@Operation(summary = "Download a payout file (Admin only)")
+public ResponseEntity<Resource> getPayoutFile(@PathVariable String fileName, HttpServletRequest request) {
+Long userId = getCurrentUserId(request);
+if (userService.getUserById(userId).getUserType() != UserType.ADMIN) {
+throw new UnauthorizedException("Only admins can download payout files");
+}
+return ResponseEntity.ok()
+.header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(fileName).build().toString())
+.contentType(MediaType.parseMediaType("text/csv"))
+.body(payoutService.getPayoutFile(fileName));
+}
+
 private Long getCurrentUserId(HttpServletRequest request) {
 try {
 String authHeader = request.getHeader("Authorization");
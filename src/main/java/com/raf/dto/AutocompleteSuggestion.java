@@ -0,0 +1,23 @@
+package com.raf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One autocomplete completion. {@code type} is crop_type, warehouse or location;
+ * {@code id} is null for locations, whose {@code level} says which part of the
+ * hierarchy the name belongs to. {@code weight} is the inventory count used for ranking.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AutocompleteSuggestion {
+private String text;
+private String type;
+private Long id;
+private String level;
+private long weight;
+}
@@ -0,0 +1,35 @@
+package com.raf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk inventory import. Rows are numbered by their line in the
+ * upload, so the CSV header is line 1. Only rows listed in {@code errors} were
+ * skipped; every other row was stored.
+ */
+@Data
+@NoArgsConstructor
+public class InventoryImportResult {
+private int totalRows;
+private int importedCount;
+private int failedCount;
+private List<RowError> errors = new ArrayList<>();
+
+public void rejected(long row, String message) {
+errors.add(new RowError(row, message));
+failedCount++;
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class RowError {
+private long row;
+private String message;
+}
+}
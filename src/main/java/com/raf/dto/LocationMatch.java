@@ -0,0 +1,27 @@
+package com.raf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One fuzzy location search hit. {@code level} says which part of the hierarchy
+ * matched (Province, District, Sector, Cell or Village); the fields below that
+ * level are null, and {@code code} is only set for villages.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationMatch {
+private String level;
+private String name;
+private String province;
+private String district;
+private String sector;
+private String cell;
+private String village;
+private String code;
+private double similarity;
+}
@@ -0,0 +1,34 @@
+package com.raf.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * One lot on the buyer marketplace: a stored lot with stock left, flattened to
+ * what the listing cards show. {@code pricePerKg} is the crop type price and
+ * {@code district} comes from the warehouse location.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketplaceListing {
+private Long inventoryId;
+private String inventoryCode;
+private Long farmerId;
+private Long cropTypeId;
+private String cropName;
+private String cropImageUrl;
+private String qualityGrade;
+private BigDecimal pricePerKg;
+private Long warehouseId;
+private String warehouseName;
+private String district;
+private BigDecimal remainingQuantityKg;
+private LocalDate storageDate;
+}
@@ -0,0 +1,24 @@
+package com.raf.dto;
+
+import com.raf.enums.NotificationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One notification to create through
+ * {@code NotificationService#createNotifications}. The transaction and action
+ * URL are optional; a notification about a transaction links to it unless an
+ * action URL is given.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationDraft {
+private Long userId;
+private String title;
+private String message;
+private NotificationType type;
+private Long transactionId;
+private String actionUrl;
+}
@@ -0,0 +1,44 @@
+package com.raf.dto;
+
+import com.raf.enums.WithdrawalMethod;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a payout run: the withdrawals it completed and the payout file
+ * written for each withdrawal method. A run that found nothing to pay has no
+ * files.
+ */
+@Data
+@NoArgsConstructor
+public class PayoutRunResult {
+private String runId;
+private int paidCount;
+private BigDecimal totalAmount = BigDecimal.ZERO;
+private List<PayoutFile> files = new ArrayList<>();
+
+public PayoutRunResult(String runId) {
+this.runId = runId;
+}
+
+public void paid(WithdrawalMethod method, String fileName, int count, BigDecimal amount) {
+files.add(new PayoutFile(method, fileName, count, amount));
+paidCount += count;
+totalAmount = totalAmount.add(amount);
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class PayoutFile {
+private WithdrawalMethod method;
+private String fileName;
+private int count;
+private BigDecimal totalAmount;
+}
+}
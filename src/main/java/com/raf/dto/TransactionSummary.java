@@ -0,0 +1,83 @@
+package com.raf.dto;
+
+import com.raf.enums.DeliveryStatus;
+import com.raf.enums.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the transaction list screens. It keeps the JSON shape of the
+ * transaction entity for the fields those screens read: buyer and seller
+ * names and the lot's crop. It is built by a single JPQL constructor query
+ * (see {@code TransactionRepository#SUMMARY_SELECT}), so nothing is lazily
+ * loaded per row.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSummary {
+private Long id;
+private String transactionCode;
+private BigDecimal quantityKg;
+private BigDecimal unitPrice;
+private BigDecimal totalAmount;
+private BigDecimal storageFee;
+private BigDecimal transactionFee;
+private BigDecimal commission;
+private BigDecimal netAmount;
+private PaymentStatus paymentStatus;
+private DeliveryStatus deliveryStatus;
+private LocalDateTime transactionDate;
+private LocalDateTime paymentDate;
+private LocalDateTime createdAt;
+private Party buyer;
+private Party seller;
+private Lot inventory;
+
+/**
+ * Flat form used by the JPQL constructor expression.
+ */
+public TransactionSummary(Long id, String transactionCode, BigDecimal quantityKg, BigDecimal unitPrice,
+BigDecimal totalAmount, BigDecimal storageFee, BigDecimal transactionFee, BigDecimal commission,
+BigDecimal netAmount, PaymentStatus paymentStatus, DeliveryStatus deliveryStatus,
+LocalDateTime transactionDate, LocalDateTime paymentDate, LocalDateTime createdAt,
+Long buyerId, String buyerFirstName, String buyerLastName,
+Long sellerId, String sellerFirstName, String sellerLastName,
+Long inventoryId, String inventoryCode, Long cropTypeId, String cropName) {
+this(id, transactionCode, quantityKg, unitPrice, totalAmount, storageFee, transactionFee, commission,
+netAmount, paymentStatus, deliveryStatus, transactionDate, paymentDate, createdAt,
+new Party(buyerId, buyerFirstName, buyerLastName),
+new Party(sellerId, sellerFirstName, sellerLastName),
+new Lot(inventoryId, inventoryCode, new Crop(cropTypeId, cropName)));
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class Party {
+private Long id;
+private String firstName;
+private String lastName;
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class Lot {
+private Long id;
+private String inventoryCode;
+private Crop cropType;
+}
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public static class Crop {
+private Long id;
+private String cropName;
+}
+}
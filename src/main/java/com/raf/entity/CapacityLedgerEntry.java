@@ -0,0 +1,45 @@
+package com.raf.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.enums.CapacityEntryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One append-only entry of the warehouse capacity ledger. Entries are never
+ * updated; a reservation is settled by a later entry pointing at it through
+ * {@code settlesEntryId}, which is unique, so a reservation can be committed
+ * or released only once even when two requests race to settle it.
+ */
+@Entity
+@Table(name = "capacity_ledger_entry",
+indexes = @Index(name = "idx_capacity_ledger_warehouse", columnList = "warehouse_id, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class CapacityLedgerEntry extends BaseEntity {
+
+@ManyToOne(fetch = FetchType.LAZY)
+@JoinColumn(name = "warehouse_id", nullable = false, updatable = false)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "warehouseAccesses", "inventories", "supportedCropTypes", "location"})
+@ToString.Exclude
+private StorageWarehouse warehouse;
+
+@Enumerated(EnumType.STRING)
+@Column(name = "entry_type", nullable = false, updatable = false, length = 20)
+private CapacityEntryType entryType;
+
+@Column(name = "quantity_kg", precision = 12, scale = 2, nullable = false, updatable = false)
+private BigDecimal quantityKg;
+
+@Column(name = "settles_entry_id", unique = true, updatable = false)
+private Long settlesEntryId;
+
+@Column(name = "reference", length = 100, updatable = false)
+private String reference;
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.raf.enums.CropCategory;
 import com.raf.enums.MeasurementUnit;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -13,6 +14,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "crop_type")
 @Data
 @NoArgsConstructor
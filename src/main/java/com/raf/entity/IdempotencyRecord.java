@@ -0,0 +1,54 @@
+package com.raf.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A request made under a client's {@code Idempotency-Key} and, once it has
+ * completed, the response it produced. Retries with the same key and body are
+ * answered from the stored response. A record past {@link #expiresAt} counts
+ * as absent: a completed one has outlived its TTL, and an in-progress one was
+ * left behind by a request that never finished.
+ */
+@Entity
+@Table(name = "idempotency_record",
+uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "endpoint", "idempotency_key"}),
+indexes = @Index(name = "idx_idempotency_record_expires", columnList = "expires_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class IdempotencyRecord extends BaseEntity {
+
+@Column(name = "user_id", nullable = false, updatable = false)
+private Long userId;
+
+@Column(name = "endpoint", nullable = false, updatable = false, length = 100)
+private String endpoint;
+
+@Column(name = "idempotency_key", nullable = false, updatable = false)
+private String idempotencyKey;
+
+/** SHA-256 of the request body, hex encoded. */
+@Column(name = "request_hash", nullable = false, length = 64)
+private String requestHash;
+
+@Enumerated(EnumType.STRING)
+@Column(name = "status", nullable = false, length = 20)
+private IdempotencyStatus status;
+
+@Column(name = "response_status")
+private Integer responseStatus;
+
+@Column(name = "response_body", columnDefinition = "text")
+private String responseBody;
+
+@Column(name = "expires_at", nullable = false)
+private LocalDateTime expiresAt;
+}
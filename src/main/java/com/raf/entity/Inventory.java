@@ -3,6 +3,7 @@ package com.raf.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.raf.enums.InventoryStatus;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,7 +15,23 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "inventory")
+@EntityListeners(SearchIndexEntityListener.class)
+@Table(name = "inventory", indexes = {
+@Index(name = "idx_inventory_created_at_id", columnList = "created_at, id"),
+@Index(name = "idx_inventory_warehouse_id", columnList = "warehouse_id, id")
+})
+@NamedEntityGraph(name = Inventory.LISTING_GRAPH,
+attributeNodes = {
+@NamedAttributeNode(value = "farmer", subgraph = "owner"),
+@NamedAttributeNode("warehouse"),
+@NamedAttributeNode("cropType"),
+@NamedAttributeNode(value = "storekeeper", subgraph = "owner")
+},
+// The inverse one-to-ones of User cannot be proxied, so they are fetched here instead of one query per user.
+subgraphs = @NamedSubgraph(name = "owner", attributeNodes = {
+@NamedAttributeNode("wallet"),
+@NamedAttributeNode("userProfile")
+}))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,6 +40,9 @@ import java.util.List;
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class Inventory extends BaseEntity {
 
+/** Entity graph of the inventory listings: the lot with everything its JSON form reads. */
+public static final String LISTING_GRAPH = "Inventory.listing";
+
 @NotBlank(message = "Inventory code is required")
 @Column(name = "inventory_code", unique = true, nullable = false, length = 50)
 private String inventoryCode;
@@ -3,6 +3,7 @@ package com.raf.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.raf.enums.InventoryRequestStatus;
 import com.raf.enums.InventoryRequestType;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "inventory_request")
 @Data
 @NoArgsConstructor
@@ -1,6 +1,7 @@
 package com.raf.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "location")
 @Getter
 @Setter
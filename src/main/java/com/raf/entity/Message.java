@@ -1,12 +1,14 @@
 package com.raf.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "message")
 @Data
 @NoArgsConstructor
@@ -2,6 +2,7 @@ package com.raf.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.raf.enums.NotificationType;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -10,6 +11,7 @@ import lombok.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "notification")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,55 @@
+package com.raf.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.enums.OutboxEventType;
+import com.raf.enums.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A side effect written in the same transaction as the change that causes it
+ * and run later by the {@link com.raf.service.OutboxDispatcher}. The event
+ * only references the rows it is about; the message is built from their
+ * state when it is sent.
+ */
+@Entity
+@Table(name = "outbox_event",
+indexes = @Index(name = "idx_outbox_event_due", columnList = "status, next_attempt_at, id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class OutboxEvent extends BaseEntity {
+
+@Enumerated(EnumType.STRING)
+@Column(name = "event_type", nullable = false, updatable = false, length = 40)
+private OutboxEventType eventType;
+
+/** The transaction or withdrawal the event is about. */
+@Column(name = "aggregate_id", nullable = false, updatable = false)
+private Long aggregateId;
+
+/** The user to notify when it is not implied by the aggregate. */
+@Column(name = "recipient_id", updatable = false)
+private Long recipientId;
+
+@Enumerated(EnumType.STRING)
+@Column(name = "status", nullable = false, length = 20)
+private OutboxStatus status = OutboxStatus.PENDING;
+
+@Column(name = "attempts", nullable = false)
+private Integer attempts = 0;
+
+@Column(name = "next_attempt_at", nullable = false)
+private LocalDateTime nextAttemptAt;
+
+@Column(name = "last_error", length = 500)
+private String lastError;
+
+@Column(name = "processed_at")
+private LocalDateTime processedAt;
+}
@@ -3,6 +3,7 @@ package com.raf.entity;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.raf.enums.RatingType;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -10,6 +11,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "rating")
 @Data
 @NoArgsConstructor
@@ -5,17 +5,22 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.raf.enums.WarehouseStatus;
 import com.raf.enums.WarehouseType;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "storage_warehouse")
+// Capacity changes are written with conditional updates, so a stale copy must not write it back when other fields change.
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.raf.enums.DeliveryStatus;
 import com.raf.enums.PaymentStatus;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -14,7 +15,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "transaction")
+@EntityListeners(SearchIndexEntityListener.class)
+@Table(name = "transaction", indexes = @Index(name = "idx_transaction_inventory_date", columnList = "inventory_id, transaction_date"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
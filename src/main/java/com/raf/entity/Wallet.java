@@ -1,6 +1,7 @@
 package com.raf.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
@@ -36,6 +37,15 @@ private BigDecimal totalEarned = BigDecimal.ZERO;
 @Column(name = "total_withdrawn", precision = 12, scale = 2, nullable = false)
 private BigDecimal totalWithdrawn = BigDecimal.ZERO;
 
+/**
+ * The number of the last snapshot folded into the balances above. Entries
+ * stamped with it or an earlier one are included; the rest are added on read.
+ * {@code null} until the first snapshot.
+ */
+@Column(name = "snapshot_version")
+@JsonIgnore
+private Long snapshotVersion;
+
 @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @ToString.Exclude
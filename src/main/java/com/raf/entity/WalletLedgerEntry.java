@@ -0,0 +1,52 @@
+package com.raf.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.raf.enums.WalletEntryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * One immutable movement of a wallet. Entries are only ever inserted, so money
+ * reaching a wallet never contends for the wallet row; the
+ * {@link com.raf.service.WalletSnapshotter} folds them into the wallet's
+ * balances later and stamps each entry with the snapshot that folded it. The
+ * transaction or withdrawal behind an entry can post it only once.
+ */
+@Entity
+@Table(name = "wallet_ledger_entry",
+uniqueConstraints = @UniqueConstraint(columnNames = {"entry_type", "reference_id"}),
+indexes = {
+@Index(name = "idx_wallet_ledger_wallet", columnList = "wallet_id, id"),
+@Index(name = "idx_wallet_ledger_snapshot", columnList = "wallet_id, snapshot_version")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+@ToString(callSuper = true)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+public class WalletLedgerEntry extends BaseEntity {
+
+@ManyToOne(fetch = FetchType.LAZY)
+@JoinColumn(name = "wallet_id", nullable = false, updatable = false)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler", "user", "withdrawals"})
+@ToString.Exclude
+private Wallet wallet;
+
+@Enumerated(EnumType.STRING)
+@Column(name = "entry_type", nullable = false, updatable = false, length = 20)
+private WalletEntryType entryType;
+
+@Column(name = "amount", precision = 12, scale = 2, nullable = false, updatable = false)
+private BigDecimal amount;
+
+/** The paid transaction of an earning, or the withdrawal. */
+@Column(name = "reference_id", nullable = false, updatable = false)
+private Long referenceId;
+
+/** The wallet snapshot this entry was folded into, {@code null} until then. */
+@Column(name = "snapshot_version")
+private Long snapshotVersion;
+}
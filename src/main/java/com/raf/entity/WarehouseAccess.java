@@ -3,6 +3,7 @@ package com.raf.entity;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.raf.enums.AccessLevel;
 import com.raf.enums.WarehouseAccessStatus;
+import com.raf.service.SearchIndexEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
@@ -10,8 +11,10 @@ import lombok.*;
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(SearchIndexEntityListener.class)
 @Table(name = "warehouse_access",
-uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "warehouse_id"}))
+uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "warehouse_id"}),
+indexes = @Index(name = "idx_warehouse_access_user_active", columnList = "user_id, is_active, status, warehouse_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -87,5 +90,9 @@ private String cropImageUrl;
 
 @Column(name = "desired_price_per_kg", precision = 12, scale = 2)
 private java.math.BigDecimal desiredPricePerKg;
+
+/** Capacity held for the crops of a pending storage request, settled when it is approved or rejected. */
+@Column(name = "capacity_reservation_id")
+private Long capacityReservationId;
 }
 
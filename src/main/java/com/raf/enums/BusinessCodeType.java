@@ -0,0 +1,31 @@
+package com.raf.enums;
+
+/**
+ * Kinds of business codes handed out by {@link com.raf.service.BusinessCodeGenerator},
+ * each with its code prefix and the database sequence that numbers it.
+ */
+public enum BusinessCodeType {
+INVENTORY("INV", "inventory_code_seq"),
+INVENTORY_REQUEST("INV-REQ", "inventory_request_code_seq"),
+ENQUIRY("ENQ", "enquiry_code_seq"),
+TRANSACTION("TXN", "transaction_code_seq"),
+PAYMENT("PAY", "payment_code_seq"),
+WITHDRAWAL("WTH", "withdrawal_code_seq"),
+MESSAGE("MSG", "message_code_seq");
+
+private final String prefix;
+private final String sequenceName;
+
+BusinessCodeType(String prefix, String sequenceName) {
+this.prefix = prefix;
+this.sequenceName = sequenceName;
+}
+
+public String getPrefix() {
+return prefix;
+}
+
+public String getSequenceName() {
+return sequenceName;
+}
+}
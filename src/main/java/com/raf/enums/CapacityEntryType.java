@@ -0,0 +1,14 @@
+package com.raf.enums;
+
+/**
+ * Kinds of entries in the warehouse capacity ledger. A RESERVE takes space
+ * from the warehouse and is later settled by exactly one COMMIT, which keeps
+ * the space taken, or RELEASE, which gives it back. RESTORE returns space that
+ * was committed earlier, for example when a stored lot is deleted.
+ */
+public enum CapacityEntryType {
+RESERVE,
+COMMIT,
+RELEASE,
+RESTORE
+}
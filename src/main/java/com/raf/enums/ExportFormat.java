@@ -0,0 +1,26 @@
+package com.raf.enums;
+
+/**
+ * Download formats of the finance exports: a CSV file with a header row, or
+ * one JSON object per line.
+ */
+public enum ExportFormat {
+CSV("text/csv", ".csv"),
+NDJSON("application/x-ndjson", ".ndjson");
+
+private final String contentType;
+private final String extension;
+
+ExportFormat(String contentType, String extension) {
+this.contentType = contentType;
+this.extension = extension;
+}
+
+public String getContentType() {
+return contentType;
+}
+
+public String getExtension() {
+return extension;
+}
+}
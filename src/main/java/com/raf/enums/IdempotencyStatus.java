@@ -0,0 +1,9 @@
+package com.raf.enums;
+
+/**
+ * State of a request stored under an idempotency key.
+ */
+public enum IdempotencyStatus {
+IN_PROGRESS,
+COMPLETED
+}
@@ -0,0 +1,27 @@
+package com.raf.enums;
+
+/**
+ * Upload formats accepted by the bulk inventory import: a CSV file with a
+ * header row, or one JSON object per line.
+ */
+public enum InventoryImportFormat {
+CSV,
+NDJSON;
+
+/**
+ * Picks the format from the uploaded file name, falling back to its content type.
+ *
+ * @return The format, or {@code null} when neither names a supported one.
+ */
+public static InventoryImportFormat detect(String fileName, String contentType) {
+String name = fileName != null ? fileName.toLowerCase() : "";
+String type = contentType != null ? contentType.toLowerCase() : "";
+if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+return CSV;
+}
+if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || type.startsWith("application/x-ndjson")) {
+return NDJSON;
+}
+return null;
+}
+}
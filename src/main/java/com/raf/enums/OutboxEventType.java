@@ -0,0 +1,14 @@
+package com.raf.enums;
+
+/**
+ * Side effects recorded in the outbox and run after the recording
+ * transaction commits. Each type sends one message, so a retry never repeats
+ * a message that already went out.
+ */
+public enum OutboxEventType {
+BUYER_INVOICE,
+BUYER_PURCHASE_CONFIRMATION,
+FARMER_PURCHASE_CONFIRMATION,
+STOREKEEPER_DELIVERY_REMINDER,
+WITHDRAWAL_OTP
+}
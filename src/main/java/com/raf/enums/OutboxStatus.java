@@ -0,0 +1,7 @@
+package com.raf.enums;
+
+public enum OutboxStatus {
+PENDING,
+SENT,
+DEAD
+}
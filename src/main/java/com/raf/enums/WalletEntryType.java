@@ -0,0 +1,12 @@
+package com.raf.enums;
+
+/**
+ * Movements of the wallet ledger. Earnings credit the wallet, withdrawals
+ * debit it and refunds give back a withdrawal whose payout bounced; amounts
+ * are always positive.
+ */
+public enum WalletEntryType {
+EARNING,
+WITHDRAWAL,
+REFUND
+}
@@ -65,6 +65,22 @@ log.error("Validation errors: {}", errors);
 return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
 }
 
+@ExceptionHandler(BadRequestException.class)
+public ResponseEntity<ErrorResponse> handleBadRequestException(
+BadRequestException ex, HttpServletRequest request) {
+
+log.error("Bad request: {}", ex.getMessage());
+
+ErrorResponse errorResponse = new ErrorResponse(
+HttpStatus.BAD_REQUEST.value(),
+"Bad Request",
+ex.getMessage(),
+request.getRequestURI()
+);
+
+return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
+}
+
 @ExceptionHandler(OperationNotAllowedException.class)
 public ResponseEntity<ErrorResponse> handleOperationNotAllowed(
 OperationNotAllowedException ex, HttpServletRequest request) {
@@ -81,6 +97,22 @@ request.getRequestURI()
 return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
 }
 
+@ExceptionHandler(IdempotencyKeyException.class)
+public ResponseEntity<ErrorResponse> handleIdempotencyKeyException(
+IdempotencyKeyException ex, HttpServletRequest request) {
+
+log.error("Invalid idempotency key: {}", ex.getMessage());
+
+ErrorResponse errorResponse = new ErrorResponse(
+HttpStatus.UNPROCESSABLE_ENTITY.value(),
+"Unprocessable Entity",
+ex.getMessage(),
+request.getRequestURI()
+);
+
+return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+}
+
 @ExceptionHandler(UnauthorizedException.class)
 public ResponseEntity<ErrorResponse> handleUnauthorizedException(
 UnauthorizedException ex, HttpServletRequest request) {
@@ -0,0 +1,15 @@
+package com.raf.repository;
+
+import com.raf.entity.CapacityLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CapacityLedgerRepository extends JpaRepository<CapacityLedgerEntry, Long> {
+
+List<CapacityLedgerEntry> findByWarehouseIdOrderByIdAsc(Long warehouseId);
+
+boolean existsBySettlesEntryId(Long settlesEntryId);
+}
@@ -37,6 +37,10 @@ List<CropType> findCropTypesByCategorySorted(@Param("category") CropCategory cat
 @Query("SELECT COUNT(ct) FROM CropType ct WHERE ct.category = :category")
 long countByCategory(@Param("category") CropCategory category);
 
+@Query(value = "SELECT c.* FROM crop_type c WHERE c.search_vector @@ to_tsquery('simple', :query) " +
+"ORDER BY ts_rank(c.search_vector, to_tsquery('simple', :query)) DESC, c.id LIMIT :limit OFFSET :offset", nativeQuery = true)
+List<CropType> searchFullText(@Param("query") String query, @Param("offset") int offset, @Param("limit") int limit);
+
 Page<CropType> findByCategory(CropCategory category, Pageable pageable);
 }
 
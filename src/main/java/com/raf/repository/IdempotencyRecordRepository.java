@@ -0,0 +1,55 @@
+package com.raf.repository;
+
+import com.raf.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+Optional<IdempotencyRecord> findByUserIdAndEndpointAndIdempotencyKey(Long userId, String endpoint, String idempotencyKey);
+
+/**
+ * Restarts an expired record for a new request, unless another request
+ * restarted it since it was read with {@code seenExpiresAt}.
+ *
+ * @return 1 if this caller now owns the record, 0 otherwise.
+ */
+@Modifying
+@Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = com.raf.enums.IdempotencyStatus.IN_PROGRESS, " +
+"r.responseStatus = NULL, r.responseBody = NULL, r.expiresAt = :leaseUntil, r.updatedAt = CURRENT_TIMESTAMP " +
+"WHERE r.id = :id AND r.expiresAt = :seenExpiresAt")
+int restart(@Param("id") Long id, @Param("seenExpiresAt") LocalDateTime seenExpiresAt,
+@Param("requestHash") String requestHash, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+/**
+ * Stores the response of a request that still holds the lease it claimed the
+ * record with, identified by the {@code leaseUntil} it was given.
+ *
+ * @return 1 if stored, 0 if the lease expired and another request restarted the record.
+ */
+@Modifying
+@Query("UPDATE IdempotencyRecord r SET r.status = com.raf.enums.IdempotencyStatus.COMPLETED, r.responseStatus = :responseStatus, " +
+"r.responseBody = :responseBody, r.expiresAt = :expiresAt, r.updatedAt = CURRENT_TIMESTAMP " +
+"WHERE r.id = :id AND r.expiresAt = :leaseUntil AND r.status = com.raf.enums.IdempotencyStatus.IN_PROGRESS")
+int complete(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil, @Param("responseStatus") int responseStatus,
+@Param("responseBody") String responseBody, @Param("expiresAt") LocalDateTime expiresAt);
+
+/**
+ * Frees the key of a failed request, unless another request has taken the record over since.
+ */
+@Modifying
+@Query("DELETE FROM IdempotencyRecord r " +
+"WHERE r.id = :id AND r.expiresAt = :leaseUntil AND r.status = com.raf.enums.IdempotencyStatus.IN_PROGRESS")
+int release(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+@Modifying
+@Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+int deleteExpired(@Param("now") LocalDateTime now);
+}
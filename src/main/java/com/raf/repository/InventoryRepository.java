@@ -2,10 +2,15 @@ package com.raf.repository;
 
 import com.raf.entity.Inventory;
 import com.raf.enums.InventoryStatus;
+import com.raf.enums.UserType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,7 +21,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface InventoryRepository extends JpaRepository<Inventory, Long> {
+public interface InventoryRepository extends JpaRepository<Inventory, Long>, JpaSpecificationExecutor<Inventory> {
 
 Optional<Inventory> findByInventoryCode(String inventoryCode);
 List<Inventory> findByFarmerId(Long farmerId);
@@ -64,7 +69,80 @@ BigDecimal getTotalStoredQuantityInWarehouse(@Param("warehouseId") Long warehous
 @Query("SELECT COUNT(i) FROM Inventory i WHERE i.farmer.id = :farmerId AND i.status = 'STORED'")
 long countActiveInventoriesByFarmer(@Param("farmerId") Long farmerId);
 
+/**
+ * Takes {@code quantity} out of a lot in a single statement. The row is only
+ * changed while at least that much remains, so concurrent sales of the same lot
+ * cannot oversell it, and the SOLD/PARTIALLY_SOLD status is set in the same
+ * statement. PostgreSQL evaluates every SET expression against the row as it
+ * was before the update, so the status CASE works out the new remainder itself,
+ * {@code remainingQuantityKg - :quantity}, rather than relying on the order of
+ * the assignments. Entity callbacks do not run for this update.
+ *
+ * @return 1 when the stock was taken, 0 when the lot does not exist or holds less than {@code quantity}.
+ */
+@Modifying(flushAutomatically = true)
+@Query("UPDATE Inventory i SET " +
+"i.status = CASE WHEN i.remainingQuantityKg - :quantity = 0 THEN com.raf.enums.InventoryStatus.SOLD ELSE com.raf.enums.InventoryStatus.PARTIALLY_SOLD END, " +
+"i.remainingQuantityKg = i.remainingQuantityKg - :quantity, " +
+"i.updatedAt = LOCAL DATETIME " +
+"WHERE i.id = :id AND i.remainingQuantityKg >= :quantity")
+int decrementRemainingQuantity(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+long countByCropTypeId(Long cropTypeId);
+
+long countByWarehouseId(Long warehouseId);
+
+@Query("SELECT i.cropType.id, COUNT(i) FROM Inventory i GROUP BY i.cropType.id")
+List<Object[]> countByCropType();
+
+@Query("SELECT i.warehouse.id, COUNT(i) FROM Inventory i GROUP BY i.warehouse.id")
+List<Object[]> countByWarehouse();
+
+@Query(value = "SELECT i.* FROM inventory i WHERE i.status = 'STORED' AND (i.search_vector @@ to_tsquery('simple', :query) " +
+"OR i.crop_type_id IN (SELECT c.id FROM crop_type c WHERE c.search_vector @@ to_tsquery('simple', :query)) " +
+"OR i.warehouse_id IN (SELECT w.id FROM storage_warehouse w WHERE w.search_vector @@ to_tsquery('simple', :query))) " +
+"ORDER BY ts_rank(i.search_vector, to_tsquery('simple', :query)) DESC, i.id LIMIT :limit OFFSET :offset", nativeQuery = true)
+List<Inventory> searchStoredFullText(@Param("query") String query, @Param("offset") int offset, @Param("limit") int limit);
+
 Page<Inventory> findByFarmerId(Long farmerId, Pageable pageable);
 Page<Inventory> findByWarehouseId(Long warehouseId, Pageable pageable);
 Page<Inventory> findByStatus(InventoryStatus status, Pageable pageable);
+
+// Listing queries: only lots owned by a user of the given type, loaded with the
+// listing entity graph so a listing is one select however many rows it returns.
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByFarmerUserType(UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByWarehouseIdAndFarmerUserType(Long warehouseId, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByWarehouseIdAndStorekeeperIdAndFarmerUserType(Long warehouseId, Long storekeeperId, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByCropTypeIdAndFarmerUserType(Long cropTypeId, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByStatusAndFarmerUserType(InventoryStatus status, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByStatusAndFarmerUserType(InventoryStatus status, UserType farmerType, Sort sort);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+Page<Inventory> findByStatusAndFarmerUserType(InventoryStatus status, UserType farmerType, Pageable pageable);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+Page<Inventory> findByWarehouseIdAndFarmerUserType(Long warehouseId, UserType farmerType, Pageable pageable);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByStatusAndRemainingQuantityKgGreaterThanAndFarmerUserType(
+InventoryStatus status, BigDecimal minQuantity, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+List<Inventory> findByWarehouseIdAndStatusAndRemainingQuantityKgGreaterThanAndFarmerUserType(
+Long warehouseId, InventoryStatus status, BigDecimal minQuantity, UserType farmerType);
+
+@EntityGraph(Inventory.LISTING_GRAPH)
+Page<Inventory> findAll(Specification<Inventory> spec, Pageable pageable);
 }
@@ -0,0 +1,67 @@
+package com.raf.repository;
+
+import com.raf.entity.Inventory;
+import com.raf.enums.InventoryStatus;
+import com.raf.enums.UserType;
+import com.raf.util.KeysetCursor;
+import org.hibernate.query.sqm.NodeBuilder;
+import org.hibernate.query.sqm.tree.expression.SqmExpression;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * Filters of the inventory listings, evaluated by the database. A factory given
+ * a null argument adds no restriction, so callers can combine optional filters
+ * with {@link Specification#and} without branching.
+ */
+public final class InventorySpecifications {
+
+private InventorySpecifications() {
+}
+
+/**
+ * Lots whose owner exists and is a farmer. The inner join on the owner drops
+ * lots left without one.
+ */
+public static Specification<Inventory> ownedByFarmer() {
+return (root, query, cb) -> cb.equal(root.join("farmer").get("userType"), UserType.FARMER);
+}
+
+public static Specification<Inventory> hasStatus(InventoryStatus status) {
+return (root, query, cb) -> status == null ? null : cb.equal(root.get("status"), status);
+}
+
+public static Specification<Inventory> inWarehouse(Long warehouseId) {
+return (root, query, cb) -> warehouseId == null ? null : cb.equal(root.get("warehouse").get("id"), warehouseId);
+}
+
+public static Specification<Inventory> managedBy(Long storekeeperId) {
+return (root, query, cb) -> storekeeperId == null ? null : cb.equal(root.get("storekeeper").get("id"), storekeeperId);
+}
+
+public static Specification<Inventory> inStock() {
+return (root, query, cb) -> cb.greaterThan(root.get("remainingQuantityKg"), BigDecimal.ZERO);
+}
+
+/**
+ * Lots that come after the cursor row in newest-first {@code (created_at, id)}
+ * order. The condition is a row-value comparison, {@code (created_at, id) < (?, ?)},
+ * which PostgreSQL answers with a range read on the index over those columns
+ * however deep the caller has scrolled; the equivalent OR of column comparisons
+ * is not used as an index bound.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public static Specification<Inventory> before(KeysetCursor cursor) {
+return (root, query, cb) -> {
+if (cursor == null) {
+return null;
+}
+// JPA has no row values; Hibernate's tuples render as one on dialects that support them.
+NodeBuilder nodeBuilder = (NodeBuilder) cb;
+SqmExpression row = nodeBuilder.tuple(Object[].class, (SqmExpression<?>) root.get("createdAt"), (SqmExpression<?>) root.get("id"));
+SqmExpression bound = nodeBuilder.tuple(Object[].class, (SqmExpression<?>) nodeBuilder.value(cursor.createdAt()), (SqmExpression<?>) nodeBuilder.value(cursor.id()));
+return nodeBuilder.lessThan(row, bound);
+};
+}
+}
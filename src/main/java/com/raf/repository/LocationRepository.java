@@ -23,6 +23,12 @@ boolean existsByCode(String code);
 Optional<Location> findByProvinceAndDistrictAndSectorAndCellAndVillage(
 String province, String district, String sector, String cell, String village);
 
+/**
+ * Only the columns the in-memory hierarchy keeps: id, province, district, sector, cell, village, code.
+ */
+@Query("SELECT l.id, l.province, l.district, l.sector, l.cell, l.village, l.code FROM Location l")
+List<Object[]> findHierarchyRows();
+
 @Query("SELECT DISTINCT l.province FROM Location l ORDER BY l.province")
 List<String> findDistinctProvinces();
 
@@ -40,4 +46,34 @@ List<Location> findVillagesByProvinceAndDistrictAndSectorAndCell(@Param("provinc
 
 @Query("SELECT l FROM Location l WHERE LOWER(l.village) LIKE LOWER(CONCAT('%', :name, '%'))")
 List<Location> searchByVillageName(@Param("name") String name);
-}
\ No newline at end of file
+
+@Query(value = "SELECT l.* FROM location l WHERE l.search_vector @@ to_tsquery('simple', :query) " +
+"ORDER BY ts_rank(l.search_vector, to_tsquery('simple', :query)) DESC, l.village LIMIT :limit OFFSET :offset", nativeQuery = true)
+List<Location> searchFullText(@Param("query") String query, @Param("offset") int offset, @Param("limit") int limit);
+
+/**
+ * Village lookup on pg_trgm: typo-tolerant ({@code %}) or substring ({@code ILIKE}),
+ * both served by the village trigram index and ranked by similarity.
+ */
+@Query(value = "SELECT l.* FROM location l WHERE l.village % :name OR l.village ILIKE CONCAT('%', :name, '%') " +
+"ORDER BY similarity(l.village, :name) DESC, l.village LIMIT :limit", nativeQuery = true)
+List<Location> searchByVillageNameTrigram(@Param("name") String name, @Param("limit") int limit);
+
+/**
+ * Similarity-ranked matches across all five hierarchy levels. Each row is
+ * level, name, province, district, sector, cell, village, code, similarity.
+ */
+@Query(value = "SELECT m.* FROM (" +
+"SELECT 'Village' AS level, l.village AS name, l.province, l.district, l.sector, l.cell, l.village, l.code, similarity(l.village, :query) AS score " +
+"FROM location l WHERE l.village % :query " +
+"UNION ALL SELECT 'Cell', l.cell, l.province, l.district, l.sector, l.cell, CAST(NULL AS varchar), CAST(NULL AS varchar), max(similarity(l.cell, :query)) " +
+"FROM location l WHERE l.cell % :query GROUP BY l.province, l.district, l.sector, l.cell " +
+"UNION ALL SELECT 'Sector', l.sector, l.province, l.district, l.sector, CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), max(similarity(l.sector, :query)) " +
+"FROM location l WHERE l.sector % :query GROUP BY l.province, l.district, l.sector " +
+"UNION ALL SELECT 'District', l.district, l.province, l.district, CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), max(similarity(l.district, :query)) " +
+"FROM location l WHERE l.district % :query GROUP BY l.province, l.district " +
+"UNION ALL SELECT 'Province', l.province, l.province, CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), CAST(NULL AS varchar), max(similarity(l.province, :query)) " +
+"FROM location l WHERE l.province % :query GROUP BY l.province" +
+") m ORDER BY m.score DESC, m.name LIMIT :limit", nativeQuery = true)
+List<Object[]> searchHierarchyTrigram(@Param("query") String query, @Param("limit") int limit);
+}
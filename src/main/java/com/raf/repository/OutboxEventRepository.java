@@ -0,0 +1,52 @@
+package com.raf.repository;
+
+import com.raf.entity.OutboxEvent;
+import com.raf.enums.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+@Query("SELECT e.id FROM OutboxEvent e WHERE e.status = com.raf.enums.OutboxStatus.PENDING " +
+"AND e.nextAttemptAt <= :now ORDER BY e.id")
+List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+/**
+ * Leases a due event to one dispatcher by moving its next attempt to
+ * {@code leaseUntil}. An event whose dispatcher dies before finishing it
+ * becomes due again once the lease runs out.
+ *
+ * @return 1 if this caller holds the lease, 0 if another dispatcher took it first.
+ */
+@Modifying
+@Query("UPDATE OutboxEvent e SET e.nextAttemptAt = :leaseUntil WHERE e.id = :id " +
+"AND e.status = com.raf.enums.OutboxStatus.PENDING AND e.nextAttemptAt <= :now")
+int claim(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+/**
+ * Records how a leased event went, as long as {@code leaseUntil} is still its
+ * lease. If the lease ran out and another dispatcher claimed the event, the
+ * new holder's lease no longer matches and the update is skipped.
+ *
+ * @return 1 if the outcome was recorded, 0 if the lease was lost.
+ */
+@Modifying
+@Query("UPDATE OutboxEvent e SET e.status = :status, e.attempts = :attempts, e.lastError = :lastError, " +
+"e.nextAttemptAt = :nextAttemptAt, e.processedAt = :processedAt, e.updatedAt = :now WHERE e.id = :id " +
+"AND e.status = com.raf.enums.OutboxStatus.PENDING AND e.nextAttemptAt = :leaseUntil")
+int settle(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil, @Param("status") OutboxStatus status,
+@Param("attempts") int attempts, @Param("lastError") String lastError, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+@Param("processedAt") LocalDateTime processedAt, @Param("now") LocalDateTime now);
+
+List<OutboxEvent> findByAggregateIdOrderByIdAsc(Long aggregateId);
+
+long countByStatus(OutboxStatus status);
+}
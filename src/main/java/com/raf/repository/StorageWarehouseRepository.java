@@ -3,10 +3,13 @@ package com.raf.repository;
 import com.raf.entity.StorageWarehouse;
 import com.raf.enums.WarehouseStatus;
 import com.raf.enums.WarehouseType;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -51,6 +54,47 @@ List<StorageWarehouse> findWarehousesByLocationCodeAndStatus(@Param("locationCod
 @Query("SELECT COUNT(w) FROM StorageWarehouse w WHERE w.warehouseType = :type AND w.status = :status")
 long countByWarehouseTypeAndStatus(@Param("type") WarehouseType type, @Param("status") WarehouseStatus status);
 
+@Query(value = "SELECT w.* FROM storage_warehouse w WHERE w.status = 'ACTIVE' AND (w.search_vector @@ to_tsquery('simple', :query) " +
+"OR w.location_id IN (SELECT l.id FROM location l WHERE l.search_vector @@ to_tsquery('simple', :query))) " +
+"ORDER BY ts_rank(w.search_vector, to_tsquery('simple', :query)) DESC, w.id LIMIT :limit OFFSET :offset", nativeQuery = true)
+List<StorageWarehouse> searchActiveFullText(@Param("query") String query, @Param("offset") int offset, @Param("limit") int limit);
+
 Page<StorageWarehouse> findByStatus(WarehouseStatus status, Pageable pageable);
 Page<StorageWarehouse> findByWarehouseType(WarehouseType type, Pageable pageable);
+
+/**
+ * Takes {@code quantity} off the available capacity in one statement, only if
+ * that much is available, so concurrent intake cannot overcommit the warehouse.
+ * Entity callbacks do not run for this update.
+ *
+ * @return 1 when the capacity was taken, 0 when the warehouse does not exist or has less than {@code quantity} free.
+ */
+@Modifying(flushAutomatically = true)
+@Query("UPDATE StorageWarehouse w SET " +
+"w.availableCapacityKg = w.availableCapacityKg - :quantity, " +
+"w.updatedAt = LOCAL DATETIME " +
+"WHERE w.id = :id AND w.availableCapacityKg >= :quantity")
+int takeAvailableCapacity(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
+
+/**
+ * Reads how much capacity is in use and locks the warehouse row until the
+ * transaction ends, so the amount a caller gives back stays accurate.
+ */
+@Lock(LockModeType.PESSIMISTIC_WRITE)
+@Query("SELECT w.totalCapacityKg - w.availableCapacityKg FROM StorageWarehouse w WHERE w.id = :id")
+Optional<BigDecimal> lockUsedCapacity(@Param("id") Long id);
+
+/**
+ * Gives {@code quantity} back to the available capacity in one statement,
+ * never beyond the total capacity. Entity callbacks do not run for this update.
+ *
+ * @return 1 when the warehouse exists, 0 otherwise.
+ */
+@Modifying(flushAutomatically = true)
+@Query("UPDATE StorageWarehouse w SET " +
+"w.availableCapacityKg = CASE WHEN w.availableCapacityKg + :quantity > w.totalCapacityKg " +
+"THEN w.totalCapacityKg ELSE w.availableCapacityKg + :quantity END, " +
+"w.updatedAt = LOCAL DATETIME " +
+"WHERE w.id = :id")
+int returnAvailableCapacity(@Param("id") Long id, @Param("quantity") BigDecimal quantity);
 }
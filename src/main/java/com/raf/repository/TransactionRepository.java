@@ -1,5 +1,6 @@
 package com.raf.repository;
 
+import com.raf.dto.TransactionSummary;
 import com.raf.entity.Transaction;
 import com.raf.enums.DeliveryStatus;
 import com.raf.enums.PaymentStatus;
@@ -19,6 +20,65 @@ import java.util.Optional;
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
+/** Selects {@link TransactionSummary} rows; every joined relation is mandatory, so inner joins drop nothing. */
+String SUMMARY_SELECT = "SELECT new com.raf.dto.TransactionSummary(t.id, t.transactionCode, t.quantityKg, t.unitPrice, " +
+"t.totalAmount, t.storageFee, t.transactionFee, t.commission, t.netAmount, t.paymentStatus, t.deliveryStatus, " +
+"t.transactionDate, t.paymentDate, t.createdAt, b.id, b.firstName, b.lastName, s.id, s.firstName, s.lastName, " +
+"i.id, i.inventoryCode, c.id, c.cropName) " +
+"FROM Transaction t JOIN t.buyer b JOIN t.seller s JOIN t.inventory i JOIN i.cropType c";
+
+@Query(SUMMARY_SELECT + " ORDER BY t.transactionDate DESC, t.id DESC")
+List<TransactionSummary> findAllSummaries();
+
+@Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(t) FROM Transaction t")
+Page<TransactionSummary> findSummaries(Pageable pageable);
+
+/**
+ * Joins the storekeeper's active, approved warehouse access rows onto the
+ * transaction's inventory warehouse. Access is unique per user and warehouse,
+ * so the join never repeats a transaction.
+ */
+String STOREKEEPER_SCOPE = " JOIN WarehouseAccess wa ON wa.warehouse.id = i.warehouse.id AND wa.user.id = :storekeeperId " +
+"AND wa.isActive = true AND wa.status IN (com.raf.enums.WarehouseAccessStatus.APPROVED, com.raf.enums.WarehouseAccessStatus.ACTIVE)";
+
+@Query(SUMMARY_SELECT + STOREKEEPER_SCOPE + " ORDER BY t.transactionDate DESC, t.id DESC")
+List<TransactionSummary> findAllSummariesForStorekeeper(@Param("storekeeperId") Long storekeeperId);
+
+@Query(value = SUMMARY_SELECT + STOREKEEPER_SCOPE,
+countQuery = "SELECT COUNT(t) FROM Transaction t JOIN t.inventory i" + STOREKEEPER_SCOPE)
+Page<TransactionSummary> findSummariesForStorekeeper(@Param("storekeeperId") Long storekeeperId, Pageable pageable);
+
+/** Transactions whose inventory sits in one of the storekeeper's warehouses, narrowed by the WHERE that follows. */
+String STOREKEEPER_TRANSACTIONS = "SELECT t FROM Transaction t JOIN t.inventory i" + STOREKEEPER_SCOPE;
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE t.seller.id = :storekeeperId")
+List<Transaction> findBySellerIdForStorekeeper(@Param("storekeeperId") Long storekeeperId);
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE i.id = :inventoryId")
+List<Transaction> findByInventoryIdForStorekeeper(@Param("inventoryId") Long inventoryId,
+@Param("storekeeperId") Long storekeeperId);
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE t.paymentStatus = :paymentStatus")
+List<Transaction> findByPaymentStatusForStorekeeper(@Param("paymentStatus") PaymentStatus paymentStatus,
+@Param("storekeeperId") Long storekeeperId);
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE t.paymentStatus = :paymentStatus")
+List<Transaction> findByPaymentStatusForStorekeeper(@Param("paymentStatus") PaymentStatus paymentStatus,
+@Param("storekeeperId") Long storekeeperId, Sort sort);
+
+@Query(value = STOREKEEPER_TRANSACTIONS + " WHERE t.paymentStatus = :paymentStatus",
+countQuery = "SELECT COUNT(t) FROM Transaction t JOIN t.inventory i" + STOREKEEPER_SCOPE + " WHERE t.paymentStatus = :paymentStatus")
+Page<Transaction> findByPaymentStatusForStorekeeper(@Param("paymentStatus") PaymentStatus paymentStatus,
+@Param("storekeeperId") Long storekeeperId, Pageable pageable);
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE t.deliveryStatus = :deliveryStatus")
+List<Transaction> findByDeliveryStatusForStorekeeper(@Param("deliveryStatus") DeliveryStatus deliveryStatus,
+@Param("storekeeperId") Long storekeeperId);
+
+@Query(STOREKEEPER_TRANSACTIONS + " WHERE t.deliveryStatus = :deliveryStatus")
+List<Transaction> findByDeliveryStatusForStorekeeper(@Param("deliveryStatus") DeliveryStatus deliveryStatus,
+@Param("storekeeperId") Long storekeeperId, Sort sort);
+
 Optional<Transaction> findByTransactionCode(String transactionCode);
 List<Transaction> findByBuyerId(Long buyerId);
 List<Transaction> findBySellerId(Long sellerId);
@@ -42,6 +102,9 @@ List<Transaction> findByTotalAmountGreaterThan(BigDecimal amount);
 List<Transaction> findByTotalAmountBetween(BigDecimal minAmount, BigDecimal maxAmount);
 
 boolean existsByTransactionCode(String transactionCode);
+
+@Query("SELECT t.id FROM Transaction t WHERE t.id IN :ids")
+List<Long> findExistingIds(@Param("ids") java.util.Collection<Long> ids);
 boolean existsByBuyerIdAndPaymentStatus(Long buyerId, PaymentStatus paymentStatus);
 boolean existsBySellerIdAndDeliveryStatus(Long sellerId, DeliveryStatus deliveryStatus);
 
@@ -78,5 +141,11 @@ BigDecimal getTotalCommissionSince(@Param("startDate") LocalDateTime startDate);
 
 @Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.inventory inv LEFT JOIN FETCH inv.cropType LEFT JOIN FETCH t.buyer LEFT JOIN FETCH t.seller WHERE t.id = :id")
 Optional<Transaction> findByIdWithInventoryAndRelations(@Param("id") Long id);
-}
 
+/**
+ * Loads everything the purchase, invoice and delivery emails read, so they can be built after the transaction closes.
+ */
+@Query("SELECT t FROM Transaction t LEFT JOIN FETCH t.inventory inv LEFT JOIN FETCH inv.cropType LEFT JOIN FETCH inv.warehouse "
++ "LEFT JOIN FETCH t.buyer b LEFT JOIN FETCH b.location LEFT JOIN FETCH t.seller WHERE t.id = :id")
+Optional<Transaction> findByIdForNotification(@Param("id") Long id);
+}
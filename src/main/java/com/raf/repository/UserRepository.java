@@ -43,6 +43,7 @@ boolean existsByUserCode(String userCode);
 boolean existsByEmail(String email);
 boolean existsByPhoneNumber(String phoneNumber);
 boolean existsByUserTypeAndStatus(UserType userType, UserStatus status);
+boolean existsByIdAndUserType(Long id, UserType userType);
 
 @Query("SELECT COUNT(u) FROM User u WHERE u.location.code = :locationCode")
 long countByLocationCode(@Param("locationCode") String locationCode);
@@ -53,4 +54,11 @@ Page<User> findByLocationId(java.util.UUID locationId, Pageable pageable);
 List<User> findByUserType(UserType userType, org.springframework.data.domain.Sort sort);
 List<User> findByStatus(UserStatus status, org.springframework.data.domain.Sort sort);
 List<User> findByUserTypeAndStatus(UserType userType, UserStatus status, org.springframework.data.domain.Sort sort);
+
+@Query("SELECT u.id FROM User u WHERE u.userType = :userType")
+List<Long> findIdsByUserType(@Param("userType") UserType userType);
+
+/** The ids among {@code ids} of users who have notifications enabled. */
+@Query("SELECT u.id FROM User u WHERE u.id IN :ids AND u.notificationsEnabled = true")
+List<Long> findIdsWithNotificationsEnabled(@Param("ids") java.util.Collection<Long> ids);
 }
@@ -0,0 +1,45 @@
+package com.raf.repository;
+
+import com.raf.entity.WalletLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface WalletLedgerRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+/**
+ * Rows of entry type and summed amount for the wallet's entries not folded
+ * into snapshot {@code version}: unstamped ones and ones stamped by a later snapshot.
+ */
+@Query("SELECT e.entryType, SUM(e.amount) FROM WalletLedgerEntry e WHERE e.wallet.id = :walletId " +
+"AND (e.snapshotVersion IS NULL OR e.snapshotVersion > :version) GROUP BY e.entryType")
+List<Object[]> sumAfterSnapshot(@Param("walletId") Long walletId, @Param("version") long version);
+
+/** Rows of entry type and summed amount for the wallet's entries stamped with snapshot {@code version}. */
+@Query("SELECT e.entryType, SUM(e.amount) FROM WalletLedgerEntry e WHERE e.wallet.id = :walletId " +
+"AND e.snapshotVersion = :version GROUP BY e.entryType")
+List<Object[]> sumInSnapshot(@Param("walletId") Long walletId, @Param("version") long version);
+
+/** Ids of wallets with unfolded entries created before {@code cutoff}. */
+@Query("SELECT DISTINCT e.wallet.id FROM WalletLedgerEntry e WHERE e.snapshotVersion IS NULL AND e.createdAt < :cutoff")
+List<Long> findWalletsWithUnfolded(@Param("cutoff") LocalDateTime cutoff);
+
+/**
+ * Stamps the wallet's committed, unfolded entries created before {@code cutoff}
+ * with snapshot {@code version}.
+ *
+ * @return The number of entries stamped.
+ */
+@Modifying
+@Query("UPDATE WalletLedgerEntry e SET e.snapshotVersion = :version " +
+"WHERE e.wallet.id = :walletId AND e.snapshotVersion IS NULL AND e.createdAt < :cutoff")
+int stamp(@Param("walletId") Long walletId, @Param("version") long version, @Param("cutoff") LocalDateTime cutoff);
+
+List<WalletLedgerEntry> findByWalletIdOrderByIdAsc(Long walletId);
+}
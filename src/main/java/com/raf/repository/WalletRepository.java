@@ -1,7 +1,10 @@
 package com.raf.repository;
 
 import com.raf.entity.Wallet;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -13,10 +16,27 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
 
 Optional<Wallet> findByUserId(Long userId);
 
+@Lock(LockModeType.PESSIMISTIC_WRITE)
+@Query("SELECT w FROM Wallet w WHERE w.id = :id")
+Optional<Wallet> lockById(@Param("id") Long id);
+
 @Query("SELECT SUM(w.balance) FROM Wallet w")
 java.math.BigDecimal getTotalSystemBalance();
 
 @Query("SELECT SUM(w.totalEarned) FROM Wallet w")
 java.math.BigDecimal getTotalSystemEarnings();
+
+/**
+ * Adds ledger sums to the wallet's balances and moves it to snapshot
+ * {@code version}, unless another snapshot moved it since {@code previousVersion} was read.
+ *
+ * @return 1 if the wallet was updated, 0 otherwise.
+ */
+@Modifying
+@Query("UPDATE Wallet w SET w.balance = w.balance + :earned - :withdrawn, w.totalEarned = w.totalEarned + :earned, " +
+"w.totalWithdrawn = w.totalWithdrawn + :withdrawn, w.snapshotVersion = :version, w.updatedAt = CURRENT_TIMESTAMP " +
+"WHERE w.id = :walletId AND COALESCE(w.snapshotVersion, 0) = :previousVersion")
+int fold(@Param("walletId") Long walletId, @Param("previousVersion") long previousVersion, @Param("version") long version,
+@Param("earned") java.math.BigDecimal earned, @Param("withdrawn") java.math.BigDecimal withdrawn);
 }
 
@@ -2,7 +2,9 @@ package com.raf.repository;
 
 import com.raf.entity.Withdrawal;
 import com.raf.enums.WithdrawalStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,6 +23,13 @@ List<Withdrawal> findByStatus(WithdrawalStatus status);
 
 boolean existsByWithdrawalCode(String withdrawalCode);
 
+/**
+ * Loads a withdrawal and locks its row, so a payout run cannot complete it while it is being failed.
+ */
+@Lock(LockModeType.PESSIMISTIC_WRITE)
+@Query("SELECT w FROM Withdrawal w WHERE w.id = :id")
+Optional<Withdrawal> lockById(@Param("id") Long id);
+
 @Query("SELECT w FROM Withdrawal w WHERE w.wallet.user.id = :userId ORDER BY w.requestDate DESC")
 List<Withdrawal> findByUserId(@Param("userId") Long userId);
 }
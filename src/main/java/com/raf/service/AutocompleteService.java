@@ -0,0 +1,288 @@
+package com.raf.service;
+
+import com.raf.dto.AutocompleteSuggestion;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.StorageWarehouse;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import com.raf.util.PrefixTrie;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves {@code /api/autocomplete} from in-memory prefix tries of crop type names,
+ * warehouse names and location names, so completions never touch the database.
+ * Crops and warehouses are weighted by how many inventory records reference them.
+ * The tries are built after startup; {@link CropTypeService} and {@link WarehouseService}
+ * push creates, renames and deletes after their transaction commits, inventory
+ * inserts and deletes re-count the weights of the crop types and warehouses they
+ * touch, and the location trie is replaced whenever {@link LocationHierarchy} reloads.
+ */
+@Service
+@Slf4j
+public class AutocompleteService {
+
+public static final String CROP_TYPE = "crop_type";
+public static final String WAREHOUSE = "warehouse";
+public static final String LOCATION = "location";
+
+public static final int MAX_LIMIT = 20;
+
+private final CropTypeRepository cropTypeRepository;
+private final StorageWarehouseRepository warehouseRepository;
+private final InventoryRepository inventoryRepository;
+private final LocationHierarchy locationHierarchy;
+private final TransactionTemplate readOnlyTransaction;
+private final TransactionTemplate countTransaction;
+private final Map<String, PrefixTrie<AutocompleteSuggestion>> tries = new ConcurrentHashMap<>();
+
+public AutocompleteService(CropTypeRepository cropTypeRepository, StorageWarehouseRepository warehouseRepository,
+InventoryRepository inventoryRepository, LocationHierarchy locationHierarchy,
+PlatformTransactionManager transactionManager) {
+this.cropTypeRepository = cropTypeRepository;
+this.warehouseRepository = warehouseRepository;
+this.inventoryRepository = inventoryRepository;
+this.locationHierarchy = locationHierarchy;
+this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+this.readOnlyTransaction.setReadOnly(true);
+this.countTransaction = new TransactionTemplate(transactionManager);
+this.countTransaction.setReadOnly(true);
+this.countTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+tries.put(CROP_TYPE, new PrefixTrie<>(MAX_LIMIT));
+tries.put(WAREHOUSE, new PrefixTrie<>(MAX_LIMIT));
+tries.put(LOCATION, new PrefixTrie<>(MAX_LIMIT));
+locationHierarchy.addReloadListener(this::loadLocations);
+}
+
+/**
+ * @param types The types to complete (crop_type, warehouse, location); null or empty for all.
+ */
+public List<AutocompleteSuggestion> complete(String prefix, int limit, Collection<String> types) {
+int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+List<PrefixTrie.Entry<AutocompleteSuggestion>> candidates = new ArrayList<>();
+for (Map.Entry<String, PrefixTrie<AutocompleteSuggestion>> trie : tries.entrySet()) {
+if (types == null || types.isEmpty() || types.contains(trie.getKey())) {
+candidates.addAll(trie.getValue().complete(prefix, max));
+}
+}
+return candidates.stream()
+.sorted(Comparator.<PrefixTrie.Entry<AutocompleteSuggestion>>comparingLong(PrefixTrie.Entry::weight).reversed()
+.thenComparingInt(entry -> entry.text().length())
+.thenComparing(PrefixTrie.Entry::text))
+.limit(max)
+.map(PrefixTrie.Entry::value)
+.toList();
+}
+
+@EventListener(ApplicationReadyEvent.class)
+public void buildOnStartup() {
+try {
+long started = System.currentTimeMillis();
+readOnlyTransaction.executeWithoutResult(status -> {
+Map<Long, Long> cropCounts = counts(inventoryRepository.countByCropType());
+for (CropType crop : cropTypeRepository.findAll()) {
+putCropType(crop, cropCounts.getOrDefault(crop.getId(), 0L));
+}
+Map<Long, Long> warehouseCounts = counts(inventoryRepository.countByWarehouse());
+for (StorageWarehouse warehouse : warehouseRepository.findAll()) {
+putWarehouse(warehouse, warehouseCounts.getOrDefault(warehouse.getId(), 0L));
+}
+});
+LocationHierarchy.Tree tree = locationHierarchy.current();
+if (tree != null) {
+loadLocations(tree);
+}
+log.info("Autocomplete built in {} ms ({} crop types, {} warehouses, {} location names)",
+System.currentTimeMillis() - started, tries.get(CROP_TYPE).size(), tries.get(WAREHOUSE).size(), tries.get(LOCATION).size());
+} catch (Exception e) {
+log.warn("Failed to build autocomplete: {}", e.getMessage());
+}
+}
+
+/**
+ * Replaces the location trie with the names of a newly loaded hierarchy.
+ */
+void loadLocations(LocationHierarchy.Tree tree) {
+List<PrefixTrie.Entry<AutocompleteSuggestion>> locations = new ArrayList<>();
+for (Map.Entry<String, Set<String>> level : tree.namesByLevel().entrySet()) {
+for (String name : level.getValue()) {
+locations.add(new PrefixTrie.Entry<>(level.getKey() + ":" + name, name, AutocompleteSuggestion.builder()
+.text(name)
+.type(LOCATION)
+.level(level.getKey())
+.build(), 0));
+}
+}
+PrefixTrie<AutocompleteSuggestion> fresh = new PrefixTrie<>(MAX_LIMIT);
+fresh.putAll(locations);
+tries.put(LOCATION, fresh);
+}
+
+/**
+ * Called for every inventory insert and delete. The crop types and warehouses
+ * are re-counted once per transaction, after it commits.
+ */
+void onInventoryChanged(Inventory inventory) {
+List<Weighted> touched = new ArrayList<>(2);
+if (inventory.getCropType() != null && inventory.getCropType().getId() != null) {
+touched.add(new Weighted(CROP_TYPE, inventory.getCropType().getId()));
+}
+if (inventory.getWarehouse() != null && inventory.getWarehouse().getId() != null) {
+touched.add(new Weighted(WAREHOUSE, inventory.getWarehouse().getId()));
+}
+if (touched.isEmpty()) {
+return;
+}
+if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+WeightSynchronization now = new WeightSynchronization();
+now.pending.addAll(touched);
+now.afterCommit();
+return;
+}
+WeightSynchronization synchronization = null;
+for (TransactionSynchronization registered : TransactionSynchronizationManager.getSynchronizations()) {
+if (registered instanceof WeightSynchronization weightSynchronization) {
+synchronization = weightSynchronization;
+}
+}
+if (synchronization == null) {
+synchronization = new WeightSynchronization();
+TransactionSynchronizationManager.registerSynchronization(synchronization);
+}
+synchronization.pending.addAll(touched);
+}
+
+/**
+ * Adds or renames a crop type once the current transaction commits.
+ */
+public void onCropTypeSaved(CropType crop) {
+long weight = inventoryRepository.countByCropTypeId(crop.getId());
+afterCommit(() -> putCropType(crop, weight));
+}
+
+public void onCropTypeDeleted(Long id) {
+afterCommit(() -> tries.get(CROP_TYPE).remove(String.valueOf(id)));
+}
+
+/**
+ * Adds or renames a warehouse once the current transaction commits.
+ */
+public void onWarehouseSaved(StorageWarehouse warehouse) {
+long weight = inventoryRepository.countByWarehouseId(warehouse.getId());
+afterCommit(() -> putWarehouse(warehouse, weight));
+}
+
+public void onWarehouseDeleted(Long id) {
+afterCommit(() -> tries.get(WAREHOUSE).remove(String.valueOf(id)));
+}
+
+private void putCropType(CropType crop, long weight) {
+if (crop.getCropName() == null) {
+return;
+}
+tries.get(CROP_TYPE).put(String.valueOf(crop.getId()), crop.getCropName(), AutocompleteSuggestion.builder()
+.text(crop.getCropName())
+.type(CROP_TYPE)
+.id(crop.getId())
+.weight(weight)
+.build(), weight);
+}
+
+private void putWarehouse(StorageWarehouse warehouse, long weight) {
+if (warehouse.getWarehouseName() == null) {
+return;
+}
+tries.get(WAREHOUSE).put(String.valueOf(warehouse.getId()), warehouse.getWarehouseName(), AutocompleteSuggestion.builder()
+.text(warehouse.getWarehouseName())
+.type(WAREHOUSE)
+.id(warehouse.getId())
+.weight(weight)
+.build(), weight);
+}
+
+private void reweight(Weighted key, long weight) {
+PrefixTrie<AutocompleteSuggestion> trie = tries.get(key.type());
+PrefixTrie.Entry<AutocompleteSuggestion> entry = trie.get(String.valueOf(key.id()));
+if (entry == null || entry.weight() == weight) {
+return;
+}
+trie.put(entry.id(), entry.text(), AutocompleteSuggestion.builder()
+.text(entry.value().getText())
+.type(entry.value().getType())
+.id(entry.value().getId())
+.weight(weight)
+.build(), weight);
+}
+
+private record Weighted(String type, Long id) {
+}
+
+/**
+ * Collects the crop types and warehouses touched by one transaction's inventory
+ * writes. Deletes reach the listener while the commit flushes, so the counting
+ * waits for afterCommit and runs in a transaction of its own.
+ */
+private final class WeightSynchronization implements TransactionSynchronization {
+
+private final Set<Weighted> pending = new LinkedHashSet<>();
+
+@Override
+public void afterCommit() {
+Map<Weighted, Long> weights = countTransaction.execute(status -> {
+Map<Weighted, Long> counted = new LinkedHashMap<>();
+for (Weighted key : pending) {
+counted.put(key, CROP_TYPE.equals(key.type())
+? inventoryRepository.countByCropTypeId(key.id())
+: inventoryRepository.countByWarehouseId(key.id()));
+}
+return counted;
+});
+if (weights != null) {
+weights.forEach(AutocompleteService.this::reweight);
+}
+}
+}
+
+private void afterCommit(Runnable action) {
+if (TransactionSynchronizationManager.isSynchronizationActive()) {
+TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+@Override
+public void afterCommit() {
+action.run();
+}
+});
+} else {
+action.run();
+}
+}
+
+private static Map<Long, Long> counts(List<Object[]> rows) {
+Map<Long, Long> counts = new HashMap<>();
+for (Object[] row : rows) {
+if (row[0] != null) {
+counts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+}
+}
+return counts;
+}
+}
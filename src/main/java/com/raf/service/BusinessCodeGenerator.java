@@ -0,0 +1,94 @@
+package com.raf.service;
+
+import com.raf.enums.BusinessCodeType;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Year;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out short business codes such as {@code INV-2026-000123}. The number
+ * comes from a database sequence per code type, so codes are unique across
+ * every node without checking the table first. Each sequence steps by
+ * {@link #BLOCK_SIZE}; one {@code nextval} reserves a whole block for this node,
+ * which then serves the next {@link #BLOCK_SIZE} codes from memory. Numbers left
+ * in a block at shutdown are skipped, so codes are unique and increasing per
+ * node but not gapless. The year is for readers only; numbering does not
+ * restart with it.
+ */
+@Service
+@Slf4j
+public class BusinessCodeGenerator implements SmartInitializingSingleton {
+
+/**
+ * Codes reserved per sequence call. The sequences are created with this
+ * increment, so changing it requires altering them to match.
+ */
+static final int BLOCK_SIZE = 50;
+
+private final JdbcTemplate jdbcTemplate;
+private final EntityManagerFactory entityManagerFactory;
+private final Map<BusinessCodeType, Block> blocks = new EnumMap<>(BusinessCodeType.class);
+private final Map<BusinessCodeType, String> nextValueSql = new EnumMap<>(BusinessCodeType.class);
+
+public BusinessCodeGenerator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+this.jdbcTemplate = jdbcTemplate;
+this.entityManagerFactory = entityManagerFactory;
+for (BusinessCodeType type : BusinessCodeType.values()) {
+blocks.put(type, new Block());
+}
+}
+
+/**
+ * Creates the sequences before the application starts serving requests.
+ */
+@Override
+public void afterSingletonsInstantiated() {
+Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+for (BusinessCodeType type : BusinessCodeType.values()) {
+nextValueSql.put(type, dialect.getSequenceSupport().getSequenceNextValString(type.getSequenceName()));
+try {
+jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + type.getSequenceName()
++ " START WITH 1 INCREMENT BY " + BLOCK_SIZE);
+} catch (Exception e) {
+// Another node may have created it at the same moment; a missing sequence fails on first use.
+log.warn("Could not create sequence {}: {}", type.getSequenceName(), e.getMessage());
+}
+}
+}
+
+/**
+ * @return A new code of the given type, for example {@code TXN-2026-000042}.
+ */
+public String next(BusinessCodeType type) {
+return String.format("%s-%d-%06d", type.getPrefix(), Year.now().getValue(), nextValue(type));
+}
+
+long nextValue(BusinessCodeType type) {
+Block block = blocks.get(type);
+synchronized (block) {
+if (block.next >= block.limit) {
+// Runs on the caller's connection, so a busy pool cannot starve the allocation.
+Long start = jdbcTemplate.queryForObject(nextValueSql.get(type), Long.class);
+if (start == null) {
+throw new IllegalStateException("Sequence " + type.getSequenceName() + " returned no value");
+}
+block.next = start;
+block.limit = start + BLOCK_SIZE;
+}
+return block.next++;
+}
+}
+
+private static final class Block {
+private long next;
+private long limit;
+}
+}
@@ -22,6 +22,7 @@ import java.util.List;
 @Transactional
 public class CropTypeService {
 private final CropTypeRepository cropTypeRepository;
+private final AutocompleteService autocompleteService;
 @Lazy
 private final NotificationService notificationService;
 
@@ -32,6 +33,7 @@ throw new DuplicateResourceException("Crop type with code " + cropType.getCropCo
 
 log.info("Creating new crop type: {}", cropType.getCropName());
 CropType saved = cropTypeRepository.save(cropType);
+autocompleteService.onCropTypeSaved(saved);
 
 
 try {
@@ -113,6 +115,7 @@ cropType.setDescription(cropTypeDetails.getDescription());
 
 log.info("Updating crop type ID: {}", id);
 CropType saved = cropTypeRepository.save(cropType);
+autocompleteService.onCropTypeSaved(saved);
 
 
 try {
@@ -138,6 +141,7 @@ String cropName = cropType.getCropName();
 String cropCode = cropType.getCropCode();
 log.info("Deleting crop type ID: {}", id);
 cropTypeRepository.delete(cropType);
+autocompleteService.onCropTypeDeleted(id);
 
 
 try {
@@ -0,0 +1,503 @@
+package com.raf.service;
+
+import com.raf.entity.*;
+import com.raf.util.InvertedIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Keeps an in-memory inverted index for every entity type the dashboard search covers.
+ * The index is built once in the background after startup and then kept current by
+ * {@link SearchIndexEntityListener}. Until the first build finishes {@link #isReady()}
+ * returns false and callers fall back to scanning.
+ * <p>
+ * Documents also carry text copied from the users, crop types and warehouses they
+ * refer to. When that text changes, the documents that copied it are reindexed
+ * after the commit too.
+ */
+@Service
+@Slf4j
+public class DashboardSearchIndex {
+
+public static final String CROP_TYPE = "crop_type";
+public static final String LOCATION = "location";
+public static final String USER = "user";
+public static final String WAREHOUSE = "warehouse";
+public static final String INVENTORY = "inventory";
+public static final String TRANSACTION = "transaction";
+public static final String ENQUIRY = "enquiry";
+public static final String MESSAGE = "message";
+public static final String RATING = "rating";
+public static final String NOTIFICATION = "notification";
+public static final String INVENTORY_REQUEST = "inventory_request";
+public static final String WAREHOUSE_ACCESS = "warehouse_access";
+public static final String WITHDRAWAL = "withdrawal";
+
+private static final int BUILD_PAGE_SIZE = 1000;
+
+@PersistenceContext
+private EntityManager entityManager;
+
+private final TransactionTemplate readOnlyTransaction;
+private final boolean enabled;
+private final Map<String, DocSpec<?>> specsByType = new LinkedHashMap<>();
+private final Map<Class<?>, DocSpec<?>> specsByClass = new HashMap<>();
+private final Set<PendingChange> changesDuringBuild = new LinkedHashSet<>();
+private final Map<String, Source<?>> sourcesByType = new HashMap<>();
+// Last copied text seen per source entity, keyed by type tag, to tell renames from other edits.
+private final Map<String, String> copiedText = new ConcurrentHashMap<>();
+
+private volatile Map<String, InvertedIndex<Object>> indexes;
+private boolean building;
+
+public DashboardSearchIndex(PlatformTransactionManager transactionManager,
+@Value("${app.search.index.enabled:true}") boolean enabled) {
+this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+this.readOnlyTransaction.setReadOnly(true);
+this.enabled = enabled;
+registerSpecs();
+registerSources();
+}
+
+public static String tag(String name, Object id) {
+return name + ":" + id;
+}
+
+public boolean isReady() {
+return indexes != null;
+}
+
+/**
+ * Looks up matching entity ids of one type.
+ *
+ * @param type One of the type constants of this class.
+ * @param searchTerm The search text.
+ * @param anyOfTags Owner/role tags the document must carry at least one of, or null for no filter.
+ * @param offset Number of matches to skip.
+ * @param limit Maximum number of ids to return.
+ * @return Matching ids, or an empty list when the index is not ready.
+ */
+public List<Object> search(String type, String searchTerm, Collection<String> anyOfTags, int offset, int limit) {
+Map<String, InvertedIndex<Object>> current = indexes;
+if (current == null || !current.containsKey(type)) {
+return new ArrayList<>();
+}
+return current.get(type).search(searchTerm, anyOfTags, offset, limit);
+}
+
+@EventListener(ApplicationReadyEvent.class)
+public void buildOnStartup() {
+if (!enabled) {
+log.info("Dashboard search index disabled; searches will scan the database");
+return;
+}
+Thread builder = new Thread(this::rebuild, "dashboard-search-index-builder");
+builder.setDaemon(true);
+builder.start();
+}
+
+/**
+ * Builds a fresh set of indexes from the database and swaps them in.
+ * Changes committed while the build runs are replayed afterwards.
+ */
+public void rebuild() {
+synchronized (changesDuringBuild) {
+building = true;
+changesDuringBuild.clear();
+}
+long started = System.currentTimeMillis();
+try {
+Map<String, InvertedIndex<Object>> fresh = new HashMap<>();
+for (DocSpec<?> spec : specsByType.values()) {
+fresh.put(spec.type(), buildIndex(spec));
+}
+List<PendingChange> replay;
+synchronized (changesDuringBuild) {
+indexes = fresh;
+building = false;
+replay = new ArrayList<>(changesDuringBuild);
+changesDuringBuild.clear();
+}
+if (!replay.isEmpty()) {
+readOnlyTransaction.executeWithoutResult(status -> apply(replay));
+}
+log.info("Dashboard search index built in {} ms ({})", System.currentTimeMillis() - started, describe(fresh));
+} catch (Exception e) {
+synchronized (changesDuringBuild) {
+building = false;
+}
+log.error("Failed to build dashboard search index, searches will keep scanning: {}", e.getMessage(), e);
+}
+}
+
+void onSaved(Object entity) {
+record(entity, false);
+}
+
+void onRemoved(Object entity) {
+record(entity, true);
+}
+
+private void record(Object entity, boolean removed) {
+DocSpec<?> spec = specFor(entity);
+if (!enabled || spec == null) {
+return;
+}
+Object id = spec.idOf(entity);
+if (id == null) {
+return;
+}
+PendingChange change = new PendingChange(spec.type(), id, removed);
+
+if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+readOnlyTransaction.executeWithoutResult(status -> apply(List.of(change)));
+return;
+}
+
+IndexSynchronization synchronization = null;
+for (TransactionSynchronization registered : TransactionSynchronizationManager.getSynchronizations()) {
+if (registered instanceof IndexSynchronization indexSynchronization) {
+synchronization = indexSynchronization;
+}
+}
+if (synchronization == null) {
+synchronization = new IndexSynchronization();
+TransactionSynchronizationManager.registerSynchronization(synchronization);
+}
+synchronization.changes.remove(change.opposite());
+synchronization.changes.add(change);
+}
+
+private void apply(List<PendingChange> changes) {
+Map<String, InvertedIndex<Object>> current;
+synchronized (changesDuringBuild) {
+if (building) {
+changesDuringBuild.addAll(changes);
+}
+current = indexes;
+}
+if (current == null) {
+return;
+}
+for (PendingChange change : changes) {
+try {
+InvertedIndex<Object> index = current.get(change.type());
+if (change.removed()) {
+index.remove(change.id());
+copiedText.remove(tag(change.type(), change.id()));
+continue;
+}
+DocSpec<?> spec = specsByType.get(change.type());
+Object entity = entityManager.find(spec.entityClass(), change.id());
+if (entity == null) {
+index.remove(change.id());
+} else {
+spec.put(index, entity);
+List<PendingChange> dependents = dependentsOf(change.type(), change.id(), entity);
+if (!dependents.isEmpty()) {
+apply(dependents);
+}
+}
+} catch (Exception e) {
+log.warn("Failed to update search index for {} {}: {}", change.type(), change.id(), e.getMessage());
+}
+}
+}
+
+private <T> InvertedIndex<Object> buildIndex(DocSpec<T> spec) {
+InvertedIndex<Object> index = new InvertedIndex<>();
+int first = 0;
+while (true) {
+int offset = first;
+List<T> page = readOnlyTransaction.execute(status -> {
+List<T> rows = entityManager.createQuery(spec.loadQuery(), spec.entityClass())
+.setFirstResult(offset)
+.setMaxResults(BUILD_PAGE_SIZE)
+.getResultList();
+rows.forEach(row -> {
+spec.put(index, row);
+remember(spec.type(), spec.idOf(row), row);
+});
+entityManager.clear();
+return rows;
+});
+if (page == null || page.size() < BUILD_PAGE_SIZE) {
+return index;
+}
+first += BUILD_PAGE_SIZE;
+}
+}
+
+/**
+ * The documents that copied text from a user, crop type or warehouse, when
+ * that text differs from what was indexed last.
+ */
+private List<PendingChange> dependentsOf(String type, Object id, Object entity) {
+String previous = remember(type, id, entity);
+Source<?> source = sourcesByType.get(type);
+if (source == null || previous == null || previous.equals(copiedText.get(tag(type, id)))) {
+return List.of();
+}
+List<PendingChange> dependents = new ArrayList<>();
+for (Map.Entry<String, String> dependent : source.dependents().entrySet()) {
+entityManager.createQuery(dependent.getValue(), Long.class)
+.setParameter("id", id)
+.getResultList()
+.forEach(dependentId -> dependents.add(new PendingChange(dependent.getKey(), dependentId, false)));
+}
+log.debug("Reindexing {} documents that copy text from {} {}", dependents.size(), type, id);
+return dependents;
+}
+
+/**
+ * Records the copied text of a source entity.
+ *
+ * @return The text recorded before, or null for entities seen for the first time and for other types.
+ */
+private String remember(String type, Object id, Object entity) {
+Source<?> source = sourcesByType.get(type);
+return source != null ? copiedText.put(tag(type, id), source.textOf(entity)) : null;
+}
+
+private DocSpec<?> specFor(Object entity) {
+for (Map.Entry<Class<?>, DocSpec<?>> entry : specsByClass.entrySet()) {
+if (entry.getKey().isInstance(entity)) {
+return entry.getValue();
+}
+}
+return null;
+}
+
+private String describe(Map<String, InvertedIndex<Object>> built) {
+StringJoiner joiner = new StringJoiner(", ");
+built.forEach((type, index) -> joiner.add(type + "=" + index.size()));
+return joiner.toString();
+}
+
+private void registerSpecs() {
+register(new DocSpec<>(CROP_TYPE, CropType.class,
+"SELECT c FROM CropType c ORDER BY c.id",
+CropType::getId,
+crop -> fields(crop.getCropName(), crop.getCropCode(), crop.getCategory(), crop.getDescription(), crop.getPricePerKg()),
+crop -> List.of()));
+
+register(new DocSpec<>(LOCATION, Location.class,
+"SELECT l FROM Location l ORDER BY l.id",
+Location::getId,
+location -> fields(location.getProvince(), location.getDistrict(), location.getSector(), location.getCell(), location.getVillage(), location.getCode()),
+location -> List.of()));
+
+register(new DocSpec<>(USER, User.class,
+"SELECT u FROM User u ORDER BY u.id",
+User::getId,
+user -> fields(user.getEmail(), user.getFirstName(), user.getLastName(), user.getUserCode(), user.getPhoneNumber(), user.getUserType(), user.getStatus()),
+user -> List.of()));
+
+register(new DocSpec<>(WAREHOUSE, StorageWarehouse.class,
+"SELECT w FROM StorageWarehouse w LEFT JOIN FETCH w.location ORDER BY w.id",
+StorageWarehouse::getId,
+warehouse -> fields(warehouse.getWarehouseName(), warehouse.getWarehouseCode(), warehouse.getWarehouseType(),
+warehouse.getLocation() != null ? warehouse.getLocation().getVillage() : null, warehouse.getStatus()),
+warehouse -> List.of(tag("warehouse", warehouse.getId()))));
+
+register(new DocSpec<>(INVENTORY, Inventory.class,
+"SELECT i FROM Inventory i LEFT JOIN FETCH i.cropType LEFT JOIN FETCH i.warehouse ORDER BY i.id",
+Inventory::getId,
+inventory -> fields(inventory.getInventoryCode(),
+inventory.getCropType() != null ? inventory.getCropType().getCropName() : null,
+inventory.getCropType() != null ? inventory.getCropType().getCropCode() : null,
+inventory.getQualityGrade(), inventory.getNotes(), inventory.getStatus(),
+inventory.getWarehouse() != null ? inventory.getWarehouse().getWarehouseName() : null),
+inventory -> tags(
+idTag("farmer", inventory.getFarmer()),
+inventory.getWarehouse() != null ? tag("warehouse", inventory.getWarehouse().getId()) : null,
+inventory.getStatus() != null ? tag("status", inventory.getStatus()) : null)));
+
+register(new DocSpec<>(TRANSACTION, Transaction.class,
+"SELECT t FROM Transaction t LEFT JOIN FETCH t.inventory i LEFT JOIN FETCH i.cropType LEFT JOIN FETCH t.buyer LEFT JOIN FETCH t.seller ORDER BY t.id",
+Transaction::getId,
+transaction -> fields(transaction.getTransactionCode(), transaction.getPaymentStatus(), transaction.getDeliveryStatus(), transaction.getTotalAmount(),
+cropName(transaction.getInventory()), personFields(transaction.getBuyer()), personFields(transaction.getSeller())),
+transaction -> tags(idTag("buyer", transaction.getBuyer()), idTag("seller", transaction.getSeller()))));
+
+register(new DocSpec<>(ENQUIRY, Enquiry.class,
+"SELECT e FROM Enquiry e LEFT JOIN FETCH e.inventory i LEFT JOIN FETCH i.cropType LEFT JOIN FETCH e.buyer LEFT JOIN FETCH e.farmer ORDER BY e.id",
+Enquiry::getId,
+enquiry -> fields(enquiry.getEnquiryCode(), enquiry.getMessage(), enquiry.getStatus(), enquiry.getProposedQuantityKg(), enquiry.getProposedPricePerKg(),
+cropName(enquiry.getInventory()), personFields(enquiry.getBuyer()), personFields(enquiry.getFarmer())),
+enquiry -> tags(idTag("buyer", enquiry.getBuyer()), idTag("farmer", enquiry.getFarmer()))));
+
+register(new DocSpec<>(MESSAGE, Message.class,
+"SELECT m FROM Message m LEFT JOIN FETCH m.sender LEFT JOIN FETCH m.receiver LEFT JOIN FETCH m.relatedInventory i LEFT JOIN FETCH i.cropType ORDER BY m.id",
+Message::getId,
+message -> fields(message.getMessageCode(), message.getSubject(), message.getContent(),
+personFields(message.getSender()), personFields(message.getReceiver()), cropName(message.getRelatedInventory())),
+message -> tags(idTag("participant", message.getSender()), idTag("participant", message.getReceiver()))));
+
+register(new DocSpec<>(RATING, Rating.class,
+"SELECT r FROM Rating r LEFT JOIN FETCH r.rater LEFT JOIN FETCH r.ratedUser LEFT JOIN FETCH r.transaction ORDER BY r.id",
+Rating::getId,
+rating -> fields(rating.getComment(), rating.getRatingScore(), rating.getRatingType(),
+personFields(rating.getRater()), personFields(rating.getRatedUser()),
+rating.getTransaction() != null ? rating.getTransaction().getTransactionCode() : null),
+rating -> tags(idTag("participant", rating.getRater()), idTag("participant", rating.getRatedUser()))));
+
+register(new DocSpec<>(NOTIFICATION, Notification.class,
+"SELECT n FROM Notification n LEFT JOIN FETCH n.user ORDER BY n.id",
+Notification::getId,
+notification -> fields(notification.getTitle(), notification.getMessage(), notification.getType(), personFields(notification.getUser())),
+notification -> tags(idTag("user", notification.getUser()))));
+
+register(new DocSpec<>(INVENTORY_REQUEST, InventoryRequest.class,
+"SELECT r FROM InventoryRequest r LEFT JOIN FETCH r.inventory i LEFT JOIN FETCH i.cropType LEFT JOIN FETCH r.farmer LEFT JOIN FETCH r.storekeeper ORDER BY r.id",
+InventoryRequest::getId,
+request -> fields(request.getRequestCode(), request.getNewNotes(), request.getFarmerNotes(), request.getStorekeeperResponse(),
+request.getStatus(), request.getRequestType(), cropName(request.getInventory()),
+personFields(request.getFarmer()), personFields(request.getStorekeeper())),
+request -> tags(idTag("farmer", request.getFarmer()), idTag("storekeeper", request.getStorekeeper()))));
+
+register(new DocSpec<>(WAREHOUSE_ACCESS, WarehouseAccess.class,
+"SELECT a FROM WarehouseAccess a LEFT JOIN FETCH a.user LEFT JOIN FETCH a.warehouse ORDER BY a.id",
+WarehouseAccess::getId,
+access -> fields(access.getNotes(), access.getStatus(), access.getAccessLevel(), personFields(access.getUser()),
+access.getWarehouse() != null ? access.getWarehouse().getWarehouseName() : null,
+access.getWarehouse() != null ? access.getWarehouse().getWarehouseCode() : null),
+access -> tags(idTag("user", access.getUser()))));
+
+register(new DocSpec<>(WITHDRAWAL, Withdrawal.class,
+"SELECT w FROM Withdrawal w LEFT JOIN FETCH w.wallet ORDER BY w.id",
+Withdrawal::getId,
+withdrawal -> fields(withdrawal.getWithdrawalCode(), withdrawal.getStatus(), withdrawal.getAmount(), withdrawal.getAccountNumber(),
+withdrawal.getBankName(), withdrawal.getAccountName(), withdrawal.getProcessingNotes()),
+withdrawal -> tags(withdrawal.getWallet() != null ? idTag("user", withdrawal.getWallet().getUser()) : null)));
+}
+
+/**
+ * Which documents copy text from users, crop types and warehouses: per
+ * dependent type, a query of the ids of documents that refer to {@code :id}.
+ */
+private void registerSources() {
+Map<String, String> userDependents = new LinkedHashMap<>();
+userDependents.put(TRANSACTION, "SELECT t.id FROM Transaction t WHERE t.buyer.id = :id OR t.seller.id = :id");
+userDependents.put(ENQUIRY, "SELECT e.id FROM Enquiry e WHERE e.buyer.id = :id OR e.farmer.id = :id");
+userDependents.put(MESSAGE, "SELECT m.id FROM Message m WHERE m.sender.id = :id OR m.receiver.id = :id");
+userDependents.put(RATING, "SELECT r.id FROM Rating r WHERE r.rater.id = :id OR r.ratedUser.id = :id");
+userDependents.put(NOTIFICATION, "SELECT n.id FROM Notification n WHERE n.user.id = :id");
+userDependents.put(INVENTORY_REQUEST, "SELECT r.id FROM InventoryRequest r WHERE r.farmer.id = :id OR r.storekeeper.id = :id");
+userDependents.put(WAREHOUSE_ACCESS, "SELECT a.id FROM WarehouseAccess a WHERE a.user.id = :id");
+registerSource(new Source<>(USER, User.class, DashboardSearchIndex::personFields, userDependents));
+
+Map<String, String> cropTypeDependents = new LinkedHashMap<>();
+cropTypeDependents.put(INVENTORY, "SELECT i.id FROM Inventory i WHERE i.cropType.id = :id");
+cropTypeDependents.put(TRANSACTION, "SELECT t.id FROM Transaction t WHERE t.inventory.cropType.id = :id");
+cropTypeDependents.put(ENQUIRY, "SELECT e.id FROM Enquiry e WHERE e.inventory.cropType.id = :id");
+cropTypeDependents.put(MESSAGE, "SELECT m.id FROM Message m WHERE m.relatedInventory.cropType.id = :id");
+cropTypeDependents.put(INVENTORY_REQUEST, "SELECT r.id FROM InventoryRequest r WHERE r.inventory.cropType.id = :id");
+registerSource(new Source<>(CROP_TYPE, CropType.class,
+crop -> String.join(" ", fields(crop.getCropName(), crop.getCropCode())), cropTypeDependents));
+
+Map<String, String> warehouseDependents = new LinkedHashMap<>();
+warehouseDependents.put(INVENTORY, "SELECT i.id FROM Inventory i WHERE i.warehouse.id = :id");
+warehouseDependents.put(WAREHOUSE_ACCESS, "SELECT a.id FROM WarehouseAccess a WHERE a.warehouse.id = :id");
+registerSource(new Source<>(WAREHOUSE, StorageWarehouse.class,
+warehouse -> String.join(" ", fields(warehouse.getWarehouseName(), warehouse.getWarehouseCode())), warehouseDependents));
+}
+
+private void registerSource(Source<?> source) {
+sourcesByType.put(source.type(), source);
+}
+
+private void register(DocSpec<?> spec) {
+specsByType.put(spec.type(), spec);
+specsByClass.put(spec.entityClass(), spec);
+}
+
+private static String cropName(Inventory inventory) {
+return inventory != null && inventory.getCropType() != null ? inventory.getCropType().getCropName() : null;
+}
+
+private static String personFields(User user) {
+return user != null ? String.join(" ", fields(user.getFirstName(), user.getLastName(), user.getEmail())) : null;
+}
+
+private static String idTag(String name, BaseEntity entity) {
+return entity != null && entity.getId() != null ? tag(name, entity.getId()) : null;
+}
+
+private static List<String> fields(Object... values) {
+List<String> fields = new ArrayList<>(values.length);
+for (Object value : values) {
+if (value != null) {
+fields.add(value.toString());
+}
+}
+return fields;
+}
+
+private static List<String> tags(String... values) {
+List<String> tags = new ArrayList<>(values.length);
+for (String value : values) {
+if (value != null) {
+tags.add(value);
+}
+}
+return tags;
+}
+
+/**
+ * Collects the changes of one transaction and applies them once it commits.
+ */
+private class IndexSynchronization implements TransactionSynchronization {
+
+private final Set<PendingChange> changes = new LinkedHashSet<>();
+
+@Override
+public void afterCommit() {
+// The committed persistence context is still bound here, so reloading
+// mostly hits the first-level cache instead of the database.
+apply(new ArrayList<>(changes));
+}
+}
+
+private record PendingChange(String type, Object id, boolean removed) {
+PendingChange opposite() {
+return new PendingChange(type, id, !removed);
+}
+}
+
+/**
+ * An entity type whose text other documents copy, with the queries finding those documents by type.
+ */
+private record Source<T>(String type, Class<T> entityClass, Function<T, String> text, Map<String, String> dependents) {
+
+String textOf(Object entity) {
+return Objects.toString(text.apply(entityClass.cast(entity)), "");
+}
+}
+
+private record DocSpec<T>(String type, Class<T> entityClass, String loadQuery, Function<T, Object> id,
+Function<T, List<String>> fields, Function<T, List<String>> tags) {
+
+Object idOf(Object entity) {
+return id.apply(entityClass.cast(entity));
+}
+
+void put(InvertedIndex<Object> index, Object entity) {
+T typed = entityClass.cast(entity);
+index.put(id.apply(typed), fields.apply(typed), tags.apply(typed));
+}
+}
+}
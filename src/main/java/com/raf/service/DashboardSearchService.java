@@ -3,15 +3,31 @@ package com.raf.service;
 import com.raf.entity.*;
 import com.raf.enums.UserType;
 import com.raf.repository.*;
+import com.raf.util.LegFanOut;
+import com.raf.util.RankedMerge;
+import com.raf.util.SearchCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +49,25 @@ private final LocationRepository locationRepository;
 private final NotificationRepository notificationRepository;
 private final InventoryRequestRepository inventoryRequestRepository;
 private final WithdrawalRepository withdrawalRepository;
-
+private final DashboardSearchIndex searchIndex;
+private final PlatformTransactionManager transactionManager;
+@Qualifier("searchExecutor")
+private final ThreadPoolTaskExecutor searchExecutor;
+
+private static final int LEG_LIMIT = 50;
+private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+@Value("${app.search.fanout.timeout-ms:2000}")
+private long searchTimeoutMs;
+
+/**
+ * Runs every search leg for the caller's role concurrently on the bounded
+ * search executor. Each leg gets its own read-only transaction (and so its own
+ * connection); legs that fail, are rejected by a saturated executor or are still
+ * running when the latency budget expires are left out and the response is
+ * flagged as partial.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
 public Map<String, Object> search(String query, Long userId, UserType userType, int page, int size) {
 log.info("Dashboard search query: '{}' for user {} (type: {}) (page: {}, size: {})",
 query, userId, userType, page, size);
@@ -44,70 +78,28 @@ if (searchTerm.isEmpty()) {
 return createEmptyResults();
 }
 
-Map<String, Object> results = new HashMap<>();
-List<Map<String, Object>> allResults = new ArrayList<>();
-
-try {
-allResults.addAll(searchCropTypes(searchTerm));
-allResults.addAll(searchLocations(searchTerm));
-} catch (Exception e) {
-log.warn("Error searching crop types or locations: {}", e.getMessage());
-}
+Map<String, Callable<List<Map<String, Object>>>> legs = new LinkedHashMap<>();
+searchLegs(searchTerm, userId, userType).forEach((name, leg) -> legs.put(name, () -> runLeg(leg)));
+LegFanOut.Outcome<Map<String, Object>> outcome = LegFanOut.run(legs, searchExecutor, searchTimeoutMs);
 
-if (userType == UserType.ADMIN) {
-try {
-allResults.addAll(searchUsers(searchTerm));
-allResults.addAll(searchWarehouses(searchTerm));
-allResults.addAll(searchAllInventory(searchTerm));
-allResults.addAll(searchAllTransactions(searchTerm));
-allResults.addAll(searchAllEnquiries(searchTerm));
-allResults.addAll(searchAllMessages(searchTerm));
-allResults.addAll(searchAllRatings(searchTerm));
-allResults.addAll(searchAllNotifications(searchTerm));
-allResults.addAll(searchAllInventoryRequests(searchTerm));
-allResults.addAll(searchAllWarehouseAccesses(searchTerm));
-allResults.addAll(searchAllWithdrawals(searchTerm));
-} catch (Exception e) {
-log.warn("Error in admin search: {}", e.getMessage());
-}
-} else if (userType == UserType.FARMER) {
-try {
-allResults.addAll(searchFarmerInventory(userId, searchTerm));
-allResults.addAll(searchFarmerTransactions(userId, searchTerm));
-allResults.addAll(searchFarmerEnquiries(userId, searchTerm));
-allResults.addAll(searchFarmerMessages(userId, searchTerm));
-allResults.addAll(searchFarmerRatings(userId, searchTerm));
-allResults.addAll(searchFarmerNotifications(userId, searchTerm));
-allResults.addAll(searchFarmerInventoryRequests(userId, searchTerm));
-allResults.addAll(searchFarmerWarehouseAccesses(userId, searchTerm));
-allResults.addAll(searchFarmerWithdrawals(userId, searchTerm));
-} catch (Exception e) {
-log.warn("Error in farmer search: {}", e.getMessage());
-}
-} else if (userType == UserType.BUYER) {
-try {
-allResults.addAll(searchBuyerTransactions(userId, searchTerm));
-allResults.addAll(searchBuyerEnquiries(userId, searchTerm));
-allResults.addAll(searchAvailableInventory(searchTerm));
-allResults.addAll(searchBuyerMessages(userId, searchTerm));
-allResults.addAll(searchBuyerRatings(userId, searchTerm));
-allResults.addAll(searchBuyerNotifications(userId, searchTerm));
-allResults.addAll(searchBuyerWithdrawals(userId, searchTerm));
-} catch (Exception e) {
-log.warn("Error in buyer search: {}", e.getMessage());
-}
-} else if (userType == UserType.STOREKEEPER) {
-try {
-allResults.addAll(searchStorekeeperWarehouses(userId, searchTerm));
-allResults.addAll(searchStorekeeperInventory(userId, searchTerm));
-allResults.addAll(searchStorekeeperMessages(userId, searchTerm));
-allResults.addAll(searchStorekeeperNotifications(userId, searchTerm));
-allResults.addAll(searchStorekeeperInventoryRequests(userId, searchTerm));
-allResults.addAll(searchStorekeeperWarehouseAccesses(userId, searchTerm));
-} catch (Exception e) {
-log.warn("Error in storekeeper search: {}", e.getMessage());
-}
-}
+Map<String, Object> results = new HashMap<>();
+List<Map<String, Object>> allResults = outcome.results();
+boolean partial = outcome.partial();
+Map<String, Map<String, Object>> legTimings = new LinkedHashMap<>();
+outcome.legs().forEach((name, leg) -> {
+Map<String, Object> timing = new LinkedHashMap<>();
+timing.put("durationMs", leg.durationMs());
+timing.put("status", leg.status().name().toLowerCase());
+timing.put("results", leg.results().size());
+legTimings.put(name, timing);
+switch (leg.status()) {
+case TIMEOUT -> log.warn("Dashboard search leg '{}' missed the {} ms budget", name, searchTimeoutMs);
+case REJECTED -> log.warn("Dashboard search leg '{}' was rejected: the search executor is saturated", name);
+case FAILED -> log.warn("Error in dashboard search leg '{}': {}", name, leg.error().getMessage());
+default -> {
+}
+}
+});
 
 int start = page * size;
 int end = Math.min(start + size, allResults.size());
@@ -122,9 +114,11 @@ results.put("page", page);
 results.put("size", size);
 results.put("hasNext", end < allResults.size());
 results.put("hasPrevious", page > 0);
+results.put("partial", partial);
+results.put("legTimings", legTimings);
 
-log.info("Dashboard search found {} total results, returning {} results for page {}",
-allResults.size(), paginatedResults.size(), page);
+log.info("Dashboard search found {} total results, returning {} results for page {}{}",
+allResults.size(), paginatedResults.size(), page, partial ? " (partial)" : "");
 
 return results;
 } catch (Exception e) {
@@ -133,463 +127,471 @@ return createEmptyResults();
 }
 }
 
-private List<Map<String, Object>> searchCropTypes(String searchTerm) {
-return cropTypeRepository.findAll().stream()
-.filter(crop -> matchesCropType(crop, searchTerm))
-.limit(50)
+/**
+ * Cursor-paged variant of {@link #search}. Every leg is read lazily from the
+ * position recorded in the cursor and the legs are merged with
+ * {@link RankedMerge}, so a deep page costs the same as the first one.
+ *
+ * @param cursor The {@code nextCursor} of the previous page, or null for the first page.
+ * @throws IllegalArgumentException If the cursor is malformed or was issued for another query.
+ */
+public Map<String, Object> searchWithCursor(String query, Long userId, UserType userType, String cursor, int size) {
+String searchTerm = query != null ? query.trim().toLowerCase() : "";
+int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+String fingerprint = userType + ":" + userId + ":" + searchTerm;
+Map<String, Integer> positions = SearchCursor.decode(cursor, fingerprint);
+log.info("Dashboard cursor search query: '{}' for user {} (type: {}) (size: {})", query, userId, userType, pageSize);
+
+Map<String, Object> results = new HashMap<>();
+if (searchTerm.isEmpty()) {
+results.put("content", new ArrayList<>());
+results.put("size", pageSize);
+results.put("hasNext", false);
+results.put("nextCursor", null);
+return results;
+}
+
+RankedMerge.Window<Map<String, Object>> window = RankedMerge.window(
+searchLegs(searchTerm, userId, userType), positions, pageSize);
+
+results.put("content", window.items());
+results.put("size", pageSize);
+results.put("hasNext", window.hasMore());
+results.put("nextCursor", window.hasMore() ? SearchCursor.encode(fingerprint, window.positions()) : null);
+return results;
+}
+
+/**
+ * Lists the search legs for a role, keyed by the name reported in {@code legTimings}.
+ * Crop types and locations are searched for every role.
+ */
+private Map<String, RankedMerge.Source<Map<String, Object>>> searchLegs(String searchTerm, Long userId, UserType userType) {
+Map<String, RankedMerge.Source<Map<String, Object>>> legs = new LinkedHashMap<>();
+legs.put("cropTypes", (offset, limit) -> searchCropTypes(searchTerm, offset, limit));
+legs.put("locations", (offset, limit) -> searchLocations(searchTerm, offset, limit));
+
+if (userType == UserType.ADMIN) {
+legs.put("users", (offset, limit) -> searchUsers(searchTerm, offset, limit));
+legs.put("warehouses", (offset, limit) -> searchWarehouses(searchTerm, offset, limit));
+legs.put("inventory", (offset, limit) -> searchAllInventory(searchTerm, offset, limit));
+legs.put("transactions", (offset, limit) -> searchAllTransactions(searchTerm, offset, limit));
+legs.put("enquiries", (offset, limit) -> searchAllEnquiries(searchTerm, offset, limit));
+legs.put("messages", (offset, limit) -> searchAllMessages(searchTerm, offset, limit));
+legs.put("ratings", (offset, limit) -> searchAllRatings(searchTerm, offset, limit));
+legs.put("notifications", (offset, limit) -> searchAllNotifications(searchTerm, offset, limit));
+legs.put("inventoryRequests", (offset, limit) -> searchAllInventoryRequests(searchTerm, offset, limit));
+legs.put("warehouseAccesses", (offset, limit) -> searchAllWarehouseAccesses(searchTerm, offset, limit));
+legs.put("withdrawals", (offset, limit) -> searchAllWithdrawals(searchTerm, offset, limit));
+} else if (userType == UserType.FARMER) {
+legs.put("inventory", (offset, limit) -> searchFarmerInventory(userId, searchTerm, offset, limit));
+legs.put("transactions", (offset, limit) -> searchFarmerTransactions(userId, searchTerm, offset, limit));
+legs.put("enquiries", (offset, limit) -> searchFarmerEnquiries(userId, searchTerm, offset, limit));
+legs.put("messages", (offset, limit) -> searchFarmerMessages(userId, searchTerm, offset, limit));
+legs.put("ratings", (offset, limit) -> searchFarmerRatings(userId, searchTerm, offset, limit));
+legs.put("notifications", (offset, limit) -> searchFarmerNotifications(userId, searchTerm, offset, limit));
+legs.put("inventoryRequests", (offset, limit) -> searchFarmerInventoryRequests(userId, searchTerm, offset, limit));
+legs.put("warehouseAccesses", (offset, limit) -> searchFarmerWarehouseAccesses(userId, searchTerm, offset, limit));
+legs.put("withdrawals", (offset, limit) -> searchFarmerWithdrawals(userId, searchTerm, offset, limit));
+} else if (userType == UserType.BUYER) {
+legs.put("transactions", (offset, limit) -> searchBuyerTransactions(userId, searchTerm, offset, limit));
+legs.put("enquiries", (offset, limit) -> searchBuyerEnquiries(userId, searchTerm, offset, limit));
+legs.put("inventory", (offset, limit) -> searchAvailableInventory(searchTerm, offset, limit));
+legs.put("messages", (offset, limit) -> searchBuyerMessages(userId, searchTerm, offset, limit));
+legs.put("ratings", (offset, limit) -> searchBuyerRatings(userId, searchTerm, offset, limit));
+legs.put("notifications", (offset, limit) -> searchBuyerNotifications(userId, searchTerm, offset, limit));
+legs.put("withdrawals", (offset, limit) -> searchBuyerWithdrawals(userId, searchTerm, offset, limit));
+} else if (userType == UserType.STOREKEEPER) {
+legs.put("warehouses", (offset, limit) -> searchStorekeeperWarehouses(userId, searchTerm, offset, limit));
+legs.put("inventory", (offset, limit) -> searchStorekeeperInventory(userId, searchTerm, offset, limit));
+legs.put("messages", (offset, limit) -> searchStorekeeperMessages(userId, searchTerm, offset, limit));
+legs.put("notifications", (offset, limit) -> searchStorekeeperNotifications(userId, searchTerm, offset, limit));
+legs.put("inventoryRequests", (offset, limit) -> searchStorekeeperInventoryRequests(userId, searchTerm, offset, limit));
+legs.put("warehouseAccesses", (offset, limit) -> searchStorekeeperWarehouseAccesses(userId, searchTerm, offset, limit));
+}
+return legs;
+}
+
+private List<Map<String, Object>> runLeg(RankedMerge.Source<Map<String, Object>> leg) {
+TransactionTemplate template = new TransactionTemplate(transactionManager);
+template.setReadOnly(true);
+template.setTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(searchTimeoutMs + 999)));
+return template.execute(status -> leg.fetch(0, LEG_LIMIT));
+}
+
+private List<Map<String, Object>> searchCropTypes(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.CROP_TYPE, searchTerm, offset, limit, null, cropTypeRepository, CropType::getId, this::mapCropTypeToResult,
+() -> cropTypeRepository.findAll().stream()
+.filter(SearchMatchers.cropTypes(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapCropTypeToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchLocations(String searchTerm) {
-return locationRepository.findAll().stream()
-.filter(location -> matchesLocation(location, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchLocations(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.LOCATION, searchTerm, offset, limit, null, locationRepository, Location::getId, this::mapLocationToResult,
+() -> locationRepository.findAll().stream()
+.filter(SearchMatchers.locations(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapLocationToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchUsers(String searchTerm) {
-return userRepository.findAll().stream()
-.filter(user -> matchesUser(user, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchUsers(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.USER, searchTerm, offset, limit, null, userRepository, User::getId, this::mapUserToResult,
+() -> userRepository.findAll().stream()
+.filter(SearchMatchers.users(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapUserToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchWarehouses(String searchTerm) {
-return warehouseRepository.findAll().stream()
-.filter(warehouse -> matchesWarehouse(warehouse, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchWarehouses(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.WAREHOUSE, searchTerm, offset, limit, null, warehouseRepository, StorageWarehouse::getId, this::mapWarehouseToResult,
+() -> warehouseRepository.findAll().stream()
+.filter(SearchMatchers.warehouses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllInventory(String searchTerm) {
-return inventoryRepository.findAll().stream()
-.filter(inventory -> matchesInventory(inventory, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllInventory(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY, searchTerm, offset, limit, null, inventoryRepository, Inventory::getId, this::mapInventoryToResult,
+() -> inventoryRepository.findAll().stream()
+.filter(SearchMatchers.inventories(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllTransactions(String searchTerm) {
-return transactionRepository.findAll().stream()
-.filter(transaction -> matchesTransaction(transaction, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllTransactions(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.TRANSACTION, searchTerm, offset, limit, null, transactionRepository, Transaction::getId, this::mapTransactionToResult,
+() -> transactionRepository.findAll().stream()
+.filter(SearchMatchers.transactions(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapTransactionToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllEnquiries(String searchTerm) {
-return enquiryRepository.findAll().stream()
-.filter(enquiry -> matchesEnquiry(enquiry, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllEnquiries(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.ENQUIRY, searchTerm, offset, limit, null, enquiryRepository, Enquiry::getId, this::mapEnquiryToResult,
+() -> enquiryRepository.findAll().stream()
+.filter(SearchMatchers.enquiries(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapEnquiryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllMessages(String searchTerm) {
-return messageRepository.findAll().stream()
-.filter(message -> matchesMessage(message, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllMessages(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.MESSAGE, searchTerm, offset, limit, null, messageRepository, Message::getId, this::mapMessageToResult,
+() -> messageRepository.findAll().stream()
+.filter(SearchMatchers.messages(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapMessageToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllRatings(String searchTerm) {
-return ratingRepository.findAll().stream()
-.filter(rating -> matchesRating(rating, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllRatings(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.RATING, searchTerm, offset, limit, null, ratingRepository, Rating::getId, this::mapRatingToResult,
+() -> ratingRepository.findAll().stream()
+.filter(SearchMatchers.ratings(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapRatingToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllNotifications(String searchTerm) {
-return notificationRepository.findAll().stream()
-.filter(notification -> matchesNotification(notification, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllNotifications(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.NOTIFICATION, searchTerm, offset, limit, null, notificationRepository, Notification::getId, this::mapNotificationToResult,
+() -> notificationRepository.findAll().stream()
+.filter(SearchMatchers.notifications(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapNotificationToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllInventoryRequests(String searchTerm) {
-return inventoryRequestRepository.findAll().stream()
-.filter(request -> matchesInventoryRequest(request, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllInventoryRequests(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY_REQUEST, searchTerm, offset, limit, null, inventoryRequestRepository, InventoryRequest::getId, this::mapInventoryRequestToResult,
+() -> inventoryRequestRepository.findAll().stream()
+.filter(SearchMatchers.inventoryRequests(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryRequestToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllWarehouseAccesses(String searchTerm) {
-return warehouseAccessRepository.findAll().stream()
-.filter(access -> matchesWarehouseAccess(access, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllWarehouseAccesses(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.WAREHOUSE_ACCESS, searchTerm, offset, limit, null, warehouseAccessRepository, WarehouseAccess::getId, this::mapWarehouseAccessToResult,
+() -> warehouseAccessRepository.findAll().stream()
+.filter(SearchMatchers.warehouseAccesses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseAccessToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAllWithdrawals(String searchTerm) {
-return withdrawalRepository.findAll().stream()
-.filter(withdrawal -> matchesWithdrawal(withdrawal, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAllWithdrawals(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.WITHDRAWAL, searchTerm, offset, limit, null, withdrawalRepository, Withdrawal::getId, this::mapWithdrawalToResult,
+() -> withdrawalRepository.findAll().stream()
+.filter(SearchMatchers.withdrawals(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWithdrawalToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchFarmerInventory(Long farmerId, String searchTerm) {
-return inventoryRepository.findByFarmerId(farmerId).stream()
-.filter(inventory -> matchesInventory(inventory, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchFarmerInventory(Long farmerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY, searchTerm, offset, limit, ownerTags("farmer", farmerId), inventoryRepository, Inventory::getId, this::mapInventoryToResult,
+() -> inventoryRepository.findByFarmerId(farmerId).stream()
+.filter(SearchMatchers.inventories(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchFarmerTransactions(Long farmerId, String searchTerm) {
-return transactionRepository.findBySellerId(farmerId).stream()
-.filter(transaction -> matchesTransaction(transaction, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchFarmerTransactions(Long farmerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.TRANSACTION, searchTerm, offset, limit, ownerTags("seller", farmerId), transactionRepository, Transaction::getId, this::mapTransactionToResult,
+() -> transactionRepository.findBySellerId(farmerId).stream()
+.filter(SearchMatchers.transactions(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapTransactionToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchFarmerEnquiries(Long farmerId, String searchTerm) {
-return enquiryRepository.findByFarmerId(farmerId).stream()
-.filter(enquiry -> matchesEnquiry(enquiry, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchFarmerEnquiries(Long farmerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.ENQUIRY, searchTerm, offset, limit, ownerTags("farmer", farmerId), enquiryRepository, Enquiry::getId, this::mapEnquiryToResult,
+() -> enquiryRepository.findByFarmerId(farmerId).stream()
+.filter(SearchMatchers.enquiries(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapEnquiryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchFarmerMessages(Long farmerId, String searchTerm) {
-return messageRepository.findAll().stream()
-.filter(message -> (message.getSender() != null && message.getSender().getId().equals(farmerId)) ||
-(message.getReceiver() != null && message.getReceiver().getId().equals(farmerId)))
-.filter(message -> matchesMessage(message, searchTerm))
-.limit(50)
-.map(this::mapMessageToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchFarmerMessages(Long farmerId, String searchTerm, int offset, int limit) {
+return searchParticipantMessages(farmerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchFarmerRatings(Long farmerId, String searchTerm) {
-return ratingRepository.findAll().stream()
-.filter(rating -> (rating.getRater() != null && rating.getRater().getId().equals(farmerId)) ||
-(rating.getRatedUser() != null && rating.getRatedUser().getId().equals(farmerId)))
-.filter(rating -> matchesRating(rating, searchTerm))
-.limit(50)
-.map(this::mapRatingToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchFarmerRatings(Long farmerId, String searchTerm, int offset, int limit) {
+return searchParticipantRatings(farmerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchFarmerNotifications(Long farmerId, String searchTerm) {
-return notificationRepository.findByUserId(farmerId).stream()
-.filter(notification -> matchesNotification(notification, searchTerm))
-.limit(50)
-.map(this::mapNotificationToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchFarmerNotifications(Long farmerId, String searchTerm, int offset, int limit) {
+return searchUserNotifications(farmerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchFarmerInventoryRequests(Long farmerId, String searchTerm) {
-return inventoryRequestRepository.findByFarmerId(farmerId).stream()
-.filter(request -> matchesInventoryRequest(request, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchFarmerInventoryRequests(Long farmerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY_REQUEST, searchTerm, offset, limit, ownerTags("farmer", farmerId), inventoryRequestRepository, InventoryRequest::getId, this::mapInventoryRequestToResult,
+() -> inventoryRequestRepository.findByFarmerId(farmerId).stream()
+.filter(SearchMatchers.inventoryRequests(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryRequestToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchFarmerWarehouseAccesses(Long farmerId, String searchTerm) {
-return warehouseAccessRepository.findByUserId(farmerId).stream()
-.filter(access -> matchesWarehouseAccess(access, searchTerm))
-.limit(50)
-.map(this::mapWarehouseAccessToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchFarmerWarehouseAccesses(Long farmerId, String searchTerm, int offset, int limit) {
+return searchUserWarehouseAccesses(farmerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchFarmerWithdrawals(Long farmerId, String searchTerm) {
-return withdrawalRepository.findByUserId(farmerId).stream()
-.filter(withdrawal -> matchesWithdrawal(withdrawal, searchTerm))
-.limit(50)
-.map(this::mapWithdrawalToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchFarmerWithdrawals(Long farmerId, String searchTerm, int offset, int limit) {
+return searchUserWithdrawals(farmerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchBuyerTransactions(Long buyerId, String searchTerm) {
-return transactionRepository.findByBuyerId(buyerId).stream()
-.filter(transaction -> matchesTransaction(transaction, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchBuyerTransactions(Long buyerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.TRANSACTION, searchTerm, offset, limit, ownerTags("buyer", buyerId), transactionRepository, Transaction::getId, this::mapTransactionToResult,
+() -> transactionRepository.findByBuyerId(buyerId).stream()
+.filter(SearchMatchers.transactions(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapTransactionToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchBuyerEnquiries(Long buyerId, String searchTerm) {
-return enquiryRepository.findByBuyerId(buyerId).stream()
-.filter(enquiry -> matchesEnquiry(enquiry, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchBuyerEnquiries(Long buyerId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.ENQUIRY, searchTerm, offset, limit, ownerTags("buyer", buyerId), enquiryRepository, Enquiry::getId, this::mapEnquiryToResult,
+() -> enquiryRepository.findByBuyerId(buyerId).stream()
+.filter(SearchMatchers.enquiries(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapEnquiryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchAvailableInventory(String searchTerm) {
-return inventoryRepository.findByStatus(com.raf.enums.InventoryStatus.STORED).stream()
-.filter(inventory -> matchesInventory(inventory, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchAvailableInventory(String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY, searchTerm, offset, limit, ownerTags("status", com.raf.enums.InventoryStatus.STORED), inventoryRepository, Inventory::getId, this::mapInventoryToResult,
+() -> inventoryRepository.findByStatus(com.raf.enums.InventoryStatus.STORED).stream()
+.filter(SearchMatchers.inventories(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchBuyerMessages(Long buyerId, String searchTerm) {
-return messageRepository.findAll().stream()
-.filter(message -> (message.getSender() != null && message.getSender().getId().equals(buyerId)) ||
-(message.getReceiver() != null && message.getReceiver().getId().equals(buyerId)))
-.filter(message -> matchesMessage(message, searchTerm))
-.limit(50)
-.map(this::mapMessageToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchBuyerMessages(Long buyerId, String searchTerm, int offset, int limit) {
+return searchParticipantMessages(buyerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchBuyerRatings(Long buyerId, String searchTerm) {
-return ratingRepository.findAll().stream()
-.filter(rating -> (rating.getRater() != null && rating.getRater().getId().equals(buyerId)) ||
-(rating.getRatedUser() != null && rating.getRatedUser().getId().equals(buyerId)))
-.filter(rating -> matchesRating(rating, searchTerm))
-.limit(50)
-.map(this::mapRatingToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchBuyerRatings(Long buyerId, String searchTerm, int offset, int limit) {
+return searchParticipantRatings(buyerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchBuyerNotifications(Long buyerId, String searchTerm) {
-return notificationRepository.findByUserId(buyerId).stream()
-.filter(notification -> matchesNotification(notification, searchTerm))
-.limit(50)
-.map(this::mapNotificationToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchBuyerNotifications(Long buyerId, String searchTerm, int offset, int limit) {
+return searchUserNotifications(buyerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchBuyerWithdrawals(Long buyerId, String searchTerm) {
-return withdrawalRepository.findByUserId(buyerId).stream()
-.filter(withdrawal -> matchesWithdrawal(withdrawal, searchTerm))
-.limit(50)
-.map(this::mapWithdrawalToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchBuyerWithdrawals(Long buyerId, String searchTerm, int offset, int limit) {
+return searchUserWithdrawals(buyerId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchStorekeeperWarehouses(Long storekeeperId, String searchTerm) {
+private List<Map<String, Object>> searchStorekeeperWarehouses(Long storekeeperId, String searchTerm, int offset, int limit) {
 List<Long> warehouseIds = warehouseAccessRepository.findByUserIdAndIsActive(storekeeperId, true).stream()
 .map(access -> access.getWarehouse().getId())
 .collect(Collectors.toList());
 
-return warehouseRepository.findAllById(warehouseIds != null ? warehouseIds : new ArrayList<>()).stream()
-.filter(warehouse -> matchesWarehouse(warehouse, searchTerm))
-.limit(50)
+return searchIndexed(DashboardSearchIndex.WAREHOUSE, searchTerm, offset, limit, ownerTags("warehouse", warehouseIds), warehouseRepository, StorageWarehouse::getId, this::mapWarehouseToResult,
+() -> warehouseRepository.findAllById(warehouseIds != null ? warehouseIds : new ArrayList<>()).stream()
+.filter(SearchMatchers.warehouses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchStorekeeperInventory(Long storekeeperId, String searchTerm) {
+private List<Map<String, Object>> searchStorekeeperInventory(Long storekeeperId, String searchTerm, int offset, int limit) {
 List<Long> warehouseIds = warehouseAccessRepository.findByUserIdAndIsActive(storekeeperId, true).stream()
 .map(access -> access.getWarehouse().getId())
 .collect(Collectors.toList());
 
-return inventoryRepository.findAll().stream()
+return searchIndexed(DashboardSearchIndex.INVENTORY, searchTerm, offset, limit, ownerTags("warehouse", warehouseIds), inventoryRepository, Inventory::getId, this::mapInventoryToResult,
+() -> inventoryRepository.findAll().stream()
 .filter(inventory -> inventory.getWarehouse() != null &&
 warehouseIds.contains(inventory.getWarehouse().getId()))
-.filter(inventory -> matchesInventory(inventory, searchTerm))
-.limit(50)
+.filter(SearchMatchers.inventories(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchStorekeeperMessages(Long storekeeperId, String searchTerm) {
-return messageRepository.findAll().stream()
-.filter(message -> (message.getSender() != null && message.getSender().getId().equals(storekeeperId)) ||
-(message.getReceiver() != null && message.getReceiver().getId().equals(storekeeperId)))
-.filter(message -> matchesMessage(message, searchTerm))
-.limit(50)
-.map(this::mapMessageToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchStorekeeperMessages(Long storekeeperId, String searchTerm, int offset, int limit) {
+return searchParticipantMessages(storekeeperId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchStorekeeperNotifications(Long storekeeperId, String searchTerm) {
-return notificationRepository.findByUserId(storekeeperId).stream()
-.filter(notification -> matchesNotification(notification, searchTerm))
-.limit(50)
-.map(this::mapNotificationToResult)
-.collect(Collectors.toList());
+private List<Map<String, Object>> searchStorekeeperNotifications(Long storekeeperId, String searchTerm, int offset, int limit) {
+return searchUserNotifications(storekeeperId, searchTerm, offset, limit);
 }
 
-private List<Map<String, Object>> searchStorekeeperInventoryRequests(Long storekeeperId, String searchTerm) {
-return inventoryRequestRepository.findByStorekeeperId(storekeeperId).stream()
-.filter(request -> matchesInventoryRequest(request, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchStorekeeperInventoryRequests(Long storekeeperId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.INVENTORY_REQUEST, searchTerm, offset, limit, ownerTags("storekeeper", storekeeperId), inventoryRequestRepository, InventoryRequest::getId, this::mapInventoryRequestToResult,
+() -> inventoryRequestRepository.findByStorekeeperId(storekeeperId).stream()
+.filter(SearchMatchers.inventoryRequests(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryRequestToResult)
-.collect(Collectors.toList());
+.collect(Collectors.toList()));
+}
+
+private List<Map<String, Object>> searchStorekeeperWarehouseAccesses(Long storekeeperId, String searchTerm, int offset, int limit) {
+return searchUserWarehouseAccesses(storekeeperId, searchTerm, offset, limit);
+}
+
+private List<Map<String, Object>> searchParticipantMessages(Long userId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.MESSAGE, searchTerm, offset, limit, ownerTags("participant", userId), messageRepository, Message::getId, this::mapMessageToResult,
+() -> messageRepository.findAll().stream()
+.filter(message -> (message.getSender() != null && message.getSender().getId().equals(userId)) ||
+(message.getReceiver() != null && message.getReceiver().getId().equals(userId)))
+.filter(SearchMatchers.messages(searchTerm))
+.skip(offset)
+.limit(limit)
+.map(this::mapMessageToResult)
+.collect(Collectors.toList()));
+}
+
+private List<Map<String, Object>> searchParticipantRatings(Long userId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.RATING, searchTerm, offset, limit, ownerTags("participant", userId), ratingRepository, Rating::getId, this::mapRatingToResult,
+() -> ratingRepository.findAll().stream()
+.filter(rating -> (rating.getRater() != null && rating.getRater().getId().equals(userId)) ||
+(rating.getRatedUser() != null && rating.getRatedUser().getId().equals(userId)))
+.filter(SearchMatchers.ratings(searchTerm))
+.skip(offset)
+.limit(limit)
+.map(this::mapRatingToResult)
+.collect(Collectors.toList()));
+}
+
+private List<Map<String, Object>> searchUserNotifications(Long userId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.NOTIFICATION, searchTerm, offset, limit, ownerTags("user", userId), notificationRepository, Notification::getId, this::mapNotificationToResult,
+() -> notificationRepository.findByUserId(userId).stream()
+.filter(SearchMatchers.notifications(searchTerm))
+.skip(offset)
+.limit(limit)
+.map(this::mapNotificationToResult)
+.collect(Collectors.toList()));
 }
 
-private List<Map<String, Object>> searchStorekeeperWarehouseAccesses(Long storekeeperId, String searchTerm) {
-return warehouseAccessRepository.findByUserId(storekeeperId).stream()
-.filter(access -> matchesWarehouseAccess(access, searchTerm))
-.limit(50)
+private List<Map<String, Object>> searchUserWarehouseAccesses(Long userId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.WAREHOUSE_ACCESS, searchTerm, offset, limit, ownerTags("user", userId), warehouseAccessRepository, WarehouseAccess::getId, this::mapWarehouseAccessToResult,
+() -> warehouseAccessRepository.findByUserId(userId).stream()
+.filter(SearchMatchers.warehouseAccesses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseAccessToResult)
+.collect(Collectors.toList()));
+}
+
+private List<Map<String, Object>> searchUserWithdrawals(Long userId, String searchTerm, int offset, int limit) {
+return searchIndexed(DashboardSearchIndex.WITHDRAWAL, searchTerm, offset, limit, ownerTags("user", userId), withdrawalRepository, Withdrawal::getId, this::mapWithdrawalToResult,
+() -> withdrawalRepository.findByUserId(userId).stream()
+.filter(SearchMatchers.withdrawals(searchTerm))
+.skip(offset)
+.limit(limit)
+.map(this::mapWithdrawalToResult)
+.collect(Collectors.toList()));
+}
+
+/**
+ * Runs one search leg against the in-memory index and loads only the matching rows.
+ * Falls back to the given scan while the index is still being built or is disabled.
+ */
+private <T, ID> List<Map<String, Object>> searchIndexed(String type, String searchTerm, int offset, int limit, List<String> anyOfTags,
+JpaRepository<T, ID> repository, Function<T, ID> idOf, Function<T, Map<String, Object>> mapper,
+Supplier<List<Map<String, Object>>> scan) {
+if (!searchIndex.isReady()) {
+return scan.get();
+}
+@SuppressWarnings("unchecked")
+List<ID> ids = (List<ID>) (List<?>) searchIndex.search(type, searchTerm, anyOfTags, offset, limit);
+if (ids.isEmpty()) {
+return new ArrayList<>();
+}
+Map<ID, T> byId = repository.findAllById(ids).stream()
+.collect(Collectors.toMap(idOf, entity -> entity));
+return ids.stream()
+.map(byId::get)
+.filter(Objects::nonNull)
+.map(mapper)
 .collect(Collectors.toList());
 }
 
-private boolean matchesCropType(CropType crop, String searchTerm) {
-String searchableText = (crop.getCropName() != null ? crop.getCropName() : "") +
-" " + (crop.getCropCode() != null ? crop.getCropCode() : "") +
-" " + (crop.getCategory() != null ? crop.getCategory().toString() : "") +
-" " + (crop.getDescription() != null ? crop.getDescription() : "") +
-" " + (crop.getPricePerKg() != null ? crop.getPricePerKg().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesLocation(Location location, String searchTerm) {
-String searchableText = (location.getProvince() != null ? location.getProvince() : "") +
-" " + (location.getDistrict() != null ? location.getDistrict() : "") +
-" " + (location.getSector() != null ? location.getSector() : "") +
-" " + (location.getCell() != null ? location.getCell() : "") +
-" " + (location.getVillage() != null ? location.getVillage() : "") +
-" " + (location.getCode() != null ? location.getCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWarehouse(StorageWarehouse warehouse, String searchTerm) {
-String searchableText = (warehouse.getWarehouseName() != null ? warehouse.getWarehouseName() : "") +
-" " + (warehouse.getWarehouseCode() != null ? warehouse.getWarehouseCode() : "") +
-" " + (warehouse.getWarehouseType() != null ? warehouse.getWarehouseType().toString() : "") +
-" " + (warehouse.getLocation() != null && warehouse.getLocation().getVillage() != null ? warehouse.getLocation().getVillage() : "") +
-" " + (warehouse.getStatus() != null ? warehouse.getStatus().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesInventory(Inventory inventory, String searchTerm) {
-String searchableText = (inventory.getInventoryCode() != null ? inventory.getInventoryCode() : "") +
-" " + (inventory.getCropType() != null && inventory.getCropType().getCropName() != null ? inventory.getCropType().getCropName() : "") +
-" " + (inventory.getCropType() != null && inventory.getCropType().getCropCode() != null ? inventory.getCropType().getCropCode() : "") +
-" " + (inventory.getQualityGrade() != null ? inventory.getQualityGrade() : "") +
-" " + (inventory.getNotes() != null ? inventory.getNotes() : "") +
-" " + (inventory.getStatus() != null ? inventory.getStatus().toString() : "") +
-" " + (inventory.getWarehouse() != null && inventory.getWarehouse().getWarehouseName() != null ? inventory.getWarehouse().getWarehouseName() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesTransaction(Transaction transaction, String searchTerm) {
-String searchableText = (transaction.getTransactionCode() != null ? transaction.getTransactionCode() : "") +
-" " + (transaction.getPaymentStatus() != null ? transaction.getPaymentStatus().toString() : "") +
-" " + (transaction.getDeliveryStatus() != null ? transaction.getDeliveryStatus().toString() : "") +
-" " + (transaction.getTotalAmount() != null ? transaction.getTotalAmount().toString() : "") +
-" " + (transaction.getInventory() != null && transaction.getInventory().getCropType() != null && transaction.getInventory().getCropType().getCropName() != null ? transaction.getInventory().getCropType().getCropName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getFirstName() != null ? transaction.getBuyer().getFirstName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getLastName() != null ? transaction.getBuyer().getLastName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getEmail() != null ? transaction.getBuyer().getEmail() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getFirstName() != null ? transaction.getSeller().getFirstName() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getLastName() != null ? transaction.getSeller().getLastName() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getEmail() != null ? transaction.getSeller().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesEnquiry(Enquiry enquiry, String searchTerm) {
-String searchableText = (enquiry.getEnquiryCode() != null ? enquiry.getEnquiryCode() : "") +
-" " + (enquiry.getMessage() != null ? enquiry.getMessage() : "") +
-" " + (enquiry.getStatus() != null ? enquiry.getStatus().toString() : "") +
-" " + (enquiry.getProposedQuantityKg() != null ? enquiry.getProposedQuantityKg().toString() : "") +
-" " + (enquiry.getProposedPricePerKg() != null ? enquiry.getProposedPricePerKg().toString() : "") +
-" " + (enquiry.getInventory() != null && enquiry.getInventory().getCropType() != null && enquiry.getInventory().getCropType().getCropName() != null ? enquiry.getInventory().getCropType().getCropName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getFirstName() != null ? enquiry.getBuyer().getFirstName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getLastName() != null ? enquiry.getBuyer().getLastName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getEmail() != null ? enquiry.getBuyer().getEmail() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getFirstName() != null ? enquiry.getFarmer().getFirstName() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getLastName() != null ? enquiry.getFarmer().getLastName() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getEmail() != null ? enquiry.getFarmer().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesMessage(Message message, String searchTerm) {
-String searchableText = (message.getMessageCode() != null ? message.getMessageCode() : "") +
-" " + (message.getSubject() != null ? message.getSubject() : "") +
-" " + (message.getContent() != null ? message.getContent() : "") +
-" " + (message.getSender() != null && message.getSender().getFirstName() != null ? message.getSender().getFirstName() : "") +
-" " + (message.getSender() != null && message.getSender().getLastName() != null ? message.getSender().getLastName() : "") +
-" " + (message.getSender() != null && message.getSender().getEmail() != null ? message.getSender().getEmail() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getFirstName() != null ? message.getReceiver().getFirstName() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getLastName() != null ? message.getReceiver().getLastName() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getEmail() != null ? message.getReceiver().getEmail() : "") +
-" " + (message.getRelatedInventory() != null && message.getRelatedInventory().getCropType() != null && message.getRelatedInventory().getCropType().getCropName() != null ? message.getRelatedInventory().getCropType().getCropName() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesRating(Rating rating, String searchTerm) {
-String searchableText = (rating.getComment() != null ? rating.getComment() : "") +
-" " + (rating.getRatingScore() != null ? rating.getRatingScore().toString() : "") +
-" " + (rating.getRatingType() != null ? rating.getRatingType().toString() : "") +
-" " + (rating.getRater() != null && rating.getRater().getFirstName() != null ? rating.getRater().getFirstName() : "") +
-" " + (rating.getRater() != null && rating.getRater().getLastName() != null ? rating.getRater().getLastName() : "") +
-" " + (rating.getRater() != null && rating.getRater().getEmail() != null ? rating.getRater().getEmail() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getFirstName() != null ? rating.getRatedUser().getFirstName() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getLastName() != null ? rating.getRatedUser().getLastName() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getEmail() != null ? rating.getRatedUser().getEmail() : "") +
-" " + (rating.getTransaction() != null && rating.getTransaction().getTransactionCode() != null ? rating.getTransaction().getTransactionCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesNotification(Notification notification, String searchTerm) {
-String searchableText = (notification.getTitle() != null ? notification.getTitle() : "") +
-" " + (notification.getMessage() != null ? notification.getMessage() : "") +
-" " + (notification.getType() != null ? notification.getType().toString() : "") +
-" " + (notification.getUser() != null && notification.getUser().getFirstName() != null ? notification.getUser().getFirstName() : "") +
-" " + (notification.getUser() != null && notification.getUser().getLastName() != null ? notification.getUser().getLastName() : "") +
-" " + (notification.getUser() != null && notification.getUser().getEmail() != null ? notification.getUser().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesInventoryRequest(InventoryRequest request, String searchTerm) {
-String searchableText = (request.getRequestCode() != null ? request.getRequestCode() : "") +
-" " + (request.getNewNotes() != null ? request.getNewNotes() : "") +
-" " + (request.getFarmerNotes() != null ? request.getFarmerNotes() : "") +
-" " + (request.getStorekeeperResponse() != null ? request.getStorekeeperResponse() : "") +
-" " + (request.getStatus() != null ? request.getStatus().toString() : "") +
-" " + (request.getRequestType() != null ? request.getRequestType().toString() : "") +
-" " + (request.getInventory() != null && request.getInventory().getCropType() != null && request.getInventory().getCropType().getCropName() != null ? request.getInventory().getCropType().getCropName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getFirstName() != null ? request.getFarmer().getFirstName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getLastName() != null ? request.getFarmer().getLastName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getEmail() != null ? request.getFarmer().getEmail() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getFirstName() != null ? request.getStorekeeper().getFirstName() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getLastName() != null ? request.getStorekeeper().getLastName() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getEmail() != null ? request.getStorekeeper().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWarehouseAccess(WarehouseAccess access, String searchTerm) {
-String searchableText = (access.getNotes() != null ? access.getNotes() : "") +
-" " + (access.getStatus() != null ? access.getStatus().toString() : "") +
-" " + (access.getAccessLevel() != null ? access.getAccessLevel().toString() : "") +
-" " + (access.getUser() != null && access.getUser().getFirstName() != null ? access.getUser().getFirstName() : "") +
-" " + (access.getUser() != null && access.getUser().getLastName() != null ? access.getUser().getLastName() : "") +
-" " + (access.getUser() != null && access.getUser().getEmail() != null ? access.getUser().getEmail() : "") +
-" " + (access.getWarehouse() != null && access.getWarehouse().getWarehouseName() != null ? access.getWarehouse().getWarehouseName() : "") +
-" " + (access.getWarehouse() != null && access.getWarehouse().getWarehouseCode() != null ? access.getWarehouse().getWarehouseCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWithdrawal(Withdrawal withdrawal, String searchTerm) {
-String searchableText = (withdrawal.getWithdrawalCode() != null ? withdrawal.getWithdrawalCode() : "") +
-" " + (withdrawal.getStatus() != null ? withdrawal.getStatus().toString() : "") +
-" " + (withdrawal.getAmount() != null ? withdrawal.getAmount().toString() : "") +
-" " + (withdrawal.getAccountNumber() != null ? withdrawal.getAccountNumber() : "") +
-" " + (withdrawal.getBankName() != null ? withdrawal.getBankName() : "") +
-" " + (withdrawal.getAccountName() != null ? withdrawal.getAccountName() : "") +
-" " + (withdrawal.getProcessingNotes() != null ? withdrawal.getProcessingNotes() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesUser(User user, String searchTerm) {
-String searchableText = (user.getEmail() != null ? user.getEmail() : "") +
-" " + (user.getFirstName() != null ? user.getFirstName() : "") +
-" " + (user.getLastName() != null ? user.getLastName() : "") +
-" " + (user.getUserCode() != null ? user.getUserCode() : "") +
-" " + (user.getPhoneNumber() != null ? user.getPhoneNumber() : "") +
-" " + (user.getUserType() != null ? user.getUserType().toString() : "") +
-" " + (user.getStatus() != null ? user.getStatus().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
+private List<String> ownerTags(String name, Object id) {
+return List.of(DashboardSearchIndex.tag(name, id));
+}
+
+private List<String> ownerTags(String name, List<Long> ids) {
+return ids.stream()
+.map(id -> DashboardSearchIndex.tag(name, id))
+.collect(Collectors.toList());
 }
 
 private Map<String, Object> mapCropTypeToResult(CropType crop) {
@@ -628,7 +630,7 @@ result.put("status", warehouse.getStatus() != null ? warehouse.getStatus().toStr
 return result;
 }
 
-private Map<String, Object> mapInventoryToResult(Inventory inventory) {
+Map<String, Object> mapInventoryToResult(Inventory inventory) {
 Map<String, Object> result = new HashMap<>();
 result.put("id", inventory.getId());
 result.put("type", "inventory");
@@ -642,7 +644,7 @@ result.put("status", inventory.getStatus() != null ? inventory.getStatus().toStr
 return result;
 }
 
-private Map<String, Object> mapTransactionToResult(Transaction transaction) {
+Map<String, Object> mapTransactionToResult(Transaction transaction) {
 Map<String, Object> result = new HashMap<>();
 result.put("id", transaction.getId());
 result.put("type", "transaction");
@@ -764,6 +766,7 @@ results.put("page", 0);
 results.put("size", 10);
 results.put("hasNext", false);
 results.put("hasPrevious", false);
+results.put("partial", false);
 return results;
 }
 }
@@ -5,6 +5,7 @@ import com.raf.dto.EnquiryResponseRequest;
 import com.raf.entity.Enquiry;
 import com.raf.entity.Inventory;
 import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.EnquiryStatus;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.repository.EnquiryRepository;
@@ -20,7 +21,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -34,6 +34,7 @@ private final UserRepository userRepository;
 private final MessageService messageService;
 private final NotificationService notificationService;
 private final PurchaseFlowService purchaseFlowService;
+private final BusinessCodeGenerator businessCodeGenerator;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -58,10 +59,7 @@ throw new IllegalArgumentException("Proposed quantity exceeds available inventor
 BigDecimal totalAmount = request.getProposedQuantityKg().multiply(request.getProposedPricePerKg());
 
 
-String enquiryCode = "ENQ-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-while (enquiryRepository.existsByEnquiryCode(enquiryCode)) {
-enquiryCode = "ENQ-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-}
+String enquiryCode = businessCodeGenerator.next(BusinessCodeType.ENQUIRY);
 
 Enquiry enquiry = new Enquiry();
 enquiry.setEnquiryCode(enquiryCode);
@@ -0,0 +1,64 @@
+package com.raf.service;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Admits finance exports and runs them on the export pool. Only
+ * {@code app.export.max-concurrent} exports stream at once, and only export
+ * requests get the long {@code app.export.timeout-ms} async timeout; every
+ * other async request keeps the default.
+ */
+@Service
+@Slf4j
+public class ExportRequestLimiter {
+
+private final ThreadPoolTaskExecutor exportExecutor;
+private final Semaphore slots;
+private final long timeoutMs;
+
+public ExportRequestLimiter(@Qualifier("exportExecutor") ThreadPoolTaskExecutor exportExecutor,
+@Value("${app.export.max-concurrent:2}") int maxConcurrent,
+@Value("${app.export.timeout-ms:1800000}") long timeoutMs) {
+this.exportExecutor = exportExecutor;
+this.slots = new Semaphore(maxConcurrent);
+this.timeoutMs = timeoutMs;
+}
+
+/**
+ * Takes an export slot and points the current request's async processing at
+ * the export pool and timeout. Call it from the handler that returns the body.
+ *
+ * @return The body, wrapped so the slot is freed once it finishes, or empty when every slot is taken.
+ */
+public Optional<StreamingResponseBody> start(HttpServletRequest request, StreamingResponseBody body) {
+if (!slots.tryAcquire()) {
+log.warn("Rejected export request: {} exports are already running", exportExecutor.getMaxPoolSize());
+return Optional.empty();
+}
+WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+AsyncWebRequest asyncWebRequest = asyncManager.getAsyncWebRequest();
+if (asyncWebRequest != null) {
+asyncWebRequest.setTimeout(timeoutMs);
+}
+asyncManager.setTaskExecutor(exportExecutor);
+return Optional.of(output -> {
+try {
+body.writeTo(output);
+} finally {
+slots.release();
+}
+});
+}
+}
@@ -0,0 +1,204 @@
+package com.raf.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raf.entity.IdempotencyRecord;
+import com.raf.enums.IdempotencyStatus;
+import com.raf.exception.IdempotencyKeyException;
+import com.raf.exception.OperationNotAllowedException;
+import com.raf.repository.IdempotencyRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry. A request sent with an
+ * {@value #HEADER} header claims the key for its user and endpoint, runs, and
+ * stores its response in the same transaction as the change it made; a retry
+ * with the same key and body gets that response back without running again.
+ * Reusing a key for a different body is rejected, and a retry that arrives
+ * while the first request is still running gets a conflict. A request that
+ * outlives its lease may be taken over by a retry, and then rolls back
+ * instead of storing its response. Requests without the header run as before.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+public static final String HEADER = "Idempotency-Key";
+public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+private static final int MAX_KEY_LENGTH = 255;
+private static final int CLAIM_ATTEMPTS = 3;
+
+private final IdempotencyRecordRepository idempotencyRecordRepository;
+private final ObjectMapper objectMapper;
+private final TransactionTemplate transactionTemplate;
+private final Duration ttl;
+private final Duration lease;
+
+public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+ObjectMapper objectMapper,
+PlatformTransactionManager transactionManager,
+@Value("${app.idempotency.ttl-ms:86400000}") long ttlMs,
+@Value("${app.idempotency.lease-ms:60000}") long leaseMs) {
+this.idempotencyRecordRepository = idempotencyRecordRepository;
+this.objectMapper = objectMapper;
+this.transactionTemplate = new TransactionTemplate(transactionManager);
+this.ttl = Duration.ofMillis(ttlMs);
+this.lease = Duration.ofMillis(leaseMs);
+}
+
+/**
+ * Runs {@code action} once per key, or answers from the stored response of
+ * the run that already completed under it. When the action fails nothing is
+ * stored and the key can be retried.
+ *
+ * @param endpoint Method and path template the key is scoped to, e.g. {@code POST /api/payments}.
+ * @param request The request body, compared with the body first sent under the key.
+ * @throws IdempotencyKeyException if the key is malformed or was used for a different body.
+ * @throws OperationNotAllowedException if a request with the key is still running.
+ */
+public ResponseEntity<?> execute(Long userId, String endpoint, String key, Object request,
+Supplier<ResponseEntity<?>> action) {
+if (key == null) {
+return action.get();
+}
+if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+throw new IdempotencyKeyException(HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+}
+
+IdempotencyRecord claimed = claim(userId, endpoint, key, hash(request));
+if (claimed.getStatus() == IdempotencyStatus.COMPLETED) {
+log.info("Replaying {} for user {} with key {}", endpoint, userId, key);
+return ResponseEntity.status(claimed.getResponseStatus())
+.contentType(MediaType.APPLICATION_JSON)
+.header(REPLAYED_HEADER, "true")
+.body(claimed.getResponseBody());
+}
+
+try {
+return transactionTemplate.execute(status -> {
+ResponseEntity<?> response = action.get();
+if (idempotencyRecordRepository.complete(claimed.getId(), claimed.getExpiresAt(), response.getStatusCode().value(),
+write(response.getBody()), now().plus(ttl)) == 0) {
+// The lease ran out and a retry took the key over; roll back so the change is made only once
+throw new OperationNotAllowedException("The request with this " + HEADER + " took too long and was taken over by a retry");
+}
+return response;
+});
+} catch (RuntimeException e) {
+transactionTemplate.executeWithoutResult(status ->
+idempotencyRecordRepository.release(claimed.getId(), claimed.getExpiresAt()));
+throw e;
+}
+}
+
+@Scheduled(fixedDelayString = "${app.idempotency.purge-interval-ms:3600000}")
+public void purgeExpired() {
+Integer purged = transactionTemplate.execute(status ->
+idempotencyRecordRepository.deleteExpired(now()));
+if (purged != null && purged > 0) {
+log.info("Purged {} expired idempotency records", purged);
+}
+}
+
+/**
+ * Takes the key for this request, or finds the completed request to replay.
+ *
+ * @return An in-progress record owned by the caller, whose {@code expiresAt} is
+ * the lease that fences its later updates, or a completed one to replay.
+ */
+private IdempotencyRecord claim(Long userId, String endpoint, String key, String requestHash) {
+for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+try {
+IdempotencyRecord claimed = transactionTemplate.execute(status ->
+tryClaim(userId, endpoint, key, requestHash));
+if (claimed != null) {
+return claimed;
+}
+} catch (DataIntegrityViolationException e) {
+// Another request inserted the key first; read its record on the next attempt
+log.debug("Lost the race for idempotency key {}", key);
+}
+}
+throw new OperationNotAllowedException("A request with this " + HEADER + " is still being processed");
+}
+
+private IdempotencyRecord tryClaim(Long userId, String endpoint, String key, String requestHash) {
+LocalDateTime now = now();
+IdempotencyRecord existing = idempotencyRecordRepository
+.findByUserIdAndEndpointAndIdempotencyKey(userId, endpoint, key)
+.orElse(null);
+
+if (existing == null) {
+IdempotencyRecord record = new IdempotencyRecord();
+record.setUserId(userId);
+record.setEndpoint(endpoint);
+record.setIdempotencyKey(key);
+record.setRequestHash(requestHash);
+record.setStatus(IdempotencyStatus.IN_PROGRESS);
+record.setExpiresAt(now.plus(lease));
+return idempotencyRecordRepository.saveAndFlush(record);
+}
+
+if (existing.getExpiresAt().isBefore(now)) {
+LocalDateTime leaseUntil = now.plus(lease);
+if (idempotencyRecordRepository.restart(existing.getId(), existing.getExpiresAt(), requestHash, leaseUntil) == 0) {
+return null;
+}
+IdempotencyRecord restarted = new IdempotencyRecord();
+restarted.setId(existing.getId());
+restarted.setStatus(IdempotencyStatus.IN_PROGRESS);
+restarted.setExpiresAt(leaseUntil);
+return restarted;
+}
+
+if (!existing.getRequestHash().equals(requestHash)) {
+throw new IdempotencyKeyException(HEADER + " was already used for a different request");
+}
+if (existing.getStatus() == IdempotencyStatus.COMPLETED) {
+return existing;
+}
+throw new OperationNotAllowedException("A request with this " + HEADER + " is still being processed");
+}
+
+/**
+ * The current time at millisecond precision, so a lease read back from the
+ * database compares equal to the value it was written with.
+ */
+private static LocalDateTime now() {
+return LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+}
+
+private String hash(Object request) {
+try {
+MessageDigest digest = MessageDigest.getInstance("SHA-256");
+return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+} catch (JsonProcessingException | NoSuchAlgorithmException e) {
+throw new IllegalStateException("Could not hash the request", e);
+}
+}
+
+private String write(Object body) {
+try {
+return objectMapper.writeValueAsString(body);
+} catch (JsonProcessingException e) {
+throw new IllegalStateException("Could not store the response", e);
+}
+}
+}
@@ -0,0 +1,406 @@
+package com.raf.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raf.dto.InventoryImportResult;
+import com.raf.dto.InventoryRequest;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
+import com.raf.enums.InventoryImportFormat;
+import com.raf.enums.InventoryStatus;
+import com.raf.enums.UserType;
+import com.raf.exception.DuplicateResourceException;
+import com.raf.exception.ResourceNotFoundException;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import com.raf.repository.UserRepository;
+import com.raf.repository.WarehouseAccessRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bulk registration of harvest lots by a storekeeper. The upload is read one
+ * row at a time; farmers, crop types and warehouses are looked up once per
+ * import and cached for the remaining rows. Valid rows are inserted with JDBC
+ * batches of {@link #BATCH_SIZE}, and each warehouse's capacity is taken once
+ * at the end through the {@link WarehouseCapacityService}. Rows that fail
+ * validation, including rows that no longer fit in their warehouse, are
+ * skipped and reported with their line number. A database error, or intake
+ * elsewhere filling a warehouse during the import, rolls back the whole import.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InventoryImportService {
+
+static final int BATCH_SIZE = 500;
+
+static final List<String> REQUIRED_COLUMNS = List.of(
+"farmerId", "cropTypeId", "warehouseId", "quantityKg", "qualityGrade", "storageDate");
+
+// Identifiers are quoted because the schema is generated with globally quoted identifiers.
+private static final String INSERT_SQL = "INSERT INTO \"inventory\" (\"inventory_code\", \"farmer_id\", "
++ "\"warehouse_id\", \"crop_type_id\", \"storekeeper_id\", \"quantity_kg\", \"remaining_quantity_kg\", "
++ "\"quality_grade\", \"storage_date\", \"expected_withdrawal_date\", \"status\", \"notes\", "
++ "\"crop_image_url\", \"created_at\", \"updated_at\") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+private final UserRepository userRepository;
+private final StorageWarehouseRepository warehouseRepository;
+private final CropTypeRepository cropTypeRepository;
+private final WarehouseAccessRepository warehouseAccessRepository;
+private final SearchIndexEntityListener searchIndexEntityListener;
+private final BusinessCodeGenerator businessCodeGenerator;
+private final WarehouseCapacityService warehouseCapacityService;
+private final JdbcTemplate jdbcTemplate;
+private final ObjectMapper objectMapper;
+
+@Lazy
+private final NotificationService notificationService;
+
+/**
+ * Imports every row of the upload into warehouses assigned to the storekeeper.
+ *
+ * @param input The uploaded file; CSV uploads start with a header row naming the columns.
+ * @return How many rows were read and stored, and why each skipped row was rejected.
+ * @throws ResourceNotFoundException if the storekeeper does not exist.
+ * @throws IllegalArgumentException if the caller is not a storekeeper or the upload cannot be read.
+ * @throws DuplicateResourceException if a batch violates a database constraint.
+ * @throws com.raf.exception.OperationNotAllowedException if a warehouse filled up during the import.
+ */
+@Transactional
+public InventoryImportResult importInventories(InputStream input, InventoryImportFormat format, Long storekeeperId) {
+long started = System.currentTimeMillis();
+User storekeeper = userRepository.findById(storekeeperId)
+.orElseThrow(() -> new ResourceNotFoundException("Storekeeper not found with ID: " + storekeeperId));
+if (storekeeper.getUserType() != UserType.STOREKEEPER) {
+throw new IllegalArgumentException("Only storekeepers can import inventory");
+}
+
+InventoryImportResult result = new InventoryImportResult();
+Import batch = new Import(storekeeperId);
+try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+List<String> header = null;
+String line;
+long lineNumber = 0;
+while ((line = reader.readLine()) != null) {
+lineNumber++;
+if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+line = line.substring(1);
+}
+if (line.isBlank()) {
+continue;
+}
+if (format == InventoryImportFormat.CSV && header == null) {
+header = readHeader(line);
+continue;
+}
+result.setTotalRows(result.getTotalRows() + 1);
+try {
+InventoryRequest request = format == InventoryImportFormat.CSV
+? fromCsv(header, line)
+: objectMapper.readValue(line, InventoryRequest.class);
+String error = batch.check(request);
+if (error != null) {
+result.rejected(lineNumber, error);
+} else {
+batch.add(request);
+}
+} catch (JsonProcessingException | IllegalArgumentException e) {
+result.rejected(lineNumber, describe(e));
+}
+}
+} catch (IOException e) {
+throw new IllegalArgumentException("Could not read the uploaded file: " + e.getMessage(), e);
+}
+batch.finish();
+
+result.setImportedCount(batch.imported);
+log.info("Storekeeper {} imported {} of {} inventory rows in {} ms", storekeeperId,
+result.getImportedCount(), result.getTotalRows(), System.currentTimeMillis() - started);
+return result;
+}
+
+private static List<String> readHeader(String line) {
+List<String> header = splitCsv(line).stream().map(String::trim).toList();
+List<String> missing = REQUIRED_COLUMNS.stream()
+.filter(column -> header.stream().noneMatch(column::equalsIgnoreCase))
+.toList();
+if (!missing.isEmpty()) {
+throw new IllegalArgumentException("CSV header is missing required columns: " + String.join(", ", missing));
+}
+return header;
+}
+
+private InventoryRequest fromCsv(List<String> header, String line) {
+List<String> values = splitCsv(line);
+if (values.size() != header.size()) {
+throw new IllegalArgumentException("Expected " + header.size() + " columns but found " + values.size());
+}
+Map<String, String> fields = new HashMap<>();
+for (int i = 0; i < header.size(); i++) {
+String value = values.get(i).trim();
+if (!value.isEmpty()) {
+fields.put(canonicalColumn(header.get(i)), value);
+}
+}
+return objectMapper.convertValue(fields, InventoryRequest.class);
+}
+
+private static String canonicalColumn(String column) {
+return REQUIRED_COLUMNS.stream().filter(column::equalsIgnoreCase).findFirst().orElse(column);
+}
+
+/**
+ * Splits one CSV line on commas, honouring double-quoted fields and doubled
+ * quotes inside them. Fields spanning several lines are not supported.
+ */
+static List<String> splitCsv(String line) {
+List<String> values = new ArrayList<>();
+StringBuilder value = new StringBuilder();
+boolean quoted = false;
+for (int i = 0; i < line.length(); i++) {
+char c = line.charAt(i);
+if (quoted) {
+if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+value.append('"');
+i++;
+} else if (c == '"') {
+quoted = false;
+} else {
+value.append(c);
+}
+} else if (c == '"') {
+quoted = true;
+} else if (c == ',') {
+values.add(value.toString());
+value.setLength(0);
+} else {
+value.append(c);
+}
+}
+values.add(value.toString());
+return values;
+}
+
+private static String describe(Exception e) {
+Throwable cause = e instanceof IllegalArgumentException && e.getCause() instanceof JsonMappingException
+? e.getCause() : e;
+if (cause instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()
+&& mapping.getPath().get(0).getFieldName() != null) {
+return "Invalid value for " + mapping.getPath().get(0).getFieldName();
+}
+if (cause instanceof JsonProcessingException) {
+return "Malformed JSON row";
+}
+return cause.getMessage();
+}
+
+/**
+ * Per-import state: the lookup caches, the rows waiting for the next batch and
+ * the running totals per warehouse and farmer.
+ */
+private final class Import {
+private final Long storekeeperId;
+private final Map<Long, Optional<User>> farmers = new HashMap<>();
+private final Map<Long, Optional<CropType>> cropTypes = new HashMap<>();
+private final Map<Long, Optional<StorageWarehouse>> warehouses = new HashMap<>();
+private final Map<Long, Boolean> assigned = new HashMap<>();
+private final Map<Long, BigDecimal> quantityByWarehouse = new LinkedHashMap<>();
+private final Map<Long, Integer> lotsByFarmer = new LinkedHashMap<>();
+private final List<PendingLot> pending = new ArrayList<>(BATCH_SIZE);
+private int imported;
+
+private Import(Long storekeeperId) {
+this.storekeeperId = storekeeperId;
+}
+
+private String check(InventoryRequest request) {
+for (String column : REQUIRED_COLUMNS) {
+if (isMissing(request, column)) {
+return column + " is required";
+}
+}
+if (request.getQuantityKg().compareTo(BigDecimal.ZERO) <= 0) {
+return "quantityKg must be greater than zero";
+}
+if (request.getQualityGrade().length() > 5) {
+return "qualityGrade must be at most 5 characters";
+}
+Optional<User> farmer = lookup(farmers, request.getFarmerId(), userRepository::findById);
+if (farmer.isEmpty() || farmer.get().getUserType() != UserType.FARMER) {
+return "Farmer not found with ID: " + request.getFarmerId();
+}
+if (lookup(cropTypes, request.getCropTypeId(), cropTypeRepository::findById).isEmpty()) {
+return "Crop type not found with ID: " + request.getCropTypeId();
+}
+if (lookup(warehouses, request.getWarehouseId(), warehouseRepository::findById).isEmpty()) {
+return "Warehouse not found with ID: " + request.getWarehouseId();
+}
+if (!assigned.computeIfAbsent(request.getWarehouseId(), warehouseId ->
+warehouseAccessRepository.existsByUserIdAndWarehouseIdAndIsActive(storekeeperId, warehouseId, true))) {
+return "Warehouse " + request.getWarehouseId() + " is not assigned to you";
+}
+BigDecimal available = warehouses.get(request.getWarehouseId()).get().getAvailableCapacityKg()
+.subtract(quantityByWarehouse.getOrDefault(request.getWarehouseId(), BigDecimal.ZERO));
+if (available.compareTo(request.getQuantityKg()) < 0) {
+return "Warehouse " + request.getWarehouseId() + " does not have enough capacity for " + request.getQuantityKg() + " kg";
+}
+return null;
+}
+
+private boolean isMissing(InventoryRequest request, String column) {
+return switch (column) {
+case "farmerId" -> request.getFarmerId() == null;
+case "cropTypeId" -> request.getCropTypeId() == null;
+case "warehouseId" -> request.getWarehouseId() == null;
+case "quantityKg" -> request.getQuantityKg() == null;
+case "qualityGrade" -> request.getQualityGrade() == null || request.getQualityGrade().isBlank();
+case "storageDate" -> request.getStorageDate() == null;
+default -> false;
+};
+}
+
+private void add(InventoryRequest request) {
+if (request.getDesiredPricePerKg() != null && request.getDesiredPricePerKg().compareTo(BigDecimal.ZERO) > 0) {
+// The cached crop type is managed, so the last price in the file is written once on flush.
+cropTypes.get(request.getCropTypeId()).get().setPricePerKg(request.getDesiredPricePerKg());
+}
+pending.add(new PendingLot(businessCodeGenerator.next(BusinessCodeType.INVENTORY), request));
+quantityByWarehouse.merge(request.getWarehouseId(), request.getQuantityKg(), BigDecimal::add);
+lotsByFarmer.merge(request.getFarmerId(), 1, Integer::sum);
+if (pending.size() >= BATCH_SIZE) {
+insertPending();
+}
+}
+
+private void insertPending() {
+if (pending.isEmpty()) {
+return;
+}
+Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+GeneratedKeyHolder keys = new GeneratedKeyHolder();
+try {
+jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, new String[]{"id"}),
+new BatchPreparedStatementSetter() {
+@Override
+public void setValues(PreparedStatement statement, int i) throws SQLException {
+bind(statement, pending.get(i), now);
+}
+
+@Override
+public int getBatchSize() {
+return pending.size();
+}
+}, keys);
+} catch (DataIntegrityViolationException e) {
+log.error("Data integrity violation importing inventory: {}", e.getMessage(), e);
+throw new DuplicateResourceException("Failed to import inventory due to data constraint violation.");
+}
+// The inserts bypass the entity listener, so the search index, marketplace and autocomplete are told here.
+List<Map<String, Object>> keyList = keys.getKeyList();
+for (int i = 0; i < keyList.size(); i++) {
+InventoryRequest request = pending.get(i).request();
+Inventory inserted = new Inventory();
+inserted.setId(((Number) keyList.get(i).values().iterator().next()).longValue());
+inserted.setCropType(cropTypeRepository.getReferenceById(request.getCropTypeId()));
+inserted.setWarehouse(warehouseRepository.getReferenceById(request.getWarehouseId()));
+searchIndexEntityListener.onInserted(inserted);
+}
+imported += pending.size();
+pending.clear();
+}
+
+private void bind(PreparedStatement statement, PendingLot lot, Timestamp now) throws SQLException {
+InventoryRequest request = lot.request();
+statement.setString(1, lot.inventoryCode());
+statement.setLong(2, request.getFarmerId());
+statement.setLong(3, request.getWarehouseId());
+statement.setLong(4, request.getCropTypeId());
+statement.setLong(5, storekeeperId);
+statement.setBigDecimal(6, request.getQuantityKg());
+statement.setBigDecimal(7, request.getQuantityKg());
+statement.setString(8, request.getQualityGrade());
+statement.setDate(9, Date.valueOf(request.getStorageDate()));
+LocalDate withdrawal = request.getExpectedWithdrawalDate();
+if (withdrawal != null) {
+statement.setDate(10, Date.valueOf(withdrawal));
+} else {
+statement.setNull(10, Types.DATE);
+}
+statement.setString(11, InventoryStatus.STORED.name());
+setNullableString(statement, 12, request.getNotes());
+setNullableString(statement, 13, request.getCropImageUrl());
+statement.setTimestamp(14, now);
+statement.setTimestamp(15, now);
+}
+
+private void finish() {
+insertPending();
+quantityByWarehouse.forEach((warehouseId, quantity) -> {
+warehouseCapacityService.take(warehouseId, quantity, "import by storekeeper " + storekeeperId);
+log.info("Deducted {} KG of imported inventory from warehouse {} capacity", quantity, warehouseId);
+});
+lotsByFarmer.forEach((farmerId, lots) -> {
+try {
+notificationService.createNotification(
+farmerId,
+"Inventory Created",
+String.format("Storekeeper has registered %d inventory lot(s) for your crops.", lots),
+com.raf.enums.NotificationType.INVENTORY_UPDATED,
+null,
+"/inventory"
+);
+} catch (Exception e) {
+log.error("Failed to send import notification to farmer {}: {}", farmerId, e.getMessage());
+}
+});
+}
+}
+
+private static void setNullableString(PreparedStatement statement, int index, String value) throws SQLException {
+if (value != null) {
+statement.setString(index, value);
+} else {
+statement.setNull(index, Types.VARCHAR);
+}
+}
+
+private static <T> Optional<T> lookup(Map<Long, Optional<T>> cache, Long id, Function<Long, Optional<T>> loader) {
+return cache.computeIfAbsent(id, loader);
+}
+
+private record PendingLot(String inventoryCode, InventoryRequest request) {
+}
+}
@@ -5,6 +5,7 @@ import com.raf.dto.InventoryRequestResponseDto;
 import com.raf.entity.Inventory;
 import com.raf.entity.InventoryRequest;
 import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.InventoryRequestStatus;
 import com.raf.enums.InventoryRequestType;
 import com.raf.enums.InventoryStatus;
@@ -25,7 +26,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -39,6 +39,7 @@ private final UserRepository userRepository;
 private final CropTypeRepository cropTypeRepository;
 private final NotificationService notificationService;
 private final WarehouseAccessRepository warehouseAccessRepository;
+private final BusinessCodeGenerator businessCodeGenerator;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -89,10 +90,7 @@ throw new IllegalArgumentException("Withdrawal quantity cannot exceed remaining
 }
 
 
-String requestCode = "INV-REQ-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-while (inventoryRequestRepository.findByRequestCode(requestCode).isPresent()) {
-requestCode = "INV-REQ-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-}
+String requestCode = businessCodeGenerator.next(BusinessCodeType.INVENTORY_REQUEST);
 
 
 InventoryRequest request = new InventoryRequest();
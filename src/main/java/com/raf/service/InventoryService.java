@@ -6,29 +6,39 @@ import com.raf.entity.CropType;
 import com.raf.entity.Inventory;
 import com.raf.entity.StorageWarehouse;
 import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.InventoryStatus;
 import com.raf.enums.UserType;
+import com.raf.exception.BadRequestException;
 import com.raf.exception.DuplicateResourceException;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.repository.CropTypeRepository;
 import com.raf.repository.InventoryRepository;
+import com.raf.repository.InventorySpecifications;
 import com.raf.repository.StorageWarehouseRepository;
 import com.raf.repository.UserRepository;
 import com.raf.repository.WarehouseAccessRepository;
+import com.raf.util.KeysetCursor;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.springframework.context.annotation.Lazy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class responsible for managing inventory lifecycles within storage warehouses.
@@ -40,11 +50,17 @@ import java.util.List;
 @Slf4j
 @Transactional
 public class InventoryService {
+private static final int MAX_KEYSET_PAGE_SIZE = 100;
+
 private final InventoryRepository inventoryRepository;
 private final UserRepository userRepository;
 private final StorageWarehouseRepository warehouseRepository;
 private final CropTypeRepository cropTypeRepository;
 private final WarehouseAccessRepository warehouseAccessRepository;
+private final SearchIndexEntityListener searchIndexEntityListener;
+private final BusinessCodeGenerator businessCodeGenerator;
+private final WarehouseCapacityService warehouseCapacityService;
+
 @Lazy
 private final NotificationService notificationService;
 
@@ -59,15 +75,16 @@ private EntityManager entityManager;
  * @param request InventoryRequest containing farmer, warehouse, and crop details.
  * @return The newly created Inventory entity.
  * @throws ResourceNotFoundException if farmer, warehouse, or storekeeper do not exist.
- * @throws DuplicateResourceException if a unique inventory code cannot be generated after retries.
+ * @throws DuplicateResourceException if the new record violates a database constraint.
+ * @throws com.raf.exception.OperationNotAllowedException if the warehouse lacks the capacity for the quantity.
  */
 public Inventory createInventoryFromRequest(InventoryRequest request) {
 log.info("Creating inventory from request: {}", request.getInventoryCode());
 
 
 
-String inventoryCode = generateUniqueInventoryCode();
-log.info("Generated unique inventory code: {} (original from request: {})", inventoryCode, request.getInventoryCode());
+String inventoryCode = businessCodeGenerator.next(BusinessCodeType.INVENTORY);
+log.info("Generated inventory code: {} (original from request: {})", inventoryCode, request.getInventoryCode());
 
 User farmer = userRepository.findById(request.getFarmerId())
 .orElseThrow(() -> new ResourceNotFoundException("Farmer not found with ID: " + request.getFarmerId()));
@@ -105,63 +122,15 @@ inventory.setNotes(request.getNotes());
 inventory.setCropImageUrl(request.getCropImageUrl());
 
 
-int maxRetries = 5;
-int attempt = 0;
-Inventory savedInventory = null;
+// Taken before the lot is saved, so a full warehouse rejects the intake instead of going negative.
+warehouseCapacityService.take(warehouse.getId(), request.getQuantityKg(), inventoryCode);
 
-while (attempt < maxRetries) {
+Inventory savedInventory;
 try {
-
-if (attempt > 0) {
-inventoryCode = generateUniqueInventoryCode();
-inventory.setInventoryCode(inventoryCode);
-log.info("Retry attempt {}: Using new inventory code: {}", attempt, inventoryCode);
-}
-
 savedInventory = inventoryRepository.save(inventory);
 entityManager.flush();
-
-
-try {
-BigDecimal newAvailableCapacity = warehouse.getAvailableCapacityKg().subtract(request.getQuantityKg());
-if (newAvailableCapacity.compareTo(BigDecimal.ZERO) < 0) {
-log.warn("Warehouse capacity would be negative, setting to 0. Warehouse: {}", warehouse.getId());
-newAvailableCapacity = BigDecimal.ZERO;
-}
-warehouse.setAvailableCapacityKg(newAvailableCapacity);
-warehouseRepository.save(warehouse);
-entityManager.flush();
-log.info("Updated warehouse {} available capacity to {} KG", warehouse.getId(), newAvailableCapacity);
-} catch (Exception e) {
-log.error("Failed to update warehouse capacity, but inventory was created: {}", e.getMessage());
-
-}
-
-log.info("Inventory created successfully with ID: {} and code: {}", savedInventory.getId(), savedInventory.getInventoryCode());
-
-
-if (savedInventory.getFarmer() != null) savedInventory.getFarmer().getId();
-if (savedInventory.getWarehouse() != null) savedInventory.getWarehouse().getId();
-if (savedInventory.getCropType() != null) savedInventory.getCropType().getId();
-if (savedInventory.getStorekeeper() != null) savedInventory.getStorekeeper().getId();
-
-return savedInventory;
-
 } catch (org.springframework.dao.DataIntegrityViolationException e) {
-attempt++;
-log.warn("Data integrity violation on attempt {}: {}", attempt, e.getMessage());
-
-if (e.getMessage() != null && e.getMessage().contains("inventory_code")) {
-if (attempt < maxRetries) {
-log.info("Inventory code conflict detected, will retry with new code (attempt {}/{})", attempt, maxRetries);
-continue;
-} else {
-log.error("Failed to create inventory after {} attempts due to code conflicts", maxRetries);
-throw new DuplicateResourceException("Unable to generate unique inventory code after multiple attempts. Please try again.");
-}
-} else {
-
-log.error("Data integrity violation (non-code related): {}", e.getMessage(), e);
+log.error("Data integrity violation creating inventory: {}", e.getMessage(), e);
 String errorMessage = "Failed to create inventory due to data constraint violation.";
 if (e.getMessage() != null) {
 if (e.getMessage().contains("foreign key") || e.getMessage().contains("constraint")) {
@@ -170,24 +139,13 @@ errorMessage = "Invalid reference data. Please verify farmer, warehouse, crop ty
 }
 throw new DuplicateResourceException(errorMessage);
 }
-} catch (Exception e) {
-log.error("Unexpected error creating inventory: {}", e.getMessage(), e);
-throw new RuntimeException("Failed to create inventory: " + e.getMessage(), e);
-}
-}
 
 
-throw new RuntimeException("Failed to create inventory after all retry attempts");
+log.info("Inventory created successfully with ID: {} and code: {}", savedInventory.getId(), savedInventory.getInventoryCode());
+return savedInventory;
 }
 
 
-private String generateUniqueInventoryCode() {
-
-String uuid = java.util.UUID.randomUUID().toString().toUpperCase().replace("-", "");
-
-return "INV-" + uuid;
-}
-
 public Inventory createInventory(Inventory inventory) {
 log.info("Creating inventory: {} for farmer {}",
 inventory.getInventoryCode(), inventory.getFarmer().getUserCode());
@@ -218,35 +176,10 @@ return inventoryRepository.findByInventoryCode(code)
 
 public List<Inventory> getAllInventories() {
 log.info("📊 Fetching all inventories from database...");
-List<Inventory> inventories = inventoryRepository.findAll();
-log.info("📦 Found {} total inventories in database", inventories.size());
-
-List<Inventory> validInventories = inventories.stream()
-.filter(inv -> {
-try {
-if (inv.getFarmer() == null) return false;
-Long farmerId = inv.getFarmer().getId();
-if (farmerId == null) return false;
-User farmer = userRepository.findById(farmerId).orElse(null);
-if (farmer == null || farmer.getUserType() != com.raf.enums.UserType.FARMER) {
-return false;
-}
-
-if (inv.getWarehouse() != null) inv.getWarehouse().getId();
-if (inv.getCropType() != null) inv.getCropType().getId();
-if (inv.getStorekeeper() != null) inv.getStorekeeper().getId();
-return true;
-} catch (Exception e) {
-log.warn("Error validating inventory {}: {}", inv.getInventoryCode(), e.getMessage());
-return false;
-}
-})
-.collect(java.util.stream.Collectors.toList());
+List<Inventory> validInventories = inventoryRepository.findByFarmerUserType(UserType.FARMER);
 log.info("✅ Successfully fetched {} valid inventories from database", validInventories.size());
-if (validInventories.isEmpty() && !inventories.isEmpty()) {
-log.warn("⚠️  WARNING: {} inventories found but {} were filtered out due to invalid data (missing farmer, invalid farmer type, etc.)", inventories.size(), inventories.size() - validInventories.size());
-} else if (validInventories.isEmpty()) {
-log.warn("⚠️  WARNING: No inventories found in database. Database may be empty or inventory table is not populated.");
+if (validInventories.isEmpty()) {
+log.warn("⚠️  WARNING: No farmer-owned inventories found in database. Database may be empty or inventory table is not populated.");
 } else {
 log.info("📋 Valid inventories: {}", validInventories.stream()
 .map(inv -> String.format("%s (%s - %s kg)", inv.getInventoryCode(),
@@ -263,60 +196,28 @@ return inventoryRepository.findByFarmerId(farmerId);
 }
 
 public List<Inventory> getInventoriesByWarehouse(Long warehouseId) {
-List<Inventory> inventories = inventoryRepository.findByWarehouseId(warehouseId);
-return filterValidInventories(inventories);
+return inventoryRepository.findByWarehouseIdAndFarmerUserType(warehouseId, UserType.FARMER);
 }
 
 public List<Inventory> getInventoriesByWarehouseAndStorekeeper(Long warehouseId, Long storekeeperId) {
-List<Inventory> inventories = inventoryRepository.findByWarehouseId(warehouseId);
-List<Inventory> validInventories = filterValidInventories(inventories);
-
-return validInventories.stream()
-.filter(inv -> inv.getStorekeeper() != null && inv.getStorekeeper().getId().equals(storekeeperId))
-.collect(java.util.stream.Collectors.toList());
+return inventoryRepository.findByWarehouseIdAndStorekeeperIdAndFarmerUserType(
+warehouseId, storekeeperId, UserType.FARMER);
 }
 
 public List<Inventory> getInventoriesByCropType(Long cropTypeId) {
-List<Inventory> inventories = inventoryRepository.findByCropTypeId(cropTypeId);
-return filterValidInventories(inventories);
+return inventoryRepository.findByCropTypeIdAndFarmerUserType(cropTypeId, UserType.FARMER);
 }
 
 public List<Inventory> getInventoriesByStatus(InventoryStatus status) {
-List<Inventory> inventories = inventoryRepository.findByStatus(status);
-return filterValidInventories(inventories);
+return inventoryRepository.findByStatusAndFarmerUserType(status, UserType.FARMER);
 }
 
 public List<Inventory> getInventoriesByStatus(InventoryStatus status, Sort sort) {
-List<Inventory> inventories = inventoryRepository.findByStatus(status, sort);
-return filterValidInventories(inventories);
+return inventoryRepository.findByStatusAndFarmerUserType(status, UserType.FARMER, sort);
 }
 
 public Page<Inventory> getInventoriesByStatus(InventoryStatus status, Pageable pageable) {
-Page<Inventory> inventories = inventoryRepository.findByStatus(status, pageable);
-
-List<Inventory> validInventories = inventories.getContent().stream()
-.filter(inv -> {
-try {
-if (inv.getFarmer() == null) return false;
-Long farmerId = inv.getFarmer().getId();
-if (farmerId == null) return false;
-User farmer = userRepository.findById(farmerId).orElse(null);
-if (farmer == null || farmer.getUserType() != com.raf.enums.UserType.FARMER) {
-return false;
-}
-
-if (inv.getWarehouse() != null) inv.getWarehouse().getId();
-if (inv.getCropType() != null) inv.getCropType().getId();
-if (inv.getStorekeeper() != null) inv.getStorekeeper().getId();
-return true;
-} catch (Exception e) {
-log.warn("Error validating inventory {}: {}", inv.getInventoryCode(), e.getMessage());
-return false;
-}
-})
-.collect(java.util.stream.Collectors.toList());
-
-return new org.springframework.data.domain.PageImpl<>(validInventories, pageable, validInventories.size());
+return inventoryRepository.findByStatusAndFarmerUserType(status, UserType.FARMER, pageable);
 }
 
 public List<Inventory> getInventoriesByFarmer(Long farmerId, Sort sort) {
@@ -328,31 +229,7 @@ return inventoryRepository.findByFarmerId(farmerId, pageable);
 }
 
 public Page<Inventory> getInventoriesByWarehouse(Long warehouseId, Pageable pageable) {
-Page<Inventory> inventories = inventoryRepository.findByWarehouseId(warehouseId, pageable);
-
-List<Inventory> validInventories = inventories.getContent().stream()
-.filter(inv -> {
-try {
-if (inv.getFarmer() == null) return false;
-Long farmerId = inv.getFarmer().getId();
-if (farmerId == null) return false;
-User farmer = userRepository.findById(farmerId).orElse(null);
-if (farmer == null || farmer.getUserType() != com.raf.enums.UserType.FARMER) {
-return false;
-}
-
-if (inv.getWarehouse() != null) inv.getWarehouse().getId();
-if (inv.getCropType() != null) inv.getCropType().getId();
-if (inv.getStorekeeper() != null) inv.getStorekeeper().getId();
-return true;
-} catch (Exception e) {
-log.warn("Error validating inventory {}: {}", inv.getInventoryCode(), e.getMessage());
-return false;
-}
-})
-.collect(java.util.stream.Collectors.toList());
-
-return new org.springframework.data.domain.PageImpl<>(validInventories, pageable, validInventories.size());
+return inventoryRepository.findByWarehouseIdAndFarmerUserType(warehouseId, UserType.FARMER, pageable);
 }
 
 public List<Inventory> getInventoriesByLocationCode(String locationCode) {
@@ -362,32 +239,86 @@ return inventoryRepository.findInventoriesByLocationCode(locationCode);
 
 @Transactional(readOnly = true)
 public List<Inventory> getAvailableInventoriesForBuyers() {
-log.info("Fetching available inventories for buyers (STORED status with remaining quantity > 0)");
-List<Inventory> storedInventories = inventoryRepository.findByStatus(InventoryStatus.STORED);
-List<Inventory> validInventories = filterValidInventories(storedInventories);
-
-
-List<Inventory> availableInventories = validInventories.stream()
-.filter(inv -> inv.getRemainingQuantityKg() != null
-&& inv.getRemainingQuantityKg().compareTo(BigDecimal.ZERO) > 0)
-.collect(java.util.stream.Collectors.toList());
-
-log.info("Found {} available inventories for buyers (out of {} stored inventories)",
-availableInventories.size(), validInventories.size());
-
+List<Inventory> availableInventories = inventoryRepository.findByStatusAndRemainingQuantityKgGreaterThanAndFarmerUserType(
+InventoryStatus.STORED, BigDecimal.ZERO, UserType.FARMER);
+log.info("Found {} available inventories for buyers", availableInventories.size());
 return availableInventories;
 }
 
-public Page<Inventory> getInventoriesPaginated(Pageable pageable) {
-Page<Inventory> inventories = inventoryRepository.findAll(pageable);
+/**
+ * Offset-paged listing of farmers' lots, filtered in the database with the
+ * same specifications as {@link #getInventoriesAfter}, so page contents and
+ * totals agree with the filter.
+ *
+ * @param status The status to keep, or null for any.
+ * @param inStockOnly Whether to leave out lots with nothing remaining.
+ */
+@Transactional(readOnly = true)
+public Page<Inventory> getInventoriesPaginated(InventoryStatus status, boolean inStockOnly, Pageable pageable) {
+Specification<Inventory> filter = InventorySpecifications.ownedByFarmer()
+.and(InventorySpecifications.hasStatus(status));
+if (inStockOnly) {
+filter = filter.and(InventorySpecifications.inStock());
+}
+return inventoryRepository.findAll(filter, pageable);
+}
 
-inventories.getContent().forEach(inv -> {
-if (inv.getFarmer() != null) inv.getFarmer().getId();
-if (inv.getWarehouse() != null) inv.getWarehouse().getId();
-if (inv.getCropType() != null) inv.getCropType().getId();
-if (inv.getStorekeeper() != null) inv.getStorekeeper().getId();
-});
-return inventories;
+/**
+ * Keyset-paged listing for the storekeeper and admin inventory tables, newest
+ * lot first. Filtering and ordering run in the database, and each page starts
+ * right after the last row of the previous one instead of skipping an offset,
+ * so a deep page costs the same as the first.
+ *
+ * @param cursor The {@code nextCursor} of the previous page, or null for the first page.
+ * @param inStockOnly Whether to leave out lots with nothing remaining.
+ * @throws BadRequestException If the cursor is malformed or has been tampered with.
+ */
+@Transactional(readOnly = true)
+public Map<String, Object> getInventoriesAfter(String cursor, int size, InventoryStatus status,
+Long warehouseId, Long storekeeperId, boolean inStockOnly) {
+int pageSize = Math.max(1, Math.min(size, MAX_KEYSET_PAGE_SIZE));
+Specification<Inventory> filter = InventorySpecifications.ownedByFarmer()
+.and(InventorySpecifications.hasStatus(status))
+.and(InventorySpecifications.inWarehouse(warehouseId))
+.and(InventorySpecifications.managedBy(storekeeperId))
+.and(InventorySpecifications.before(decodeCursor(cursor)));
+if (inStockOnly) {
+filter = filter.and(InventorySpecifications.inStock());
+}
+
+// One row past the page tells whether another page follows, without a count query.
+List<Inventory> rows = findListing(filter, pageSize + 1);
+boolean hasNext = rows.size() > pageSize;
+List<Inventory> content = hasNext ? rows.subList(0, pageSize) : rows;
+Inventory last = content.isEmpty() ? null : content.get(content.size() - 1);
+
+Map<String, Object> result = new HashMap<>();
+result.put("content", content);
+result.put("size", pageSize);
+result.put("hasNext", hasNext);
+result.put("nextCursor", hasNext ? new KeysetCursor(last.getCreatedAt(), last.getId()).encode() : null);
+return result;
+}
+
+private static KeysetCursor decodeCursor(String cursor) {
+try {
+return KeysetCursor.decode(cursor);
+} catch (IllegalArgumentException e) {
+throw new BadRequestException("Invalid cursor: pass the nextCursor of the previous page, or none for the first page");
+}
+}
+
+// Newest first, loaded with the listing entity graph; the Specification keeps the filters in the WHERE clause.
+private List<Inventory> findListing(Specification<Inventory> filter, int limit) {
+CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+CriteriaQuery<Inventory> query = cb.createQuery(Inventory.class);
+Root<Inventory> root = query.from(Inventory.class);
+query.where(filter.toPredicate(root, query, cb))
+.orderBy(cb.desc(root.get("createdAt")), cb.desc(root.get("id")));
+return entityManager.createQuery(query)
+.setHint("jakarta.persistence.loadgraph", entityManager.getEntityGraph(Inventory.LISTING_GRAPH))
+.setMaxResults(limit)
+.getResultList();
 }
 
 public Inventory updateInventory(Long id, Inventory inventoryDetails) {
@@ -519,27 +450,37 @@ return savedInventory;
  */
 public Inventory reduceInventoryQuantity(Long id, BigDecimal soldQuantity) {
 log.info("Reducing inventory {} by {} kg", id, soldQuantity);
+return takeStock(id, soldQuantity);
+}
+
+/**
+ * Takes sold quantity out of a lot with one conditional UPDATE instead of a
+ * read-modify-write, so two buyers paying for the same lot at once cannot
+ * oversell it. The row lock is held from that statement until commit.
+ *
+ * @param id The inventory id.
+ * @param quantity The quantity sold, in kg.
+ * @return The inventory with its new remaining quantity and status.
+ * @throws IllegalArgumentException if the quantity is not positive or exceeds what remains.
+ */
+public Inventory takeStock(Long id, BigDecimal quantity) {
+if (quantity == null || quantity.signum() <= 0) {
+throw new IllegalArgumentException("Quantity must be greater than zero");
+}
 
+int updated = inventoryRepository.decrementRemainingQuantity(id, quantity);
 Inventory inventory = inventoryRepository.findById(id)
 .orElseThrow(() -> new ResourceNotFoundException("Inventory not found with id: " + id));
+entityManager.refresh(inventory);
 
-if (inventory.getRemainingQuantityKg().compareTo(soldQuantity) < 0) {
+if (updated == 0) {
 throw new IllegalArgumentException("Insufficient quantity available. Available: " +
 inventory.getRemainingQuantityKg() + " kg");
 }
 
-BigDecimal newRemaining = inventory.getRemainingQuantityKg().subtract(soldQuantity);
-inventory.setRemainingQuantityKg(newRemaining);
-
-if (newRemaining.compareTo(BigDecimal.ZERO) == 0) {
-inventory.setStatus(InventoryStatus.SOLD);
-} else {
-inventory.setStatus(InventoryStatus.PARTIALLY_SOLD);
-}
-
-Inventory savedInventory = inventoryRepository.save(inventory);
-entityManager.flush();
-return savedInventory;
+// The bulk update skipped the entity callbacks, so the search index is told directly.
+searchIndexEntityListener.onSaved(inventory);
+return inventory;
 }
 
 public Inventory withdrawInventory(Long id) {
@@ -649,10 +590,7 @@ throw new IllegalArgumentException("Only storekeepers can delete inventory using
 
 try {
 StorageWarehouse warehouse = inventory.getWarehouse();
-BigDecimal returnedCapacity = warehouse.getAvailableCapacityKg().add(inventory.getQuantityKg());
-warehouse.setAvailableCapacityKg(returnedCapacity);
-warehouseRepository.save(warehouse);
-entityManager.flush();
+warehouseCapacityService.restore(warehouse.getId(), inventory.getQuantityKg(), inventory.getInventoryCode());
 log.info("Returned {} KG capacity to warehouse {}", inventory.getQuantityKg(), warehouse.getId());
 } catch (Exception e) {
 log.error("Failed to return capacity to warehouse: {}", e.getMessage());
@@ -727,9 +665,7 @@ StorageWarehouse warehouse = inventory.getWarehouse();
 if (warehouse != null) {
 BigDecimal quantity = inventory.getQuantityKg();
 if (quantity != null) {
-BigDecimal currentCapacity = warehouse.getAvailableCapacityKg();
-warehouse.setAvailableCapacityKg(currentCapacity.add(quantity));
-warehouseRepository.save(warehouse);
+warehouseCapacityService.restore(warehouse.getId(), quantity, inventory.getInventoryCode());
 log.debug("Restored {} KG capacity to warehouse {}", quantity, warehouse.getWarehouseName());
 }
 }
@@ -758,30 +694,6 @@ return deletedCount;
 }
 
 
-private List<Inventory> filterValidInventories(List<Inventory> inventories) {
-return inventories.stream()
-.filter(inv -> {
-try {
-if (inv.getFarmer() == null) return false;
-Long farmerId = inv.getFarmer().getId();
-if (farmerId == null) return false;
-User farmer = userRepository.findById(farmerId).orElse(null);
-if (farmer == null || farmer.getUserType() != com.raf.enums.UserType.FARMER) {
-return false;
-}
-
-if (inv.getWarehouse() != null) inv.getWarehouse().getId();
-if (inv.getCropType() != null) inv.getCropType().getId();
-if (inv.getStorekeeper() != null) inv.getStorekeeper().getId();
-return true;
-} catch (Exception e) {
-log.warn("Error validating inventory {}: {}", inv.getInventoryCode(), e.getMessage());
-return false;
-}
-})
-.collect(java.util.stream.Collectors.toList());
-}
-
 public BigDecimal getTotalStoredQuantityInWarehouse(Long warehouseId) {
 BigDecimal total = inventoryRepository.getTotalStoredQuantityInWarehouse(warehouseId);
 return total != null ? total : BigDecimal.ZERO;
@@ -792,9 +704,8 @@ return inventoryRepository.countActiveInventoriesByFarmer(farmerId);
 }
 
 public List<Inventory> getAvailableInventoryInWarehouse(Long warehouseId, BigDecimal minQuantity) {
-List<Inventory> inventories = inventoryRepository.findAvailableInventoryInWarehouse(
-warehouseId, InventoryStatus.STORED, minQuantity);
-return filterValidInventories(inventories);
+return inventoryRepository.findByWarehouseIdAndStatusAndRemainingQuantityKgGreaterThanAndFarmerUserType(
+warehouseId, InventoryStatus.STORED, minQuantity, UserType.FARMER);
 }
 }
 
@@ -0,0 +1,293 @@
+package com.raf.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raf.enums.DeliveryStatus;
+import com.raf.enums.ExportFormat;
+import com.raf.enums.PaymentStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Finance exports of transactions and payments. Rows are read through a
+ * forward-only, read-only JDBC cursor that fetches {@link #FETCH_SIZE} rows at
+ * a time and are written to the output as they arrive, so an export of any
+ * length runs in constant memory. PostgreSQL only keeps the cursor open inside
+ * a transaction, which is why the exports are transactional.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerExportService {
+
+static final int FETCH_SIZE = 1000;
+
+// Identifiers are quoted because the schema is generated with globally quoted identifiers.
+private static final String TRANSACTION_SQL = "SELECT t.\"id\" AS \"id\", t.\"transaction_code\" AS \"transactionCode\", "
++ "t.\"transaction_date\" AS \"transactionDate\", t.\"payment_date\" AS \"paymentDate\", "
++ "t.\"payment_status\" AS \"paymentStatus\", t.\"delivery_status\" AS \"deliveryStatus\", "
++ "t.\"buyer_id\" AS \"buyerId\", t.\"seller_id\" AS \"sellerId\", t.\"inventory_id\" AS \"inventoryId\", "
++ "i.\"inventory_code\" AS \"inventoryCode\", i.\"warehouse_id\" AS \"warehouseId\", c.\"crop_name\" AS \"cropName\", "
++ "t.\"quantity_kg\" AS \"quantityKg\", t.\"unit_price\" AS \"unitPrice\", t.\"total_amount\" AS \"totalAmount\", "
++ "t.\"storage_fee\" AS \"storageFee\", t.\"transaction_fee\" AS \"transactionFee\", t.\"commission\" AS \"commission\", "
++ "t.\"net_amount\" AS \"netAmount\" "
++ "FROM \"transaction\" t JOIN \"inventory\" i ON i.\"id\" = t.\"inventory_id\" "
++ "JOIN \"crop_type\" c ON c.\"id\" = i.\"crop_type_id\"";
+
+private static final String PAYMENT_SQL = "SELECT p.\"id\" AS \"id\", p.\"payment_code\" AS \"paymentCode\", "
++ "p.\"transaction_id\" AS \"transactionId\", t.\"transaction_code\" AS \"transactionCode\", p.\"payer_id\" AS \"payerId\", "
++ "p.\"amount\" AS \"amount\", p.\"payment_method\" AS \"paymentMethod\", p.\"payment_reference\" AS \"paymentReference\", "
++ "p.\"status\" AS \"status\", p.\"payment_date\" AS \"paymentDate\", p.\"processed_date\" AS \"processedDate\", "
++ "p.\"created_at\" AS \"createdAt\" "
++ "FROM \"payment\" p JOIN \"transaction\" t ON t.\"id\" = p.\"transaction_id\"";
+
+private final JdbcTemplate jdbcTemplate;
+private final ObjectMapper objectMapper;
+
+/**
+ * Writes the transactions dated within {@code from} to {@code to}, both days
+ * included, in id order. Every filter is optional.
+ *
+ * @return The number of rows written.
+ */
+@Transactional(readOnly = true)
+public long exportTransactions(OutputStream output, ExportFormat format, boolean gzip, LocalDate from, LocalDate to,
+PaymentStatus paymentStatus, DeliveryStatus deliveryStatus) throws IOException {
+Query query = new Query(TRANSACTION_SQL);
+query.dateRange("t.\"transaction_date\"", from, to);
+query.equal("t.\"payment_status\"", paymentStatus);
+query.equal("t.\"delivery_status\"", deliveryStatus);
+return export(query.orderBy("t.\"id\""), output, format, gzip);
+}
+
+/**
+ * Writes the payments recorded within {@code from} to {@code to}, both days
+ * included, in id order. Every filter is optional.
+ *
+ * @return The number of rows written.
+ */
+@Transactional(readOnly = true)
+public long exportPayments(OutputStream output, ExportFormat format, boolean gzip, LocalDate from, LocalDate to,
+PaymentStatus status) throws IOException {
+Query query = new Query(PAYMENT_SQL);
+query.dateRange("p.\"created_at\"", from, to);
+query.equal("p.\"status\"", status);
+return export(query.orderBy("p.\"id\""), output, format, gzip);
+}
+
+/**
+ * @throws IllegalArgumentException if the range ends before it starts.
+ */
+public static void checkRange(LocalDate from, LocalDate to) {
+if (from != null && to != null && to.isBefore(from)) {
+throw new IllegalArgumentException("The export range must not end before it starts");
+}
+}
+
+private long export(Query query, OutputStream output, ExportFormat format, boolean gzip) throws IOException {
+GZIPOutputStream compressed = gzip ? new GZIPOutputStream(output, 8192) : null;
+Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : output, StandardCharsets.UTF_8));
+RowWriter rows = format == ExportFormat.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer);
+long count;
+try {
+count = jdbcTemplate.query(connection -> {
+PreparedStatement statement = connection.prepareStatement(query.sql(),
+ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+statement.setFetchSize(FETCH_SIZE);
+for (int i = 0; i < query.args.size(); i++) {
+statement.setObject(i + 1, query.args.get(i));
+}
+return statement;
+}, (ResultSet rs) -> {
+long written = 0;
+try {
+rows.header(columns(rs));
+while (rs.next()) {
+rows.row(values(rs));
+written++;
+}
+} catch (IOException e) {
+throw new UncheckedIOException(e);
+}
+return written;
+});
+rows.finish();
+writer.flush();
+if (compressed != null) {
+compressed.finish();
+}
+} catch (UncheckedIOException e) {
+throw e.getCause();
+}
+log.info("Exported {} rows as {}{}", count, format, gzip ? " (gzip)" : "");
+return count;
+}
+
+/** Quotes a CSV field when it contains a separator, quote or line break. */
+static String csvField(String value) {
+if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+return value;
+}
+return '"' + value.replace("\"", "\"\"") + '"';
+}
+
+private static List<String> columns(ResultSet rs) throws SQLException {
+int count = rs.getMetaData().getColumnCount();
+List<String> columns = new ArrayList<>(count);
+for (int i = 1; i <= count; i++) {
+columns.add(rs.getMetaData().getColumnLabel(i));
+}
+return columns;
+}
+
+/** Column values as numbers, ISO dates and strings; enums come back as their names. */
+private static Object[] values(ResultSet rs) throws SQLException {
+int count = rs.getMetaData().getColumnCount();
+Object[] values = new Object[count];
+for (int i = 1; i <= count; i++) {
+Object value = rs.getObject(i);
+if (value instanceof Timestamp timestamp) {
+values[i - 1] = timestamp.toLocalDateTime().toString();
+} else if (value instanceof Date date) {
+values[i - 1] = date.toLocalDate().toString();
+} else if (value == null || value instanceof Number) {
+values[i - 1] = value;
+} else {
+values[i - 1] = rs.getString(i);
+}
+}
+return values;
+}
+
+/** A select with optional filters appended as bind parameters. */
+private static class Query {
+private final String select;
+private final StringBuilder where = new StringBuilder();
+private final List<Object> args = new ArrayList<>();
+private String orderBy = "";
+
+Query(String select) {
+this.select = select;
+}
+
+void dateRange(String column, LocalDate from, LocalDate to) {
+checkRange(from, to);
+if (from != null) {
+condition(column + " >= ?", Timestamp.valueOf(from.atStartOfDay()));
+}
+if (to != null) {
+condition(column + " < ?", Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+}
+}
+
+void equal(String column, Enum<?> value) {
+if (value != null) {
+condition(column + " = ?", value.name());
+}
+}
+
+Query orderBy(String column) {
+orderBy = " ORDER BY " + column;
+return this;
+}
+
+String sql() {
+return select + where + orderBy;
+}
+
+private void condition(String condition, Object arg) {
+where.append(where.isEmpty() ? " WHERE " : " AND ").append(condition);
+args.add(arg);
+}
+}
+
+private interface RowWriter {
+void header(List<String> columns) throws IOException;
+void row(Object[] values) throws IOException;
+void finish() throws IOException;
+}
+
+private static class CsvRowWriter implements RowWriter {
+private final Writer writer;
+
+CsvRowWriter(Writer writer) {
+this.writer = writer;
+}
+
+@Override
+public void header(List<String> columns) throws IOException {
+line(columns.toArray());
+}
+
+@Override
+public void row(Object[] values) throws IOException {
+line(values);
+}
+
+@Override
+public void finish() {
+}
+
+private void line(Object[] values) throws IOException {
+for (int i = 0; i < values.length; i++) {
+if (i > 0) {
+writer.write(',');
+}
+if (values[i] != null) {
+writer.write(csvField(values[i].toString()));
+}
+}
+writer.write('\n');
+}
+}
+
+private class NdjsonRowWriter implements RowWriter {
+private final JsonGenerator generator;
+private List<String> columns;
+
+NdjsonRowWriter(Writer writer) throws IOException {
+this.generator = objectMapper.getFactory().createGenerator(writer)
+.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+}
+
+@Override
+public void header(List<String> columns) {
+this.columns = columns;
+}
+
+@Override
+public void row(Object[] values) throws IOException {
+generator.writeStartObject();
+for (int i = 0; i < values.length; i++) {
+generator.writeObjectField(columns.get(i), values[i]);
+}
+generator.writeEndObject();
+generator.writeRaw('\n');
+}
+
+@Override
+public void finish() throws IOException {
+generator.flush();
+}
+}
+}
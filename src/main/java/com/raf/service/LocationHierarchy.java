@@ -0,0 +1,407 @@
+package com.raf.service;
+
+import com.raf.entity.Location;
+import com.raf.repository.LocationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Read-only copy of the Rwanda administrative hierarchy (province, district,
+ * sector, cell, village) used to serve the address cascade dropdowns without
+ * touching the database. The whole tree is loaded with one query after startup
+ * (once locations.tsv has been loaded) and replaced atomically. Location writes
+ * made through JPA start a rebuild on a background thread once they commit;
+ * reads keep getting the previous tree until the new one is swapped in.
+ */
+@Component
+@Slf4j
+public class LocationHierarchy {
+
+private final LocationRepository locationRepository;
+private final TransactionTemplate readOnlyTransaction;
+private final TaskExecutor rebuildExecutor;
+private final AtomicBoolean rebuilding = new AtomicBoolean();
+private final List<Consumer<Tree>> reloadListeners = new CopyOnWriteArrayList<>();
+
+private volatile Tree tree;
+/**
+ * Set by committed location writes and failed loads. The first load belongs to
+ * buildOnStartup, so reads before it do not start one of their own.
+ */
+private volatile boolean stale;
+
+public LocationHierarchy(LocationRepository locationRepository, PlatformTransactionManager transactionManager,
+@Qualifier("applicationTaskExecutor") TaskExecutor rebuildExecutor) {
+this.locationRepository = locationRepository;
+this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+this.readOnlyTransaction.setReadOnly(true);
+this.rebuildExecutor = rebuildExecutor;
+}
+
+@EventListener(ApplicationReadyEvent.class)
+public void buildOnStartup() {
+if (rebuilding.compareAndSet(false, true)) {
+try {
+rebuild();
+} finally {
+rebuilding.set(false);
+}
+}
+}
+
+/**
+ * Loads the hierarchy from the location table and swaps it in.
+ *
+ * @return Whether the tree was loaded.
+ */
+boolean rebuild() {
+try {
+long started = System.currentTimeMillis();
+stale = false;
+List<Object[]> rows = readOnlyTransaction.execute(status -> locationRepository.findHierarchyRows());
+List<Tree.Row> villages = new ArrayList<>(rows != null ? rows.size() : 0);
+if (rows != null) {
+for (Object[] row : rows) {
+villages.add(new Tree.Row((UUID) row[0], (String) row[1], (String) row[2], (String) row[3],
+(String) row[4], (String) row[5], (String) row[6]));
+}
+}
+Tree fresh = Tree.build(villages);
+tree = fresh;
+log.info("Location hierarchy loaded in {} ms ({} villages)", System.currentTimeMillis() - started, fresh.villageCount());
+for (Consumer<Tree> listener : reloadListeners) {
+try {
+listener.accept(fresh);
+} catch (Exception e) {
+log.warn("Location hierarchy reload listener failed: {}", e.getMessage());
+}
+}
+return true;
+} catch (Exception e) {
+stale = true;
+log.warn("Failed to load location hierarchy, dropdowns will use the previous tree or the database: {}", e.getMessage());
+return false;
+}
+}
+
+/**
+ * Registers a callback run with every newly loaded tree, on the thread that loaded it.
+ */
+void addReloadListener(Consumer<Tree> listener) {
+reloadListeners.add(listener);
+}
+
+/**
+ * Called for every location insert, update or delete; the tree is rebuilt in
+ * the background once the surrounding transaction commits.
+ */
+void onLocationChanged() {
+if (TransactionSynchronizationManager.isSynchronizationActive()) {
+TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+@Override
+public void afterCommit() {
+markStale();
+}
+});
+} else {
+markStale();
+}
+}
+
+private void markStale() {
+stale = true;
+scheduleRebuild();
+}
+
+/**
+ * Starts a background rebuild unless one is already running. The rebuild
+ * repeats while writes keep arriving, and stops after a failed load; the next
+ * read then tries again.
+ */
+private void scheduleRebuild() {
+if (!rebuilding.compareAndSet(false, true)) {
+return;
+}
+try {
+rebuildExecutor.execute(() -> {
+try {
+while (stale && rebuild()) {
+// a write committed while loading, load again
+}
+} finally {
+rebuilding.set(false);
+}
+});
+} catch (RejectedExecutionException e) {
+rebuilding.set(false);
+log.warn("Location hierarchy rebuild rejected, retrying on the next read");
+}
+}
+
+/**
+ * Never blocks on a rebuild: while the tree is stale the previous one is
+ * returned and a background rebuild is started if none is running.
+ *
+ * @return The current tree, or null when it has not been loaded (callers then query the database).
+ */
+Tree current() {
+if (stale) {
+scheduleRebuild();
+}
+return tree;
+}
+
+/**
+ * Immutable tree. Every node is an int; node 0 is the root, nodes on levels
+ * 1-4 (province to cell) have a name and a child array sorted by child name,
+ * and each village is a leaf holding only its location id and code. Names are
+ * interned, since the same sector, cell and village names repeat across the country.
+ */
+static final class Tree {
+
+private static final int[] NO_CHILDREN = new int[0];
+private static final String[] LEVELS = {"Province", "District", "Sector", "Cell", "Village"};
+
+/**
+ * One location row as loaded from the database.
+ */
+record Row(UUID id, String province, String district, String sector, String cell, String village, String code) {
+}
+
+private final String[] names;
+private final int[][] children;
+private final UUID[] ids;
+private final String[] codes;
+
+private Tree(String[] names, int[][] children, UUID[] ids, String[] codes) {
+this.names = names;
+this.children = children;
+this.ids = ids;
+this.codes = codes;
+}
+
+static Tree build(List<Row> rows) {
+TreeMap<String, TreeMap<String, TreeMap<String, TreeMap<String, List<Row>>>>> nested = new TreeMap<>();
+for (Row row : rows) {
+if (row.province() == null || row.district() == null || row.sector() == null
+|| row.cell() == null || row.village() == null) {
+continue;
+}
+nested.computeIfAbsent(row.province(), k -> new TreeMap<>())
+.computeIfAbsent(row.district(), k -> new TreeMap<>())
+.computeIfAbsent(row.sector(), k -> new TreeMap<>())
+.computeIfAbsent(row.cell(), k -> new ArrayList<>())
+.add(row);
+}
+
+List<String> names = new ArrayList<>();
+List<int[]> children = new ArrayList<>();
+List<Row> villages = new ArrayList<>();
+names.add(null);
+children.add(null);
+villages.add(null);
+children.set(0, addLevel(nested, names, children, villages));
+UUID[] ids = new UUID[villages.size()];
+String[] codes = new String[villages.size()];
+for (int i = 0; i < villages.size(); i++) {
+Row village = villages.get(i);
+if (village != null) {
+ids[i] = village.id();
+codes[i] = village.code();
+}
+}
+return new Tree(names.toArray(new String[0]), children.toArray(new int[0][]), ids, codes);
+}
+
+@SuppressWarnings("unchecked")
+private static int[] addLevel(TreeMap<String, ?> level, List<String> names, List<int[]> children, List<Row> villages) {
+int[] ids = new int[level.size()];
+int i = 0;
+for (var entry : level.entrySet()) {
+int id = names.size();
+names.add(entry.getKey().intern());
+children.add(NO_CHILDREN);
+villages.add(null);
+ids[i++] = id;
+int[] childIds;
+if (entry.getValue() instanceof TreeMap<?, ?> next) {
+childIds = addLevel((TreeMap<String, ?>) next, names, children, villages);
+} else {
+List<Row> cellVillages = new ArrayList<>((List<Row>) entry.getValue());
+cellVillages.sort(Comparator.comparing(Row::village));
+childIds = new int[cellVillages.size()];
+for (int v = 0; v < cellVillages.size(); v++) {
+childIds[v] = names.size();
+names.add(cellVillages.get(v).village().intern());
+children.add(NO_CHILDREN);
+villages.add(cellVillages.get(v));
+}
+}
+children.set(id, childIds);
+}
+return ids;
+}
+
+/**
+ * @return The distinct names on each level (Province, District, Sector, Cell, Village), in tree order.
+ */
+Map<String, Set<String>> namesByLevel() {
+Map<String, Set<String>> levels = new LinkedHashMap<>();
+for (String level : LEVELS) {
+levels.put(level, new LinkedHashSet<>());
+}
+collect(0, 0, levels);
+return levels;
+}
+
+private void collect(int node, int depth, Map<String, Set<String>> levels) {
+for (int child : children[node]) {
+levels.get(LEVELS[depth]).add(names[child]);
+collect(child, depth + 1, levels);
+}
+}
+
+/**
+ * Receives every node of the tree.
+ */
+interface NodeVisitor {
+
+/**
+ * @param path The names from the province down to this node; entries below {@code depth} are null.
+ * @param code The location code for villages, otherwise null.
+ */
+void visit(String level, String[] path, int depth, String code);
+}
+
+/**
+ * Walks every node depth-first, parents before children. The path array is
+ * reused between calls and must not be kept.
+ */
+void forEachNode(NodeVisitor visitor) {
+walk(0, 0, new String[LEVELS.length], visitor);
+}
+
+private void walk(int node, int depth, String[] path, NodeVisitor visitor) {
+for (int child : children[node]) {
+path[depth] = names[child];
+visitor.visit(LEVELS[depth], path, depth, codes[child]);
+walk(child, depth + 1, path, visitor);
+}
+if (depth < path.length) {
+path[depth] = null;
+}
+}
+
+boolean isEmpty() {
+return children[0].length == 0;
+}
+
+int villageCount() {
+int count = 0;
+for (UUID id : ids) {
+if (id != null) {
+count++;
+}
+}
+return count;
+}
+
+/**
+ * @return The names of the children of the node at the given path, or an empty list if the path does not exist.
+ */
+List<String> childNames(String... path) {
+int node = find(path);
+if (node < 0) {
+return Collections.emptyList();
+}
+String[] result = new String[children[node].length];
+for (int i = 0; i < result.length; i++) {
+result[i] = names[children[node][i]];
+}
+return Collections.unmodifiableList(Arrays.asList(result));
+}
+
+/**
+ * @return The villages of the cell at the given path, as detached locations
+ * carrying the id, code and names (no audit timestamps).
+ */
+List<Location> villages(String province, String district, String sector, String cell) {
+int node = find(province, district, sector, cell);
+if (node < 0) {
+return Collections.emptyList();
+}
+List<Location> result = new ArrayList<>(children[node].length);
+for (int child : children[node]) {
+result.add(Location.builder()
+.id(ids[child])
+.province(province)
+.district(district)
+.sector(sector)
+.cell(cell)
+.village(names[child])
+.code(codes[child])
+.build());
+}
+return result;
+}
+
+private int find(String... path) {
+int node = 0;
+for (String name : path) {
+if (name == null) {
+return -1;
+}
+node = child(node, name);
+if (node < 0) {
+return -1;
+}
+}
+return node;
+}
+
+/**
+ * Binary search over the sorted child array of a node.
+ */
+private int child(int node, String name) {
+int[] ids = children[node];
+int low = 0;
+int high = ids.length - 1;
+while (low <= high) {
+int mid = (low + high) >>> 1;
+int cmp = names[ids[mid]].compareTo(name);
+if (cmp < 0) {
+low = mid + 1;
+} else if (cmp > 0) {
+high = mid - 1;
+} else {
+return ids[mid];
+}
+}
+return -1;
+}
+}
+}
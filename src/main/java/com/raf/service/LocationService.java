@@ -1,16 +1,26 @@
 package com.raf.service;
 
+import com.raf.config.LocationTrigramInitializer;
 import com.raf.constant.RwandaLocationDefaults;
+import com.raf.dto.LocationMatch;
 import com.raf.entity.Location;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.repository.LocationRepository;
+import com.raf.util.TrigramSimilarity;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -19,6 +29,11 @@ import java.util.UUID;
 public class LocationService {
 
 private final LocationRepository locationRepository;
+private final LocationTrigramInitializer trigramIndexes;
+private final LocationHierarchy locationHierarchy;
+
+private static final int NAME_SEARCH_LIMIT = 100;
+private static final int MAX_FUZZY_LIMIT = 50;
 
 public Location getLocationById(UUID id) {
 return locationRepository.findById(id)
@@ -31,34 +46,157 @@ return locationRepository.findByCode(code)
 }
 
 public List<String> getProvinces() {
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+return tree.childNames();
+}
 List<String> fromDb = locationRepository.findDistinctProvinces();
 if (!fromDb.isEmpty()) {
 return fromDb;
 }
 log.warn(
-"No rows in location table (seeds.sql likely did not run or failed). "
+"No rows in location table (locations.tsv likely did not load). "
 + "Returning default Rwanda province names; districts/villages stay empty until seeding succeeds.");
 return RwandaLocationDefaults.PROVINCE_NAMES;
 }
 
 public List<String> getDistricts(String province) {
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+return tree.childNames(province);
+}
 return locationRepository.findDistinctDistrictsByProvince(province);
 }
 
 public List<String> getSectors(String province, String district) {
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+return tree.childNames(province, district);
+}
 return locationRepository.findDistinctSectorsByProvinceAndDistrict(province, district);
 }
 
 public List<String> getCells(String province, String district, String sector) {
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+return tree.childNames(province, district, sector);
+}
 return locationRepository.findDistinctCellsByProvinceAndDistrictAndSector(province, district, sector);
 }
 
 public List<Location> getVillages(String province, String district, String sector, String cell) {
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+return tree.villages(province, district, sector, cell);
+}
 return locationRepository.findVillagesByProvinceAndDistrictAndSectorAndCell(province, district, sector, cell);
 }
 
+/**
+ * @return The in-memory hierarchy, or null while it is not loaded or the location table is empty.
+ */
+private LocationHierarchy.Tree loadedHierarchy() {
+LocationHierarchy.Tree tree = locationHierarchy.current();
+return tree != null && !tree.isEmpty() ? tree : null;
+}
+
 public List<Location> searchByName(String name) {
+if (trigramIndexes.isReady()) {
+return locationRepository.searchByVillageNameTrigram(name, NAME_SEARCH_LIMIT);
+}
 return locationRepository.searchByVillageName(name);
 }
+
+/**
+ * Typo-tolerant search over provinces, districts, sectors, cells and villages,
+ * ranked by trigram similarity. Uses the pg_trgm indexes when they are available
+ * and scores the rows in memory otherwise (H2, or pg_trgm not installed).
+ */
+@Transactional(readOnly = true)
+public List<LocationMatch> fuzzySearch(String query, int limit) {
+String term = query != null ? query.trim() : "";
+int max = Math.max(1, Math.min(limit, MAX_FUZZY_LIMIT));
+if (term.isEmpty()) {
+return new ArrayList<>();
+}
+if (trigramIndexes.isReady()) {
+return locationRepository.searchHierarchyTrigram(term, max).stream()
+.map(this::toLocationMatch)
+.collect(Collectors.toList());
+}
+return fuzzySearchInMemory(term, max);
+}
+
+/**
+ * Scores the names in the in-memory hierarchy; the location table is only read
+ * while the hierarchy is not loaded.
+ */
+private List<LocationMatch> fuzzySearchInMemory(String term, int limit) {
+Set<String> queryTrigrams = TrigramSimilarity.trigrams(term);
+Map<String, Double> scores = new HashMap<>();
+Map<String, LocationMatch> matches = new LinkedHashMap<>();
+LocationHierarchy.Tree tree = loadedHierarchy();
+if (tree != null) {
+tree.forEachNode((level, path, depth, code) -> addMatch(matches, scores, queryTrigrams,
+level, path[depth], path[0], path[1], path[2], path[3], path[4], code));
+} else {
+for (Location location : locationRepository.findAll()) {
+String province = location.getProvince();
+String district = location.getDistrict();
+String sector = location.getSector();
+String cell = location.getCell();
+addMatch(matches, scores, queryTrigrams, "Province", province, province, null, null, null, null, null);
+addMatch(matches, scores, queryTrigrams, "District", district, province, district, null, null, null, null);
+addMatch(matches, scores, queryTrigrams, "Sector", sector, province, district, sector, null, null, null);
+addMatch(matches, scores, queryTrigrams, "Cell", cell, province, district, sector, cell, null, null);
+addMatch(matches, scores, queryTrigrams, "Village", location.getVillage(), province, district, sector, cell, location.getVillage(), location.getCode());
+}
+}
+return matches.values().stream()
+.sorted(Comparator.comparingDouble(LocationMatch::getSimilarity).reversed()
+.thenComparing(LocationMatch::getName, Comparator.nullsLast(Comparator.naturalOrder())))
+.limit(limit)
+.collect(Collectors.toList());
+}
+
+private void addMatch(Map<String, LocationMatch> matches, Map<String, Double> scores, Set<String> queryTrigrams,
+String level, String name, String province, String district, String sector, String cell, String village, String code) {
+if (name == null) {
+return;
+}
+String key = level + "|" + province + "|" + district + "|" + sector + "|" + cell + "|" + village + "|" + code;
+if (matches.containsKey(key)) {
+return;
+}
+double similarity = scores.computeIfAbsent(name, n -> TrigramSimilarity.similarity(queryTrigrams, TrigramSimilarity.trigrams(n)));
+if (similarity < TrigramSimilarity.DEFAULT_THRESHOLD) {
+return;
+}
+matches.put(key, LocationMatch.builder()
+.level(level)
+.name(name)
+.province(province)
+.district(district)
+.sector(sector)
+.cell(cell)
+.village(village)
+.code(code)
+.similarity(similarity)
+.build());
+}
+
+private LocationMatch toLocationMatch(Object[] row) {
+return LocationMatch.builder()
+.level((String) row[0])
+.name((String) row[1])
+.province((String) row[2])
+.district((String) row[3])
+.sector((String) row[4])
+.cell((String) row[5])
+.village((String) row[6])
+.code((String) row[7])
+.similarity(row[8] != null ? ((Number) row[8]).doubleValue() : 0)
+.build();
+}
 }
 
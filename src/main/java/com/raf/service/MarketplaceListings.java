@@ -0,0 +1,254 @@
+package com.raf.service;
+
+import com.raf.dto.MarketplaceListing;
+import com.raf.entity.BaseEntity;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Precomputed buyer marketplace: every stored lot of a farmer with stock left,
+ * flattened to a {@link MarketplaceListing}. It is loaded with one query on
+ * startup and then kept current row by row: commits that create, sell, withdraw
+ * or delete a lot, or edit a crop type, warehouse or user, queue the affected
+ * ids, and the next read re-reads only the listings behind them; a user edit
+ * re-reads that owner's lots, since a farmer who stops being one loses them.
+ * Reads in between are served from memory. Location edits are rare and mark the
+ * whole snapshot stale instead. A new snapshot, with a new ETag, is published
+ * only when the listings differ from the previous one.
+ */
+@Component
+@Slf4j
+public class MarketplaceListings {
+
+private static final String LOAD_QUERY = "SELECT i FROM Inventory i "
++ "JOIN FETCH i.cropType JOIN FETCH i.warehouse w JOIN FETCH w.location "
++ "WHERE i.status = com.raf.enums.InventoryStatus.STORED AND i.remainingQuantityKg > 0 "
++ "AND i.farmer.userType = com.raf.enums.UserType.FARMER";
+
+@PersistenceContext
+private EntityManager entityManager;
+
+private final TransactionTemplate readTransaction;
+// Versions restart with the process, so ETags also carry the start time.
+private final String generation = Long.toString(System.currentTimeMillis(), 36);
+private final Map<Long, MarketplaceListing> listings = new HashMap<>();
+private final Map<Scope, Set<Long>> pending = new EnumMap<>(Scope.class);
+
+private long version;
+private volatile Snapshot snapshot;
+private volatile boolean stale = true;
+private volatile boolean changed;
+
+public MarketplaceListings(PlatformTransactionManager transactionManager) {
+// Reads may happen inside a caller's transaction that has already seen older rows.
+this.readTransaction = new TransactionTemplate(transactionManager);
+this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+this.readTransaction.setReadOnly(true);
+}
+
+/**
+ * The listings, newest lot first, and the ETag of that list.
+ */
+public record Snapshot(List<MarketplaceListing> listings, String etag) {
+}
+
+@EventListener(ApplicationReadyEvent.class)
+public void buildOnStartup() {
+try {
+current();
+} catch (Exception e) {
+log.warn("Failed to load marketplace listings, retrying on first read: {}", e.getMessage());
+}
+}
+
+/**
+ * @return The current snapshot, after applying the changes committed since the last read.
+ */
+public Snapshot current() {
+Snapshot current = snapshot;
+if (current != null && !stale && !changed) {
+return current;
+}
+synchronized (listings) {
+Snapshot previous = snapshot;
+if (stale) {
+reload();
+} else if (changed) {
+refreshPending();
+}
+if (snapshot == null) {
+List<MarketplaceListing> sorted = new ArrayList<>(listings.values());
+sorted.sort(Comparator.comparing(MarketplaceListing::getInventoryId).reversed());
+// A refresh that re-read the same rows keeps the ETag, so clients keep their 304s.
+snapshot = previous != null && previous.listings().equals(sorted)
+? previous
+: new Snapshot(Collections.unmodifiableList(sorted), "\"" + generation + "-" + (++version) + "\"");
+}
+return snapshot;
+}
+}
+
+/**
+ * Called for every inventory, crop type, warehouse, user and location insert,
+ * update or delete. The affected ids are queued once the surrounding transaction
+ * commits; nothing is read here, so committing threads never wait on the
+ * database for this.
+ */
+void onChanged(Object entity) {
+if (entity instanceof Location) {
+afterCommit(() -> stale = true);
+return;
+}
+Scope scope = entity instanceof Inventory ? Scope.INVENTORY
+: entity instanceof CropType ? Scope.CROP_TYPE
+: entity instanceof StorageWarehouse ? Scope.WAREHOUSE
+: entity instanceof User ? Scope.FARMER
+: null;
+Long id = scope != null ? ((BaseEntity) entity).getId() : null;
+if (id != null) {
+afterCommit(() -> queue(scope, id));
+}
+}
+
+private void afterCommit(Runnable action) {
+if (TransactionSynchronizationManager.isSynchronizationActive()) {
+TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+@Override
+public void afterCommit() {
+action.run();
+}
+});
+} else {
+action.run();
+}
+}
+
+private void queue(Scope scope, Long id) {
+synchronized (pending) {
+pending.computeIfAbsent(scope, key -> new LinkedHashSet<>()).add(id);
+changed = true;
+}
+}
+
+private Map<Scope, Set<Long>> drainPending() {
+synchronized (pending) {
+Map<Scope, Set<Long>> drained = new EnumMap<>(pending);
+pending.clear();
+changed = false;
+return drained;
+}
+}
+
+private void reload() {
+long started = System.currentTimeMillis();
+stale = false;
+// The full load covers everything queued before it.
+drainPending();
+try {
+List<MarketplaceListing> loaded = load(LOAD_QUERY, null);
+listings.clear();
+loaded.forEach(listing -> listings.put(listing.getInventoryId(), listing));
+snapshot = null;
+log.info("Marketplace listings loaded in {} ms ({} lots)", System.currentTimeMillis() - started, listings.size());
+} catch (RuntimeException e) {
+stale = true;
+throw e;
+}
+}
+
+/**
+ * Re-reads the listings of the queued lots, crop types and warehouses. Runs
+ * under the listings lock, so a later refresh always sees a later state.
+ */
+private void refreshPending() {
+Map<Scope, Set<Long>> drained = drainPending();
+try {
+for (Map.Entry<Scope, Set<Long>> entry : drained.entrySet()) {
+Scope scope = entry.getKey();
+Set<Long> ids = entry.getValue();
+List<MarketplaceListing> loaded = load(LOAD_QUERY + " AND " + scope.path + " IN :ids", ids);
+listings.values().removeIf(listing -> ids.contains(scope.key.apply(listing)));
+loaded.forEach(listing -> listings.put(listing.getInventoryId(), listing));
+}
+snapshot = null;
+} catch (RuntimeException e) {
+log.warn("Failed to refresh marketplace listings, reloading on next read: {}", e.getMessage());
+stale = true;
+}
+}
+
+private List<MarketplaceListing> load(String query, Collection<Long> ids) {
+List<MarketplaceListing> loaded = readTransaction.execute(status -> {
+TypedQuery<Inventory> select = entityManager.createQuery(query, Inventory.class);
+if (ids != null) {
+select.setParameter("ids", ids);
+}
+return select.getResultList().stream()
+.map(MarketplaceListings::toListing)
+.toList();
+});
+return loaded != null ? loaded : List.of();
+}
+
+private static MarketplaceListing toListing(Inventory inventory) {
+CropType cropType = inventory.getCropType();
+StorageWarehouse warehouse = inventory.getWarehouse();
+return MarketplaceListing.builder()
+.inventoryId(inventory.getId())
+.inventoryCode(inventory.getInventoryCode())
+.farmerId(inventory.getFarmer().getId())
+.cropTypeId(cropType.getId())
+.cropName(cropType.getCropName())
+.cropImageUrl(inventory.getCropImageUrl() != null ? inventory.getCropImageUrl() : cropType.getImageUrl())
+.qualityGrade(inventory.getQualityGrade())
+.pricePerKg(cropType.getPricePerKg())
+.warehouseId(warehouse.getId())
+.warehouseName(warehouse.getWarehouseName())
+.district(warehouse.getLocation() != null ? warehouse.getLocation().getDistrict() : null)
+.remainingQuantityKg(inventory.getRemainingQuantityKg())
+.storageDate(inventory.getStorageDate())
+.build();
+}
+
+private enum Scope {
+INVENTORY("i.id", MarketplaceListing::getInventoryId),
+CROP_TYPE("i.cropType.id", MarketplaceListing::getCropTypeId),
+WAREHOUSE("i.warehouse.id", MarketplaceListing::getWarehouseId),
+FARMER("i.farmer.id", MarketplaceListing::getFarmerId);
+
+private final String path;
+private final Function<MarketplaceListing, Long> key;
+
+Scope(String path, Function<MarketplaceListing, Long> key) {
+this.path = path;
+this.key = key;
+}
+}
+}
@@ -4,6 +4,7 @@ import com.raf.dto.MessageRequest;
 import com.raf.entity.Inventory;
 import com.raf.entity.Message;
 import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.UserType;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.exception.UnauthorizedException;
@@ -19,7 +20,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -30,6 +30,7 @@ public class MessageService {
 private final MessageRepository messageRepository;
 private final UserRepository userRepository;
 private final InventoryRepository inventoryRepository;
+private final BusinessCodeGenerator businessCodeGenerator;
 
 
 public Message sendMessage(MessageRequest request, Long senderId) {
@@ -75,7 +76,7 @@ relatedInventory = inventoryRepository.findById(request.getRelatedInventoryId())
 }
 
 
-String messageCode = "MSG-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+String messageCode = businessCodeGenerator.next(BusinessCodeType.MESSAGE);
 
 Message message = new Message();
 message.setMessageCode(messageCode);
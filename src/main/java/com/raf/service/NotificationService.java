@@ -1,5 +1,6 @@
 package com.raf.service;
 
+import com.raf.dto.NotificationDraft;
 import com.raf.entity.Notification;
 import com.raf.entity.Transaction;
 import com.raf.entity.User;
@@ -14,12 +15,26 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -27,10 +42,16 @@ import java.util.List;
 @Transactional
 public class NotificationService {
 
+// Identifiers are quoted because the schema is generated with globally quoted identifiers.
+private static final String INSERT_SQL = "INSERT INTO \"notification\" (\"user_id\", \"transaction_id\", \"type\", \"title\", "
++ "\"message\", \"is_read\", \"action_url\", \"created_at\", \"updated_at\") VALUES (?, ?, ?, ?, ?, FALSE, ?, ?, ?)";
+
 private final NotificationRepository notificationRepository;
 private final UserRepository userRepository;
 private final TransactionRepository transactionRepository;
 private final WarehouseAccessRepository warehouseAccessRepository;
+private final JdbcTemplate jdbcTemplate;
+private final DashboardSearchIndex dashboardSearchIndex;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -194,6 +215,81 @@ log.info("Notification created for user {}: {}", userId, title);
 return saved;
 }
 
+/**
+ * Creates many notifications in one transaction with a single batched
+ * insert. Preferences and transactions are checked with one query each,
+ * instead of loading every user and transaction; drafts for users who have
+ * notifications disabled or do not exist are dropped, as
+ * {@link #createNotification} does one at a time.
+ *
+ * @return The number of notifications created.
+ */
+@Transactional(propagation = Propagation.REQUIRES_NEW)
+public int createNotifications(List<NotificationDraft> drafts) {
+if (drafts.isEmpty()) {
+return 0;
+}
+Set<Long> enabledUserIds = new HashSet<>(userRepository.findIdsWithNotificationsEnabled(
+drafts.stream().map(NotificationDraft::getUserId).collect(Collectors.toSet())));
+Set<Long> transactionIds = drafts.stream()
+.map(NotificationDraft::getTransactionId)
+.filter(Objects::nonNull)
+.collect(Collectors.toSet());
+Set<Long> existingTransactionIds = transactionIds.isEmpty()
+? Set.of()
+: new HashSet<>(transactionRepository.findExistingIds(transactionIds));
+
+List<NotificationDraft> rows = drafts.stream()
+.filter(draft -> enabledUserIds.contains(draft.getUserId()))
+.map(draft -> {
+Long transactionId = draft.getTransactionId() != null && existingTransactionIds.contains(draft.getTransactionId())
+? draft.getTransactionId()
+: null;
+String actionUrl = draft.getActionUrl() == null && transactionId != null
+? "/transactions/" + transactionId
+: draft.getActionUrl();
+return new NotificationDraft(draft.getUserId(), draft.getTitle(), draft.getMessage(), draft.getType(), transactionId, actionUrl);
+})
+.toList();
+if (rows.isEmpty()) {
+log.info("Notifications are disabled for all {} recipients. Skipping notification creation.", drafts.size());
+return 0;
+}
+
+// IDENTITY ids keep Hibernate from batching inserts, so the rows go through one JDBC batch
+Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+KeyHolder keys = new GeneratedKeyHolder();
+jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+new BatchPreparedStatementSetter() {
+@Override
+public void setValues(PreparedStatement statement, int i) throws SQLException {
+NotificationDraft row = rows.get(i);
+statement.setLong(1, row.getUserId());
+statement.setObject(2, row.getTransactionId(), Types.BIGINT);
+statement.setString(3, row.getType().name());
+statement.setString(4, row.getTitle());
+statement.setString(5, row.getMessage());
+statement.setString(6, row.getActionUrl());
+statement.setTimestamp(7, now);
+statement.setTimestamp(8, now);
+}
+
+@Override
+public int getBatchSize() {
+return rows.size();
+}
+}, keys);
+
+// The insert bypasses JPA, so tell the search index which notifications to load after commit
+for (Map<String, Object> key : keys.getKeyList()) {
+Notification created = new Notification();
+created.setId(((Number) key.get("id")).longValue());
+dashboardSearchIndex.onSaved(created);
+}
+log.info("Created {} notifications in one batch ({} skipped)", rows.size(), drafts.size() - rows.size());
+return rows.size();
+}
+
 @Transactional(readOnly = true)
 public List<Notification> getUserNotifications(Long userId) {
 
@@ -336,16 +432,11 @@ entityManager.flush();
 @Transactional(propagation = Propagation.REQUIRES_NEW)
 public void notifyAllAdmins(String title, String message, NotificationType type, String actionUrl) {
 try {
-List<User> admins = userRepository.findByUserType(com.raf.enums.UserType.ADMIN);
-for (User admin : admins) {
-try {
-createNotification(admin.getId(), title, message, type, null, actionUrl);
-log.info("Notified admin {}: {}", admin.getEmail(), title);
-} catch (Exception e) {
-log.error("Failed to notify admin {}: {}", admin.getEmail(), e.getMessage());
-
-}
-}
+List<NotificationDraft> drafts = userRepository.findIdsByUserType(UserType.ADMIN).stream()
+.map(adminId -> new NotificationDraft(adminId, title, message, type, null, actionUrl))
+.toList();
+int notified = createNotifications(drafts);
+log.info("Notified {} admins: {}", notified, title);
 } catch (Exception e) {
 log.error("Failed to notify admins: {}", e.getMessage());
 
@@ -0,0 +1,259 @@
+package com.raf.service;
+
+import com.raf.entity.OutboxEvent;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import com.raf.entity.Withdrawal;
+import com.raf.enums.OutboxEventType;
+import com.raf.enums.OutboxStatus;
+import com.raf.exception.ResourceNotFoundException;
+import com.raf.repository.OutboxEventRepository;
+import com.raf.repository.TransactionRepository;
+import com.raf.repository.UserRepository;
+import com.raf.repository.WithdrawalRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the side effects queued in the outbox. Due events are leased in
+ * batches and sent on the bounded {@code outboxExecutor} pool. Each send loads
+ * what the message needs in a short transaction, talks to the mail server with
+ * no transaction or connection held, and records the outcome in a second short
+ * transaction that only applies while the lease is still its own. A failed event is retried with exponential backoff and marked
+ * {@link OutboxStatus#DEAD} after {@code app.outbox.max-attempts} failures.
+ * Events survive restarts, and an event leased by a dispatcher that stopped
+ * halfway is picked up again once its lease runs out, so a message may be
+ * sent twice but is never lost.
+ */
+@Service
+@Slf4j
+public class OutboxDispatcher {
+
+static final Duration LEASE = Duration.ofMinutes(5);
+static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+private final OutboxEventRepository outboxEventRepository;
+private final TransactionRepository transactionRepository;
+private final WithdrawalRepository withdrawalRepository;
+private final UserRepository userRepository;
+private final EmailService emailService;
+private final InvoiceService invoiceService;
+private final ThreadPoolTaskExecutor outboxExecutor;
+private final TransactionTemplate transactionTemplate;
+private final boolean enabled;
+private final int batchSize;
+private final int maxAttempts;
+private final Duration retryBaseDelay;
+
+public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+TransactionRepository transactionRepository,
+WithdrawalRepository withdrawalRepository,
+UserRepository userRepository,
+EmailService emailService,
+InvoiceService invoiceService,
+@Qualifier("outboxExecutor") ThreadPoolTaskExecutor outboxExecutor,
+PlatformTransactionManager transactionManager,
+@Value("${app.outbox.dispatcher.enabled:true}") boolean enabled,
+@Value("${app.outbox.batch-size:50}") int batchSize,
+@Value("${app.outbox.max-attempts:8}") int maxAttempts,
+@Value("${app.outbox.retry-base-delay-ms:30000}") long retryBaseDelayMs) {
+this.outboxEventRepository = outboxEventRepository;
+this.transactionRepository = transactionRepository;
+this.withdrawalRepository = withdrawalRepository;
+this.userRepository = userRepository;
+this.emailService = emailService;
+this.invoiceService = invoiceService;
+this.outboxExecutor = outboxExecutor;
+this.transactionTemplate = new TransactionTemplate(transactionManager);
+this.enabled = enabled;
+this.batchSize = batchSize;
+this.maxAttempts = maxAttempts;
+this.retryBaseDelay = Duration.ofMillis(retryBaseDelayMs);
+}
+
+@Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:2000}")
+public void poll() {
+if (!enabled) {
+return;
+}
+// Keep draining while batches come back full, so a burst does not wait a poll interval per batch.
+while (dispatchDue() == batchSize) {
+log.debug("Outbox batch full, dispatching the next one");
+}
+}
+
+/**
+ * Leases up to one batch of due events, sends them on the worker pool and
+ * waits for the batch to finish.
+ *
+ * @return The number of events dispatched.
+ */
+public int dispatchDue() {
+LocalDateTime now = LocalDateTime.now();
+// Millisecond precision survives the round trip through the timestamp column, so the lease can be compared exactly.
+// Only the lease is truncated; a truncated now would skip events enqueued earlier in the same millisecond.
+LocalDateTime leaseUntil = now.plus(LEASE).truncatedTo(ChronoUnit.MILLIS);
+List<Long> leased = transactionTemplate.execute(status -> {
+List<Long> due = outboxEventRepository.findDueIds(now, PageRequest.of(0, batchSize));
+return due.stream()
+.filter(id -> outboxEventRepository.claim(id, now, leaseUntil) == 1)
+.toList();
+});
+
+List<Future<?>> running = new ArrayList<>(leased.size());
+for (Long id : leased) {
+running.add(outboxExecutor.submit(() -> handle(id, leaseUntil)));
+}
+for (Future<?> future : running) {
+try {
+future.get();
+} catch (InterruptedException e) {
+Thread.currentThread().interrupt();
+break;
+} catch (ExecutionException e) {
+log.error("Outbox worker failed", e.getCause());
+}
+}
+if (!leased.isEmpty()) {
+log.info("Dispatched {} outbox events", leased.size());
+}
+return leased.size();
+}
+
+private void handle(Long id, LocalDateTime leaseUntil) {
+Delivery delivery;
+try {
+delivery = transactionTemplate.execute(status -> prepare(id, leaseUntil));
+} catch (Exception e) {
+recordFailure(id, leaseUntil, e);
+return;
+}
+if (delivery == null) {
+return;
+}
+if (delivery.skipped() != null) {
+transactionTemplate.executeWithoutResult(status -> settle(id, leaseUntil, OutboxStatus.DEAD, delivery.attempts(),
+delivery.skipped(), leaseUntil, LocalDateTime.now()));
+return;
+}
+try {
+delivery.send().run();
+} catch (Exception e) {
+recordFailure(id, leaseUntil, e);
+return;
+}
+log.info("Sent {} for {}", delivery.eventType(), delivery.aggregateId());
+transactionTemplate.executeWithoutResult(status -> settle(id, leaseUntil, OutboxStatus.SENT, delivery.attempts(),
+null, leaseUntil, LocalDateTime.now()));
+}
+
+/**
+ * Loads everything the message of one event needs, so it can be sent once
+ * the transaction has closed.
+ *
+ * @return The prepared send, or null if the event is gone or no longer leased to this dispatcher.
+ */
+private Delivery prepare(Long id, LocalDateTime leaseUntil) {
+OutboxEvent event = outboxEventRepository.findById(id).orElse(null);
+if (event == null || event.getStatus() != OutboxStatus.PENDING || !leaseUntil.equals(event.getNextAttemptAt())) {
+return null;
+}
+String skipped = null;
+Runnable send = switch (event.getEventType()) {
+case BUYER_INVOICE -> {
+Transaction transaction = transaction(event);
+yield () -> invoiceService.sendInvoiceToBuyer(transaction);
+}
+case BUYER_PURCHASE_CONFIRMATION -> {
+Transaction transaction = transaction(event);
+yield () -> emailService.sendPurchaseConfirmationToBuyer(transaction);
+}
+case FARMER_PURCHASE_CONFIRMATION -> {
+Transaction transaction = transaction(event);
+yield () -> emailService.sendPurchaseConfirmationToFarmer(transaction);
+}
+case STOREKEEPER_DELIVERY_REMINDER -> {
+Transaction transaction = transaction(event);
+User storekeeper = userRepository.findById(event.getRecipientId())
+.orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + event.getRecipientId()));
+yield () -> emailService.sendDeliveryReminderToStorekeeper(transaction, storekeeper, transaction.getInventory().getWarehouse());
+}
+case WITHDRAWAL_OTP -> {
+Withdrawal withdrawal = withdrawalRepository.findById(event.getAggregateId())
+.orElseThrow(() -> new ResourceNotFoundException("Withdrawal not found with ID: " + event.getAggregateId()));
+if (Boolean.TRUE.equals(withdrawal.getOtpVerified()) || withdrawal.getOtpExpiresAt().isBefore(LocalDateTime.now())) {
+skipped = "OTP expired or used before it could be sent";
+yield null;
+}
+User user = withdrawal.getWallet().getUser();
+String email = user.getEmail();
+String otpCode = withdrawal.getOtpCode();
+String firstName = user.getFirstName();
+String amount = withdrawal.getAmount().toPlainString();
+yield () -> emailService.sendWithdrawalOtpEmail(email, otpCode, firstName, amount);
+}
+};
+return new Delivery(event.getEventType(), event.getAggregateId(), event.getAttempts(), send, skipped);
+}
+
+private Transaction transaction(OutboxEvent event) {
+return transactionRepository.findByIdForNotification(event.getAggregateId())
+.orElseThrow(() -> new ResourceNotFoundException("Transaction not found with ID: " + event.getAggregateId()));
+}
+
+private void recordFailure(Long id, LocalDateTime leaseUntil, Exception error) {
+transactionTemplate.executeWithoutResult(status -> outboxEventRepository.findById(id).ifPresent(event -> {
+int attempts = event.getAttempts() + 1;
+String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+String lastError = message.length() > 500 ? message.substring(0, 500) : message;
+if (attempts >= maxAttempts) {
+if (settle(id, leaseUntil, OutboxStatus.DEAD, attempts, lastError, leaseUntil, LocalDateTime.now())) {
+log.error("Giving up on {} for {} after {} attempts: {}", event.getEventType(), event.getAggregateId(), attempts, message);
+}
+return;
+}
+Duration backoff = retryBaseDelay.multipliedBy(1L << Math.min(attempts - 1, 20));
+LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff);
+if (settle(id, leaseUntil, OutboxStatus.PENDING, attempts, lastError, nextAttemptAt, null)) {
+log.warn("Failed to send {} for {} (attempt {}), retrying at {}: {}",
+event.getEventType(), event.getAggregateId(), attempts, nextAttemptAt, message);
+}
+}));
+}
+
+/**
+ * Records the outcome of a send unless the lease ran out and the event was claimed again meanwhile.
+ */
+private boolean settle(Long id, LocalDateTime leaseUntil, OutboxStatus status, int attempts, String lastError,
+LocalDateTime nextAttemptAt, LocalDateTime processedAt) {
+if (outboxEventRepository.settle(id, leaseUntil, status, attempts, lastError, nextAttemptAt, processedAt, LocalDateTime.now()) == 1) {
+return true;
+}
+log.warn("Lease on outbox event {} ran out before its outcome was recorded; leaving it to the dispatcher that holds it now", id);
+return false;
+}
+
+/**
+ * A message ready to send outside any transaction.
+ *
+ * @param send Sends the message; null when it was skipped.
+ * @param skipped Why the message no longer needs sending, otherwise null.
+ */
+private record Delivery(OutboxEventType eventType, Long aggregateId, int attempts, Runnable send, String skipped) {
+}
+}
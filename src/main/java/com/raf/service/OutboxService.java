@@ -0,0 +1,42 @@
+package com.raf.service;
+
+import com.raf.entity.OutboxEvent;
+import com.raf.enums.OutboxEventType;
+import com.raf.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records side effects in the outbox. Events are written in the caller's
+ * transaction, so they exist exactly when the change that caused them commits,
+ * and the {@link OutboxDispatcher} runs them afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+private final OutboxEventRepository outboxEventRepository;
+
+@Transactional(propagation = Propagation.MANDATORY)
+public OutboxEvent enqueue(OutboxEventType type, Long aggregateId) {
+return enqueue(type, aggregateId, null);
+}
+
+@Transactional(propagation = Propagation.MANDATORY)
+public OutboxEvent enqueue(OutboxEventType type, Long aggregateId, Long recipientId) {
+OutboxEvent event = new OutboxEvent();
+event.setEventType(type);
+event.setAggregateId(aggregateId);
+event.setRecipientId(recipientId);
+event.setNextAttemptAt(LocalDateTime.now());
+OutboxEvent saved = outboxEventRepository.save(event);
+log.debug("Queued {} for {}", type, aggregateId);
+return saved;
+}
+}
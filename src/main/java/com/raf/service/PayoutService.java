@@ -0,0 +1,197 @@
+package com.raf.service;
+
+import com.raf.dto.PayoutRunResult;
+import com.raf.entity.Withdrawal;
+import com.raf.enums.WithdrawalMethod;
+import com.raf.exception.ResourceNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Settles OTP-verified withdrawals in bulk. A run completes every withdrawal
+ * waiting in {@code PROCESSING}, grouped by withdrawal method, with JDBC
+ * batch updates of {@code app.payout.batch-size} rows, and writes one CSV per
+ * method for the bank or mobile-money operator. The money already left the
+ * wallet ledger when the OTP was verified, so a run only changes statuses.
+ * Each update only matches a withdrawal still in {@code PROCESSING}, so
+ * overlapping runs never pay the same withdrawal twice, and the files of a run
+ * that fails are deleted along with its rolled back updates.
+ */
+@Service
+@Slf4j
+public class PayoutService {
+
+// Identifiers are quoted because the schema is generated with globally quoted identifiers.
+private static final String ELIGIBLE_SQL = "SELECT w.\"id\", w.\"withdrawal_code\", w.\"withdrawal_method\", w.\"amount\", "
++ "w.\"account_number\", w.\"account_name\", w.\"bank_name\", u.\"first_name\", u.\"last_name\" "
++ "FROM \"withdrawal\" w JOIN \"wallet\" wa ON wa.\"id\" = w.\"wallet_id\" JOIN \"user\" u ON u.\"id\" = wa.\"user_id\" "
++ "WHERE w.\"status\" = 'PROCESSING' AND w.\"otp_verified\" = TRUE ORDER BY w.\"id\"";
+
+private static final String COMPLETE_SQL = "UPDATE \"withdrawal\" SET \"status\" = 'COMPLETED', \"processed_date\" = ?, "
++ "\"processing_notes\" = ?, \"updated_at\" = ? WHERE \"id\" = ? AND \"status\" = 'PROCESSING'";
+
+private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS");
+private static final Pattern FILE_NAME = Pattern.compile("PAYOUT-\\d{8}-\\d{9}-[a-z_]+\\.csv");
+
+private final JdbcTemplate jdbcTemplate;
+private final DashboardSearchIndex dashboardSearchIndex;
+private final TransactionTemplate transactionTemplate;
+private final Path directory;
+private final int batchSize;
+
+public PayoutService(JdbcTemplate jdbcTemplate,
+DashboardSearchIndex dashboardSearchIndex,
+PlatformTransactionManager transactionManager,
+@Value("${app.payout.dir:uploads/payouts}") String directory,
+@Value("${app.payout.batch-size:500}") int batchSize) {
+this.jdbcTemplate = jdbcTemplate;
+this.dashboardSearchIndex = dashboardSearchIndex;
+this.transactionTemplate = new TransactionTemplate(transactionManager);
+this.directory = Paths.get(directory);
+this.batchSize = batchSize;
+}
+
+@Scheduled(cron = "${app.payout.cron:0 0 18 * * *}")
+public void scheduledRun() {
+runPayouts();
+}
+
+/**
+ * Completes all OTP-verified withdrawals and writes their payout files.
+ */
+public PayoutRunResult runPayouts() {
+LocalDateTime now = LocalDateTime.now();
+String runId = "PAYOUT-" + RUN_ID_FORMAT.format(now);
+List<Path> written = new ArrayList<>();
+try {
+PayoutRunResult result = transactionTemplate.execute(status -> payOut(runId, now, written));
+log.info("Payout run {} completed {} withdrawals totalling {}", runId, result.getPaidCount(), result.getTotalAmount());
+return result;
+} catch (RuntimeException e) {
+written.forEach(PayoutService::deleteQuietly);
+throw e;
+}
+}
+
+/**
+ * @throws ResourceNotFoundException if no payout file has that name.
+ */
+public Resource getPayoutFile(String fileName) {
+Path file = directory.resolve(fileName);
+if (!FILE_NAME.matcher(fileName).matches() || !Files.isRegularFile(file)) {
+throw new ResourceNotFoundException("Payout file not found: " + fileName);
+}
+return new FileSystemResource(file);
+}
+
+private PayoutRunResult payOut(String runId, LocalDateTime now, List<Path> written) {
+Map<WithdrawalMethod, List<Payout>> byMethod = new EnumMap<>(WithdrawalMethod.class);
+jdbcTemplate.query(ELIGIBLE_SQL, (RowCallbackHandler) rs -> {
+String accountName = rs.getString(6) != null ? rs.getString(6) : rs.getString(8) + " " + rs.getString(9);
+byMethod.computeIfAbsent(WithdrawalMethod.valueOf(rs.getString(3)), method -> new ArrayList<>())
+.add(new Payout(rs.getLong(1), rs.getString(2), rs.getBigDecimal(4), rs.getString(5), accountName, rs.getString(7)));
+});
+
+PayoutRunResult result = new PayoutRunResult(runId);
+for (Map.Entry<WithdrawalMethod, List<Payout>> group : byMethod.entrySet()) {
+List<Payout> completed = complete(group.getValue(), runId, now);
+if (completed.isEmpty()) {
+continue;
+}
+Path file = directory.resolve(runId + "-" + group.getKey().name().toLowerCase(Locale.ROOT) + ".csv");
+written.add(file);
+write(file, completed);
+BigDecimal total = completed.stream().map(Payout::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+result.paid(group.getKey(), file.getFileName().toString(), completed.size(), total);
+}
+return result;
+}
+
+/**
+ * Marks the payouts completed in batches.
+ *
+ * @return The payouts this run completed; ones completed by another run are left out.
+ */
+private List<Payout> complete(List<Payout> payouts, String runId, LocalDateTime now) {
+Timestamp processedAt = Timestamp.valueOf(now);
+String notes = "Paid out in " + runId;
+int[][] counts = jdbcTemplate.batchUpdate(COMPLETE_SQL, payouts, batchSize, (statement, payout) -> {
+statement.setTimestamp(1, processedAt);
+statement.setString(2, notes);
+statement.setTimestamp(3, processedAt);
+statement.setLong(4, payout.id());
+});
+
+List<Payout> completed = new ArrayList<>(payouts.size());
+int row = 0;
+for (int[] chunk : counts) {
+for (int count : chunk) {
+Payout payout = payouts.get(row++);
+if (count == 1) {
+completed.add(payout);
+// The updates bypass JPA, so tell the search index which withdrawals to reload after commit
+Withdrawal changed = new Withdrawal();
+changed.setId(payout.id());
+dashboardSearchIndex.onSaved(changed);
+}
+}
+}
+return completed;
+}
+
+private static void write(Path file, List<Payout> payouts) {
+try {
+Files.createDirectories(file.getParent());
+try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+writer.write("withdrawalCode,accountNumber,accountName,bankName,amount\n");
+for (Payout payout : payouts) {
+writer.write(LedgerExportService.csvField(payout.withdrawalCode()) + ','
++ LedgerExportService.csvField(payout.accountNumber()) + ','
++ LedgerExportService.csvField(payout.accountName()) + ','
++ (payout.bankName() != null ? LedgerExportService.csvField(payout.bankName()) : "") + ','
++ payout.amount().toPlainString() + '\n');
+}
+}
+} catch (IOException e) {
+throw new UncheckedIOException("Could not write payout file " + file, e);
+}
+}
+
+private static void deleteQuietly(Path file) {
+try {
+Files.deleteIfExists(file);
+} catch (IOException e) {
+log.warn("Could not delete payout file {} of a failed run: {}", file, e.getMessage());
+}
+}
+
+private record Payout(long id, String withdrawalCode, BigDecimal amount, String accountNumber,
+String accountName, String bankName) {
+}
+}
@@ -1,7 +1,11 @@
 package com.raf.service;
 
+import com.raf.config.SearchVectorInitializer;
 import com.raf.entity.*;
 import com.raf.repository.*;
+import com.raf.util.InvertedIndex;
+import com.raf.util.RankedMerge;
+import com.raf.util.SearchCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -9,8 +13,10 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +38,10 @@ private final InventoryRequestRepository inventoryRequestRepository;
 private final WarehouseAccessRepository warehouseAccessRepository;
 private final WithdrawalRepository withdrawalRepository;
 private final UserRepository userRepository;
+private final SearchVectorInitializer searchVectors;
+
+private static final int LEG_LIMIT = 50;
+private static final int MAX_CURSOR_PAGE_SIZE = 100;
 
 public Map<String, Object> search(String query, int page, int size) {
 log.info("Public search query: '{}' (page: {}, size: {})", query, page, size);
@@ -43,20 +53,9 @@ return createEmptyResults();
 
 Map<String, Object> results = new HashMap<>();
 List<Map<String, Object>> allResults = new ArrayList<>();
-
-allResults.addAll(searchCropTypes(searchTerm));
-allResults.addAll(searchWarehouses(searchTerm));
-allResults.addAll(searchLocations(searchTerm));
-allResults.addAll(searchAvailableInventory(searchTerm));
-allResults.addAll(searchPublicTransactions(searchTerm));
-allResults.addAll(searchPublicEnquiries(searchTerm));
-allResults.addAll(searchPublicRatings(searchTerm));
-allResults.addAll(searchPublicMessages(searchTerm));
-allResults.addAll(searchPublicNotifications(searchTerm));
-allResults.addAll(searchPublicInventoryRequests(searchTerm));
-allResults.addAll(searchPublicWarehouseAccesses(searchTerm));
-allResults.addAll(searchPublicWithdrawals(searchTerm));
-allResults.addAll(searchPublicUsers(searchTerm));
+for (RankedMerge.Source<Map<String, Object>> leg : searchLegs(searchTerm).values()) {
+allResults.addAll(leg.fetch(0, LEG_LIMIT));
+}
 
 int start = page * size;
 int end = Math.min(start + size, allResults.size());
@@ -78,51 +77,121 @@ allResults.size(), paginatedResults.size(), page);
 return results;
 }
 
-private List<Map<String, Object>> searchCropTypes(String searchTerm) {
+/**
+ * Cursor-paged variant of {@link #search}. The legs are read lazily from the
+ * positions stored in the cursor and merged with {@link RankedMerge}, so a deep
+ * page costs the same as the first one.
+ *
+ * @param cursor The {@code nextCursor} of the previous page, or null for the first page.
+ * @throws IllegalArgumentException If the cursor is malformed or was issued for another query.
+ */
+public Map<String, Object> searchWithCursor(String query, String cursor, int size) {
+String searchTerm = query != null ? query.trim().toLowerCase() : "";
+int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+Map<String, Integer> positions = SearchCursor.decode(cursor, searchTerm);
+log.info("Public cursor search query: '{}' (size: {})", query, pageSize);
+
+Map<String, Object> results = new HashMap<>();
+RankedMerge.Window<Map<String, Object>> window = searchTerm.isEmpty()
+? new RankedMerge.Window<>(new ArrayList<>(), positions, false)
+: RankedMerge.window(searchLegs(searchTerm), positions, pageSize);
+
+results.put("content", window.items());
+results.put("size", pageSize);
+results.put("hasNext", window.hasMore());
+results.put("nextCursor", window.hasMore() ? SearchCursor.encode(searchTerm, window.positions()) : null);
+return results;
+}
+
+/**
+ * Lists the search legs, keyed by a stable name used in cursors.
+ * In full-text mode there is one ranked statement per public catalogue entity
+ * (crop types, active warehouses, locations and stored inventory), so the cost
+ * follows the number of hits instead of the table sizes. Private records such as
+ * transactions, messages and withdrawals are not part of that mode.
+ */
+private Map<String, RankedMerge.Source<Map<String, Object>>> searchLegs(String searchTerm) {
+Map<String, RankedMerge.Source<Map<String, Object>>> legs = new LinkedHashMap<>();
+if (searchVectors.isReady()) {
+String tsQuery = toPrefixTsQuery(searchTerm);
+if (tsQuery.isEmpty()) {
+return legs;
+}
+legs.put("cropTypes", (offset, limit) -> mapAll(cropTypeRepository.searchFullText(tsQuery, offset, limit), this::mapCropTypeToResult));
+legs.put("warehouses", (offset, limit) -> mapAll(warehouseRepository.searchActiveFullText(tsQuery, offset, limit), this::mapWarehouseToResult));
+legs.put("locations", (offset, limit) -> mapAll(locationRepository.searchFullText(tsQuery, offset, limit), this::mapLocationToResult));
+legs.put("inventory", (offset, limit) -> mapAll(inventoryRepository.searchStoredFullText(tsQuery, offset, limit), this::mapInventoryToResult));
+return legs;
+}
+legs.put("cropTypes", (offset, limit) -> searchCropTypes(searchTerm, offset, limit));
+legs.put("warehouses", (offset, limit) -> searchWarehouses(searchTerm, offset, limit));
+legs.put("locations", (offset, limit) -> searchLocations(searchTerm, offset, limit));
+legs.put("inventory", (offset, limit) -> searchAvailableInventory(searchTerm, offset, limit));
+legs.put("transactions", (offset, limit) -> searchPublicTransactions(searchTerm, offset, limit));
+legs.put("enquiries", (offset, limit) -> searchPublicEnquiries(searchTerm, offset, limit));
+legs.put("ratings", (offset, limit) -> searchPublicRatings(searchTerm, offset, limit));
+legs.put("messages", (offset, limit) -> searchPublicMessages(searchTerm, offset, limit));
+legs.put("notifications", (offset, limit) -> searchPublicNotifications(searchTerm, offset, limit));
+legs.put("inventoryRequests", (offset, limit) -> searchPublicInventoryRequests(searchTerm, offset, limit));
+legs.put("warehouseAccesses", (offset, limit) -> searchPublicWarehouseAccesses(searchTerm, offset, limit));
+legs.put("withdrawals", (offset, limit) -> searchPublicWithdrawals(searchTerm, offset, limit));
+legs.put("users", (offset, limit) -> searchPublicUsers(searchTerm, offset, limit));
+return legs;
+}
+
+/**
+ * Turns free text into a prefix tsquery such as {@code maize:* & kigali:*}.
+ * Only letter/digit tokens are kept, so the result is safe to pass to to_tsquery.
+ */
+private String toPrefixTsQuery(String searchTerm) {
+return InvertedIndex.tokenize(searchTerm).stream()
+.distinct()
+.map(token -> token + ":*")
+.collect(Collectors.joining(" & "));
+}
+
+private <T> List<Map<String, Object>> mapAll(List<T> rows, Function<T, Map<String, Object>> mapper) {
+return rows.stream().map(mapper).collect(Collectors.toList());
+}
+
+private List<Map<String, Object>> searchCropTypes(String searchTerm, int offset, int limit) {
 return cropTypeRepository.findAll().stream()
-.filter(crop -> matchesCropType(crop, searchTerm))
-.limit(50)
+.filter(SearchMatchers.cropTypes(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapCropTypeToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchWarehouses(String searchTerm) {
+private List<Map<String, Object>> searchWarehouses(String searchTerm, int offset, int limit) {
 return warehouseRepository.findAll().stream()
 .filter(warehouse -> warehouse.getStatus() == com.raf.enums.WarehouseStatus.ACTIVE)
-.filter(warehouse -> matchesWarehouse(warehouse, searchTerm))
-.limit(50)
+.filter(SearchMatchers.warehouses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchLocations(String searchTerm) {
+private List<Map<String, Object>> searchLocations(String searchTerm, int offset, int limit) {
 return locationRepository.findAll().stream()
-.filter(location -> matchesLocation(location, searchTerm))
-.limit(50)
+.filter(SearchMatchers.locations(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapLocationToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchAvailableInventory(String searchTerm) {
+private List<Map<String, Object>> searchAvailableInventory(String searchTerm, int offset, int limit) {
 return inventoryRepository.findByStatus(com.raf.enums.InventoryStatus.STORED).stream()
-.filter(inventory -> matchesInventory(inventory, searchTerm))
-.limit(50)
+.filter(SearchMatchers.inventories(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryToResult)
 .collect(Collectors.toList());
 }
 
-private boolean matchesInventory(Inventory inventory, String searchTerm) {
-String searchableText = (inventory.getInventoryCode() != null ? inventory.getInventoryCode() : "") +
-" " + (inventory.getCropType() != null && inventory.getCropType().getCropName() != null ? inventory.getCropType().getCropName() : "") +
-" " + (inventory.getCropType() != null && inventory.getCropType().getCropCode() != null ? inventory.getCropType().getCropCode() : "") +
-" " + (inventory.getQualityGrade() != null ? inventory.getQualityGrade() : "") +
-" " + (inventory.getNotes() != null ? inventory.getNotes() : "") +
-" " + (inventory.getStatus() != null ? inventory.getStatus().toString() : "") +
-" " + (inventory.getWarehouse() != null && inventory.getWarehouse().getWarehouseName() != null ? inventory.getWarehouse().getWarehouseName() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private Map<String, Object> mapInventoryToResult(Inventory inventory) {
+Map<String, Object> mapInventoryToResult(Inventory inventory) {
 Map<String, Object> result = new HashMap<>();
 result.put("id", inventory.getId());
 result.put("type", "inventory");
@@ -136,226 +205,87 @@ result.put("status", inventory.getStatus() != null ? inventory.getStatus().toStr
 return result;
 }
 
-private List<Map<String, Object>> searchPublicTransactions(String searchTerm) {
+private List<Map<String, Object>> searchPublicTransactions(String searchTerm, int offset, int limit) {
 return transactionRepository.findAll().stream()
-.filter(transaction -> matchesTransaction(transaction, searchTerm))
-.limit(50)
+.filter(SearchMatchers.transactions(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapTransactionToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicEnquiries(String searchTerm) {
+private List<Map<String, Object>> searchPublicEnquiries(String searchTerm, int offset, int limit) {
 return enquiryRepository.findAll().stream()
-.filter(enquiry -> matchesEnquiry(enquiry, searchTerm))
-.limit(50)
+.filter(SearchMatchers.enquiries(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapEnquiryToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicRatings(String searchTerm) {
+private List<Map<String, Object>> searchPublicRatings(String searchTerm, int offset, int limit) {
 return ratingRepository.findAll().stream()
-.filter(rating -> matchesRating(rating, searchTerm))
-.limit(50)
+.filter(SearchMatchers.ratings(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapRatingToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicMessages(String searchTerm) {
+private List<Map<String, Object>> searchPublicMessages(String searchTerm, int offset, int limit) {
 return messageRepository.findAll().stream()
-.filter(message -> matchesMessage(message, searchTerm))
-.limit(50)
+.filter(SearchMatchers.messages(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapMessageToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicNotifications(String searchTerm) {
+private List<Map<String, Object>> searchPublicNotifications(String searchTerm, int offset, int limit) {
 return notificationRepository.findAll().stream()
-.filter(notification -> matchesNotification(notification, searchTerm))
-.limit(50)
+.filter(SearchMatchers.notifications(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapNotificationToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicInventoryRequests(String searchTerm) {
+private List<Map<String, Object>> searchPublicInventoryRequests(String searchTerm, int offset, int limit) {
 return inventoryRequestRepository.findAll().stream()
-.filter(request -> matchesInventoryRequest(request, searchTerm))
-.limit(50)
+.filter(SearchMatchers.inventoryRequests(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapInventoryRequestToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicWarehouseAccesses(String searchTerm) {
+private List<Map<String, Object>> searchPublicWarehouseAccesses(String searchTerm, int offset, int limit) {
 return warehouseAccessRepository.findAll().stream()
-.filter(access -> matchesWarehouseAccess(access, searchTerm))
-.limit(50)
+.filter(SearchMatchers.warehouseAccesses(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWarehouseAccessToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicWithdrawals(String searchTerm) {
+private List<Map<String, Object>> searchPublicWithdrawals(String searchTerm, int offset, int limit) {
 return withdrawalRepository.findAll().stream()
-.filter(withdrawal -> matchesWithdrawal(withdrawal, searchTerm))
-.limit(50)
+.filter(SearchMatchers.withdrawals(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapWithdrawalToResult)
 .collect(Collectors.toList());
 }
 
-private List<Map<String, Object>> searchPublicUsers(String searchTerm) {
+private List<Map<String, Object>> searchPublicUsers(String searchTerm, int offset, int limit) {
 return userRepository.findAll().stream()
-.filter(user -> matchesUser(user, searchTerm))
-.limit(50)
+.filter(SearchMatchers.users(searchTerm))
+.skip(offset)
+.limit(limit)
 .map(this::mapUserToResult)
 .collect(Collectors.toList());
 }
 
-private boolean matchesCropType(CropType crop, String searchTerm) {
-String searchableText = (crop.getCropName() != null ? crop.getCropName() : "") +
-" " + (crop.getCropCode() != null ? crop.getCropCode() : "") +
-" " + (crop.getCategory() != null ? crop.getCategory().toString() : "") +
-" " + (crop.getDescription() != null ? crop.getDescription() : "") +
-" " + (crop.getPricePerKg() != null ? crop.getPricePerKg().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesLocation(Location location, String searchTerm) {
-String searchableText = (location.getProvince() != null ? location.getProvince() : "") +
-" " + (location.getDistrict() != null ? location.getDistrict() : "") +
-" " + (location.getSector() != null ? location.getSector() : "") +
-" " + (location.getCell() != null ? location.getCell() : "") +
-" " + (location.getVillage() != null ? location.getVillage() : "") +
-" " + (location.getCode() != null ? location.getCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWarehouse(StorageWarehouse warehouse, String searchTerm) {
-String searchableText = (warehouse.getWarehouseName() != null ? warehouse.getWarehouseName() : "") +
-" " + (warehouse.getWarehouseCode() != null ? warehouse.getWarehouseCode() : "") +
-" " + (warehouse.getWarehouseType() != null ? warehouse.getWarehouseType().toString() : "") +
-" " + (warehouse.getLocation() != null && warehouse.getLocation().getVillage() != null ? warehouse.getLocation().getVillage() : "") +
-" " + (warehouse.getStatus() != null ? warehouse.getStatus().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesTransaction(Transaction transaction, String searchTerm) {
-String searchableText = (transaction.getTransactionCode() != null ? transaction.getTransactionCode() : "") +
-" " + (transaction.getPaymentStatus() != null ? transaction.getPaymentStatus().toString() : "") +
-" " + (transaction.getDeliveryStatus() != null ? transaction.getDeliveryStatus().toString() : "") +
-" " + (transaction.getTotalAmount() != null ? transaction.getTotalAmount().toString() : "") +
-" " + (transaction.getInventory() != null && transaction.getInventory().getCropType() != null && transaction.getInventory().getCropType().getCropName() != null ? transaction.getInventory().getCropType().getCropName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getFirstName() != null ? transaction.getBuyer().getFirstName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getLastName() != null ? transaction.getBuyer().getLastName() : "") +
-" " + (transaction.getBuyer() != null && transaction.getBuyer().getEmail() != null ? transaction.getBuyer().getEmail() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getFirstName() != null ? transaction.getSeller().getFirstName() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getLastName() != null ? transaction.getSeller().getLastName() : "") +
-" " + (transaction.getSeller() != null && transaction.getSeller().getEmail() != null ? transaction.getSeller().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesEnquiry(Enquiry enquiry, String searchTerm) {
-String searchableText = (enquiry.getEnquiryCode() != null ? enquiry.getEnquiryCode() : "") +
-" " + (enquiry.getMessage() != null ? enquiry.getMessage() : "") +
-" " + (enquiry.getStatus() != null ? enquiry.getStatus().toString() : "") +
-" " + (enquiry.getProposedQuantityKg() != null ? enquiry.getProposedQuantityKg().toString() : "") +
-" " + (enquiry.getProposedPricePerKg() != null ? enquiry.getProposedPricePerKg().toString() : "") +
-" " + (enquiry.getInventory() != null && enquiry.getInventory().getCropType() != null && enquiry.getInventory().getCropType().getCropName() != null ? enquiry.getInventory().getCropType().getCropName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getFirstName() != null ? enquiry.getBuyer().getFirstName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getLastName() != null ? enquiry.getBuyer().getLastName() : "") +
-" " + (enquiry.getBuyer() != null && enquiry.getBuyer().getEmail() != null ? enquiry.getBuyer().getEmail() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getFirstName() != null ? enquiry.getFarmer().getFirstName() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getLastName() != null ? enquiry.getFarmer().getLastName() : "") +
-" " + (enquiry.getFarmer() != null && enquiry.getFarmer().getEmail() != null ? enquiry.getFarmer().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesMessage(Message message, String searchTerm) {
-String searchableText = (message.getMessageCode() != null ? message.getMessageCode() : "") +
-" " + (message.getSubject() != null ? message.getSubject() : "") +
-" " + (message.getContent() != null ? message.getContent() : "") +
-" " + (message.getSender() != null && message.getSender().getFirstName() != null ? message.getSender().getFirstName() : "") +
-" " + (message.getSender() != null && message.getSender().getLastName() != null ? message.getSender().getLastName() : "") +
-" " + (message.getSender() != null && message.getSender().getEmail() != null ? message.getSender().getEmail() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getFirstName() != null ? message.getReceiver().getFirstName() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getLastName() != null ? message.getReceiver().getLastName() : "") +
-" " + (message.getReceiver() != null && message.getReceiver().getEmail() != null ? message.getReceiver().getEmail() : "") +
-" " + (message.getRelatedInventory() != null && message.getRelatedInventory().getCropType() != null && message.getRelatedInventory().getCropType().getCropName() != null ? message.getRelatedInventory().getCropType().getCropName() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesRating(Rating rating, String searchTerm) {
-String searchableText = (rating.getComment() != null ? rating.getComment() : "") +
-" " + (rating.getRatingScore() != null ? rating.getRatingScore().toString() : "") +
-" " + (rating.getRatingType() != null ? rating.getRatingType().toString() : "") +
-" " + (rating.getRater() != null && rating.getRater().getFirstName() != null ? rating.getRater().getFirstName() : "") +
-" " + (rating.getRater() != null && rating.getRater().getLastName() != null ? rating.getRater().getLastName() : "") +
-" " + (rating.getRater() != null && rating.getRater().getEmail() != null ? rating.getRater().getEmail() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getFirstName() != null ? rating.getRatedUser().getFirstName() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getLastName() != null ? rating.getRatedUser().getLastName() : "") +
-" " + (rating.getRatedUser() != null && rating.getRatedUser().getEmail() != null ? rating.getRatedUser().getEmail() : "") +
-" " + (rating.getTransaction() != null && rating.getTransaction().getTransactionCode() != null ? rating.getTransaction().getTransactionCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesNotification(Notification notification, String searchTerm) {
-String searchableText = (notification.getTitle() != null ? notification.getTitle() : "") +
-" " + (notification.getMessage() != null ? notification.getMessage() : "") +
-" " + (notification.getType() != null ? notification.getType().toString() : "") +
-" " + (notification.getUser() != null && notification.getUser().getFirstName() != null ? notification.getUser().getFirstName() : "") +
-" " + (notification.getUser() != null && notification.getUser().getLastName() != null ? notification.getUser().getLastName() : "") +
-" " + (notification.getUser() != null && notification.getUser().getEmail() != null ? notification.getUser().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesInventoryRequest(InventoryRequest request, String searchTerm) {
-String searchableText = (request.getRequestCode() != null ? request.getRequestCode() : "") +
-" " + (request.getNewNotes() != null ? request.getNewNotes() : "") +
-" " + (request.getFarmerNotes() != null ? request.getFarmerNotes() : "") +
-" " + (request.getStorekeeperResponse() != null ? request.getStorekeeperResponse() : "") +
-" " + (request.getStatus() != null ? request.getStatus().toString() : "") +
-" " + (request.getRequestType() != null ? request.getRequestType().toString() : "") +
-" " + (request.getInventory() != null && request.getInventory().getCropType() != null && request.getInventory().getCropType().getCropName() != null ? request.getInventory().getCropType().getCropName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getFirstName() != null ? request.getFarmer().getFirstName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getLastName() != null ? request.getFarmer().getLastName() : "") +
-" " + (request.getFarmer() != null && request.getFarmer().getEmail() != null ? request.getFarmer().getEmail() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getFirstName() != null ? request.getStorekeeper().getFirstName() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getLastName() != null ? request.getStorekeeper().getLastName() : "") +
-" " + (request.getStorekeeper() != null && request.getStorekeeper().getEmail() != null ? request.getStorekeeper().getEmail() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWarehouseAccess(WarehouseAccess access, String searchTerm) {
-String searchableText = (access.getNotes() != null ? access.getNotes() : "") +
-" " + (access.getStatus() != null ? access.getStatus().toString() : "") +
-" " + (access.getAccessLevel() != null ? access.getAccessLevel().toString() : "") +
-" " + (access.getUser() != null && access.getUser().getFirstName() != null ? access.getUser().getFirstName() : "") +
-" " + (access.getUser() != null && access.getUser().getLastName() != null ? access.getUser().getLastName() : "") +
-" " + (access.getUser() != null && access.getUser().getEmail() != null ? access.getUser().getEmail() : "") +
-" " + (access.getWarehouse() != null && access.getWarehouse().getWarehouseName() != null ? access.getWarehouse().getWarehouseName() : "") +
-" " + (access.getWarehouse() != null && access.getWarehouse().getWarehouseCode() != null ? access.getWarehouse().getWarehouseCode() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesWithdrawal(Withdrawal withdrawal, String searchTerm) {
-String searchableText = (withdrawal.getWithdrawalCode() != null ? withdrawal.getWithdrawalCode() : "") +
-" " + (withdrawal.getStatus() != null ? withdrawal.getStatus().toString() : "") +
-" " + (withdrawal.getAmount() != null ? withdrawal.getAmount().toString() : "") +
-" " + (withdrawal.getAccountNumber() != null ? withdrawal.getAccountNumber() : "") +
-" " + (withdrawal.getBankName() != null ? withdrawal.getBankName() : "") +
-" " + (withdrawal.getAccountName() != null ? withdrawal.getAccountName() : "") +
-" " + (withdrawal.getProcessingNotes() != null ? withdrawal.getProcessingNotes() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
-private boolean matchesUser(User user, String searchTerm) {
-String searchableText = (user.getEmail() != null ? user.getEmail() : "") +
-" " + (user.getFirstName() != null ? user.getFirstName() : "") +
-" " + (user.getLastName() != null ? user.getLastName() : "") +
-" " + (user.getUserCode() != null ? user.getUserCode() : "") +
-" " + (user.getPhoneNumber() != null ? user.getPhoneNumber() : "") +
-" " + (user.getUserType() != null ? user.getUserType().toString() : "") +
-" " + (user.getStatus() != null ? user.getStatus().toString() : "");
-return searchableText.toLowerCase().contains(searchTerm);
-}
-
 private Map<String, Object> mapCropTypeToResult(CropType crop) {
 Map<String, Object> result = new HashMap<>();
 result.put("id", crop.getId());
@@ -392,7 +322,7 @@ result.put("status", warehouse.getStatus() != null ? warehouse.getStatus().toStr
 return result;
 }
 
-private Map<String, Object> mapTransactionToResult(Transaction transaction) {
+Map<String, Object> mapTransactionToResult(Transaction transaction) {
 Map<String, Object> result = new HashMap<>();
 result.put("id", transaction.getId());
 result.put("type", "transaction");
@@ -1,9 +1,12 @@
 package com.raf.service;
 
+import com.raf.dto.NotificationDraft;
 import com.raf.dto.PaymentRequest;
 import com.raf.entity.*;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.DeliveryStatus;
 import com.raf.enums.EnquiryStatus;
+import com.raf.enums.OutboxEventType;
 import com.raf.enums.PaymentMethod;
 import com.raf.enums.PaymentStatus;
 import com.raf.exception.ResourceNotFoundException;
@@ -17,8 +20,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -29,14 +32,15 @@ public class PurchaseFlowService {
 private final EnquiryRepository enquiryRepository;
 private final TransactionRepository transactionRepository;
 private final PaymentRepository paymentRepository;
-private final InventoryRepository inventoryRepository;
+private final InventoryService inventoryService;
 private final UserRepository userRepository;
 private final WalletRepository walletRepository;
+private final WalletLedgerService walletLedgerService;
 private final NotificationRepository notificationRepository;
-private final EmailService emailService;
-private final InvoiceService invoiceService;
+private final OutboxService outboxService;
 private final NotificationService notificationService;
 private final com.raf.repository.WarehouseAccessRepository warehouseAccessRepository;
+private final BusinessCodeGenerator businessCodeGenerator;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -57,10 +61,7 @@ throw new IllegalArgumentException("Transaction already exists for this enquiry"
 }
 
 
-String transactionCode = "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-while (transactionRepository.existsByTransactionCode(transactionCode)) {
-transactionCode = "TXN-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-}
+String transactionCode = businessCodeGenerator.next(BusinessCodeType.TRANSACTION);
 
 
 BigDecimal totalAmount = enquiry.getProposedTotalAmount();
@@ -143,10 +144,7 @@ throw new IllegalArgumentException("Mobile Money transaction reference is requir
 }
 
 
-String paymentCode = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-while (paymentRepository.existsByPaymentCode(paymentCode)) {
-paymentCode = "PAY-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-}
+String paymentCode = businessCodeGenerator.next(BusinessCodeType.PAYMENT);
 
 
 Payment payment = new Payment();
@@ -168,15 +166,7 @@ transaction.setPaymentStatus(PaymentStatus.PAID);
 transaction.setPaymentDate(LocalDateTime.now());
 transactionRepository.save(transaction);
 
-Inventory inventory = transaction.getInventory();
-BigDecimal remaining = inventory.getRemainingQuantityKg().subtract(transaction.getQuantityKg());
-inventory.setRemainingQuantityKg(remaining);
-if (remaining.compareTo(BigDecimal.ZERO) <= 0) {
-inventory.setStatus(com.raf.enums.InventoryStatus.SOLD);
-} else {
-inventory.setStatus(com.raf.enums.InventoryStatus.PARTIALLY_SOLD);
-}
-inventoryRepository.save(inventory);
+Inventory inventory = inventoryService.takeStock(transaction.getInventory().getId(), transaction.getQuantityKg());
 
 Wallet farmerWallet = walletRepository.findByUserId(transaction.getSeller().getId())
 .orElseGet(() -> {
@@ -189,9 +179,7 @@ return walletRepository.save(newWallet);
 });
 
 BigDecimal netEarnings = transaction.getNetAmount();
-farmerWallet.setBalance(farmerWallet.getBalance().add(netEarnings));
-farmerWallet.setTotalEarned(farmerWallet.getTotalEarned().add(netEarnings));
-walletRepository.save(farmerWallet);
+walletLedgerService.credit(farmerWallet, netEarnings, transaction.getId());
 
 entityManager.flush();
 
@@ -209,7 +197,8 @@ final User finalAssignedStorekeeper = !storekeeperAccesses.isEmpty()
 ? storekeeperAccesses.get(0).getUser() 
 : null;
 
-notificationService.createNotification(
+List<NotificationDraft> notifications = new ArrayList<>();
+notifications.add(new NotificationDraft(
 finalTransaction.getSeller().getId(),
 "Payment Received - Earnings Credited",
 String.format("Your sale of %s kg of %s has been paid. Gross: RWF %s, Service Fee (5%%): RWF %s, Net Earnings: RWF %s. Amount credited to your wallet.",
@@ -219,10 +208,11 @@ finalTransaction.getTotalAmount().toPlainString(),
 finalTransaction.getCommission().toPlainString(),
 netEarnings.toPlainString()),
 com.raf.enums.NotificationType.PAYMENT_RECEIVED,
-finalTransaction.getId()
-);
+finalTransaction.getId(),
+null
+));
 
-notificationService.createNotification(
+notifications.add(new NotificationDraft(
 finalTransaction.getBuyer().getId(),
 "Payment Successful",
 String.format("Your payment of RWF %s for %s kg of %s was successful. Please await delivery.",
@@ -232,10 +222,10 @@ finalInventory.getCropType().getCropName()),
 com.raf.enums.NotificationType.PAYMENT_RECEIVED,
 finalTransaction.getId(),
 "/receipts"
-);
+));
 
 if (finalAssignedStorekeeper != null) {
-notificationService.createNotification(
+notifications.add(new NotificationDraft(
 finalAssignedStorekeeper.getId(),
 "Shipment Request - Action Required",
 String.format("A new order requires shipment: %s kg of %s to %s %s. Transaction: %s. Please process delivery.",
@@ -245,39 +235,20 @@ finalTransaction.getBuyer().getFirstName(),
 finalTransaction.getBuyer().getLastName(),
 finalTransaction.getTransactionCode()),
 com.raf.enums.NotificationType.SHIPMENT_REQUEST,
-finalTransaction.getId()
-);
+finalTransaction.getId(),
+null
+));
 }
 
-log.info("Payment processed successfully: {}", paymentCode);
-
-new java.lang.Thread(() -> {
-try {
-invoiceService.sendInvoiceToBuyer(finalTransaction);
-emailService.sendPurchaseConfirmationToBuyer(finalTransaction);
-log.info("Payment confirmation email sent to buyer: {}", finalTransaction.getBuyer().getEmail());
-} catch (Exception e) {
-log.warn("Failed to send buyer email: {}", e.getMessage());
-}
-}).start();
+notificationService.createNotifications(notifications);
 
-new java.lang.Thread(() -> {
-try {
-emailService.sendPurchaseConfirmationToFarmer(finalTransaction);
-} catch (Exception e) {
-log.warn("Failed to send farmer confirmation email: {}", e.getMessage());
-}
-}).start();
+log.info("Payment processed successfully: {}", paymentCode);
 
+outboxService.enqueue(OutboxEventType.BUYER_INVOICE, finalTransaction.getId());
+outboxService.enqueue(OutboxEventType.BUYER_PURCHASE_CONFIRMATION, finalTransaction.getId());
+outboxService.enqueue(OutboxEventType.FARMER_PURCHASE_CONFIRMATION, finalTransaction.getId());
 if (finalAssignedStorekeeper != null) {
-new java.lang.Thread(() -> {
-try {
-emailService.sendDeliveryReminderToStorekeeper(finalTransaction, finalAssignedStorekeeper, warehouse);
-log.info("Delivery reminder email sent to storekeeper: {}", finalAssignedStorekeeper.getEmail());
-} catch (Exception e) {
-log.warn("Failed to send storekeeper reminder email: {}", e.getMessage());
-}
-}).start();
+outboxService.enqueue(OutboxEventType.STOREKEEPER_DELIVERY_REMINDER, finalTransaction.getId(), finalAssignedStorekeeper.getId());
 } else {
 log.warn("No storekeeper found for warehouse: {}", warehouse.getWarehouseName());
 }
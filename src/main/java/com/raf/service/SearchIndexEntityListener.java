@@ -0,0 +1,89 @@
+package com.raf.service;
+
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that forwards inserts, updates and deletes of searchable
+ * entities to the {@link DashboardSearchIndex}, location changes to the
+ * {@link LocationHierarchy}, inventory, catalogue and user changes to the
+ * {@link MarketplaceListings}, and inventory inserts and deletes to the
+ * {@link AutocompleteService} weights. Hibernate obtains this listener from the
+ * Spring context, so all four are looked up lazily to avoid a cycle with the
+ * entity manager factory.
+ */
+@Component
+public class SearchIndexEntityListener {
+
+private final ObjectProvider<DashboardSearchIndex> searchIndex;
+private final ObjectProvider<LocationHierarchy> locationHierarchy;
+private final ObjectProvider<MarketplaceListings> marketplaceListings;
+private final ObjectProvider<AutocompleteService> autocompleteService;
+
+public SearchIndexEntityListener(ObjectProvider<DashboardSearchIndex> searchIndex,
+ObjectProvider<LocationHierarchy> locationHierarchy,
+ObjectProvider<MarketplaceListings> marketplaceListings,
+ObjectProvider<AutocompleteService> autocompleteService) {
+this.searchIndex = searchIndex;
+this.locationHierarchy = locationHierarchy;
+this.marketplaceListings = marketplaceListings;
+this.autocompleteService = autocompleteService;
+}
+
+@PostPersist
+public void onInserted(Object entity) {
+onSaved(entity);
+inventoryCountChanged(entity);
+}
+
+@PostUpdate
+public void onSaved(Object entity) {
+DashboardSearchIndex index = searchIndex.getIfAvailable();
+if (index != null) {
+index.onSaved(entity);
+}
+locationChanged(entity);
+marketplaceChanged(entity);
+}
+
+@PostRemove
+public void onRemoved(Object entity) {
+DashboardSearchIndex index = searchIndex.getIfAvailable();
+if (index != null) {
+index.onRemoved(entity);
+}
+locationChanged(entity);
+marketplaceChanged(entity);
+inventoryCountChanged(entity);
+}
+
+private void locationChanged(Object entity) {
+if (entity instanceof Location) {
+LocationHierarchy hierarchy = locationHierarchy.getIfAvailable();
+if (hierarchy != null) {
+hierarchy.onLocationChanged();
+}
+}
+}
+
+private void marketplaceChanged(Object entity) {
+MarketplaceListings marketplace = marketplaceListings.getIfAvailable();
+if (marketplace != null) {
+marketplace.onChanged(entity);
+}
+}
+
+private void inventoryCountChanged(Object entity) {
+if (entity instanceof Inventory inventory) {
+AutocompleteService autocomplete = autocompleteService.getIfAvailable();
+if (autocomplete != null) {
+autocomplete.onInventoryChanged(inventory);
+}
+}
+}
+}
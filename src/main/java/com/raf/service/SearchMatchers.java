@@ -0,0 +1,218 @@
+package com.raf.service;
+
+import com.raf.entity.*;
+import com.raf.util.SearchTermMatcher;
+
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Row predicates for the scan fallback of {@link DashboardSearchService} and
+ * {@link PublicSearchService}, used when no index can answer a search. Each
+ * factory compiles the search term once, one matcher per whitespace-separated
+ * token; the returned predicate checks the searchable fields of a row one at a
+ * time for each token and stops at the first field that contains it, without
+ * building a combined string per row. Every token has to match some field, so
+ * "Jean Uwimana" still finds a user whose first and last names are stored apart.
+ */
+final class SearchMatchers {
+
+private SearchMatchers() {
+}
+
+static Predicate<CropType> cropTypes(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesCropType);
+}
+
+static Predicate<Location> locations(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesLocation);
+}
+
+static Predicate<StorageWarehouse> warehouses(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesWarehouse);
+}
+
+static Predicate<Inventory> inventories(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesInventory);
+}
+
+static Predicate<Transaction> transactions(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesTransaction);
+}
+
+static Predicate<Enquiry> enquiries(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesEnquiry);
+}
+
+static Predicate<Message> messages(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesMessage);
+}
+
+static Predicate<Rating> ratings(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesRating);
+}
+
+static Predicate<Notification> notifications(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesNotification);
+}
+
+static Predicate<InventoryRequest> inventoryRequests(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesInventoryRequest);
+}
+
+static Predicate<WarehouseAccess> warehouseAccesses(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesWarehouseAccess);
+}
+
+static Predicate<Withdrawal> withdrawals(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesWithdrawal);
+}
+
+static Predicate<User> users(String searchTerm) {
+return allTokens(searchTerm, SearchMatchers::matchesUser);
+}
+
+static boolean matchesCropType(CropType crop, SearchTermMatcher matcher) {
+return matcher.matches(crop.getCropName())
+|| matcher.matches(crop.getCropCode())
+|| matcher.matches(crop.getCategory())
+|| matcher.matches(crop.getDescription())
+|| matcher.matches(crop.getPricePerKg());
+}
+
+static boolean matchesLocation(Location location, SearchTermMatcher matcher) {
+return matcher.matches(location.getProvince())
+|| matcher.matches(location.getDistrict())
+|| matcher.matches(location.getSector())
+|| matcher.matches(location.getCell())
+|| matcher.matches(location.getVillage())
+|| matcher.matches(location.getCode());
+}
+
+static boolean matchesWarehouse(StorageWarehouse warehouse, SearchTermMatcher matcher) {
+return matcher.matches(warehouse.getWarehouseName())
+|| matcher.matches(warehouse.getWarehouseCode())
+|| matcher.matches(warehouse.getWarehouseType())
+|| (warehouse.getLocation() != null && matcher.matches(warehouse.getLocation().getVillage()))
+|| matcher.matches(warehouse.getStatus());
+}
+
+static boolean matchesInventory(Inventory inventory, SearchTermMatcher matcher) {
+return matcher.matches(inventory.getInventoryCode())
+|| (inventory.getCropType() != null && (matcher.matches(inventory.getCropType().getCropName())
+|| matcher.matches(inventory.getCropType().getCropCode())))
+|| matcher.matches(inventory.getQualityGrade())
+|| matcher.matches(inventory.getNotes())
+|| matcher.matches(inventory.getStatus())
+|| (inventory.getWarehouse() != null && matcher.matches(inventory.getWarehouse().getWarehouseName()));
+}
+
+static boolean matchesTransaction(Transaction transaction, SearchTermMatcher matcher) {
+return matcher.matches(transaction.getTransactionCode())
+|| matcher.matches(transaction.getPaymentStatus())
+|| matcher.matches(transaction.getDeliveryStatus())
+|| matcher.matches(transaction.getTotalAmount())
+|| matchesCropName(transaction.getInventory(), matcher)
+|| matchesPerson(transaction.getBuyer(), matcher)
+|| matchesPerson(transaction.getSeller(), matcher);
+}
+
+static boolean matchesEnquiry(Enquiry enquiry, SearchTermMatcher matcher) {
+return matcher.matches(enquiry.getEnquiryCode())
+|| matcher.matches(enquiry.getMessage())
+|| matcher.matches(enquiry.getStatus())
+|| matcher.matches(enquiry.getProposedQuantityKg())
+|| matcher.matches(enquiry.getProposedPricePerKg())
+|| matchesCropName(enquiry.getInventory(), matcher)
+|| matchesPerson(enquiry.getBuyer(), matcher)
+|| matchesPerson(enquiry.getFarmer(), matcher);
+}
+
+static boolean matchesMessage(Message message, SearchTermMatcher matcher) {
+return matcher.matches(message.getMessageCode())
+|| matcher.matches(message.getSubject())
+|| matcher.matches(message.getContent())
+|| matchesPerson(message.getSender(), matcher)
+|| matchesPerson(message.getReceiver(), matcher)
+|| matchesCropName(message.getRelatedInventory(), matcher);
+}
+
+static boolean matchesRating(Rating rating, SearchTermMatcher matcher) {
+return matcher.matches(rating.getComment())
+|| matcher.matches(rating.getRatingScore())
+|| matcher.matches(rating.getRatingType())
+|| matchesPerson(rating.getRater(), matcher)
+|| matchesPerson(rating.getRatedUser(), matcher)
+|| (rating.getTransaction() != null && matcher.matches(rating.getTransaction().getTransactionCode()));
+}
+
+static boolean matchesNotification(Notification notification, SearchTermMatcher matcher) {
+return matcher.matches(notification.getTitle())
+|| matcher.matches(notification.getMessage())
+|| matcher.matches(notification.getType())
+|| matchesPerson(notification.getUser(), matcher);
+}
+
+static boolean matchesInventoryRequest(InventoryRequest request, SearchTermMatcher matcher) {
+return matcher.matches(request.getRequestCode())
+|| matcher.matches(request.getNewNotes())
+|| matcher.matches(request.getFarmerNotes())
+|| matcher.matches(request.getStorekeeperResponse())
+|| matcher.matches(request.getStatus())
+|| matcher.matches(request.getRequestType())
+|| matchesCropName(request.getInventory(), matcher)
+|| matchesPerson(request.getFarmer(), matcher)
+|| matchesPerson(request.getStorekeeper(), matcher);
+}
+
+static boolean matchesWarehouseAccess(WarehouseAccess access, SearchTermMatcher matcher) {
+return matcher.matches(access.getNotes())
+|| matcher.matches(access.getStatus())
+|| matcher.matches(access.getAccessLevel())
+|| matchesPerson(access.getUser(), matcher)
+|| (access.getWarehouse() != null && (matcher.matches(access.getWarehouse().getWarehouseName())
+|| matcher.matches(access.getWarehouse().getWarehouseCode())));
+}
+
+static boolean matchesWithdrawal(Withdrawal withdrawal, SearchTermMatcher matcher) {
+return matcher.matches(withdrawal.getWithdrawalCode())
+|| matcher.matches(withdrawal.getStatus())
+|| matcher.matches(withdrawal.getAmount())
+|| matcher.matches(withdrawal.getAccountNumber())
+|| matcher.matches(withdrawal.getBankName())
+|| matcher.matches(withdrawal.getAccountName())
+|| matcher.matches(withdrawal.getProcessingNotes());
+}
+
+static boolean matchesUser(User user, SearchTermMatcher matcher) {
+return matcher.matches(user.getEmail())
+|| matcher.matches(user.getFirstName())
+|| matcher.matches(user.getLastName())
+|| matcher.matches(user.getUserCode())
+|| matcher.matches(user.getPhoneNumber())
+|| matcher.matches(user.getUserType())
+|| matcher.matches(user.getStatus());
+}
+
+private static <T> Predicate<T> allTokens(String searchTerm, BiPredicate<T, SearchTermMatcher> matches) {
+SearchTermMatcher[] tokens = SearchTermMatcher.compileTokens(searchTerm);
+return row -> {
+for (SearchTermMatcher token : tokens) {
+if (!matches.test(row, token)) {
+return false;
+}
+}
+return true;
+};
+}
+
+private static boolean matchesCropName(Inventory inventory, SearchTermMatcher matcher) {
+return inventory != null && inventory.getCropType() != null && matcher.matches(inventory.getCropType().getCropName());
+}
+
+private static boolean matchesPerson(User user, SearchTermMatcher matcher) {
+return user != null && (matcher.matches(user.getFirstName())
+|| matcher.matches(user.getLastName())
+|| matcher.matches(user.getEmail()));
+}
+}
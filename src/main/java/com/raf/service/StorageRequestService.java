@@ -3,6 +3,7 @@ package com.raf.service;
 import com.raf.dto.StorageRequestDto;
 import com.raf.entity.*;
 import com.raf.enums.AccessLevel;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.InventoryStatus;
 import com.raf.enums.WarehouseAccessStatus;
 import com.raf.exception.ResourceNotFoundException;
@@ -17,7 +18,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +31,8 @@ private final StorageWarehouseRepository warehouseRepository;
 private final CropTypeRepository cropTypeRepository;
 private final InventoryRepository inventoryRepository;
 private final JwtUtil jwtUtil;
+private final BusinessCodeGenerator businessCodeGenerator;
+private final WarehouseCapacityService warehouseCapacityService;
 
 
 public WarehouseAccess submitStorageRequest(String token, StorageRequestDto request) {
@@ -54,12 +56,6 @@ throw new UnauthorizedException("Warehouse does not support storing " + cropType
 }
 
 
-if (warehouse.getAvailableCapacityKg().compareTo(request.getQuantityKg()) < 0) {
-throw new UnauthorizedException("Warehouse does not have enough capacity. Available: " +
-warehouse.getAvailableCapacityKg() + " kg, Requested: " + request.getQuantityKg() + " kg");
-}
-
-
 WarehouseAccess access = new WarehouseAccess();
 access.setUser(farmer);
 access.setWarehouse(warehouse);
@@ -78,6 +74,9 @@ access.setCropNotes(request.getNotes());
 access.setNotes("Storage request from farmer: " + farmer.getEmail());
 
 WarehouseAccess savedRequest = warehouseAccessRepository.save(access);
+// The space is held from now on, so requests approved later cannot oversubscribe the warehouse.
+savedRequest.setCapacityReservationId(warehouseCapacityService.reserve(
+warehouse.getId(), request.getQuantityKg(), "storage-request:" + savedRequest.getId()));
 log.info("Farmer {} submitted storage request for {} kg of {} in warehouse {}",
 farmer.getEmail(), request.getQuantityKg(), cropType.getCropName(), warehouse.getWarehouseName());
 
@@ -122,14 +121,11 @@ throw new UnauthorizedException("Storekeeper does not have access to this wareho
 
 StorageWarehouse warehouse = request.getWarehouse();
 BigDecimal quantity = request.getCropQuantityKg();
+warehouseCapacityService.commitOrTake(request.getCapacityReservationId(), warehouse.getId(), quantity,
+"storage-request:" + requestId);
 
 
-if (warehouse.getAvailableCapacityKg().compareTo(quantity) < 0) {
-throw new UnauthorizedException("Warehouse does not have enough capacity");
-}
-
-
-String inventoryCode = "INV-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+String inventoryCode = businessCodeGenerator.next(BusinessCodeType.INVENTORY);
 Inventory inventory = new Inventory();
 inventory.setInventoryCode(inventoryCode);
 inventory.setFarmer(request.getUser());
@@ -148,10 +144,6 @@ inventory.setNotes(request.getCropNotes());
 Inventory savedInventory = inventoryRepository.save(inventory);
 
 
-warehouse.setAvailableCapacityKg(warehouse.getAvailableCapacityKg().subtract(quantity));
-warehouseRepository.save(warehouse);
-
-
 request.setStatus(WarehouseAccessStatus.ACTIVE);
 request.setIsActive(true);
 warehouseAccessRepository.save(request);
@@ -174,6 +166,7 @@ request.setStatus(WarehouseAccessStatus.REJECTED);
 request.setIsActive(false);
 request.setNotes((request.getNotes() != null ? request.getNotes() + " | " : "") +
 "Rejected: " + reason);
+warehouseCapacityService.releaseIfOpen(request.getCapacityReservationId());
 warehouseAccessRepository.save(request);
 
 log.info("Admin rejected storage request {}: {}", requestId, reason);
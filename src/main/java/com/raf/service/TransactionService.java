@@ -1,6 +1,7 @@
 package com.raf.service;
 
 import com.raf.dto.TransactionRequest;
+import com.raf.dto.TransactionSummary;
 import com.raf.entity.Inventory;
 import com.raf.entity.StorageWarehouse;
 import com.raf.entity.Transaction;
@@ -13,7 +14,6 @@ import com.raf.repository.InventoryRepository;
 import com.raf.repository.TransactionRepository;
 import com.raf.repository.UserRepository;
 import com.raf.repository.WarehouseAccessRepository;
-import com.raf.entity.WarehouseAccess;
 import com.raf.enums.UserType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -82,137 +82,50 @@ return transactionRepository.save(transaction);
 }
 
 
-private List<Long> getAssignedWarehouseIds(Long storekeeperId) {
-List<WarehouseAccess> warehouseAccesses = warehouseAccessRepository.findByUserIdAndIsActive(storekeeperId, true);
-return warehouseAccesses.stream()
-.filter(access -> access.getStatus() == com.raf.enums.WarehouseAccessStatus.APPROVED ||
-access.getStatus() == com.raf.enums.WarehouseAccessStatus.ACTIVE)
-.map(access -> access.getWarehouse().getId())
-.distinct()
-.toList();
+/**
+ * Whether listings for {@code userId} are limited to the warehouses the user
+ * is assigned to. Other users, and unknown ones, see every transaction.
+ */
+private boolean isStorekeeper(Long userId) {
+return userId != null && userRepository.existsByIdAndUserType(userId, UserType.STOREKEEPER);
 }
 
 
-private List<Transaction> filterTransactionsByWarehouse(List<Transaction> transactions, Long storekeeperId) {
-if (storekeeperId == null) {
-log.debug("No storekeeperId provided, returning all transactions without filtering");
-return transactions;
-}
-
-User user = userRepository.findById(storekeeperId).orElse(null);
-if (user == null) {
-log.warn("User not found for ID: {}, returning all transactions without filtering", storekeeperId);
-return transactions;
-}
-
-if (user.getUserType() != UserType.STOREKEEPER) {
-log.debug("User {} is not a storekeeper (type: {}), returning all transactions without filtering",
-storekeeperId, user.getUserType());
-return transactions;
-}
-
-List<Long> assignedWarehouseIds = getAssignedWarehouseIds(storekeeperId);
-if (assignedWarehouseIds.isEmpty()) {
-log.info("Storekeeper {} has no assigned warehouses, returning empty transaction list", storekeeperId);
-return List.of();
-}
-
-log.info("Filtering {} transactions for storekeeper {} by {} assigned warehouses: {}",
-transactions.size(), storekeeperId, assignedWarehouseIds.size(), assignedWarehouseIds);
-
-List<Transaction> filtered = transactions.stream()
-.filter(t -> {
-if (t.getInventory() == null) {
-log.debug("Transaction {} has no inventory, filtering out", t.getId());
-return false;
-}
-if (t.getInventory().getWarehouse() == null) {
-log.debug("Transaction {} inventory has no warehouse, filtering out", t.getId());
-return false;
-}
-Long warehouseId = t.getInventory().getWarehouse().getId();
-boolean matches = assignedWarehouseIds.contains(warehouseId);
-if (!matches) {
-log.debug("Transaction {} warehouse {} not in storekeeper's assigned warehouses, filtering out",
-t.getId(), warehouseId);
-}
-return matches;
-})
-.toList();
-
-log.info("Filtered {} transactions down to {} for storekeeper {}",
-transactions.size(), filtered.size(), storekeeperId);
-return filtered;
-}
-
+/**
+ * Transactions for the list screens, newest first, as {@link TransactionSummary}
+ * rows read by one query. Storekeepers only see transactions of their warehouses.
+ */
 @Transactional(readOnly = true)
-public List<Transaction> getAllTransactions() {
+public List<TransactionSummary> getAllTransactions() {
 return getAllTransactions(null);
 }
 
 @Transactional(readOnly = true)
-public List<Transaction> getAllTransactions(Long userId) {
+public List<TransactionSummary> getAllTransactions(Long userId) {
 log.info("📊 Fetching all transactions from database{}...", userId != null ? " for user " + userId : "");
-List<Transaction> transactions = transactionRepository.findAll();
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
+List<TransactionSummary> transactions = isStorekeeper(userId)
+? transactionRepository.findAllSummariesForStorekeeper(userId)
+: transactionRepository.findAllSummaries();
 
 log.info("✅ Successfully fetched {} transactions from database", transactions.size());
 if (transactions.isEmpty()) {
 log.warn("⚠️  WARNING: No transactions found in database. Database may be empty or transactions table is not populated.");
-} else {
-log.info("📋 Transactions found: {}", transactions.stream()
-.map(t -> String.format("%s (Status: %s, Amount: %s)", t.getTransactionCode(), t.getPaymentStatus(), t.getTotalAmount()))
-.limit(5)
-.collect(java.util.stream.Collectors.joining(", ")) + (transactions.size() > 5 ? "..." : ""));
 }
-
-transactions.forEach(t -> {
-if (t.getBuyer() != null) {
-t.getBuyer().getId();
-t.getBuyer().getFirstName();
-t.getBuyer().getLastName();
-}
-if (t.getSeller() != null) {
-t.getSeller().getId();
-t.getSeller().getFirstName();
-t.getSeller().getLastName();
-}
-if (t.getInventory() != null) {
-t.getInventory().getId();
-if (t.getInventory().getCropType() != null) {
-t.getInventory().getCropType().getId();
-t.getInventory().getCropType().getCropName();
-}
-}
-});
 return transactions;
 }
 
 @Transactional(readOnly = true)
-public Page<Transaction> getTransactionsPaginated(Pageable pageable) {
+public Page<TransactionSummary> getTransactionsPaginated(Pageable pageable) {
 return getTransactionsPaginated(pageable, null);
 }
 
 @Transactional(readOnly = true)
-public Page<Transaction> getTransactionsPaginated(Pageable pageable, Long userId) {
+public Page<TransactionSummary> getTransactionsPaginated(Pageable pageable, Long userId) {
 log.info("📊 Fetching paginated transactions from database (page: {}, size: {}){}...",
 pageable.getPageNumber(), pageable.getPageSize(), userId != null ? " for user " + userId : "");
-Page<Transaction> transactions = transactionRepository.findAll(pageable);
-
-
-if (userId != null) {
-List<Transaction> filtered = filterTransactionsByWarehouse(transactions.getContent(), userId);
-
-transactions = new org.springframework.data.domain.PageImpl<>(
-filtered,
-pageable,
-filtered.size()
-);
-}
+Page<TransactionSummary> transactions = isStorekeeper(userId)
+? transactionRepository.findSummariesForStorekeeper(userId, pageable)
+: transactionRepository.findSummaries(pageable);
 
 log.info("✅ Successfully fetched {} transactions from database (page {} of {}, total: {})",
 transactions.getNumberOfElements(),
@@ -222,26 +135,6 @@ transactions.getTotalElements());
 if (transactions.isEmpty()) {
 log.warn("⚠️  WARNING: No transactions found in database for page {}. Database may be empty or transactions table is not populated.", pageable.getPageNumber());
 }
-
-transactions.getContent().forEach(t -> {
-if (t.getBuyer() != null) {
-t.getBuyer().getId();
-t.getBuyer().getFirstName();
-t.getBuyer().getLastName();
-}
-if (t.getSeller() != null) {
-t.getSeller().getId();
-t.getSeller().getFirstName();
-t.getSeller().getLastName();
-}
-if (t.getInventory() != null) {
-t.getInventory().getId();
-if (t.getInventory().getCropType() != null) {
-t.getInventory().getCropType().getId();
-t.getInventory().getCropType().getCropName();
-}
-}
-});
 return transactions;
 }
 
@@ -312,10 +205,9 @@ return transactions;
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsBySeller(Long sellerId) {
 log.info("📊 Fetching transactions for seller ID: {}...", sellerId);
-List<Transaction> transactions = transactionRepository.findBySellerId(sellerId);
-
-
-transactions = filterTransactionsByWarehouse(transactions, sellerId);
+List<Transaction> transactions = isStorekeeper(sellerId)
+? transactionRepository.findBySellerIdForStorekeeper(sellerId)
+: transactionRepository.findBySellerId(sellerId);
 
 log.info("✅ Successfully fetched {} transactions for seller ID: {}", transactions.size(), sellerId);
 if (transactions.isEmpty()) {
@@ -351,14 +243,9 @@ return getTransactionsByInventoryForUser(inventoryId, null);
 
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsByInventoryForUser(Long inventoryId, Long userId) {
-List<Transaction> transactions = transactionRepository.findByInventoryId(inventoryId);
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByInventoryIdForStorekeeper(inventoryId, userId)
+: transactionRepository.findByInventoryId(inventoryId);
 }
 
 @Transactional(readOnly = true)
@@ -368,14 +255,9 @@ return getTransactionsByPaymentStatusForUser(paymentStatus, null);
 
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsByPaymentStatusForUser(PaymentStatus paymentStatus, Long userId) {
-List<Transaction> transactions = transactionRepository.findByPaymentStatus(paymentStatus);
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByPaymentStatusForStorekeeper(paymentStatus, userId)
+: transactionRepository.findByPaymentStatus(paymentStatus);
 }
 
 @Transactional(readOnly = true)
@@ -385,14 +267,9 @@ return getTransactionsByPaymentStatusForUser(paymentStatus, sort, null);
 
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsByPaymentStatusForUser(PaymentStatus paymentStatus, Sort sort, Long userId) {
-List<Transaction> transactions = transactionRepository.findByPaymentStatus(paymentStatus, sort);
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByPaymentStatusForStorekeeper(paymentStatus, userId, sort)
+: transactionRepository.findByPaymentStatus(paymentStatus, sort);
 }
 
 @Transactional(readOnly = true)
@@ -402,19 +279,9 @@ return getTransactionsByPaymentStatusForUser(paymentStatus, pageable, null);
 
 @Transactional(readOnly = true)
 public Page<Transaction> getTransactionsByPaymentStatusForUser(PaymentStatus paymentStatus, Pageable pageable, Long userId) {
-Page<Transaction> transactions = transactionRepository.findByPaymentStatus(paymentStatus, pageable);
-
-
-if (userId != null) {
-List<Transaction> filtered = filterTransactionsByWarehouse(transactions.getContent(), userId);
-transactions = new org.springframework.data.domain.PageImpl<>(
-filtered,
-pageable,
-filtered.size()
-);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByPaymentStatusForStorekeeper(paymentStatus, userId, pageable)
+: transactionRepository.findByPaymentStatus(paymentStatus, pageable);
 }
 
 @Transactional(readOnly = true)
@@ -424,14 +291,9 @@ return getTransactionsByDeliveryStatusForUser(deliveryStatus, null);
 
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsByDeliveryStatusForUser(DeliveryStatus deliveryStatus, Long userId) {
-List<Transaction> transactions = transactionRepository.findByDeliveryStatus(deliveryStatus);
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByDeliveryStatusForStorekeeper(deliveryStatus, userId)
+: transactionRepository.findByDeliveryStatus(deliveryStatus);
 }
 
 @Transactional(readOnly = true)
@@ -441,14 +303,9 @@ return getTransactionsByDeliveryStatusForUser(deliveryStatus, sort, null);
 
 @Transactional(readOnly = true)
 public List<Transaction> getTransactionsByDeliveryStatusForUser(DeliveryStatus deliveryStatus, Sort sort, Long userId) {
-List<Transaction> transactions = transactionRepository.findByDeliveryStatus(deliveryStatus, sort);
-
-
-if (userId != null) {
-transactions = filterTransactionsByWarehouse(transactions, userId);
-}
-
-return transactions;
+return isStorekeeper(userId)
+? transactionRepository.findByDeliveryStatusForStorekeeper(deliveryStatus, userId, sort)
+: transactionRepository.findByDeliveryStatus(deliveryStatus, sort);
 }
 
 @Transactional(readOnly = true)
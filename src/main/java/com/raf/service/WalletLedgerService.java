@@ -0,0 +1,128 @@
+package com.raf.service;
+
+import com.raf.entity.Wallet;
+import com.raf.entity.WalletLedgerEntry;
+import com.raf.enums.WalletEntryType;
+import com.raf.repository.WalletLedgerRepository;
+import com.raf.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves money in and out of wallets by appending to the wallet ledger. The
+ * other side of every entry is already on record as the paid transaction or
+ * the withdrawal it references, so each movement is posted once, against the
+ * wallet. Credits never touch the wallet row and so never wait on each other;
+ * balances are read as the wallet's last snapshot plus the entries it has not folded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class WalletLedgerService {
+
+private final WalletLedgerRepository walletLedgerRepository;
+private final WalletRepository walletRepository;
+
+/**
+ * Credits a seller's net earnings for a paid transaction.
+ */
+public WalletLedgerEntry credit(Wallet wallet, BigDecimal amount, Long transactionId) {
+return append(wallet, WalletEntryType.EARNING, amount, transactionId);
+}
+
+/**
+ * Debits a completed withdrawal. The wallet row is locked for the rest of the
+ * transaction so two withdrawals cannot both spend the same balance; credits
+ * do not take the lock.
+ *
+ * @throws IllegalArgumentException if the balance does not cover the amount.
+ */
+public WalletLedgerEntry debit(Wallet wallet, BigDecimal amount, Long withdrawalId) {
+walletRepository.lockById(wallet.getId());
+if (amount.compareTo(current(wallet).getBalance()) > 0) {
+throw new IllegalArgumentException("Insufficient balance");
+}
+return append(wallet, WalletEntryType.WITHDRAWAL, amount, withdrawalId);
+}
+
+/**
+ * Gives back a debited withdrawal whose payout bounced. Like every entry, a
+ * withdrawal can be refunded only once; refunds count against the total withdrawn.
+ */
+public WalletLedgerEntry refund(Wallet wallet, BigDecimal amount, Long withdrawalId) {
+return append(wallet, WalletEntryType.REFUND, amount, withdrawalId);
+}
+
+/**
+ * A detached copy of the wallet with the entries its snapshot has not folded
+ * applied. Entries folded by a later snapshot still count, so a fold that
+ * commits after the wallet was read changes nothing. The wallet itself is
+ * left alone, so the snapshotter remains the only writer of its balances.
+ */
+@Transactional(readOnly = true)
+public Wallet current(Wallet wallet) {
+long version = wallet.getSnapshotVersion() != null ? wallet.getSnapshotVersion() : 0L;
+Map<WalletEntryType, BigDecimal> sums = sumByType(walletLedgerRepository.sumAfterSnapshot(wallet.getId(), version));
+BigDecimal earned = sums.get(WalletEntryType.EARNING);
+BigDecimal withdrawn = netWithdrawn(sums);
+
+Wallet view = new Wallet();
+view.setId(wallet.getId());
+view.setCreatedAt(wallet.getCreatedAt());
+view.setUpdatedAt(wallet.getUpdatedAt());
+view.setUser(wallet.getUser());
+view.setBalance(wallet.getBalance().add(earned).subtract(withdrawn));
+view.setTotalEarned(wallet.getTotalEarned().add(earned));
+view.setTotalWithdrawn(wallet.getTotalWithdrawn().add(withdrawn));
+view.setSnapshotVersion(wallet.getSnapshotVersion());
+view.setWithdrawals(wallet.getWithdrawals());
+return view;
+}
+
+/**
+ * Totals per entry type of the wallet's entries stamped with snapshot {@code version}.
+ */
+@Transactional(readOnly = true)
+public Map<WalletEntryType, BigDecimal> sumInSnapshot(Long walletId, long version) {
+return sumByType(walletLedgerRepository.sumInSnapshot(walletId, version));
+}
+
+/**
+ * Totals from entry type and amount rows, with zero for types without entries.
+ */
+private static Map<WalletEntryType, BigDecimal> sumByType(List<Object[]> rows) {
+Map<WalletEntryType, BigDecimal> sums = new EnumMap<>(WalletEntryType.class);
+for (WalletEntryType type : WalletEntryType.values()) {
+sums.put(type, BigDecimal.ZERO);
+}
+for (Object[] row : rows) {
+sums.put((WalletEntryType) row[0], (BigDecimal) row[1]);
+}
+return sums;
+}
+
+/**
+ * Withdrawals less refunds, the amount that actually left the wallet.
+ */
+static BigDecimal netWithdrawn(Map<WalletEntryType, BigDecimal> sums) {
+return sums.get(WalletEntryType.WITHDRAWAL).subtract(sums.get(WalletEntryType.REFUND));
+}
+
+private WalletLedgerEntry append(Wallet wallet, WalletEntryType type, BigDecimal amount, Long referenceId) {
+if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+throw new IllegalArgumentException("Ledger amounts must be greater than zero");
+}
+WalletLedgerEntry entry = new WalletLedgerEntry(wallet, type, amount, referenceId, null);
+entry = walletLedgerRepository.save(entry);
+log.info("Posted {} of {} to wallet {} for {}", type, amount, wallet.getId(), referenceId);
+return entry;
+}
+}
@@ -4,13 +4,14 @@ import com.raf.dto.WithdrawalRequest;
 import com.raf.entity.User;
 import com.raf.entity.Wallet;
 import com.raf.entity.Withdrawal;
+import com.raf.enums.BusinessCodeType;
+import com.raf.enums.OutboxEventType;
 import com.raf.enums.WithdrawalStatus;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.repository.TransactionRepository;
 import com.raf.repository.UserRepository;
 import com.raf.repository.WalletRepository;
 import com.raf.repository.WithdrawalRepository;
-import com.raf.service.EmailService;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
@@ -21,7 +22,6 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -33,13 +33,22 @@ private final WalletRepository walletRepository;
 private final WithdrawalRepository withdrawalRepository;
 private final UserRepository userRepository;
 private final TransactionRepository transactionRepository;
-private final EmailService emailService;
+private final OutboxService outboxService;
+private final WalletLedgerService walletLedgerService;
+private final BusinessCodeGenerator businessCodeGenerator;
 
 @PersistenceContext
 private EntityManager entityManager;
 
+/**
+ * The user's wallet with its ledger entries since the last snapshot applied.
+ */
 @Transactional(readOnly = true)
 public Wallet getWalletByUserId(Long userId) {
+return walletLedgerService.current(findOrCreateWallet(userId));
+}
+
+private Wallet findOrCreateWallet(Long userId) {
 return walletRepository.findByUserId(userId)
 .orElseGet(() -> {
 
@@ -57,11 +66,11 @@ return walletRepository.save(wallet);
 public Withdrawal requestWithdrawal(Long userId, WithdrawalRequest request) {
 log.info("Processing withdrawal request for user {}", userId);
 
-Wallet wallet = getWalletByUserId(userId);
+Wallet wallet = findOrCreateWallet(userId);
 User user = userRepository.findById(userId)
 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-if (request.getAmount().compareTo(wallet.getBalance()) > 0) {
+if (request.getAmount().compareTo(walletLedgerService.current(wallet).getBalance()) > 0) {
 throw new IllegalArgumentException("Insufficient balance");
 }
 
@@ -70,14 +79,7 @@ throw new IllegalArgumentException("Withdrawal amount must be greater than zero"
 }
 
 
-final String withdrawalCode;
-{
-String tempCode;
-do {
-tempCode = "WTH-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-} while (withdrawalRepository.existsByWithdrawalCode(tempCode));
-withdrawalCode = tempCode;
-}
+final String withdrawalCode = businessCodeGenerator.next(BusinessCodeType.WITHDRAWAL);
 
 String otpCode = String.format("%06d", (int)(Math.random() * 1000000));
 LocalDateTime otpExpiresAt = LocalDateTime.now().plusMinutes(10);
@@ -101,27 +103,17 @@ entityManager.flush();
 
 log.info("Withdrawal request created with OTP: {}", withdrawalCode);
 
-final String finalOtpCode = otpCode;
-final String finalAmount = request.getAmount().toPlainString();
-new java.lang.Thread(() -> {
-try {
-emailService.sendWithdrawalOtpEmail(
-user.getEmail(),
-finalOtpCode,
-user.getFirstName(),
-finalAmount
-);
-log.info("Withdrawal OTP sent to {} for withdrawal {}", user.getEmail(), withdrawalCode);
-} catch (Exception e) {
-log.error("Failed to send withdrawal OTP email: {}", e.getMessage());
-}
-}).start();
+outboxService.enqueue(OutboxEventType.WITHDRAWAL_OTP, saved.getId());
 
 return saved;
 }
 
 
-public Withdrawal verifyOtpAndCompleteWithdrawal(Long withdrawalId, String otpCode) {
+/**
+ * Checks the OTP, debits the wallet and leaves the withdrawal in PROCESSING
+ * for the next payout run, which completes it.
+ */
+public Withdrawal verifyOtpAndQueueWithdrawal(Long withdrawalId, String otpCode) {
 log.info("Verifying OTP for withdrawal {}", withdrawalId);
 
 Withdrawal withdrawal = withdrawalRepository.findById(withdrawalId)
@@ -140,20 +132,16 @@ throw new IllegalArgumentException("Invalid OTP code");
 }
 
 
+// Debited now so the balance cannot be spent again; the next payout run completes it
 withdrawal.setOtpVerified(true);
-withdrawal.setStatus(WithdrawalStatus.COMPLETED);
-withdrawal.setProcessedDate(LocalDateTime.now());
+withdrawal.setStatus(WithdrawalStatus.PROCESSING);
 
-
-Wallet wallet = withdrawal.getWallet();
-wallet.setBalance(wallet.getBalance().subtract(withdrawal.getAmount()));
-wallet.setTotalWithdrawn(wallet.getTotalWithdrawn().add(withdrawal.getAmount()));
+walletLedgerService.debit(withdrawal.getWallet(), withdrawal.getAmount(), withdrawal.getId());
 
 withdrawalRepository.save(withdrawal);
-walletRepository.save(wallet);
 entityManager.flush();
 
-log.info("Withdrawal {} completed after OTP verification", withdrawal.getWithdrawalCode());
+log.info("Withdrawal {} verified and queued for payout", withdrawal.getWithdrawalCode());
 return withdrawal;
 }
 
@@ -170,22 +158,44 @@ withdrawal.setStatus(WithdrawalStatus.COMPLETED);
 withdrawal.setProcessedDate(LocalDateTime.now());
 withdrawal.setProcessingNotes(notes);
 
-Wallet wallet = withdrawal.getWallet();
-wallet.setTotalWithdrawn(wallet.getTotalWithdrawn().add(withdrawal.getAmount()));
-walletRepository.save(wallet);
+walletLedgerService.debit(withdrawal.getWallet(), withdrawal.getAmount(), withdrawal.getId());
 } else {
+// Nothing was debited while the withdrawal was pending, so there is nothing to give back.
 withdrawal.setStatus(WithdrawalStatus.FAILED);
 withdrawal.setProcessedDate(LocalDateTime.now());
 withdrawal.setProcessingNotes(notes);
+}
+
+withdrawalRepository.save(withdrawal);
+entityManager.flush();
+return withdrawal;
+}
 
+/**
+ * Fails a verified withdrawal whose transfer bounced, whether or not a payout
+ * run already completed it, and refunds the amount to the wallet.
+ *
+ * @throws IllegalArgumentException if the withdrawal was never debited (it is not PROCESSING or COMPLETED).
+ */
+public Withdrawal failPayout(Long withdrawalId, String reason) {
+Withdrawal withdrawal = withdrawalRepository.lockById(withdrawalId)
+.orElseThrow(() -> new ResourceNotFoundException("Withdrawal not found"));
 
-Wallet wallet = withdrawal.getWallet();
-wallet.setBalance(wallet.getBalance().add(withdrawal.getAmount()));
-walletRepository.save(wallet);
+if (withdrawal.getStatus() != WithdrawalStatus.PROCESSING && withdrawal.getStatus() != WithdrawalStatus.COMPLETED) {
+throw new IllegalArgumentException("Only a verified withdrawal can be failed and refunded");
 }
 
+WithdrawalStatus previous = withdrawal.getStatus();
+withdrawal.setStatus(WithdrawalStatus.FAILED);
+withdrawal.setProcessedDate(LocalDateTime.now());
+withdrawal.setProcessingNotes("Payout failed" + (reason != null && !reason.isBlank() ? ": " + reason : "") + ", amount refunded");
+
+walletLedgerService.refund(withdrawal.getWallet(), withdrawal.getAmount(), withdrawal.getId());
+
 withdrawalRepository.save(withdrawal);
 entityManager.flush();
+
+log.info("Withdrawal {} failed from {} and refunded", withdrawal.getWithdrawalCode(), previous);
 return withdrawal;
 }
 
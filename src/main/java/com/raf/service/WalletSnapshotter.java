@@ -0,0 +1,101 @@
+package com.raf.service;
+
+import com.raf.entity.Wallet;
+import com.raf.enums.WalletEntryType;
+import com.raf.repository.WalletLedgerRepository;
+import com.raf.repository.WalletRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds wallet ledger entries into the wallets' balances, so reads only add up
+ * the entries not folded yet. A fold stamps the wallet's committed, unstamped
+ * entries with the next snapshot number and adds their sums to the wallet in
+ * the same transaction, holding the wallet row lock. Folding is recorded per
+ * entry rather than as an id watermark: ids are handed out before the posting
+ * transaction commits, so an entry can commit after a higher id was folded,
+ * and the next run folds it like any other. Entries younger than
+ * {@code app.wallet.snapshot.grace-ms} are left for a later run, which keeps
+ * runs off wallets that are being paid right now.
+ */
+@Service
+@Slf4j
+public class WalletSnapshotter {
+
+private final WalletLedgerRepository walletLedgerRepository;
+private final WalletLedgerService walletLedgerService;
+private final WalletRepository walletRepository;
+private final TransactionTemplate transactionTemplate;
+private final boolean enabled;
+private final Duration grace;
+
+public WalletSnapshotter(WalletLedgerRepository walletLedgerRepository,
+WalletLedgerService walletLedgerService,
+WalletRepository walletRepository,
+PlatformTransactionManager transactionManager,
+@Value("${app.wallet.snapshot.enabled:true}") boolean enabled,
+@Value("${app.wallet.snapshot.grace-ms:120000}") long graceMs) {
+this.walletLedgerRepository = walletLedgerRepository;
+this.walletLedgerService = walletLedgerService;
+this.walletRepository = walletRepository;
+this.transactionTemplate = new TransactionTemplate(transactionManager);
+this.enabled = enabled;
+this.grace = Duration.ofMillis(graceMs);
+}
+
+@Scheduled(fixedDelayString = "${app.wallet.snapshot.interval-ms:60000}")
+public void snapshot() {
+if (enabled) {
+foldEntriesBefore(LocalDateTime.now().minus(grace));
+}
+}
+
+/**
+ * Folds every wallet's entries created before {@code cutoff}, one wallet per
+ * transaction.
+ *
+ * @return The number of wallets folded.
+ */
+public int foldEntriesBefore(LocalDateTime cutoff) {
+List<Long> pending = walletLedgerRepository.findWalletsWithUnfolded(cutoff);
+int folded = 0;
+for (Long walletId : pending) {
+if (Boolean.TRUE.equals(transactionTemplate.execute(status -> fold(walletId, cutoff)))) {
+folded++;
+}
+}
+if (folded > 0) {
+log.info("Folded ledger entries into {} wallets", folded);
+}
+return folded;
+}
+
+private boolean fold(Long walletId, LocalDateTime cutoff) {
+// The lock makes concurrent runs fold one wallet one after the other.
+Wallet wallet = walletRepository.lockById(walletId).orElse(null);
+if (wallet == null) {
+return false;
+}
+long previousVersion = wallet.getSnapshotVersion() != null ? wallet.getSnapshotVersion() : 0L;
+long version = previousVersion + 1;
+if (walletLedgerRepository.stamp(walletId, version, cutoff) == 0) {
+return false;
+}
+Map<WalletEntryType, BigDecimal> sums = walletLedgerService.sumInSnapshot(walletId, version);
+if (walletRepository.fold(walletId, previousVersion, version,
+sums.get(WalletEntryType.EARNING), WalletLedgerService.netWithdrawn(sums)) == 0) {
+throw new IllegalStateException("Wallet " + walletId + " moved past snapshot " + previousVersion + " while locked");
+}
+return true;
+}
+}
@@ -5,6 +5,7 @@ import com.raf.entity.StorageWarehouse;
 import com.raf.entity.User;
 import com.raf.entity.WarehouseAccess;
 import com.raf.enums.AccessLevel;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.UserType;
 import com.raf.enums.WarehouseAccessStatus;
 import com.raf.exception.DuplicateResourceException;
@@ -44,6 +45,8 @@ private final StorageWarehouseRepository warehouseRepository;
 private final com.raf.repository.CropTypeRepository cropTypeRepository;
 private final InventoryRepository inventoryRepository;
 private final NotificationService notificationService;
+private final BusinessCodeGenerator businessCodeGenerator;
+private final WarehouseCapacityService warehouseCapacityService;
 
 @PersistenceContext
 private EntityManager entityManager;
@@ -157,6 +160,7 @@ return updatedAccess;
 
 if (existing.getStatus() == com.raf.enums.WarehouseAccessStatus.REJECTED) {
 log.info("Deleting rejected warehouse access request to allow new submission");
+warehouseCapacityService.releaseIfOpen(existing.getCapacityReservationId());
 warehouseAccessRepository.delete(existing);
 
 }
@@ -499,6 +503,7 @@ public void deleteWarehouseAccess(Long id) {
 WarehouseAccess warehouseAccess = warehouseAccessRepository.findById(id)
 .orElseThrow(() -> new ResourceNotFoundException("Warehouse access not found with ID: " + id));
 log.info("Deleting warehouse access ID: {}", id);
+warehouseCapacityService.releaseIfOpen(warehouseAccess.getCapacityReservationId());
 warehouseAccessRepository.delete(warehouseAccess);
 }
 
@@ -695,6 +700,7 @@ if (status == com.raf.enums.WarehouseAccessStatus.APPROVED || status == com.raf.
 warehouseAccess.setIsActive(true);
 } else if (status == com.raf.enums.WarehouseAccessStatus.REJECTED) {
 warehouseAccess.setIsActive(false);
+warehouseCapacityService.releaseIfOpen(warehouseAccess.getCapacityReservationId());
 }
 
 WarehouseAccess savedAccess = warehouseAccessRepository.save(warehouseAccess);
@@ -720,7 +726,11 @@ boolean inventoryExists = existingInventories.stream()
 
 if (!inventoryExists) {
 
-String inventoryCode = "INV-" + java.util.UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+// Fails before anything is created when the warehouse is full; the approval itself still stands.
+warehouseCapacityService.commitOrTake(warehouseAccess.getCapacityReservationId(),
+warehouseAccess.getWarehouse().getId(), warehouseAccess.getCropQuantityKg(), "warehouse-access:" + id);
+
+String inventoryCode = businessCodeGenerator.next(BusinessCodeType.INVENTORY);
 
 
 User storekeeper = userRepository.findById(currentUserId)
@@ -756,16 +766,6 @@ warehouseAccess.getWarehouse().getId());
 
 
 StorageWarehouse warehouse = warehouseAccess.getWarehouse();
-java.math.BigDecimal newAvailableCapacity = warehouse.getAvailableCapacityKg()
-.subtract(warehouseAccess.getCropQuantityKg());
-if (newAvailableCapacity.compareTo(java.math.BigDecimal.ZERO) < 0) {
-log.warn("Warning: Warehouse capacity would go negative. Setting to 0.");
-newAvailableCapacity = java.math.BigDecimal.ZERO;
-}
-warehouse.setAvailableCapacityKg(newAvailableCapacity);
-warehouseRepository.save(warehouse);
-entityManager.flush();
-
 log.info("Successfully created inventory {} from warehouse access request {}", inventoryCode, id);
 
 
@@ -783,6 +783,8 @@ null,
 log.error("Failed to create notification for inventory creation: {}", e.getMessage(), e);
 }
 } else {
+// Nothing new is stored, so the space held since submission goes back to the warehouse.
+warehouseCapacityService.releaseIfOpen(warehouseAccess.getCapacityReservationId());
 log.info("Inventory already exists for this warehouse access. Skipping creation.");
 }
 } catch (Exception e) {
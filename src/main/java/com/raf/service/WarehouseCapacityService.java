@@ -0,0 +1,173 @@
+package com.raf.service;
+
+import com.raf.entity.CapacityLedgerEntry;
+import com.raf.enums.CapacityEntryType;
+import com.raf.exception.OperationNotAllowedException;
+import com.raf.exception.ResourceNotFoundException;
+import com.raf.repository.CapacityLedgerRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Keeps warehouse capacity consistent under concurrent intake. Space is taken
+ * from the available capacity with a conditional update that only succeeds
+ * while enough is free, so two requests at the same warehouse can never both
+ * claim the last kilograms, and every change is appended to the capacity
+ * ledger. Space can be reserved first and committed or released later, which
+ * lets a storage request hold its space from submission until it is approved
+ * or rejected.
+ *
+ * <p>Running out of capacity does not roll back the caller's transaction, so
+ * callers may catch it and carry on.</p>
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(noRollbackFor = OperationNotAllowedException.class)
+public class WarehouseCapacityService {
+
+private final StorageWarehouseRepository warehouseRepository;
+private final CapacityLedgerRepository ledgerRepository;
+
+/**
+ * Takes {@code quantity} from the warehouse and records it as an open reservation.
+ *
+ * @return The reservation id to commit or release later.
+ * @throws OperationNotAllowedException if the warehouse has less than {@code quantity} available.
+ * @throws ResourceNotFoundException if the warehouse does not exist.
+ */
+public Long reserve(Long warehouseId, BigDecimal quantity, String reference) {
+requirePositive(quantity);
+if (warehouseRepository.takeAvailableCapacity(warehouseId, quantity) == 0) {
+if (!warehouseRepository.existsById(warehouseId)) {
+throw new ResourceNotFoundException("Warehouse not found with ID: " + warehouseId);
+}
+throw new OperationNotAllowedException("Warehouse does not have enough capacity for " + quantity + " kg");
+}
+CapacityLedgerEntry reservation = append(warehouseId, CapacityEntryType.RESERVE, quantity, null, reference);
+log.info("Reserved {} kg in warehouse {} for {} (reservation {})", quantity, warehouseId, reference, reservation.getId());
+return reservation.getId();
+}
+
+/**
+ * Keeps the reserved space taken for good.
+ *
+ * @throws OperationNotAllowedException if the reservation was already committed or released.
+ */
+public void commit(Long reservationId) {
+settle(reservationId, CapacityEntryType.COMMIT);
+}
+
+/**
+ * Gives the reserved space back to the warehouse.
+ *
+ * @throws OperationNotAllowedException if the reservation was already committed or released.
+ */
+public void release(Long reservationId) {
+CapacityLedgerEntry reservation = settle(reservationId, CapacityEntryType.RELEASE);
+warehouseRepository.returnAvailableCapacity(reservation.getWarehouse().getId(), reservation.getQuantityKg());
+log.info("Released {} kg in warehouse {} (reservation {})",
+reservation.getQuantityKg(), reservation.getWarehouse().getId(), reservationId);
+}
+
+/**
+ * Releases the reservation unless there is none or it is already settled,
+ * for requests that are rejected or withdrawn.
+ */
+public void releaseIfOpen(Long reservationId) {
+if (reservationId != null && !ledgerRepository.existsBySettlesEntryId(reservationId)) {
+release(reservationId);
+}
+}
+
+/**
+ * Reserves and commits in one step, for intake that is stored right away.
+ */
+public void take(Long warehouseId, BigDecimal quantity, String reference) {
+commit(reserve(warehouseId, quantity, reference));
+}
+
+/**
+ * Commits the reservation of a request being approved when it still matches
+ * what is stored; otherwise releases it, if there is one, and takes the space
+ * now. Covers requests submitted before reservations existed, requests
+ * edited after submission and rejected requests approved after all.
+ */
+public void commitOrTake(Long reservationId, Long warehouseId, BigDecimal quantity, String reference) {
+if (reservationId != null && !ledgerRepository.existsBySettlesEntryId(reservationId)) {
+CapacityLedgerEntry reservation = findReservation(reservationId);
+if (reservation.getWarehouse().getId().equals(warehouseId) && reservation.getQuantityKg().compareTo(quantity) == 0) {
+commit(reservationId);
+return;
+}
+release(reservationId);
+}
+take(warehouseId, quantity, reference);
+}
+
+/**
+ * Returns committed space to the warehouse, for stock that leaves it. The
+ * available capacity never grows beyond the total capacity, and the ledger
+ * records only what was actually returned.
+ *
+ * @return The quantity returned, which is less than {@code quantity} when the warehouse was already nearly empty.
+ */
+public BigDecimal restore(Long warehouseId, BigDecimal quantity, String reference) {
+requirePositive(quantity);
+BigDecimal used = warehouseRepository.lockUsedCapacity(warehouseId)
+.orElseThrow(() -> new ResourceNotFoundException("Warehouse not found with ID: " + warehouseId));
+BigDecimal restored = quantity.min(used);
+if (restored.compareTo(BigDecimal.ZERO) <= 0) {
+log.warn("Nothing to restore to warehouse {} for {}: no capacity is in use", warehouseId, reference);
+return BigDecimal.ZERO;
+}
+warehouseRepository.returnAvailableCapacity(warehouseId, restored);
+append(warehouseId, CapacityEntryType.RESTORE, restored, null, reference);
+log.info("Restored {} of {} kg to warehouse {} for {}", restored, quantity, warehouseId, reference);
+return restored;
+}
+
+@Transactional(readOnly = true)
+public List<CapacityLedgerEntry> getLedger(Long warehouseId) {
+return ledgerRepository.findByWarehouseIdOrderByIdAsc(warehouseId);
+}
+
+private CapacityLedgerEntry settle(Long reservationId, CapacityEntryType type) {
+CapacityLedgerEntry reservation = findReservation(reservationId);
+if (ledgerRepository.existsBySettlesEntryId(reservationId)) {
+throw new OperationNotAllowedException("Capacity reservation " + reservationId + " is already settled");
+}
+// The unique settles_entry_id column stops a concurrent second settlement that passed the check above.
+append(reservation.getWarehouse().getId(), type, reservation.getQuantityKg(), reservationId, reservation.getReference());
+return reservation;
+}
+
+private CapacityLedgerEntry findReservation(Long reservationId) {
+return ledgerRepository.findById(reservationId)
+.filter(entry -> entry.getEntryType() == CapacityEntryType.RESERVE)
+.orElseThrow(() -> new ResourceNotFoundException("Capacity reservation not found with ID: " + reservationId));
+}
+
+private CapacityLedgerEntry append(Long warehouseId, CapacityEntryType type, BigDecimal quantity,
+Long settlesEntryId, String reference) {
+CapacityLedgerEntry entry = new CapacityLedgerEntry();
+entry.setWarehouse(warehouseRepository.getReferenceById(warehouseId));
+entry.setEntryType(type);
+entry.setQuantityKg(quantity);
+entry.setSettlesEntryId(settlesEntryId);
+entry.setReference(reference);
+return ledgerRepository.saveAndFlush(entry);
+}
+
+private static void requirePositive(BigDecimal quantity) {
+if (quantity == null || quantity.compareTo(BigDecimal.ZERO) <= 0) {
+throw new IllegalArgumentException("Capacity quantity must be greater than zero");
+}
+}
+}
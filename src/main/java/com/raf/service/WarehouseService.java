@@ -39,6 +39,7 @@ private final StorageWarehouseRepository warehouseRepository;
 private final LocationRepository locationRepository;
 private final CropTypeRepository cropTypeRepository;
 private final WarehouseAccessRepository warehouseAccessRepository;
+private final AutocompleteService autocompleteService;
 @Lazy
 private final NotificationService notificationService;
 
@@ -66,6 +67,7 @@ warehouse.setLocation(location);
 
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 log.info("Warehouse created successfully with ID: {}", savedWarehouse.getId());
 return savedWarehouse;
 }
@@ -77,6 +79,7 @@ throw new DuplicateResourceException("Warehouse with code " + warehouse.getWareh
 log.info("Creating new warehouse: {}", warehouse.getWarehouseName());
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 log.info("Warehouse created successfully with ID: {}", savedWarehouse.getId());
 return savedWarehouse;
 }
@@ -188,6 +191,7 @@ warehouse.setLocation(location);
 
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 log.info("Warehouse updated successfully with ID: {}", savedWarehouse.getId());
 
 
@@ -220,6 +224,7 @@ warehouse.setLocation(warehouseDetails.getLocation());
 log.info("Updating warehouse ID: {}", id);
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 return savedWarehouse;
 }
 
@@ -230,6 +235,7 @@ warehouse.setStatus(status);
 log.info("Updating warehouse ID {} status to: {}", id, status);
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 return savedWarehouse;
 }
 
@@ -242,6 +248,7 @@ String warehouseCode = warehouse.getWarehouseCode();
         try {
             warehouseRepository.delete(warehouse);
             entityManager.flush();
+            autocompleteService.onWarehouseDeleted(id);
         } catch (org.springframework.dao.DataIntegrityViolationException e) {
             log.error("Failed to delete warehouse due to constraint violation: {}", e.getMessage());
             throw new DuplicateResourceException("Cannot delete warehouse because it is actively in use (contains existing inventory or assigned storekeepers).");
@@ -357,6 +364,7 @@ warehouse.setSupportedCropTypes(cropTypes);
 
 StorageWarehouse savedWarehouse = warehouseRepository.save(warehouse);
 entityManager.flush();
+autocompleteService.onWarehouseSaved(savedWarehouse);
 log.info("Created warehouse {} with ID {} and {} supported crop types", savedWarehouse.getWarehouseName(), savedWarehouse.getId(), cropTypes.size());
 
 return savedWarehouse;
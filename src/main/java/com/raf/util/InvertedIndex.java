@@ -0,0 +1,348 @@
+package com.raf.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over short text documents.
+ * Every token of a document is posted once, in a sorted term dictionary; a
+ * query token matches any document token that starts with it by reading the
+ * range of terms between the token and its last possible extension. Documents
+ * can also carry filter tags such as {@code farmer:12}, kept apart from the
+ * terms; tag lookups are intersected with the term postings the same way
+ * terms are intersected with each other.
+ * <p>
+ * Removed documents leave a gap in the ordinal space; once more than half of
+ * it is gaps, the ordinals are renumbered in their original order.
+ *
+ * @param <K> The key (entity id) type of the indexed documents.
+ */
+public class InvertedIndex<K> {
+
+private static final int MIN_COMPACT_CAPACITY = 64;
+
+private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+private final Map<K, Integer> ordinals = new HashMap<>();
+private final List<K> keys = new ArrayList<>();
+private final List<Posted> postedUnder = new ArrayList<>();
+private final TreeMap<String, PostingList> terms = new TreeMap<>();
+private final Map<String, PostingList> tags = new HashMap<>();
+
+/**
+ * Adds or replaces the document stored under the given key.
+ *
+ * @param key The document key.
+ * @param fields The searchable field values; null values are skipped.
+ * @param tags The filter tags attached to the document.
+ */
+public void put(K key, Collection<String> fields, Collection<String> tags) {
+Set<String> tokens = new LinkedHashSet<>();
+for (String field : fields) {
+tokens.addAll(tokenize(field));
+}
+Set<String> tagged = tags != null ? new LinkedHashSet<>(tags) : Set.of();
+
+lock.writeLock().lock();
+try {
+Integer ordinal = ordinals.get(key);
+if (ordinal == null) {
+ordinal = keys.size();
+ordinals.put(key, ordinal);
+keys.add(key);
+postedUnder.add(null);
+} else {
+unpost(ordinal);
+}
+for (String token : tokens) {
+this.terms.computeIfAbsent(token, k -> new PostingList()).add(ordinal);
+}
+for (String tag : tagged) {
+this.tags.computeIfAbsent(tag, k -> new PostingList()).add(ordinal);
+}
+postedUnder.set(ordinal, new Posted(tokens.toArray(new String[0]), tagged.toArray(new String[0])));
+} finally {
+lock.writeLock().unlock();
+}
+}
+
+public void remove(K key) {
+lock.writeLock().lock();
+try {
+Integer ordinal = ordinals.remove(key);
+if (ordinal != null) {
+unpost(ordinal);
+postedUnder.set(ordinal, null);
+keys.set(ordinal, null);
+if (keys.size() >= MIN_COMPACT_CAPACITY && ordinals.size() * 2 < keys.size()) {
+compact();
+}
+}
+} finally {
+lock.writeLock().unlock();
+}
+}
+
+/**
+ * Finds the keys of documents matching every token of the query.
+ *
+ * @param query The raw query text.
+ * @param anyOfTags When not null, only documents carrying at least one of these tags are returned.
+ * @param limit The maximum number of keys to return.
+ * @return Matching keys in insertion order.
+ */
+public List<K> search(String query, Collection<String> anyOfTags, int limit) {
+return search(query, anyOfTags, 0, limit);
+}
+
+/**
+ * Same as {@link #search(String, Collection, int)}, but skips the first
+ * {@code offset} matches without collecting them, so deep pages only hold
+ * {@code limit} keys.
+ */
+public List<K> search(String query, Collection<String> anyOfTags, int offset, int limit) {
+List<String> tokens = tokenize(query);
+List<K> result = new ArrayList<>();
+if (tokens.isEmpty() || limit <= 0 || (anyOfTags != null && anyOfTags.isEmpty())) {
+return result;
+}
+
+lock.readLock().lock();
+try {
+List<PostingList> lists = new ArrayList<>();
+for (String token : new LinkedHashSet<>(tokens)) {
+PostingList list = startingWith(token);
+if (list.size == 0) {
+return result;
+}
+lists.add(list);
+}
+if (anyOfTags != null) {
+List<PostingList> tagLists = new ArrayList<>();
+for (String tag : anyOfTags) {
+PostingList list = this.tags.get(tag);
+if (list != null) {
+tagLists.add(list);
+}
+}
+PostingList tagged = union(tagLists);
+if (tagged.size == 0) {
+return result;
+}
+lists.add(tagged);
+}
+lists.sort(Comparator.comparingInt(list -> list.size));
+
+PostingList smallest = lists.get(0);
+for (int n = 0; n < smallest.size; n++) {
+int ordinal = smallest.ordinals[n];
+boolean matchesAll = true;
+for (int i = 1; i < lists.size() && matchesAll; i++) {
+matchesAll = lists.get(i).contains(ordinal);
+}
+if (matchesAll && offset > 0) {
+offset--;
+} else if (matchesAll) {
+result.add(keys.get(ordinal));
+if (result.size() >= limit) {
+break;
+}
+}
+}
+return result;
+} finally {
+lock.readLock().unlock();
+}
+}
+
+public int size() {
+lock.readLock().lock();
+try {
+return ordinals.size();
+} finally {
+lock.readLock().unlock();
+}
+}
+
+/**
+ * @return The number of ordinals in use, including gaps left by removed documents.
+ */
+int capacity() {
+lock.readLock().lock();
+try {
+return keys.size();
+} finally {
+lock.readLock().unlock();
+}
+}
+
+/**
+ * Splits text into lowercase letter/digit tokens.
+ */
+public static List<String> tokenize(String text) {
+List<String> tokens = new ArrayList<>();
+if (text == null || text.isEmpty()) {
+return tokens;
+}
+int start = -1;
+for (int i = 0; i <= text.length(); i++) {
+boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+if (tokenChar && start < 0) {
+start = i;
+} else if (!tokenChar && start >= 0) {
+tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+start = -1;
+}
+}
+return tokens;
+}
+
+/**
+ * The postings of every term starting with the token. A single matching term
+ * is returned as is; several are merged.
+ */
+private PostingList startingWith(String token) {
+SortedMap<String, PostingList> range = terms.subMap(token, token + Character.MAX_VALUE);
+if (range.size() == 1) {
+return range.values().iterator().next();
+}
+return union(range.values());
+}
+
+private void unpost(int ordinal) {
+Posted posted = postedUnder.get(ordinal);
+if (posted == null) {
+return;
+}
+unpost(terms, posted.terms(), ordinal);
+unpost(tags, posted.tags(), ordinal);
+}
+
+private static void unpost(Map<String, PostingList> postings, String[] postingKeys, int ordinal) {
+for (String postingKey : postingKeys) {
+PostingList list = postings.get(postingKey);
+if (list != null) {
+list.remove(ordinal);
+if (list.size == 0) {
+postings.remove(postingKey);
+}
+}
+}
+}
+
+/**
+ * Renumbers the live documents 0..n-1 in their current order. The mapping
+ * keeps relative order, so every posting list stays sorted and is rewritten in place.
+ */
+private void compact() {
+int[] renumbered = new int[keys.size()];
+List<K> liveKeys = new ArrayList<>(ordinals.size());
+List<Posted> livePosted = new ArrayList<>(ordinals.size());
+for (int ordinal = 0; ordinal < keys.size(); ordinal++) {
+K key = keys.get(ordinal);
+if (key == null) {
+renumbered[ordinal] = -1;
+continue;
+}
+renumbered[ordinal] = liveKeys.size();
+ordinals.put(key, liveKeys.size());
+liveKeys.add(key);
+livePosted.add(postedUnder.get(ordinal));
+}
+keys.clear();
+keys.addAll(liveKeys);
+postedUnder.clear();
+postedUnder.addAll(livePosted);
+terms.values().forEach(list -> list.renumber(renumbered));
+tags.values().forEach(list -> list.renumber(renumbered));
+}
+
+private static PostingList union(Collection<PostingList> lists) {
+int total = 0;
+for (PostingList list : lists) {
+total += list.size;
+}
+int[] all = new int[Math.max(total, 4)];
+int filled = 0;
+for (PostingList list : lists) {
+System.arraycopy(list.ordinals, 0, all, filled, list.size);
+filled += list.size;
+}
+Arrays.sort(all, 0, filled);
+PostingList merged = new PostingList();
+merged.ordinals = all;
+for (int n = 0; n < filled; n++) {
+if (merged.size == 0 || all[merged.size - 1] != all[n]) {
+all[merged.size++] = all[n];
+}
+}
+return merged;
+}
+
+/**
+ * The terms and tags a document is posted under, so it can be unposted.
+ */
+private record Posted(String[] terms, String[] tags) {
+}
+
+/**
+ * Sorted, growable list of document ordinals. New documents get increasing
+ * ordinals, so the common case is an append.
+ */
+private static final class PostingList {
+
+private int[] ordinals = new int[4];
+private int size;
+
+void add(int ordinal) {
+if (size > 0 && ordinals[size - 1] >= ordinal) {
+int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+if (index >= 0) {
+return;
+}
+index = -index - 1;
+grow();
+System.arraycopy(ordinals, index, ordinals, index + 1, size - index);
+ordinals[index] = ordinal;
+size++;
+return;
+}
+grow();
+ordinals[size++] = ordinal;
+}
+
+void remove(int ordinal) {
+int index = Arrays.binarySearch(ordinals, 0, size, ordinal);
+if (index >= 0) {
+System.arraycopy(ordinals, index + 1, ordinals, index, size - index - 1);
+size--;
+}
+}
+
+void renumber(int[] renumbered) {
+for (int n = 0; n < size; n++) {
+ordinals[n] = renumbered[ordinals[n]];
+}
+}
+
+boolean contains(int ordinal) {
+return Arrays.binarySearch(ordinals, 0, size, ordinal) >= 0;
+}
+
+private void grow() {
+if (size == ordinals.length) {
+ordinals = Arrays.copyOf(ordinals, ordinals.length * 2);
+}
+}
+}
+}
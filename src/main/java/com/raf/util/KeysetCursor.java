@@ -0,0 +1,44 @@
+package com.raf.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for listings paged by {@code (created_at, id)}. It
+ * holds the sort key of the last row of a page; the next page starts right
+ * after that row.
+ */
+public record KeysetCursor(LocalDateTime createdAt, Long id) {
+
+private static final String VERSION = "1";
+
+public String encode() {
+String text = VERSION + '|' + createdAt + '|' + id;
+return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+}
+
+/**
+ * Reads a token back.
+ *
+ * @param token The token returned with the previous page, or null/blank for the first page.
+ * @return The cursor, or null for the first page.
+ * @throws IllegalArgumentException If the token is malformed.
+ */
+public static KeysetCursor decode(String token) {
+if (token == null || token.isBlank()) {
+return null;
+}
+try {
+String text = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+String[] parts = text.split("\\|", -1);
+if (parts.length != 3 || !VERSION.equals(parts[0])) {
+throw new IllegalArgumentException("Invalid cursor");
+}
+return new KeysetCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+} catch (IllegalArgumentException | DateTimeParseException e) {
+throw new IllegalArgumentException("Invalid cursor");
+}
+}
+}
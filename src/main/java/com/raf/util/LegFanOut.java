@@ -0,0 +1,113 @@
+package com.raf.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs independent result legs in parallel under one latency budget.
+ * Every leg is handed to the executor up front; a leg the executor refuses
+ * is reported as rejected instead of running on the caller's thread, so a
+ * saturated pool can never stretch the response past the budget. Legs that
+ * fail or miss the deadline are left out of the results and mark the
+ * outcome as partial.
+ */
+public final class LegFanOut {
+
+private LegFanOut() {
+}
+
+public enum Status {
+OK, TIMEOUT, FAILED, REJECTED
+}
+
+/**
+ * How one leg went.
+ *
+ * @param durationMs How long the leg ran, or the budget it was cut off at.
+ * @param error The exception a failed leg threw, otherwise null.
+ */
+public record Leg<T>(Status status, List<T> results, long durationMs, Throwable error) {
+}
+
+/**
+ * @param results The results of the legs that finished in time, in leg order.
+ * @param legs Every leg by name, in the order given.
+ * @param partial Whether any leg did not finish successfully.
+ */
+public record Outcome<T>(List<T> results, Map<String, Leg<T>> legs, boolean partial) {
+}
+
+/**
+ * Starts every leg on {@code executor} and waits at most {@code timeoutMs}
+ * in total. Legs still running at the deadline are cancelled.
+ *
+ * @throws InterruptedException If the caller is interrupted; every leg is cancelled first.
+ */
+public static <T> Outcome<T> run(Map<String, Callable<List<T>>> legs, Executor executor, long timeoutMs)
+throws InterruptedException {
+long started = System.nanoTime();
+long deadline = started + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+Map<String, FutureTask<Leg<T>>> tasks = new LinkedHashMap<>();
+Map<String, Leg<T>> outcomes = new LinkedHashMap<>();
+for (Map.Entry<String, Callable<List<T>>> leg : legs.entrySet()) {
+FutureTask<Leg<T>> task = new FutureTask<>(() -> timed(leg.getValue()));
+try {
+executor.execute(task);
+tasks.put(leg.getKey(), task);
+} catch (RejectedExecutionException e) {
+outcomes.put(leg.getKey(), new Leg<>(Status.REJECTED, List.of(), 0, e));
+}
+}
+
+for (Map.Entry<String, FutureTask<Leg<T>>> entry : tasks.entrySet()) {
+FutureTask<Leg<T>> task = entry.getValue();
+try {
+outcomes.put(entry.getKey(), task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+} catch (TimeoutException e) {
+task.cancel(true);
+outcomes.put(entry.getKey(), new Leg<>(Status.TIMEOUT, List.of(), timeoutMs, null));
+} catch (ExecutionException e) {
+// timed() catches exceptions, so only errors end up here
+outcomes.put(entry.getKey(), new Leg<>(Status.FAILED, List.of(), elapsedMs(started), e.getCause()));
+} catch (InterruptedException e) {
+tasks.values().forEach(pending -> pending.cancel(true));
+throw e;
+}
+}
+
+Map<String, Leg<T>> ordered = new LinkedHashMap<>();
+List<T> results = new ArrayList<>();
+boolean partial = false;
+for (String name : legs.keySet()) {
+Leg<T> leg = outcomes.get(name);
+ordered.put(name, leg);
+results.addAll(leg.results());
+partial |= leg.status() != Status.OK;
+}
+return new Outcome<>(results, ordered, partial);
+}
+
+private static <T> Leg<T> timed(Callable<List<T>> leg) {
+long started = System.nanoTime();
+try {
+List<T> results = leg.call();
+return new Leg<>(Status.OK, results != null ? results : List.of(), elapsedMs(started), null);
+} catch (Exception e) {
+return new Leg<>(Status.FAILED, List.of(), elapsedMs(started), e);
+}
+}
+
+private static long elapsedMs(long started) {
+return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+}
+}
@@ -0,0 +1,355 @@
+package com.raf.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed (radix) prefix trie for autocomplete. Every entry is reachable from
+ * its full normalized text and from each of its word suffixes, so "bea" completes
+ * "Red Beans". Each node caches the best {@code topK} entries of its subtree by
+ * weight, so a lookup only walks the prefix and copies that cache. Updates
+ * recompute the caches on the path of the changed keys only.
+ *
+ * @param <T> The payload carried by each entry.
+ */
+public class PrefixTrie<T> {
+
+/**
+ * @param id Unique entry id; putting the same id again replaces the entry.
+ * @param text The display text.
+ * @param value The caller's payload.
+ * @param weight Popularity; higher weights complete first.
+ */
+public record Entry<T>(String id, String text, T value, long weight) {
+}
+
+private static final Comparator<Entry<?>> RANKING = Comparator.<Entry<?>>comparingLong(Entry::weight).reversed()
+.thenComparingInt(entry -> entry.text().length())
+.thenComparing(Entry::text)
+.thenComparing(Entry::id);
+
+private final int topK;
+private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+private final Node<T> root = new Node<>("");
+private final Map<String, Registered<T>> entries = new HashMap<>();
+
+public PrefixTrie(int topK) {
+this.topK = topK;
+}
+
+public void put(String id, String text, T value, long weight) {
+Entry<T> entry = new Entry<>(id, text, value, weight);
+Set<String> keys = keys(text);
+lock.writeLock().lock();
+try {
+removeLocked(id);
+for (String key : keys) {
+List<Node<T>> path = insert(key);
+path.get(path.size() - 1).here.add(entry);
+refresh(path);
+}
+entries.put(id, new Registered<>(entry, keys));
+} finally {
+lock.writeLock().unlock();
+}
+}
+
+/**
+ * Bulk load: inserts every entry first and recomputes the top-K caches once,
+ * instead of once per key.
+ */
+public void putAll(Collection<Entry<T>> bulk) {
+lock.writeLock().lock();
+try {
+for (Entry<T> entry : bulk) {
+removeLocked(entry.id());
+Set<String> keys = keys(entry.text());
+for (String key : keys) {
+List<Node<T>> path = insert(key);
+path.get(path.size() - 1).here.add(entry);
+}
+entries.put(entry.id(), new Registered<>(entry, keys));
+}
+refreshAll(root);
+} finally {
+lock.writeLock().unlock();
+}
+}
+
+public void remove(String id) {
+lock.writeLock().lock();
+try {
+removeLocked(id);
+} finally {
+lock.writeLock().unlock();
+}
+}
+
+/**
+ * @return Up to {@code limit} (at most {@code topK}) entries completing the prefix, best first.
+ */
+public List<Entry<T>> complete(String prefix, int limit) {
+String key = normalize(prefix);
+if (key.isEmpty() || limit <= 0) {
+return List.of();
+}
+lock.readLock().lock();
+try {
+Node<T> node = root;
+int matched = 0;
+while (matched < key.length()) {
+Node<T> child = node.child(key.charAt(matched));
+if (child == null) {
+return List.of();
+}
+int common = commonPrefix(child.label, key, matched);
+if (matched + common < key.length() && common < child.label.length()) {
+return List.of();
+}
+matched += common;
+node = child;
+}
+return List.copyOf(Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length)));
+} finally {
+lock.readLock().unlock();
+}
+}
+
+/**
+ * @return The entry stored under the id, or null.
+ */
+public Entry<T> get(String id) {
+lock.readLock().lock();
+try {
+Registered<T> registered = entries.get(id);
+return registered != null ? registered.entry() : null;
+} finally {
+lock.readLock().unlock();
+}
+}
+
+public int size() {
+lock.readLock().lock();
+try {
+return entries.size();
+} finally {
+lock.readLock().unlock();
+}
+}
+
+/**
+ * Lowercases and collapses the text to letter/digit tokens separated by single spaces.
+ */
+public static String normalize(String text) {
+return String.join(" ", InvertedIndex.tokenize(text));
+}
+
+private static Set<String> keys(String text) {
+List<String> tokens = InvertedIndex.tokenize(text);
+Set<String> keys = new LinkedHashSet<>();
+for (int i = 0; i < tokens.size(); i++) {
+keys.add(String.join(" ", tokens.subList(i, tokens.size())));
+}
+return keys;
+}
+
+private void removeLocked(String id) {
+Registered<T> registered = entries.remove(id);
+if (registered == null) {
+return;
+}
+for (String key : registered.keys()) {
+List<Node<T>> path = find(key);
+if (path == null) {
+continue;
+}
+path.get(path.size() - 1).here.removeIf(entry -> entry.id().equals(id));
+prune(path);
+refresh(path);
+}
+}
+
+/**
+ * Walks to the node for the key, splitting edges and adding nodes as needed.
+ */
+private List<Node<T>> insert(String key) {
+List<Node<T>> path = new ArrayList<>();
+Node<T> node = root;
+path.add(node);
+int matched = 0;
+while (matched < key.length()) {
+Node<T> child = node.child(key.charAt(matched));
+if (child == null) {
+child = new Node<>(key.substring(matched));
+node.addChild(child);
+path.add(child);
+return path;
+}
+int common = commonPrefix(child.label, key, matched);
+if (common < child.label.length()) {
+Node<T> split = new Node<>(child.label.substring(0, common));
+node.removeChild(child);
+child.label = child.label.substring(common);
+split.addChild(child);
+split.top = child.top;
+node.addChild(split);
+child = split;
+}
+matched += common;
+node = child;
+path.add(node);
+}
+return path;
+}
+
+private List<Node<T>> find(String key) {
+List<Node<T>> path = new ArrayList<>();
+Node<T> node = root;
+path.add(node);
+int matched = 0;
+while (matched < key.length()) {
+Node<T> child = node.child(key.charAt(matched));
+if (child == null || !key.startsWith(child.label, matched)) {
+return null;
+}
+matched += child.label.length();
+node = child;
+path.add(node);
+}
+return path;
+}
+
+/**
+ * Detaches trailing nodes that no longer hold entries or children.
+ */
+private void prune(List<Node<T>> path) {
+for (int i = path.size() - 1; i > 0; i--) {
+Node<T> node = path.get(i);
+if (!node.here.isEmpty() || node.children.length > 0) {
+break;
+}
+path.get(i - 1).removeChild(node);
+path.remove(i);
+}
+}
+
+private void refreshAll(Node<T> node) {
+for (Node<T> child : node.children) {
+refreshAll(child);
+}
+refresh(List.of(node));
+}
+
+/**
+ * Recomputes the top-K caches bottom-up along a path.
+ */
+@SuppressWarnings("unchecked")
+private void refresh(List<Node<T>> path) {
+for (int i = path.size() - 1; i >= 0; i--) {
+Node<T> node = path.get(i);
+List<Entry<T>> candidates = new ArrayList<>(node.here);
+for (Node<T> child : node.children) {
+candidates.addAll(Arrays.asList(child.top));
+}
+candidates.sort(RANKING);
+List<Entry<T>> top = new ArrayList<>(Math.min(topK, candidates.size()));
+Set<String> seen = new LinkedHashSet<>();
+for (Entry<T> candidate : candidates) {
+if (top.size() == topK) {
+break;
+}
+if (seen.add(candidate.id())) {
+top.add(candidate);
+}
+}
+node.top = top.toArray(new Entry[0]);
+}
+}
+
+private static int commonPrefix(String label, String key, int offset) {
+int max = Math.min(label.length(), key.length() - offset);
+int i = 0;
+while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+i++;
+}
+return i;
+}
+
+private record Registered<T>(Entry<T> entry, Set<String> keys) {
+}
+
+private static final class Node<T> {
+
+private String label;
+private Node<T>[] children = newChildren(0);
+private final List<Entry<T>> here = new ArrayList<>(1);
+private Entry<T>[] top = newEntries();
+
+Node(String label) {
+this.label = label;
+}
+
+@SuppressWarnings("unchecked")
+private static <T> Node<T>[] newChildren(int size) {
+return (Node<T>[]) new Node[size];
+}
+
+@SuppressWarnings("unchecked")
+private static <T> Entry<T>[] newEntries() {
+return (Entry<T>[]) new Entry[0];
+}
+
+/**
+ * Children are kept sorted by their first character and found by binary search.
+ */
+Node<T> child(char first) {
+int index = indexOf(first);
+return index >= 0 ? children[index] : null;
+}
+
+void addChild(Node<T> child) {
+int index = -indexOf(child.label.charAt(0)) - 1;
+Node<T>[] grown = newChildren(children.length + 1);
+System.arraycopy(children, 0, grown, 0, index);
+grown[index] = child;
+System.arraycopy(children, index, grown, index + 1, children.length - index);
+children = grown;
+}
+
+void removeChild(Node<T> child) {
+int index = indexOf(child.label.charAt(0));
+if (index < 0 || children[index] != child) {
+return;
+}
+Node<T>[] shrunk = newChildren(children.length - 1);
+System.arraycopy(children, 0, shrunk, 0, index);
+System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+children = shrunk;
+}
+
+private int indexOf(char first) {
+int low = 0;
+int high = children.length - 1;
+while (low <= high) {
+int mid = (low + high) >>> 1;
+char c = children[mid].label.charAt(0);
+if (c < first) {
+low = mid + 1;
+} else if (c > first) {
+high = mid - 1;
+} else {
+return mid;
+}
+}
+return -(low + 1);
+}
+}
+}
@@ -0,0 +1,143 @@
+package com.raf.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of independently ranked result sources.
+ * Each source is read lazily from a given position in small chunks, and a heap
+ * keyed on (rank within the source, source order) picks the next result. This is
+ * reciprocal-rank fusion with equal source weights: the best hit of every source
+ * comes before the second-best of any. Only the requested window plus one
+ * look-ahead item per source is ever held in memory.
+ */
+public final class RankedMerge {
+
+private RankedMerge() {
+}
+
+/**
+ * A ranked result source that can be read from any position.
+ */
+@FunctionalInterface
+public interface Source<T> {
+List<T> fetch(int offset, int limit);
+}
+
+/**
+ * One page of merged results.
+ *
+ * @param items The merged results, at most the requested size.
+ * @param positions For every source, how many of its results have been consumed after this page.
+ * @param hasMore Whether any source still has results left.
+ */
+public record Window<T>(List<T> items, Map<String, Integer> positions, boolean hasMore) {
+}
+
+/**
+ * Merges the next {@code size} results.
+ *
+ * @param sources The sources in tie-break order, keyed by a stable name.
+ * @param positions Where each source stopped on the previous page; missing sources start at 0.
+ * @param size The page size.
+ */
+public static <T> Window<T> window(Map<String, Source<T>> sources, Map<String, Integer> positions, int size) {
+List<String> names = new ArrayList<>(sources.keySet());
+List<ChunkedReader<T>> readers = new ArrayList<>(names.size());
+int firstChunk = Math.max(1, size / Math.max(1, names.size())) + 1;
+PriorityQueue<Head<T>> heap = new PriorityQueue<>(Comparator.<Head<T>>comparingInt(Head::rank)
+.thenComparingInt(Head::source));
+
+for (int i = 0; i < names.size(); i++) {
+int start = Math.max(0, positions.getOrDefault(names.get(i), 0));
+ChunkedReader<T> reader = new ChunkedReader<>(sources.get(names.get(i)), start, firstChunk, Math.max(size, firstChunk));
+readers.add(reader);
+if (reader.hasNext()) {
+heap.add(new Head<>(reader.position(), i, reader.next()));
+}
+}
+
+List<T> items = new ArrayList<>(Math.min(size, 64));
+while (items.size() < size && !heap.isEmpty()) {
+Head<T> head = heap.poll();
+items.add(head.item());
+ChunkedReader<T> reader = readers.get(head.source());
+if (reader.hasNext()) {
+heap.add(new Head<>(reader.position(), head.source(), reader.next()));
+}
+}
+
+Map<String, Integer> next = new LinkedHashMap<>();
+for (int i = 0; i < names.size(); i++) {
+next.put(names.get(i), readers.get(i).position());
+}
+// The heads still on the heap were read but not returned.
+for (Head<T> head : heap) {
+next.put(names.get(head.source()), head.rank());
+}
+return new Window<>(items, next, !heap.isEmpty());
+}
+
+private record Head<T>(int rank, int source, T item) {
+}
+
+/**
+ * Iterator over a source that fetches one chunk at a time, starting small
+ * and growing to the page size once the first chunk is used up.
+ */
+private static final class ChunkedReader<T> implements Iterator<T> {
+
+private final Source<T> source;
+private final int chunkSize;
+private List<T> chunk = List.of();
+private int chunkStart;
+private int index;
+private int nextChunk;
+private boolean exhausted;
+
+ChunkedReader(Source<T> source, int start, int firstChunk, int chunkSize) {
+this.source = source;
+this.chunkStart = start;
+this.nextChunk = firstChunk;
+this.chunkSize = chunkSize;
+}
+
+/**
+ * @return The absolute position of the next item in the source.
+ */
+int position() {
+return chunkStart + index;
+}
+
+@Override
+public boolean hasNext() {
+if (index < chunk.size()) {
+return true;
+}
+if (exhausted) {
+return false;
+}
+chunkStart += chunk.size();
+index = 0;
+List<T> fetched = source.fetch(chunkStart, nextChunk);
+chunk = fetched != null ? fetched : List.of();
+exhausted = chunk.size() < nextChunk;
+nextChunk = chunkSize;
+return !chunk.isEmpty();
+}
+
+@Override
+public T next() {
+if (!hasNext()) {
+throw new NoSuchElementException();
+}
+return chunk.get(index++);
+}
+}
+}
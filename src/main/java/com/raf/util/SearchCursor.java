@@ -0,0 +1,82 @@
+package com.raf.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Opaque continuation token for cursor-paged search. It records how far each
+ * search leg has been read, plus a fingerprint of the query it was issued for
+ * so a token cannot be replayed against a different search.
+ */
+public final class SearchCursor {
+
+private static final String VERSION = "1";
+
+private SearchCursor() {
+}
+
+public static String encode(String fingerprint, Map<String, Integer> positions) {
+StringBuilder text = new StringBuilder(VERSION).append('|').append(fingerprint(fingerprint)).append('|');
+boolean first = true;
+for (Map.Entry<String, Integer> position : positions.entrySet()) {
+if (position.getValue() == null || position.getValue() <= 0) {
+continue;
+}
+if (!first) {
+text.append(',');
+}
+text.append(position.getKey()).append(':').append(position.getValue());
+first = false;
+}
+return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+}
+
+/**
+ * Reads the per-leg positions back from a token.
+ *
+ * @param token The token returned with the previous page, or null/blank for the first page.
+ * @param fingerprint The same fingerprint the token was encoded with.
+ * @throws IllegalArgumentException If the token is malformed or belongs to another query.
+ */
+public static Map<String, Integer> decode(String token, String fingerprint) {
+Map<String, Integer> positions = new LinkedHashMap<>();
+if (token == null || token.isBlank()) {
+return positions;
+}
+String text;
+try {
+text = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+} catch (IllegalArgumentException e) {
+throw new IllegalArgumentException("Invalid search cursor");
+}
+String[] parts = text.split("\\|", -1);
+if (parts.length != 3 || !VERSION.equals(parts[0])) {
+throw new IllegalArgumentException("Invalid search cursor");
+}
+if (!fingerprint(fingerprint).equals(parts[1])) {
+throw new IllegalArgumentException("Search cursor does not belong to this query");
+}
+if (parts[2].isEmpty()) {
+return positions;
+}
+for (String entry : parts[2].split(",")) {
+int colon = entry.lastIndexOf(':');
+try {
+int position = Integer.parseInt(entry.substring(colon + 1));
+if (colon <= 0 || position < 0) {
+throw new NumberFormatException();
+}
+positions.put(entry.substring(0, colon), position);
+} catch (NumberFormatException e) {
+throw new IllegalArgumentException("Invalid search cursor");
+}
+}
+return positions;
+}
+
+private static String fingerprint(String value) {
+return Integer.toHexString(value != null ? value.hashCode() : 0);
+}
+}
@@ -0,0 +1,114 @@
+package com.raf.util;
+
+import java.util.Arrays;
+
+/**
+ * Case-insensitive substring matcher for one search term. The term is folded
+ * to lower case and its Boyer-Moore-Horspool skip table is built once in
+ * {@link #compile(String)}; {@link #matches(CharSequence)} then scans a field
+ * in place, folding text characters as it compares, so matching a row
+ * allocates nothing. Callers test the fields of a row one by one and stop at
+ * the first hit; a term spanning fields, such as a full name, is compiled with
+ * {@link #compileTokens(String)} and each token is matched on its own.
+ */
+public final class SearchTermMatcher {
+
+private static final int TABLE_SIZE = 256;
+
+private final char[] pattern;
+private final int[] shifts;
+private final int wideShift;
+
+private SearchTermMatcher(char[] pattern) {
+this.pattern = pattern;
+int last = pattern.length - 1;
+this.shifts = new int[TABLE_SIZE];
+Arrays.fill(shifts, pattern.length);
+int wide = pattern.length;
+for (int i = 0; i < last; i++) {
+char c = pattern[i];
+if (c < TABLE_SIZE) {
+shifts[c] = last - i;
+} else {
+// Characters outside the table share one shift, so it has to be the smallest of theirs.
+wide = Math.min(wide, last - i);
+}
+}
+this.wideShift = wide;
+}
+
+public static SearchTermMatcher compile(String term) {
+char[] pattern = (term != null ? term : "").toCharArray();
+for (int i = 0; i < pattern.length; i++) {
+pattern[i] = fold(pattern[i]);
+}
+return new SearchTermMatcher(pattern);
+}
+
+/**
+ * Compiles one matcher per whitespace-separated token of the term, so a row
+ * matches when every token is found in some field, e.g. "Jean Uwimana" in a
+ * first and a last name stored apart.
+ *
+ * @return no matchers for a blank term, which then matches every row.
+ */
+public static SearchTermMatcher[] compileTokens(String term) {
+String trimmed = term != null ? term.trim() : "";
+if (trimmed.isEmpty()) {
+return new SearchTermMatcher[0];
+}
+String[] tokens = trimmed.split("\\s+");
+SearchTermMatcher[] matchers = new SearchTermMatcher[tokens.length];
+for (int i = 0; i < tokens.length; i++) {
+matchers[i] = compile(tokens[i]);
+}
+return matchers;
+}
+
+/**
+ * @return true when the text contains the term, ignoring case; false for null text.
+ */
+public boolean matches(CharSequence text) {
+if (text == null) {
+return false;
+}
+int length = pattern.length;
+if (length == 0) {
+return true;
+}
+int last = length - 1;
+int end = text.length() - length;
+int position = 0;
+while (position <= end) {
+int i = last;
+while (i >= 0 && fold(text.charAt(position + i)) == pattern[i]) {
+i--;
+}
+if (i < 0) {
+return true;
+}
+char c = fold(text.charAt(position + last));
+position += c < TABLE_SIZE ? shifts[c] : wideShift;
+}
+return false;
+}
+
+/**
+ * Matches the string form of a value, such as an enum constant or an amount.
+ *
+ * @return false for null values.
+ */
+public boolean matches(Object value) {
+if (value == null) {
+return false;
+}
+return matches(value instanceof CharSequence text ? text : value.toString());
+}
+
+private static char fold(char c) {
+if (c < 0x80) {
+return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+}
+return Character.toLowerCase(c);
+}
+}
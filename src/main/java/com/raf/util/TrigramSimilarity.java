@@ -0,0 +1,53 @@
+package com.raf.util;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Java port of PostgreSQL pg_trgm similarity, used when the extension is not
+ * available (H2 in tests, or a database where it could not be installed).
+ * Each word is lowercased and padded with two leading and one trailing blank
+ * before its trigrams are taken, exactly like pg_trgm, so scores and the
+ * default 0.3 threshold behave the same on both paths.
+ */
+public final class TrigramSimilarity {
+
+/**
+ * Same default as {@code pg_trgm.similarity_threshold}.
+ */
+public static final double DEFAULT_THRESHOLD = 0.3;
+
+private TrigramSimilarity() {
+}
+
+public static Set<String> trigrams(String text) {
+Set<String> trigrams = new HashSet<>();
+for (String word : InvertedIndex.tokenize(text)) {
+String padded = "  " + word + " ";
+for (int i = 0; i + 3 <= padded.length(); i++) {
+trigrams.add(padded.substring(i, i + 3));
+}
+}
+return trigrams;
+}
+
+public static double similarity(String a, String b) {
+return similarity(trigrams(a), trigrams(b));
+}
+
+/**
+ * @return Shared trigrams divided by all distinct trigrams of both sets, between 0 and 1.
+ */
+public static double similarity(Set<String> a, Set<String> b) {
+if (a.isEmpty() || b.isEmpty()) {
+return 0;
+}
+int shared = 0;
+for (String trigram : a.size() <= b.size() ? a : b) {
+if ((a.size() <= b.size() ? b : a).contains(trigram)) {
+shared++;
+}
+}
+return (double) shared / (a.size() + b.size() - shared);
+}
+}
@@ -0,0 +1,93 @@
+package com.raf.config;
+
+import com.raf.service.LocationHierarchy;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LocationSeedLoaderTest {
+
+    private static final Timestamp MARKER = Timestamp.valueOf(LocalDateTime.of(2000, 1, 1, 0, 0));
+
+    @Autowired
+    private LocationSeedLoader locationSeedLoader;
+    @Autowired
+    private LocationHierarchy locationHierarchy;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldSkipAnUnchangedDatasetByChecksum() throws Exception {
+        long locations = countLocations();
+        markLoadedAt();
+
+        assertEquals(0, locationSeedLoader.loadIfNeeded());
+
+        assertEquals(locations, countLocations());
+        assertEquals(MARKER, loadedAt(), "A skipped load leaves the stored checksum alone");
+    }
+
+    @Test
+    void shouldReloadWhenTheStoredChecksumDiffers() throws Exception {
+        String checksum = storedChecksum();
+        jdbcTemplate.update("UPDATE \"seed_checksum\" SET \"checksum\" = 'stale' WHERE \"name\" = 'location'");
+
+        assertEquals(0, locationSeedLoader.loadIfNeeded(), "Codes already present are not inserted again");
+
+        assertEquals(checksum, storedChecksum());
+    }
+
+    @Test
+    void shouldBatchInsertOnlyTheMissingCodesOnH2() throws Exception {
+        long locations = countLocations();
+        // Villages no user or warehouse points at, so they can be deleted and seeded again
+        List<String> removed = jdbcTemplate.queryForList("SELECT l.\"code\" FROM \"location\" l "
+                + "WHERE NOT EXISTS (SELECT 1 FROM \"user\" u WHERE u.\"location_id\" = l.\"id\") "
+                + "AND NOT EXISTS (SELECT 1 FROM \"storage_warehouse\" w WHERE w.\"location_id\" = l.\"id\") "
+                + "ORDER BY l.\"code\" FETCH FIRST 3 ROWS ONLY", String.class);
+        assertEquals(3, removed.size());
+        markLoadedAt();
+        try {
+            for (String code : removed) {
+                jdbcTemplate.update("DELETE FROM \"location\" WHERE \"code\" = ?", code);
+            }
+
+            assertEquals(3, locationSeedLoader.loadIfNeeded());
+
+            assertEquals(locations, countLocations());
+            for (String code : removed) {
+                assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"location\" WHERE \"code\" = ?", Long.class, code));
+            }
+            assertNotEquals(MARKER, loadedAt());
+        } finally {
+            // The seeded rows came back with new ids
+            locationHierarchy.buildOnStartup();
+        }
+    }
+
+    private void markLoadedAt() {
+        assertEquals(1, jdbcTemplate.update("UPDATE \"seed_checksum\" SET \"loaded_at\" = ? WHERE \"name\" = 'location'", MARKER));
+    }
+
+    private Timestamp loadedAt() {
+        return jdbcTemplate.queryForObject("SELECT \"loaded_at\" FROM \"seed_checksum\" WHERE \"name\" = 'location'", Timestamp.class);
+    }
+
+    private String storedChecksum() {
+        return jdbcTemplate.queryForObject("SELECT \"checksum\" FROM \"seed_checksum\" WHERE \"name\" = 'location'", String.class);
+    }
+
+    private long countLocations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"location\"", Long.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.raf.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SearchExecutorConfigTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    void shouldKeepBootTaskExecutorAlongsideSearchPool() {
+        // MVC async requests fall back to an unbounded executor without it
+        assertTrue(context.containsBean("applicationTaskExecutor"));
+        assertNotSame(context.getBean("applicationTaskExecutor"), context.getBean("searchExecutor"));
+        assertInstanceOf(ThreadPoolTaskExecutor.class, context.getBean("applicationTaskExecutor"));
+    }
+}
@@ -0,0 +1,66 @@
+package com.raf.controller;
+
+import com.raf.entity.User;
+import com.raf.enums.UserType;
+import com.raf.service.TestFixtures;
+import com.raf.util.JwtUtil;
+import com.raf.util.KeysetCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class InventoryControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User admin = fixtures.user(UserType.ADMIN);
+        bearer = "Bearer " + jwtUtil.generateToken(admin.getEmail(), admin.getId(), admin.getUserType().name());
+    }
+
+    @Test
+    public void shouldRejectAMalformedCursorAsABadRequest() throws Exception {
+        String tampered = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("1|yesterday|42".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : new String[] {"not-a-cursor!", tampered}) {
+            mockMvc.perform(get("/api/inventories/cursor").param("cursor", cursor).header("Authorization", bearer))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status").value(400));
+        }
+    }
+
+    @Test
+    public void shouldAcceptAWellFormedCursor() throws Exception {
+        String cursor = new KeysetCursor(LocalDateTime.now(), Long.MAX_VALUE).encode();
+
+        mockMvc.perform(get("/api/inventories/cursor").param("cursor", cursor).header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").isBoolean());
+    }
+}
@@ -0,0 +1,94 @@
+package com.raf.service;
+
+import com.raf.dto.AutocompleteSuggestion;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.StorageWarehouse;
+import com.raf.enums.UserType;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class AutocompleteServiceTest {
+
+    @Autowired
+    private AutocompleteService autocompleteService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void shouldReweightCropsAndWarehousesAsLotsComeAndGo() {
+        CropType cropType = fixtures.cropType();
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("10000.00"));
+        autocompleteService.onCropTypeSaved(cropType);
+        autocompleteService.onWarehouseSaved(warehouse);
+        assertEquals(0, weight(cropType.getCropName(), AutocompleteService.CROP_TYPE));
+
+        Inventory first = fixtures.lot(fixtures.user(UserType.FARMER), fixtures.user(UserType.STOREKEEPER), warehouse, cropType, new BigDecimal("10.00"));
+        fixtures.lot(fixtures.user(UserType.FARMER), fixtures.user(UserType.STOREKEEPER), warehouse, cropType, new BigDecimal("5.00"));
+
+        assertEquals(2, weight(cropType.getCropName(), AutocompleteService.CROP_TYPE));
+        assertEquals(2, weight(warehouse.getWarehouseName(), AutocompleteService.WAREHOUSE));
+
+        inventoryRepository.delete(first);
+
+        assertEquals(1, weight(cropType.getCropName(), AutocompleteService.CROP_TYPE));
+        assertEquals(1, weight(warehouse.getWarehouseName(), AutocompleteService.WAREHOUSE));
+    }
+
+    @Test
+    void shouldFollowLocationHierarchyReloads() throws InterruptedException {
+        Location template = fixtures.location();
+        Location added = locationRepository.save(Location.builder()
+                .province(template.getProvince())
+                .district(template.getDistrict())
+                .sector(template.getSector())
+                .cell(template.getCell())
+                .village("Zuqwevy")
+                .code("VIL-ZUQWEVY-AUTOCOMPLETE")
+                .build());
+        try {
+            awaitTrue(() -> !locations("Zuqwevy").isEmpty());
+            assertEquals("Village", locations("Zuqwevy").get(0).getLevel());
+        } finally {
+            locationRepository.delete(added);
+        }
+        awaitTrue(() -> locations("Zuqwevy").isEmpty());
+    }
+
+    private long weight(String text, String type) {
+        return autocompleteService.complete(text, AutocompleteService.MAX_LIMIT, List.of(type)).stream()
+                .filter(suggestion -> suggestion.getText().equals(text))
+                .findFirst()
+                .orElseThrow()
+                .getWeight();
+    }
+
+    private List<AutocompleteSuggestion> locations(String prefix) {
+        return autocompleteService.complete(prefix, 5, List.of(AutocompleteService.LOCATION));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the hierarchy reload");
+            Thread.sleep(20);
+        }
+    }
+}
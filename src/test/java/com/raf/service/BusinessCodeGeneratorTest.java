@@ -0,0 +1,62 @@
+package com.raf.service;
+
+import com.raf.enums.BusinessCodeType;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Year;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(BusinessCodeGenerator.class)
+public class BusinessCodeGeneratorTest {
+
+    @Autowired
+    private BusinessCodeGenerator generator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void shouldFormatShortYearPrefixedCodes() {
+        String code = generator.next(BusinessCodeType.TRANSACTION);
+
+        assertTrue(code.matches("TXN-" + Year.now().getValue() + "-\\d{6,}"), code);
+        assertTrue(generator.next(BusinessCodeType.INVENTORY_REQUEST).startsWith("INV-REQ-"));
+    }
+
+    @Test
+    void shouldServeABlockFromMemoryAfterOneSequenceCall() {
+        long first = generator.nextValue(BusinessCodeType.MESSAGE);
+        for (int i = 1; i < BusinessCodeGenerator.BLOCK_SIZE; i++) {
+            assertEquals(first + i, generator.nextValue(BusinessCodeType.MESSAGE));
+        }
+    }
+
+    @Test
+    void shouldNotCollideAcrossNodes() {
+        // A second generator on the same database stands in for another node
+        BusinessCodeGenerator otherNode = new BusinessCodeGenerator(jdbcTemplate, entityManagerFactory);
+        otherNode.afterSingletonsInstantiated();
+
+        Set<String> codes = new HashSet<>();
+        int count = BusinessCodeGenerator.BLOCK_SIZE * 3;
+        for (int i = 0; i < count; i++) {
+            assertTrue(codes.add(generator.next(BusinessCodeType.INVENTORY)));
+            assertTrue(codes.add(otherNode.next(BusinessCodeType.INVENTORY)));
+        }
+        assertEquals(count * 2, codes.size());
+    }
+}
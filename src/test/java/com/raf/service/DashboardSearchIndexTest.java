@@ -0,0 +1,108 @@
+package com.raf.service;
+
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Notification;
+import com.raf.entity.User;
+import com.raf.enums.NotificationType;
+import com.raf.enums.UserType;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DashboardSearchIndexTest {
+
+    @Autowired
+    private DashboardSearchIndex searchIndex;
+    @Autowired
+    private DashboardSearchService dashboardSearchService;
+    @Autowired
+    private CropTypeRepository cropTypeRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private NotificationService notificationService;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @BeforeEach
+    void awaitIndex() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!searchIndex.isReady()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out waiting for the search index build");
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    void shouldFollowCommittedInsertsUpdatesAndDeletes() {
+        CropType cropType = fixtures.cropType();
+        assertTrue(crops(cropType.getCropName()).contains(cropType.getId()));
+
+        cropType.setCropName("Sorghum Zuqwevy");
+        cropTypeRepository.save(cropType);
+        assertTrue(crops("zuqwevy").contains(cropType.getId()));
+        assertTrue(crops("sorg zuq").contains(cropType.getId()));
+        assertFalse(crops("fixture beans").contains(cropType.getId()));
+
+        cropTypeRepository.delete(cropType);
+        assertFalse(crops("zuqwevy").contains(cropType.getId()));
+    }
+
+    @Test
+    void shouldServeOwnerScopedDashboardSearchFromTheIndex() {
+        Inventory lot = fixtures.lot(new BigDecimal("12.00"));
+        User otherFarmer = fixtures.user(UserType.FARMER);
+
+        List<Map<String, Object>> found = content(dashboardSearchService.search(lot.getInventoryCode(), lot.getFarmer().getId(), UserType.FARMER, 0, 20));
+        assertTrue(found.stream().anyMatch(result -> "inventory".equals(result.get("type")) && lot.getId().equals(result.get("id"))));
+
+        List<Map<String, Object>> hidden = content(dashboardSearchService.search(lot.getInventoryCode(), otherFarmer.getId(), UserType.FARMER, 0, 20));
+        assertTrue(hidden.stream().noneMatch(result -> "inventory".equals(result.get("type")) && lot.getId().equals(result.get("id"))));
+    }
+
+    @Test
+    void shouldReindexDocumentsThatCopyARenamedUserOrCropType() {
+        Inventory lot = fixtures.lot(new BigDecimal("12.00"));
+        User farmer = lot.getFarmer();
+        Notification notification = notificationService.createNotification(farmer.getId(), "Lot stored",
+                "Your lot is in the warehouse", NotificationType.INVENTORY_CREATED, null);
+        assertTrue(searchIndex.search(DashboardSearchIndex.NOTIFICATION, "Test FARMER", null, 0, 1000).contains(notification.getId()));
+
+        User renamed = userRepository.findById(farmer.getId()).orElseThrow();
+        renamed.setFirstName("Jean");
+        renamed.setLastName("Zuqwevy");
+        userRepository.save(renamed);
+
+        assertTrue(searchIndex.search(DashboardSearchIndex.NOTIFICATION, "jean zuqwevy", null, 0, 1000).contains(notification.getId()));
+        assertFalse(searchIndex.search(DashboardSearchIndex.NOTIFICATION, "Test FARMER", null, 0, 1000).contains(notification.getId()));
+
+        CropType cropType = cropTypeRepository.findById(lot.getCropType().getId()).orElseThrow();
+        cropType.setCropName("Sorghum Qavixo");
+        cropTypeRepository.save(cropType);
+
+        assertTrue(searchIndex.search(DashboardSearchIndex.INVENTORY, "qavixo", null, 0, 1000).contains(lot.getId()));
+    }
+
+    private List<Object> crops(String query) {
+        return searchIndex.search(DashboardSearchIndex.CROP_TYPE, query, null, 0, 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> content(Map<String, Object> results) {
+        assertEquals(false, results.get("partial"));
+        return (List<Map<String, Object>>) results.get("content");
+    }
+}
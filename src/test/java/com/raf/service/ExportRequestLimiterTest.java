@@ -0,0 +1,75 @@
+package com.raf.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ExportRequestLimiterTest {
+
+    private final ThreadPoolTaskExecutor exportExecutor = new ThreadPoolTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        exportExecutor.shutdown();
+    }
+
+    @Test
+    void shouldAdmitOnlyMaxConcurrentExports() throws IOException {
+        ExportRequestLimiter limiter = limiter(1);
+
+        Optional<StreamingResponseBody> first = limiter.start(request(), output -> output.write('a'));
+        assertTrue(first.isPresent());
+        assertTrue(limiter.start(request(), output -> output.write('b')).isEmpty(), "The only slot is taken");
+
+        first.get().writeTo(new ByteArrayOutputStream());
+        assertTrue(limiter.start(request(), output -> output.write('c')).isPresent(), "The slot is free again");
+    }
+
+    @Test
+    void shouldFreeTheSlotWhenTheExportFails() {
+        ExportRequestLimiter limiter = limiter(1);
+        Optional<StreamingResponseBody> failing = limiter.start(request(), output -> {
+            throw new IOException("client went away");
+        });
+
+        assertThrows(IOException.class, () -> failing.orElseThrow().writeTo(new ByteArrayOutputStream()));
+        assertTrue(limiter.start(request(), output -> output.write('a')).isPresent());
+    }
+
+    @Test
+    void shouldApplyTheExportTimeoutToTheExportRequest() {
+        ExportRequestLimiter limiter = limiter(2);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/export");
+        AsyncWebRequest asyncWebRequest = mock(AsyncWebRequest.class);
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(asyncWebRequest);
+
+        limiter.start(request, output -> output.write('a'));
+
+        verify(asyncWebRequest).setTimeout(1_800_000L);
+    }
+
+    private ExportRequestLimiter limiter(int maxConcurrent) {
+        exportExecutor.setCorePoolSize(maxConcurrent);
+        exportExecutor.setMaxPoolSize(maxConcurrent);
+        exportExecutor.initialize();
+        return new ExportRequestLimiter(exportExecutor, maxConcurrent, 1_800_000L);
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/payments/export");
+        WebAsyncUtils.getAsyncManager(request).setAsyncWebRequest(mock(AsyncWebRequest.class));
+        return request;
+    }
+}
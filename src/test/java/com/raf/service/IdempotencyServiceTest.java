@@ -0,0 +1,195 @@
+package com.raf.service;
+
+import com.raf.entity.IdempotencyRecord;
+import com.raf.enums.IdempotencyStatus;
+import com.raf.exception.IdempotencyKeyException;
+import com.raf.exception.OperationNotAllowedException;
+import com.raf.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class IdempotencyServiceTest {
+
+    private static final String ENDPOINT = "POST /api/payments";
+    private static final AtomicLong USERS = new AtomicLong(System.currentTimeMillis());
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final AtomicInteger runs = new AtomicInteger();
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = USERS.incrementAndGet();
+        runs.set(0);
+    }
+
+    @Test
+    void shouldReplayTheStoredResponseWithoutRunningAgain() {
+        Map<String, Object> request = Map.of("transactionId", 7, "amount", "5000.00");
+
+        ResponseEntity<?> first = execute("key-1", request);
+        ResponseEntity<?> retry = execute("key-1", request);
+
+        assertEquals(1, runs.get());
+        assertEquals(HttpStatus.CREATED, first.getStatusCode());
+        assertEquals(HttpStatus.CREATED, retry.getStatusCode());
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals("{\"run\":1}", retry.getBody());
+        assertNull(first.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+
+        execute("key-2", request);
+        execute(null, request);
+        assertEquals(3, runs.get(), "Other keys and requests without a key run normally");
+    }
+
+    @Test
+    void shouldRejectAKeyReusedForADifferentRequest() {
+        execute("key-1", Map.of("amount", "5000.00"));
+
+        assertThrows(IdempotencyKeyException.class, () -> execute("key-1", Map.of("amount", "6000.00")));
+        assertThrows(IdempotencyKeyException.class, () -> execute(" ", Map.of("amount", "5000.00")));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void shouldReleaseTheKeyWhenTheRequestFails() {
+        Map<String, Object> request = Map.of("amount", "5000.00");
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute(userId, ENDPOINT, "key-1", request, () -> {
+            throw new IllegalArgumentException("Transaction already paid");
+        }));
+
+        execute("key-1", request);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void shouldRunOnceForConcurrentRetries() throws Exception {
+        Map<String, Object> request = Map.of("amount", "5000.00");
+        int clients = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Future<?>> retries = new ArrayList<>();
+        try {
+            for (int i = 0; i < clients; i++) {
+                retries.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        idempotencyService.execute(userId, ENDPOINT, "key-1", request, () -> {
+                            sleep(300);
+                            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("run", runs.incrementAndGet()));
+                        });
+                    } catch (OperationNotAllowedException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> retry : retries) {
+                retry.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, runs.get());
+        assertTrue(conflicts.get() > 0, "Retries racing the first request are told it is still running");
+        assertEquals("{\"run\":1}", execute("key-1", request).getBody());
+    }
+
+    @Test
+    void shouldRollBackARequestWhoseLeaseWasTakenOver() {
+        Map<String, Object> request = Map.of("amount", "5000.00");
+        ExecutorService retryClient = Executors.newSingleThreadExecutor();
+        try {
+            assertThrows(OperationNotAllowedException.class, () -> idempotencyService.execute(userId, ENDPOINT, "key-1", request, () -> {
+                runs.incrementAndGet();
+                // The lease runs out while this request is still working, and a retry takes the key over
+                await(retryClient.submit(() -> {
+                    IdempotencyRecord record = idempotencyRecordRepository
+                            .findByUserIdAndEndpointAndIdempotencyKey(userId, ENDPOINT, "key-1").orElseThrow();
+                    record.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+                    idempotencyRecordRepository.save(record);
+                    return execute("key-1", request);
+                }));
+                return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("run", "stale"));
+            }));
+        } finally {
+            retryClient.shutdownNow();
+        }
+
+        IdempotencyRecord record = idempotencyRecordRepository
+                .findByUserIdAndEndpointAndIdempotencyKey(userId, ENDPOINT, "key-1").orElseThrow();
+        assertEquals(IdempotencyStatus.COMPLETED, record.getStatus(), "The stale request neither overwrites nor releases the retry's record");
+        assertEquals("{\"run\":2}", record.getResponseBody());
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    void shouldRunAgainAndPurgeOnceTheRecordExpires() {
+        Map<String, Object> request = Map.of("amount", "5000.00");
+        execute("key-1", request);
+        IdempotencyRecord record = idempotencyRecordRepository
+                .findByUserIdAndEndpointAndIdempotencyKey(userId, ENDPOINT, "key-1").orElseThrow();
+        assertEquals(IdempotencyStatus.COMPLETED, record.getStatus());
+        assertTrue(record.getExpiresAt().isAfter(LocalDateTime.now().plusHours(23)));
+
+        record.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyRecordRepository.save(record);
+        assertNull(execute("key-1", Map.of("amount", "6000.00")).getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        assertEquals(2, runs.get(), "An expired key is free for a new request");
+
+        record = idempotencyRecordRepository.findById(record.getId()).orElseThrow();
+        record.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyRecordRepository.save(record);
+        idempotencyService.purgeExpired();
+        assertTrue(idempotencyRecordRepository.findById(record.getId()).isEmpty());
+    }
+
+    private ResponseEntity<?> execute(String key, Object request) {
+        return idempotencyService.execute(userId, ENDPOINT, key, request,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(Map.of("run", runs.incrementAndGet())));
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
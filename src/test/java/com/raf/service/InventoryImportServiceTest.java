@@ -0,0 +1,166 @@
+package com.raf.service;
+
+import com.raf.dto.InventoryImportResult;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import com.raf.entity.WarehouseAccess;
+import com.raf.enums.AccessLevel;
+import com.raf.enums.InventoryImportFormat;
+import com.raf.enums.InventoryStatus;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseAccessStatus;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import com.raf.repository.WarehouseAccessRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InventoryImportServiceTest {
+
+    @Autowired
+    private InventoryImportService importService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private StorageWarehouseRepository warehouseRepository;
+    @Autowired
+    private CropTypeRepository cropTypeRepository;
+    @Autowired
+    private WarehouseAccessRepository warehouseAccessRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    private User farmer;
+    private User storekeeper;
+    private StorageWarehouse assigned;
+    private StorageWarehouse otherAssigned;
+    private StorageWarehouse notAssigned;
+    private CropType cropType;
+
+    @BeforeEach
+    void setUp() {
+        farmer = fixtures.user(UserType.FARMER);
+        storekeeper = fixtures.user(UserType.STOREKEEPER);
+        assigned = fixtures.warehouse(new BigDecimal("10000.00"));
+        otherAssigned = fixtures.warehouse(new BigDecimal("10000.00"));
+        notAssigned = fixtures.warehouse(new BigDecimal("10000.00"));
+        grantAccess(assigned);
+        grantAccess(otherAssigned);
+        cropType = fixtures.cropType();
+    }
+
+    @Test
+    void shouldImportValidCsvRowsAndReportTheRest() {
+        String csv = String.join("\n",
+                "farmerId,cropTypeId,warehouseId,quantityKg,qualityGrade,storageDate,notes,desiredPricePerKg",
+                row(farmer.getId(), assigned.getId(), "100.50", "A", "\"Dry, sorted\"", ""),
+                row(farmer.getId(), assigned.getId(), "200", "B", "", "350.00"),
+                "",
+                row(farmer.getId(), otherAssigned.getId(), "50", "A", "", ""),
+                row(999_999L, assigned.getId(), "10", "A", "", ""),
+                row(farmer.getId(), notAssigned.getId(), "10", "A", "", ""),
+                row(farmer.getId(), assigned.getId(), "-5", "A", "", ""),
+                row(farmer.getId(), assigned.getId(), "lots", "A", "", ""),
+                farmer.getId() + "," + cropType.getId());
+
+        InventoryImportResult result = importService.importInventories(stream(csv), InventoryImportFormat.CSV, storekeeper.getId());
+
+        assertEquals(8, result.getTotalRows());
+        assertEquals(3, result.getImportedCount());
+        assertEquals(5, result.getFailedCount());
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), result.getErrors().stream().map(InventoryImportResult.RowError::getRow).toList());
+        assertEquals("Farmer not found with ID: 999999", result.getErrors().get(0).getMessage());
+        assertEquals("Warehouse " + notAssigned.getId() + " is not assigned to you", result.getErrors().get(1).getMessage());
+        assertEquals("quantityKg must be greater than zero", result.getErrors().get(2).getMessage());
+        assertEquals("Invalid value for quantityKg", result.getErrors().get(3).getMessage());
+        assertEquals("Expected 8 columns but found 2", result.getErrors().get(4).getMessage());
+
+        List<Inventory> lots = inventoryRepository.findByWarehouseId(assigned.getId());
+        assertEquals(2, lots.size());
+        Inventory first = lots.stream().filter(lot -> "Dry, sorted".equals(lot.getNotes())).findFirst().orElseThrow();
+        assertTrue(first.getInventoryCode().startsWith("INV-"));
+        assertEquals(InventoryStatus.STORED, first.getStatus());
+        assertEquals(0, first.getRemainingQuantityKg().compareTo(new BigDecimal("100.50")));
+
+        assertEquals(0, available(assigned).compareTo(new BigDecimal("9699.50")));
+        assertEquals(0, available(otherAssigned).compareTo(new BigDecimal("9950.00")));
+        assertEquals(0, available(notAssigned).compareTo(new BigDecimal("10000.00")));
+        assertEquals(0, cropTypeRepository.findById(cropType.getId()).orElseThrow().getPricePerKg().compareTo(new BigDecimal("350.00")));
+        verify(notificationService, times(1)).createNotification(eq(farmer.getId()), anyString(), anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void shouldImportNdjsonAcrossSeveralBatches() {
+        int rows = InventoryImportService.BATCH_SIZE + 3;
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < rows; i++) {
+            ndjson.append(String.format("{\"farmerId\":%d,\"cropTypeId\":%d,\"warehouseId\":%d,\"quantityKg\":1.5,"
+                    + "\"qualityGrade\":\"A\",\"storageDate\":\"%s\"}%n", farmer.getId(), cropType.getId(), assigned.getId(), LocalDate.now()));
+        }
+        ndjson.append("{\"farmerId\": oops}\n");
+
+        InventoryImportResult result = importService.importInventories(stream(ndjson.toString()), InventoryImportFormat.NDJSON, storekeeper.getId());
+
+        assertEquals(rows, result.getImportedCount());
+        assertEquals(1, result.getFailedCount());
+        assertEquals(rows + 1, result.getErrors().get(0).getRow());
+        assertEquals(rows, inventoryRepository.countByWarehouseId(assigned.getId()));
+        assertEquals(0, available(assigned).compareTo(new BigDecimal("10000.00").subtract(new BigDecimal("1.5").multiply(BigDecimal.valueOf(rows)))));
+    }
+
+    @Test
+    void shouldRejectCsvWithoutRequiredColumns() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () -> importService.importInventories(
+                stream("farmerId,cropTypeId,warehouseId\n1,2,3"), InventoryImportFormat.CSV, storekeeper.getId()));
+        assertTrue(error.getMessage().contains("quantityKg, qualityGrade, storageDate"), error.getMessage());
+    }
+
+    private String row(Long farmerId, Long warehouseId, String quantity, String grade, String notes, String price) {
+        return String.join(",", String.valueOf(farmerId), String.valueOf(cropType.getId()), String.valueOf(warehouseId),
+                quantity, grade, LocalDate.now().toString(), notes, price);
+    }
+
+    private BigDecimal available(StorageWarehouse warehouse) {
+        return warehouseRepository.findById(warehouse.getId()).orElseThrow().getAvailableCapacityKg();
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void grantAccess(StorageWarehouse warehouse) {
+        WarehouseAccess access = new WarehouseAccess();
+        access.setUser(storekeeper);
+        access.setWarehouse(warehouse);
+        access.setAccessLevel(AccessLevel.MANAGER);
+        access.setGrantedDate(LocalDate.now());
+        access.setStatus(WarehouseAccessStatus.APPROVED);
+        access.setIsActive(true);
+        warehouseAccessRepository.save(access);
+    }
+}
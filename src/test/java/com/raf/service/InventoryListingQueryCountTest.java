@@ -0,0 +1,242 @@
+package com.raf.service;
+
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import com.raf.enums.CropCategory;
+import com.raf.enums.InventoryStatus;
+import com.raf.enums.MeasurementUnit;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseType;
+import com.raf.exception.BadRequestException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({InventoryService.class, BusinessCodeGenerator.class, WarehouseCapacityService.class})
+public class InventoryListingQueryCountTest {
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private SearchIndexEntityListener searchIndexEntityListener;
+
+    private Statistics statistics;
+    private Location location;
+    private StorageWarehouse warehouse;
+    private CropType cropType;
+    private User storekeeper;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        location = new Location();
+        location.setCode("LOC-QC");
+        location.setProvince("Kigali");
+        location.setDistrict("Gasabo");
+        location.setSector("Kimironko");
+        location.setCell("Kibagabaga");
+        location.setVillage("Kibagabaga");
+        location = entityManager.persist(location);
+
+        warehouse = new StorageWarehouse();
+        warehouse.setWarehouseCode("WH-QC");
+        warehouse.setWarehouseName("Query Count Store");
+        warehouse.setWarehouseType(WarehouseType.COOPERATIVE);
+        warehouse.setTotalCapacityKg(new BigDecimal("100000.00"));
+        warehouse.setAvailableCapacityKg(new BigDecimal("100000.00"));
+        warehouse.setLocation(location);
+        warehouse = entityManager.persist(warehouse);
+
+        cropType = new CropType();
+        cropType.setCropCode("CRP-QC");
+        cropType.setCropName("Maize");
+        cropType.setCategory(CropCategory.CEREALS);
+        cropType.setMeasurementUnit(MeasurementUnit.KG);
+        cropType = entityManager.persist(cropType);
+
+        storekeeper = entityManager.persist(user(UserType.STOREKEEPER));
+    }
+
+    @Test
+    void shouldListInventoriesWithOneQueryRegardlessOfRowCount() {
+        addInventories(3);
+        long fewRows = countQueries(() -> inventoryService.getAllInventories());
+
+        addInventories(25);
+        long manyRows = countQueries(() -> {
+            List<Inventory> inventories = inventoryService.getAllInventories();
+            assertEquals(28, inventories.size());
+            // Everything the listing serializes is already loaded
+            inventories.forEach(inventory -> {
+                assertNotNull(inventory.getFarmer().getEmail());
+                assertNotNull(inventory.getWarehouse().getWarehouseName());
+                assertNotNull(inventory.getCropType().getCropName());
+                assertNotNull(inventory.getStorekeeper().getEmail());
+            });
+        });
+
+        assertEquals(1, fewRows);
+        assertEquals(fewRows, manyRows);
+    }
+
+    @Test
+    void shouldFilterOutLotsNotOwnedByFarmersInTheQuery() {
+        addInventories(4);
+        User buyer = entityManager.persist(user(UserType.BUYER));
+        entityManager.persist(inventory(buyer));
+        entityManager.flush();
+        entityManager.clear();
+
+        long queries = countQueries(() -> {
+            assertEquals(4, inventoryService.getInventoriesByWarehouse(warehouse.getId()).size());
+            assertEquals(4, inventoryService.getInventoriesByStatus(InventoryStatus.STORED).size());
+            assertEquals(4, inventoryService.getAvailableInventoriesForBuyers().size());
+        });
+
+        assertEquals(3, queries);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldScrollKeysetPagesWithOneQueryEach() {
+        addInventories(7);
+        User buyer = entityManager.persist(user(UserType.BUYER));
+        entityManager.persist(inventory(buyer));
+        entityManager.flush();
+
+        List<Inventory> scrolled = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String after = cursor;
+            Map<String, Object>[] page = new Map[1];
+            assertEquals(1, countQueries(() -> page[0] = inventoryService.getInventoriesAfter(after, 3, null, warehouse.getId(), null, false)));
+            scrolled.addAll((List<Inventory>) page[0].get("content"));
+            cursor = (String) page[0].get("nextCursor");
+            assertEquals(cursor != null, page[0].get("hasNext"));
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, pages);
+        assertEquals(7, scrolled.size());
+        assertTrue(scrolled.stream().allMatch(inventory -> inventory.getFarmer().getUserType() == UserType.FARMER));
+        for (int i = 1; i < scrolled.size(); i++) {
+            Inventory previous = scrolled.get(i - 1);
+            Inventory current = scrolled.get(i);
+            int order = current.getCreatedAt().compareTo(previous.getCreatedAt());
+            assertTrue(order < 0 || (order == 0 && current.getId() < previous.getId()));
+        }
+    }
+
+    @Test
+    void shouldFilterAndCountPagesInTheDatabase() {
+        addInventories(5);
+        User buyer = entityManager.persist(user(UserType.BUYER));
+        entityManager.persist(inventory(buyer));
+        Inventory soldOut = inventory(entityManager.persist(user(UserType.FARMER)));
+        soldOut.setRemainingQuantityKg(BigDecimal.ZERO);
+        soldOut.setStatus(InventoryStatus.SOLD);
+        entityManager.persist(soldOut);
+        entityManager.flush();
+        entityManager.clear();
+
+        Page<Inventory> page = inventoryService.getInventoriesPaginated(null, false, PageRequest.of(0, 2));
+        assertEquals(6, page.getTotalElements());
+        assertEquals(3, page.getTotalPages());
+        assertEquals(2, page.getContent().size());
+
+        Page<Inventory> inStockPage = inventoryService.getInventoriesPaginated(null, true, PageRequest.of(0, 2));
+        assertEquals(5, inStockPage.getTotalElements());
+        assertEquals(3, inStockPage.getTotalPages());
+
+        Page<Inventory> soldPage = inventoryService.getInventoriesPaginated(InventoryStatus.SOLD, false, PageRequest.of(0, 2));
+        assertEquals(1, soldPage.getTotalElements());
+        assertEquals(InventoryStatus.SOLD, soldPage.getContent().get(0).getStatus());
+
+        Map<String, Object> inStock = inventoryService.getInventoriesAfter(null, 10, null, null, storekeeper.getId(), true);
+        assertEquals(5, ((List<?>) inStock.get("content")).size());
+        assertNull(inStock.get("nextCursor"));
+
+        Map<String, Object> sold = inventoryService.getInventoriesAfter(null, 10, InventoryStatus.SOLD, null, null, false);
+        assertEquals(1, ((List<?>) sold.get("content")).size());
+
+        assertThrows(BadRequestException.class, () -> inventoryService.getInventoriesAfter("not-a-cursor", 10, null, null, null, false));
+    }
+
+    private long countQueries(Runnable listing) {
+        entityManager.clear();
+        statistics.clear();
+        listing.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addInventories(int count) {
+        for (int i = 0; i < count; i++) {
+            entityManager.persist(inventory(entityManager.persist(user(UserType.FARMER))));
+        }
+        entityManager.flush();
+    }
+
+    private Inventory inventory(User owner) {
+        Inventory inventory = new Inventory();
+        inventory.setInventoryCode("INV-QC-" + (++sequence));
+        inventory.setFarmer(owner);
+        inventory.setStorekeeper(storekeeper);
+        inventory.setWarehouse(warehouse);
+        inventory.setCropType(cropType);
+        inventory.setQuantityKg(new BigDecimal("100.00"));
+        inventory.setRemainingQuantityKg(new BigDecimal("100.00"));
+        inventory.setQualityGrade("A");
+        inventory.setStorageDate(LocalDate.now());
+        return inventory;
+    }
+
+    private User user(UserType type) {
+        int n = ++sequence;
+        User user = new User();
+        user.setUserCode("USR-QC-" + n);
+        user.setFirstName("Query");
+        user.setLastName("Count");
+        user.setEmail("qc" + n + "@example.com");
+        user.setPhoneNumber("0788" + String.format("%06d", n));
+        user.setPassword("password");
+        user.setUserType(type);
+        user.setLocation(location);
+        return user;
+    }
+}
@@ -5,6 +5,7 @@ import com.raf.entity.CropType;
 import com.raf.entity.Inventory;
 import com.raf.entity.StorageWarehouse;
 import com.raf.entity.User;
+import com.raf.enums.BusinessCodeType;
 import com.raf.enums.InventoryStatus;
 import com.raf.exception.ResourceNotFoundException;
 import com.raf.repository.CropTypeRepository;
@@ -28,6 +29,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +48,12 @@ public class InventoryServiceTest {
     @Mock
     private NotificationService notificationService;
     @Mock
+    private SearchIndexEntityListener searchIndexEntityListener;
+    @Mock
+    private BusinessCodeGenerator businessCodeGenerator;
+    @Mock
+    private WarehouseCapacityService warehouseCapacityService;
+    @Mock
     private EntityManager entityManager;
 
     @InjectMocks
@@ -90,16 +98,17 @@ public class InventoryServiceTest {
         Mockito.lenient().when(userRepository.findById(2L)).thenReturn(Optional.of(storekeeper));
         Mockito.lenient().when(warehouseRepository.findById(1L)).thenReturn(Optional.of(warehouse));
         Mockito.lenient().when(cropTypeRepository.findById(1L)).thenReturn(Optional.of(cropType));
-        Mockito.lenient().when(inventoryRepository.existsByInventoryCode(any(String.class))).thenReturn(false);
+        Mockito.lenient().when(businessCodeGenerator.next(BusinessCodeType.INVENTORY)).thenReturn("INV-2026-000001");
         Mockito.lenient().when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         Inventory result = inventoryService.createInventoryFromRequest(validRequest);
 
         assertNotNull(result);
+        assertEquals("INV-2026-000001", result.getInventoryCode());
         assertEquals(new BigDecimal("100.00"), result.getQuantityKg());
         assertEquals(new BigDecimal("100.00"), result.getRemainingQuantityKg());
         assertEquals(InventoryStatus.STORED, result.getStatus());
-        assertEquals(new BigDecimal("900.00"), warehouse.getAvailableCapacityKg()); // Check capacity reduction
+        verify(warehouseCapacityService).take(1L, new BigDecimal("100.00"), "INV-2026-000001"); // Check capacity reduction
     }
 
     @Test
@@ -136,13 +145,21 @@ public class InventoryServiceTest {
         existingInventory.setStatus(InventoryStatus.STORED);
         existingInventory.setWarehouse(warehouse);
 
+        when(inventoryRepository.decrementRemainingQuantity(1L, new BigDecimal("100.00"))).thenReturn(1);
         when(inventoryRepository.findById(1L)).thenReturn(Optional.of(existingInventory));
-        when(inventoryRepository.save(any(Inventory.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // The conditional UPDATE computes the new state; refresh reloads it into the entity
+        Mockito.doAnswer(invocation -> {
+            existingInventory.setRemainingQuantityKg(new BigDecimal("0.00"));
+            existingInventory.setStatus(InventoryStatus.SOLD);
+            return null;
+        }).when(entityManager).refresh(existingInventory);
 
         // When 100 is sold, remaining becomes 0 -> SOLD
         Inventory result = inventoryService.reduceInventoryQuantity(1L, new BigDecimal("100.00"));
 
         assertEquals(new BigDecimal("0.00"), result.getRemainingQuantityKg());
         assertEquals(InventoryStatus.SOLD, result.getStatus());
+        Mockito.verify(inventoryRepository, Mockito.never()).save(any(Inventory.class));
+        Mockito.verify(searchIndexEntityListener).onSaved(existingInventory);
     }
 }
@@ -0,0 +1,87 @@
+package com.raf.service;
+
+import com.raf.entity.Inventory;
+import com.raf.enums.InventoryStatus;
+import com.raf.repository.InventoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class InventoryStockConcurrencyTest {
+
+    private static final int BUYERS = 64;
+
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void shouldNotOversellUnderParallelBuyers() throws Exception {
+        // 64 buyers asking for 2 kg each compete for a 100 kg lot: exactly 50 can be served
+        Inventory lot = fixtures.lot(new BigDecimal("100.00"));
+        BigDecimal perBuyer = new BigDecimal("2.00");
+
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> purchases = new ArrayList<>();
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                purchases.add(buyers.submit(() -> {
+                    start.await();
+                    try {
+                        inventoryService.reduceInventoryQuantity(lot.getId(), perBuyer);
+                        sold.incrementAndGet();
+                    } catch (IllegalArgumentException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> purchase : purchases) {
+                purchase.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            buyers.shutdownNow();
+        }
+
+        Inventory after = inventoryRepository.findById(lot.getId()).orElseThrow();
+        assertEquals(50, sold.get());
+        assertEquals(BUYERS - 50, rejected.get());
+        assertEquals(0, after.getRemainingQuantityKg().compareTo(BigDecimal.ZERO));
+        assertEquals(InventoryStatus.SOLD, after.getStatus());
+    }
+
+    @Test
+    void shouldMarkPartiallySoldAndRejectShortfall() {
+        Inventory lot = fixtures.lot(new BigDecimal("10.00"));
+
+        Inventory after = inventoryService.reduceInventoryQuantity(lot.getId(), new BigDecimal("4.00"));
+
+        assertEquals(0, after.getRemainingQuantityKg().compareTo(new BigDecimal("6.00")));
+        assertEquals(InventoryStatus.PARTIALLY_SOLD, after.getStatus());
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.reduceInventoryQuantity(lot.getId(), new BigDecimal("6.50")));
+        assertTrue(exception.getMessage().contains("Insufficient quantity"));
+    }
+}
@@ -0,0 +1,215 @@
+package com.raf.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.Payment;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import com.raf.enums.CropCategory;
+import com.raf.enums.DeliveryStatus;
+import com.raf.enums.ExportFormat;
+import com.raf.enums.MeasurementUnit;
+import com.raf.enums.PaymentMethod;
+import com.raf.enums.PaymentStatus;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({LedgerExportService.class, JacksonAutoConfiguration.class})
+public class LedgerExportServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 10);
+
+    @Autowired
+    private LedgerExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private SearchIndexEntityListener searchIndexEntityListener;
+
+    private Location location;
+    private StorageWarehouse warehouse;
+    private CropType cropType;
+    private User buyer;
+    private User seller;
+    private User storekeeper;
+    private int sequence;
+
+    @BeforeEach
+    void setUp() {
+        location = new Location();
+        location.setCode("LOC-EXP");
+        location.setProvince("Kigali");
+        location.setDistrict("Gasabo");
+        location.setSector("Kimironko");
+        location.setCell("Kibagabaga");
+        location.setVillage("Kibagabaga");
+        location = entityManager.persist(location);
+
+        warehouse = new StorageWarehouse();
+        warehouse.setWarehouseCode("WH-EXP");
+        warehouse.setWarehouseName("Export Store");
+        warehouse.setWarehouseType(WarehouseType.COOPERATIVE);
+        warehouse.setTotalCapacityKg(new BigDecimal("100000.00"));
+        warehouse.setAvailableCapacityKg(new BigDecimal("100000.00"));
+        warehouse.setLocation(location);
+        warehouse = entityManager.persist(warehouse);
+
+        cropType = new CropType();
+        cropType.setCropCode("CRP-EXP");
+        cropType.setCropName("Beans, red");
+        cropType.setCategory(CropCategory.LEGUMES);
+        cropType.setMeasurementUnit(MeasurementUnit.KG);
+        cropType = entityManager.persist(cropType);
+
+        buyer = entityManager.persist(user(UserType.BUYER));
+        seller = entityManager.persist(user(UserType.FARMER));
+        storekeeper = entityManager.persist(user(UserType.STOREKEEPER));
+    }
+
+    @Test
+    void shouldExportFilteredTransactionsAsCsv() throws Exception {
+        Transaction first = transaction(DAY.atTime(8, 0), PaymentStatus.PAID, DeliveryStatus.DELIVERED);
+        transaction(DAY.atTime(9, 0), PaymentStatus.PENDING, DeliveryStatus.PENDING);
+        Transaction last = transaction(DAY.plusDays(1).atTime(23, 59), PaymentStatus.PAID, DeliveryStatus.PENDING);
+        transaction(DAY.plusDays(2).atTime(0, 0), PaymentStatus.PAID, DeliveryStatus.PENDING);
+        transaction(DAY.minusDays(1).atTime(23, 59), PaymentStatus.PAID, DeliveryStatus.PENDING);
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = exportService.exportTransactions(output, ExportFormat.CSV, false, DAY, DAY.plusDays(1), PaymentStatus.PAID, null);
+
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertEquals(2, rows);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).startsWith("id,transactionCode,transactionDate,paymentDate,paymentStatus,deliveryStatus,"), lines.get(0));
+        assertTrue(lines.get(1).startsWith(first.getId() + "," + first.getTransactionCode() + ",2026-03-10T08:00,,PAID,DELIVERED,"), lines.get(1));
+        assertTrue(lines.get(1).contains(",\"Beans, red\",10.00,500.00,5000.00,"), lines.get(1));
+        assertTrue(lines.get(2).startsWith(last.getId() + ","), lines.get(2));
+    }
+
+    @Test
+    void shouldExportHeaderOnlyWhenNothingMatches() throws Exception {
+        transaction(DAY.atTime(8, 0), PaymentStatus.PAID, DeliveryStatus.DELIVERED);
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = exportService.exportTransactions(output, ExportFormat.CSV, false, null, null, PaymentStatus.FAILED, null);
+
+        assertEquals(0, rows);
+        assertEquals(1, output.toString(StandardCharsets.UTF_8).lines().count());
+        assertThrows(IllegalArgumentException.class, () -> exportService.exportTransactions(
+                new ByteArrayOutputStream(), ExportFormat.CSV, false, DAY, DAY.minusDays(1), null, null));
+    }
+
+    @Test
+    void shouldExportPaymentsAsGzippedNdjson() throws Exception {
+        Transaction transaction = transaction(DAY.atTime(8, 0), PaymentStatus.PAID, DeliveryStatus.PENDING);
+        for (int i = 0; i < 3; i++) {
+            payment(transaction, i == 2 ? PaymentStatus.FAILED : PaymentStatus.PAID);
+        }
+        entityManager.flush();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long rows = exportService.exportPayments(output, ExportFormat.NDJSON, true, null, null, PaymentStatus.PAID);
+
+        List<JsonNode> lines = new ArrayList<>();
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (String line : new String(input.readAllBytes(), StandardCharsets.UTF_8).lines().toList()) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        assertEquals(2, rows);
+        assertEquals(2, lines.size());
+        assertEquals(transaction.getTransactionCode(), lines.get(0).get("transactionCode").asText());
+        assertEquals("PAID", lines.get(0).get("status").asText());
+        assertEquals("MOBILE_MONEY", lines.get(0).get("paymentMethod").asText());
+        assertEquals(0, new BigDecimal("5000.00").compareTo(lines.get(0).get("amount").decimalValue()));
+        assertTrue(lines.get(0).get("paymentReference").isNull());
+    }
+
+    private Transaction transaction(LocalDateTime date, PaymentStatus paymentStatus, DeliveryStatus deliveryStatus) {
+        int n = ++sequence;
+        Inventory inventory = new Inventory();
+        inventory.setInventoryCode("INV-EXP-" + n);
+        inventory.setFarmer(seller);
+        inventory.setStorekeeper(storekeeper);
+        inventory.setWarehouse(warehouse);
+        inventory.setCropType(cropType);
+        inventory.setQuantityKg(new BigDecimal("100.00"));
+        inventory.setRemainingQuantityKg(new BigDecimal("100.00"));
+        inventory.setQualityGrade("A");
+        inventory.setStorageDate(DAY);
+        inventory = entityManager.persist(inventory);
+
+        Transaction transaction = new Transaction();
+        transaction.setTransactionCode("TXN-EXP-" + n);
+        transaction.setInventory(inventory);
+        transaction.setBuyer(buyer);
+        transaction.setSeller(seller);
+        transaction.setQuantityKg(new BigDecimal("10.00"));
+        transaction.setUnitPrice(new BigDecimal("500.00"));
+        transaction.setTotalAmount(new BigDecimal("5000.00"));
+        transaction.setNetAmount(new BigDecimal("4900.00"));
+        transaction.setPaymentStatus(paymentStatus);
+        transaction.setDeliveryStatus(deliveryStatus);
+        transaction.setTransactionDate(date);
+        return entityManager.persist(transaction);
+    }
+
+    private void payment(Transaction transaction, PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setPaymentCode("PAY-EXP-" + (++sequence));
+        payment.setTransaction(transaction);
+        payment.setPayer(buyer);
+        payment.setAmount(new BigDecimal("5000.00"));
+        payment.setPaymentMethod(PaymentMethod.MOBILE_MONEY);
+        payment.setStatus(status);
+        entityManager.persist(payment);
+    }
+
+    private User user(UserType type) {
+        int n = ++sequence;
+        User user = new User();
+        user.setUserCode("USR-EXP-" + n);
+        user.setFirstName("Export");
+        user.setLastName(type.name());
+        user.setEmail("export" + n + "@example.com");
+        user.setPhoneNumber("0788" + String.format("%06d", n));
+        user.setPassword("password");
+        user.setUserType(type);
+        user.setLocation(location);
+        return user;
+    }
+}
@@ -0,0 +1,88 @@
+package com.raf.service;
+
+import com.raf.entity.Location;
+import com.raf.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class LocationHierarchyTest {
+
+    private static LocationHierarchy.Tree.Row village(String province, String district, String sector, String cell, String village) {
+        return new LocationHierarchy.Tree.Row(UUID.randomUUID(), province, district, sector, cell, village,
+                String.join("-", province, district, sector, cell, village));
+    }
+
+    private static Object[] row(String province, String district, String sector, String cell, String village) {
+        LocationHierarchy.Tree.Row row = village(province, district, sector, cell, village);
+        return new Object[]{row.id(), row.province(), row.district(), row.sector(), row.cell(), row.village(), row.code()};
+    }
+
+    @Test
+    void shouldServeEveryCascadeLevelInSortedOrder() {
+        LocationHierarchy.Tree tree = LocationHierarchy.Tree.build(List.of(
+                village("Kigali City", "Nyarugenge", "Nyamirambo", "Cyivugiza", "Ubumwe"),
+                village("Kigali City", "Gasabo", "Remera", "Rukiri I", "Amahoro"),
+                village("Kigali City", "Gasabo", "Kimironko", "Bibare", "Kabeza"),
+                village("Kigali City", "Gasabo", "Kimironko", "Bibare", "Imena"),
+                village("Northern Province", "Musanze", "Muhoza", "Mpenge", "Kabeza")));
+
+        assertEquals(List.of("Kigali City", "Northern Province"), tree.childNames());
+        assertEquals(List.of("Gasabo", "Nyarugenge"), tree.childNames("Kigali City"));
+        assertEquals(List.of("Kimironko", "Remera"), tree.childNames("Kigali City", "Gasabo"));
+        assertEquals(List.of("Bibare"), tree.childNames("Kigali City", "Gasabo", "Kimironko"));
+        assertEquals(List.of("Imena", "Kabeza"), tree.villages("Kigali City", "Gasabo", "Kimironko", "Bibare").stream()
+                .map(Location::getVillage)
+                .toList());
+        Location imena = tree.villages("Kigali City", "Gasabo", "Kimironko", "Bibare").get(0);
+        assertEquals("Kigali City-Gasabo-Kimironko-Bibare-Imena", imena.getCode());
+        assertNotNull(imena.getId());
+        assertEquals(5, tree.villageCount());
+    }
+
+    @Test
+    void shouldReturnEmptyListsForUnknownPaths() {
+        LocationHierarchy.Tree tree = LocationHierarchy.Tree.build(List.of(
+                village("Kigali City", "Gasabo", "Remera", "Rukiri I", "Amahoro")));
+
+        assertTrue(tree.childNames("Eastern Province").isEmpty());
+        assertTrue(tree.childNames("Kigali City", null).isEmpty());
+        assertTrue(tree.villages("Kigali City", "Gasabo", "Remera", "Rukiri II").isEmpty());
+        assertTrue(LocationHierarchy.Tree.build(List.of()).isEmpty());
+    }
+
+    @Test
+    void shouldServeThePreviousTreeWhileRebuildingInTheBackground() {
+        LocationRepository repository = mock(LocationRepository.class);
+        List<Runnable> background = new ArrayList<>();
+        LocationHierarchy hierarchy = new LocationHierarchy(repository, mock(PlatformTransactionManager.class), background::add);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row("Kigali City", "Gasabo", "Remera", "Rukiri I", "Amahoro"));
+        when(repository.findHierarchyRows()).thenReturn(rows);
+        hierarchy.buildOnStartup();
+        LocationHierarchy.Tree loaded = hierarchy.current();
+        assertEquals(1, loaded.villageCount());
+
+        rows.add(row("Kigali City", "Gasabo", "Remera", "Rukiri I", "Ubumwe"));
+        hierarchy.onLocationChanged();
+        hierarchy.onLocationChanged();
+
+        assertSame(loaded, hierarchy.current(), "Reads never wait for the rebuild");
+        verify(repository, times(1)).findHierarchyRows();
+        assertEquals(1, background.size(), "Only one rebuild runs at a time");
+
+        background.get(0).run();
+
+        assertEquals(2, hierarchy.current().villageCount());
+        assertEquals(1, background.size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.raf.service;
+
+import com.raf.dto.LocationMatch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class LocationServiceTest {
+
+    @Autowired
+    private LocationService locationService;
+    @Autowired
+    private LocationHierarchy locationHierarchy;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldRankTypoMatchesFromTheHierarchyWithoutPgTrgm() {
+        List<LocationMatch> matches = locationService.fuzzySearch("Gihanam", 5);
+
+        LocationMatch top = matches.get(0);
+        assertEquals("Village", top.getLevel());
+        assertEquals("Gihanama", top.getName());
+        assertEquals("VIL-GIHANAMA-BIRYOGOCELL-GASHORASECTOR", top.getCode());
+        assertEquals("East Province", top.getProvince());
+        assertEquals("Biryogo Cell", top.getCell());
+        for (int i = 1; i < matches.size(); i++) {
+            assertTrue(matches.get(i - 1).getSimilarity() >= matches.get(i).getSimilarity());
+        }
+
+        LocationMatch district = locationService.fuzzySearch("Bugesera Distrct", 5).get(0);
+        assertEquals("District", district.getLevel());
+        assertNull(district.getSector());
+        assertNull(district.getCode());
+    }
+
+    @Test
+    void shouldScoreTheLoadedTreeInsteadOfTheTable() {
+        UUID id = UUID.randomUUID();
+        // Written behind JPA's back, so only a rebuild makes the hierarchy see it
+        jdbcTemplate.update("INSERT INTO \"location\" (\"id\", \"province\", \"district\", \"sector\", \"cell\", \"village\", \"code\", \"created_at\") "
+                        + "VALUES (?, 'East Province', 'Bugesera District', 'Gashora Sector', 'Biryogo Cell', 'Zuqwevy', 'VIL-ZUQWEVY-TEST', ?)",
+                id, LocalDateTime.now());
+        try {
+            assertTrue(locationService.fuzzySearch("Zuqwevy", 5).isEmpty());
+
+            assertTrue(locationHierarchy.rebuild());
+
+            assertEquals("VIL-ZUQWEVY-TEST", locationService.fuzzySearch("Zuqwevy", 5).get(0).getCode());
+        } finally {
+            jdbcTemplate.update("DELETE FROM \"location\" WHERE \"id\" = ?", id);
+            locationHierarchy.rebuild();
+        }
+    }
+}
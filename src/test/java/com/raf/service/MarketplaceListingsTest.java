@@ -0,0 +1,106 @@
+package com.raf.service;
+
+import com.raf.dto.MarketplaceListing;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.User;
+import com.raf.enums.UserType;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class MarketplaceListingsTest {
+
+    @Autowired
+    private MarketplaceListings marketplaceListings;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private CropTypeRepository cropTypeRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void shouldFollowLotsFromCreationToSale() {
+        Inventory lot = fixtures.lot(new BigDecimal("10.00"), UserType.FARMER);
+
+        MarketplaceListings.Snapshot listed = marketplaceListings.current();
+        MarketplaceListing listing = find(listed, lot.getId());
+        assertNotNull(listing);
+        assertEquals(lot.getCropType().getCropName(), listing.getCropName());
+        assertEquals(lot.getWarehouse().getWarehouseName(), listing.getWarehouseName());
+        assertEquals(lot.getWarehouse().getLocation().getDistrict(), listing.getDistrict());
+        assertEquals(0, listing.getRemainingQuantityKg().compareTo(new BigDecimal("10.00")));
+        assertSame(listed, marketplaceListings.current(), "Nothing changed, so the snapshot and its ETag stay");
+
+        inventoryService.reduceInventoryQuantity(lot.getId(), new BigDecimal("10.00"));
+
+        MarketplaceListings.Snapshot sold = marketplaceListings.current();
+        assertNull(find(sold, lot.getId()));
+        assertNotEquals(listed.etag(), sold.etag());
+    }
+
+    @Test
+    void shouldFollowCropPricesAndDeletes() {
+        Inventory lot = fixtures.lot(new BigDecimal("25.00"), UserType.FARMER);
+        Inventory buyerLot = fixtures.lot(new BigDecimal("25.00"), UserType.BUYER);
+        assertNull(find(marketplaceListings.current(), buyerLot.getId()));
+
+        CropType cropType = cropTypeRepository.findById(lot.getCropType().getId()).orElseThrow();
+        cropType.setPricePerKg(new BigDecimal("450.00"));
+        cropTypeRepository.save(cropType);
+        assertEquals(0, find(marketplaceListings.current(), lot.getId()).getPricePerKg().compareTo(new BigDecimal("450.00")));
+
+        inventoryRepository.deleteById(lot.getId());
+        assertNull(find(marketplaceListings.current(), lot.getId()));
+    }
+
+    @Test
+    void shouldKeepTheEtagWhenARefreshChangesNothing() {
+        Inventory lot = fixtures.lot(new BigDecimal("8.00"), UserType.FARMER);
+        MarketplaceListings.Snapshot listed = marketplaceListings.current();
+
+        // Notes are not part of the listing, but the update still queues the lot
+        Inventory details = inventoryRepository.findById(lot.getId()).orElseThrow();
+        details.setNotes("Re-weighed");
+        inventoryService.updateInventory(lot.getId(), details);
+
+        assertSame(listed, marketplaceListings.current(), "The re-read listing is unchanged, so the ETag stays");
+    }
+
+    @Test
+    void shouldDropTheLotsOfAFarmerWhoBecomesABuyer() {
+        Inventory lot = fixtures.lot(new BigDecimal("12.00"), UserType.FARMER);
+        assertNotNull(find(marketplaceListings.current(), lot.getId()));
+
+        User farmer = userRepository.findById(lot.getFarmer().getId()).orElseThrow();
+        farmer.setUserType(UserType.BUYER);
+        userRepository.save(farmer);
+        assertNull(find(marketplaceListings.current(), lot.getId()));
+
+        farmer.setUserType(UserType.FARMER);
+        userRepository.save(farmer);
+        assertNotNull(find(marketplaceListings.current(), lot.getId()));
+    }
+
+    private static MarketplaceListing find(MarketplaceListings.Snapshot snapshot, Long inventoryId) {
+        return snapshot.listings().stream()
+                .filter(listing -> listing.getInventoryId().equals(inventoryId))
+                .findFirst()
+                .orElse(null);
+    }
+}
@@ -0,0 +1,81 @@
+package com.raf.service;
+
+import com.raf.dto.NotificationDraft;
+import com.raf.entity.Notification;
+import com.raf.entity.User;
+import com.raf.enums.NotificationType;
+import com.raf.enums.UserType;
+import com.raf.repository.NotificationRepository;
+import com.raf.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class NotificationServiceTest {
+
+    @Autowired
+    private NotificationService notificationService;
+    @Autowired
+    private NotificationRepository notificationRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void shouldCreateAllNotificationsInOneBatchAndSkipDisabledRecipients() {
+        User seller = user(UserType.FARMER, true);
+        User buyer = user(UserType.BUYER, true);
+        User muted = user(UserType.STOREKEEPER, false);
+
+        int created = notificationService.createNotifications(List.of(
+                new NotificationDraft(seller.getId(), "Payment Received", "Your sale has been paid.", NotificationType.PAYMENT_RECEIVED, null, null),
+                new NotificationDraft(buyer.getId(), "Payment Successful", "Your payment was successful.", NotificationType.PAYMENT_RECEIVED, Long.MAX_VALUE, "/receipts"),
+                new NotificationDraft(muted.getId(), "Shipment Request", "A new order requires shipment.", NotificationType.SHIPMENT_REQUEST, null, null),
+                new NotificationDraft(Long.MAX_VALUE, "Nobody", "No such user.", NotificationType.SYSTEM_ALERT, null, null)));
+
+        assertEquals(2, created);
+        Notification sellerNotification = notifications(seller).get(0);
+        assertEquals("Payment Received", sellerNotification.getTitle());
+        assertEquals(NotificationType.PAYMENT_RECEIVED, sellerNotification.getType());
+        assertFalse(sellerNotification.getIsRead());
+        assertNotNull(sellerNotification.getCreatedAt());
+        assertNull(sellerNotification.getActionUrl());
+
+        Notification buyerNotification = notifications(buyer).get(0);
+        assertNull(buyerNotification.getTransaction(), "A transaction that does not exist is not linked");
+        assertEquals("/receipts", buyerNotification.getActionUrl());
+        assertTrue(notifications(muted).isEmpty());
+        assertEquals(0, notificationService.createNotifications(List.of()));
+    }
+
+    @Test
+    void shouldNotifyEveryAdminWithNotificationsEnabled() {
+        User admin = user(UserType.ADMIN, true);
+        User mutedAdmin = user(UserType.ADMIN, false);
+
+        notificationService.notifyAllAdmins("Warehouse Created", "A warehouse was created.", NotificationType.WAREHOUSE_CREATED, "/warehouses/1");
+
+        List<Notification> received = notifications(admin);
+        assertEquals(1, received.size());
+        assertEquals("/warehouses/1", received.get(0).getActionUrl());
+        assertTrue(notifications(mutedAdmin).isEmpty());
+    }
+
+    private List<Notification> notifications(User user) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDescWithUser(user.getId());
+    }
+
+    private User user(UserType type, boolean notificationsEnabled) {
+        User user = fixtures.newUser(type, "Notified", type.name());
+        user.setNotificationsEnabled(notificationsEnabled);
+        return userRepository.save(user);
+    }
+}
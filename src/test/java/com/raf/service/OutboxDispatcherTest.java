@@ -0,0 +1,215 @@
+package com.raf.service;
+
+import com.raf.dto.WithdrawalRequest;
+import com.raf.entity.OutboxEvent;
+import com.raf.entity.User;
+import com.raf.entity.Withdrawal;
+import com.raf.enums.OutboxEventType;
+import com.raf.enums.OutboxStatus;
+import com.raf.enums.UserType;
+import com.raf.enums.WithdrawalMethod;
+import com.raf.repository.OutboxEventRepository;
+import com.raf.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest(properties = "app.outbox.max-attempts=3")
+@ActiveProfiles("test")
+public class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxDispatcher dispatcher;
+    @Autowired
+    private OutboxService outboxService;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        // Leave nothing due from other tests, so each dispatch only sees this test's events
+        while (dispatcher.dispatchDue() > 0) {
+        }
+        reset(emailService);
+
+        user = fixtures.user(UserType.FARMER, "Outbox", "Farmer");
+        walletService.getWalletByUserId(user.getId());
+    }
+
+    @Test
+    void shouldSendWithdrawalOtpAfterTheRequestCommits() {
+        Withdrawal withdrawal = requestWithdrawal();
+
+        OutboxEvent event = events(withdrawal).get(0);
+        assertEquals(OutboxEventType.WITHDRAWAL_OTP, event.getEventType());
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        verify(emailService, times(0)).sendWithdrawalOtpEmail(anyString(), anyString(), anyString(), anyString());
+
+        assertEquals(1, dispatcher.dispatchDue());
+
+        verify(emailService).sendWithdrawalOtpEmail(user.getEmail(), withdrawal.getOtpCode(), "Outbox", "1000.00");
+        event = events(withdrawal).get(0);
+        assertEquals(OutboxStatus.SENT, event.getStatus());
+        assertNotNull(event.getProcessedAt());
+        assertEquals(0, dispatcher.dispatchDue(), "A sent event is not sent again");
+    }
+
+    @Test
+    void shouldRetryWithBackoffAndDeadLetterAfterMaxAttempts() {
+        doThrow(new RuntimeException("SMTP unavailable"))
+                .when(emailService).sendWithdrawalOtpEmail(anyString(), anyString(), anyString(), anyString());
+        Withdrawal withdrawal = requestWithdrawal();
+
+        assertEquals(1, dispatcher.dispatchDue());
+        OutboxEvent event = events(withdrawal).get(0);
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(1, event.getAttempts());
+        assertEquals("SMTP unavailable", event.getLastError());
+        assertTrue(event.getNextAttemptAt().isAfter(LocalDateTime.now().plusSeconds(20)), "Backs off before retrying");
+        assertEquals(0, dispatcher.dispatchDue());
+
+        makeDue(event);
+        dispatcher.dispatchDue();
+        OutboxEvent second = events(withdrawal).get(0);
+        assertEquals(2, second.getAttempts());
+        assertTrue(second.getNextAttemptAt().isAfter(event.getNextAttemptAt()), "Each retry waits longer");
+
+        makeDue(second);
+        dispatcher.dispatchDue();
+        OutboxEvent dead = events(withdrawal).get(0);
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(3, dead.getAttempts());
+        makeDue(dead);
+        assertEquals(0, dispatcher.dispatchDue());
+        verify(emailService, times(3)).sendWithdrawalOtpEmail(eq(user.getEmail()), anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void shouldSendEachEventOnceWithConcurrentDispatchers() throws Exception {
+        List<Withdrawal> withdrawals = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            withdrawals.add(requestWithdrawal());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Integer>> runs = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                runs.add(executor.submit(dispatcher::dispatchDue));
+            }
+            int dispatched = 0;
+            for (Future<Integer> run : runs) {
+                dispatched += run.get(60, TimeUnit.SECONDS);
+            }
+            assertEquals(withdrawals.size(), dispatched);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(emailService, times(withdrawals.size())).sendWithdrawalOtpEmail(eq(user.getEmail()), anyString(), anyString(), anyString());
+        assertTrue(withdrawals.stream().allMatch(w -> events(w).get(0).getStatus() == OutboxStatus.SENT));
+    }
+
+    @Test
+    void shouldSendWithNoTransactionOpen() {
+        AtomicBoolean inTransaction = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            inTransaction.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return null;
+        }).when(emailService).sendWithdrawalOtpEmail(anyString(), anyString(), anyString(), anyString());
+        Withdrawal withdrawal = requestWithdrawal();
+
+        assertEquals(1, dispatcher.dispatchDue());
+
+        assertFalse(inTransaction.get(), "The mail server is called after the loading transaction commits");
+        assertEquals(OutboxStatus.SENT, events(withdrawal).get(0).getStatus());
+    }
+
+    @Test
+    void shouldLeaveAnEventWhoseLeaseWasTakenOverToItsNewHolder() {
+        Withdrawal withdrawal = requestWithdrawal();
+        LocalDateTime otherLease = LocalDateTime.now().plusMinutes(7).truncatedTo(ChronoUnit.MILLIS);
+        doAnswer(invocation -> {
+            // The send outlived its lease and another dispatcher claimed the event
+            OutboxEvent event = events(withdrawal).get(0);
+            event.setNextAttemptAt(otherLease);
+            outboxEventRepository.save(event);
+            throw new RuntimeException("SMTP timeout");
+        }).when(emailService).sendWithdrawalOtpEmail(anyString(), anyString(), anyString(), anyString());
+
+        assertEquals(1, dispatcher.dispatchDue());
+
+        OutboxEvent event = events(withdrawal).get(0);
+        assertEquals(OutboxStatus.PENDING, event.getStatus());
+        assertEquals(0, event.getAttempts(), "The failure is not recorded against the new holder's lease");
+        assertEquals(otherLease, event.getNextAttemptAt());
+        assertNull(event.getLastError());
+    }
+
+    @Test
+    void shouldOnlyEnqueueInsideTheCallersTransaction() {
+        assertThrows(IllegalTransactionStateException.class,
+                () -> outboxService.enqueue(OutboxEventType.WITHDRAWAL_OTP, 1L));
+    }
+
+    private Withdrawal requestWithdrawal() {
+        WithdrawalRequest request = new WithdrawalRequest();
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setWithdrawalMethod(WithdrawalMethod.MOBILE_MONEY);
+        request.setAccountNumber("0788000000");
+        return transactionTemplate.execute(status -> {
+            walletRepository.findByUserId(user.getId()).orElseThrow().setBalance(new BigDecimal("50000.00"));
+            return walletService.requestWithdrawal(user.getId(), request);
+        });
+    }
+
+    private List<OutboxEvent> events(Withdrawal withdrawal) {
+        return outboxEventRepository.findByAggregateIdOrderByIdAsc(withdrawal.getId()).stream()
+                .filter(event -> event.getEventType() == OutboxEventType.WITHDRAWAL_OTP)
+                .toList();
+    }
+
+    private void makeDue(OutboxEvent event) {
+        event.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxEventRepository.save(event);
+    }
+}
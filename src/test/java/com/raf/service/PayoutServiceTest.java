@@ -0,0 +1,109 @@
+package com.raf.service;
+
+import com.raf.dto.PayoutRunResult;
+import com.raf.entity.User;
+import com.raf.entity.Wallet;
+import com.raf.entity.Withdrawal;
+import com.raf.enums.UserType;
+import com.raf.enums.WithdrawalMethod;
+import com.raf.enums.WithdrawalStatus;
+import com.raf.exception.ResourceNotFoundException;
+import com.raf.repository.WalletRepository;
+import com.raf.repository.WithdrawalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class PayoutServiceTest {
+
+    @Autowired
+    private PayoutService payoutService;
+    @Autowired
+    private WithdrawalRepository withdrawalRepository;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        User user = fixtures.user(UserType.FARMER, "Payout", "Farmer");
+
+        wallet = new Wallet();
+        wallet.setUser(user);
+        wallet = walletRepository.save(wallet);
+    }
+
+    @Test
+    void shouldCompleteVerifiedWithdrawalsAndWriteOneFilePerMethod() throws Exception {
+        List<Withdrawal> mobile = List.of(
+                withdrawal(WithdrawalMethod.MOBILE_MONEY, WithdrawalStatus.PROCESSING, null),
+                withdrawal(WithdrawalMethod.MOBILE_MONEY, WithdrawalStatus.PROCESSING, null),
+                withdrawal(WithdrawalMethod.MOBILE_MONEY, WithdrawalStatus.PROCESSING, null));
+        Withdrawal bank = withdrawal(WithdrawalMethod.BANK_TRANSFER, WithdrawalStatus.PROCESSING, "Bank of Kigali, Ltd");
+        Withdrawal unverified = withdrawal(WithdrawalMethod.MOBILE_MONEY, WithdrawalStatus.PENDING, null);
+
+        PayoutRunResult result = payoutService.runPayouts();
+
+        assertTrue(result.getPaidCount() >= 4);
+        assertEquals(2, result.getFiles().size());
+        PayoutRunResult.PayoutFile mobileFile = result.getFiles().get(0);
+        assertEquals(WithdrawalMethod.MOBILE_MONEY, mobileFile.getMethod());
+        String mobileCsv = read(mobileFile.getFileName());
+        assertTrue(mobileCsv.startsWith("withdrawalCode,accountNumber,accountName,bankName,amount\n"));
+        for (Withdrawal withdrawal : mobile) {
+            assertTrue(mobileCsv.contains(withdrawal.getWithdrawalCode() + ",0788000000,Payout Farmer,,1000.00\n"), mobileCsv);
+            Withdrawal paid = withdrawalRepository.findById(withdrawal.getId()).orElseThrow();
+            assertEquals(WithdrawalStatus.COMPLETED, paid.getStatus());
+            assertNotNull(paid.getProcessedDate());
+            assertEquals("Paid out in " + result.getRunId(), paid.getProcessingNotes());
+        }
+        assertFalse(mobileCsv.contains(unverified.getWithdrawalCode()));
+        assertEquals(WithdrawalStatus.PENDING, withdrawalRepository.findById(unverified.getId()).orElseThrow().getStatus());
+
+        PayoutRunResult.PayoutFile bankFile = result.getFiles().get(1);
+        assertEquals(WithdrawalMethod.BANK_TRANSFER, bankFile.getMethod());
+        assertTrue(read(bankFile.getFileName()).contains(bank.getWithdrawalCode() + ",0788000000,Payout Farmer,\"Bank of Kigali, Ltd\",1000.00\n"));
+
+        PayoutRunResult second = payoutService.runPayouts();
+        assertEquals(0, second.getPaidCount(), "A withdrawal is paid out once");
+        assertTrue(second.getFiles().isEmpty());
+    }
+
+    @Test
+    void shouldOnlyServePayoutFiles() {
+        assertThrows(ResourceNotFoundException.class, () -> payoutService.getPayoutFile("../application.properties"));
+        assertThrows(ResourceNotFoundException.class, () -> payoutService.getPayoutFile("PAYOUT-20260101-000000000-mobile_money.csv"));
+    }
+
+    private Withdrawal withdrawal(WithdrawalMethod method, WithdrawalStatus status, String bankName) {
+        Withdrawal withdrawal = new Withdrawal();
+        withdrawal.setWithdrawalCode("WTH-FX-" + fixtures.next());
+        withdrawal.setWallet(wallet);
+        withdrawal.setAmount(new BigDecimal("1000.00"));
+        withdrawal.setWithdrawalMethod(method);
+        withdrawal.setAccountNumber("0788000000");
+        withdrawal.setBankName(bankName);
+        withdrawal.setStatus(status);
+        withdrawal.setRequestDate(LocalDateTime.now());
+        withdrawal.setOtpVerified(status == WithdrawalStatus.PROCESSING);
+        return withdrawalRepository.save(withdrawal);
+    }
+
+    private String read(String fileName) throws Exception {
+        return payoutService.getPayoutFile(fileName).getContentAsString(StandardCharsets.UTF_8);
+    }
+}
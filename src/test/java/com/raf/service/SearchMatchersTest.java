@@ -0,0 +1,53 @@
+package com.raf.service;
+
+import com.raf.entity.Location;
+import com.raf.entity.Notification;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchMatchersTest {
+
+    @Test
+    void shouldMatchAFullNameAcrossFirstAndLastName() {
+        User jean = person("Jean", "Uwimana", "jean@example.rw");
+
+        assertTrue(SearchMatchers.users("Jean Uwimana").test(jean));
+        assertTrue(SearchMatchers.users("uwimana  jean").test(jean));
+        assertFalse(SearchMatchers.users("Jean Mugisha").test(jean));
+
+        Notification notification = new Notification();
+        notification.setTitle("Payment received");
+        notification.setUser(jean);
+        assertTrue(SearchMatchers.notifications("jean uwimana").test(notification));
+        assertTrue(SearchMatchers.notifications("payment Uwimana").test(notification));
+
+        Transaction transaction = new Transaction();
+        transaction.setTransactionCode("TXN-1");
+        transaction.setBuyer(person("Eric", "Habimana", "eric@example.rw"));
+        transaction.setSeller(jean);
+        assertTrue(SearchMatchers.transactions("Jean Uwimana").test(transaction));
+        assertFalse(SearchMatchers.transactions("Eric Uwimana Mugisha").test(transaction));
+    }
+
+    @Test
+    void shouldMatchEveryRowForABlankTerm() {
+        Location location = new Location();
+        location.setProvince("Kigali");
+        location.setDistrict("Gasabo");
+
+        assertTrue(SearchMatchers.locations(" ").test(location));
+        assertTrue(SearchMatchers.locations("kigali gasabo").test(location));
+        assertFalse(SearchMatchers.locations("kigali nyarugenge").test(location));
+    }
+
+    private static User person(String firstName, String lastName, String email) {
+        User user = new User();
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail(email);
+        return user;
+    }
+}
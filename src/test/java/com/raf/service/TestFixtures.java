@@ -0,0 +1,134 @@
+package com.raf.service;
+
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import com.raf.enums.CropCategory;
+import com.raf.enums.MeasurementUnit;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseType;
+import com.raf.repository.CropTypeRepository;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.LocationRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import com.raf.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Saves the users, warehouses, crop types and lots that service tests run
+ * against. Every code, name, email and phone number comes from one sequence
+ * shared by the whole test run, so fixtures never collide across tests or
+ * Spring contexts that share the in-memory database.
+ */
+@Component
+public class TestFixtures {
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private StorageWarehouseRepository warehouseRepository;
+    @Autowired
+    private CropTypeRepository cropTypeRepository;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private LocationRepository locationRepository;
+
+    /**
+     * The next value of the shared sequence, for codes the fixtures do not cover.
+     */
+    public long next() {
+        return SEQUENCE.incrementAndGet();
+    }
+
+    public Location location() {
+        return locationRepository.findAll(PageRequest.of(0, 1)).getContent().get(0);
+    }
+
+    public User user(UserType type) {
+        return user(type, "Test", type.name());
+    }
+
+    public User user(UserType type, String firstName, String lastName) {
+        return userRepository.save(newUser(type, firstName, lastName));
+    }
+
+    /**
+     * An unsaved user, for tests that set more fields before saving.
+     */
+    public User newUser(UserType type, String firstName, String lastName) {
+        long n = next();
+        User user = new User();
+        user.setUserCode("USR-FX-" + n);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setEmail("fixture" + n + "@raf.test");
+        user.setPhoneNumber(String.format("075%07d", n));
+        user.setPassword("password");
+        user.setUserType(type);
+        user.setLocation(location());
+        return user;
+    }
+
+    public StorageWarehouse warehouse(BigDecimal capacity) {
+        long n = next();
+        StorageWarehouse warehouse = new StorageWarehouse();
+        warehouse.setWarehouseCode("WH-FX-" + n);
+        warehouse.setWarehouseName("Fixture Store " + n);
+        warehouse.setWarehouseType(WarehouseType.COOPERATIVE);
+        warehouse.setTotalCapacityKg(capacity);
+        warehouse.setAvailableCapacityKg(capacity);
+        warehouse.setLocation(location());
+        return warehouseRepository.save(warehouse);
+    }
+
+    public CropType cropType() {
+        long n = next();
+        CropType cropType = new CropType();
+        cropType.setCropCode("CRP-FX-" + n);
+        cropType.setCropName("Fixture Beans " + n);
+        cropType.setCategory(CropCategory.LEGUMES);
+        cropType.setMeasurementUnit(MeasurementUnit.KG);
+        cropType.setPricePerKg(new BigDecimal("300.00"));
+        return cropTypeRepository.save(cropType);
+    }
+
+    /**
+     * A stored lot of {@code quantity} kg owned by a new farmer, in a new
+     * warehouse with room to spare, of a new crop type.
+     */
+    public Inventory lot(BigDecimal quantity) {
+        return lot(quantity, UserType.FARMER);
+    }
+
+    /**
+     * Like {@link #lot(BigDecimal)}, with an owner of the given type.
+     */
+    public Inventory lot(BigDecimal quantity, UserType ownerType) {
+        return lot(user(ownerType), user(UserType.STOREKEEPER), warehouse(new BigDecimal("10000.00")), cropType(), quantity);
+    }
+
+    public Inventory lot(User farmer, User storekeeper, StorageWarehouse warehouse, CropType cropType, BigDecimal quantity) {
+        Inventory inventory = new Inventory();
+        inventory.setInventoryCode("INV-FX-" + next());
+        inventory.setFarmer(farmer);
+        inventory.setStorekeeper(storekeeper);
+        inventory.setWarehouse(warehouse);
+        inventory.setCropType(cropType);
+        inventory.setQuantityKg(quantity);
+        inventory.setRemainingQuantityKg(quantity);
+        inventory.setQualityGrade("A");
+        inventory.setStorageDate(LocalDate.now());
+        return inventoryRepository.save(inventory);
+    }
+}
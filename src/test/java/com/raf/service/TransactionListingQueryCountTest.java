@@ -0,0 +1,281 @@
+package com.raf.service;
+
+import com.raf.dto.TransactionSummary;
+import com.raf.entity.CropType;
+import com.raf.entity.Inventory;
+import com.raf.entity.Location;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.Transaction;
+import com.raf.entity.User;
+import com.raf.entity.WarehouseAccess;
+import com.raf.enums.AccessLevel;
+import com.raf.enums.CropCategory;
+import com.raf.enums.DeliveryStatus;
+import com.raf.enums.MeasurementUnit;
+import com.raf.enums.PaymentStatus;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseAccessStatus;
+import com.raf.enums.WarehouseType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(TransactionService.class)
+public class TransactionListingQueryCountTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private ClearanceDocumentService clearanceDocumentService;
+
+    @MockitoBean
+    private SearchIndexEntityListener searchIndexEntityListener;
+
+    private Statistics statistics;
+    private Location location;
+    private StorageWarehouse warehouse;
+    private CropType cropType;
+    private User storekeeper;
+    private int sequence;
+    private int transactions;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        location = new Location();
+        location.setCode("LOC-TX");
+        location.setProvince("Kigali");
+        location.setDistrict("Gasabo");
+        location.setSector("Kimironko");
+        location.setCell("Kibagabaga");
+        location.setVillage("Kibagabaga");
+        location = entityManager.persist(location);
+
+        warehouse = warehouse("WH-TX");
+
+        cropType = new CropType();
+        cropType.setCropCode("CRP-TX");
+        cropType.setCropName("Beans");
+        cropType.setCategory(CropCategory.LEGUMES);
+        cropType.setMeasurementUnit(MeasurementUnit.KG);
+        cropType = entityManager.persist(cropType);
+
+        storekeeper = entityManager.persist(user(UserType.STOREKEEPER));
+    }
+
+    @Test
+    void shouldListSummariesWithOneQueryRegardlessOfRowCount() {
+        addTransactions(3, warehouse);
+        long fewRows = countQueries(() -> transactionService.getAllTransactions());
+
+        addTransactions(25, warehouse);
+        List<TransactionSummary>[] listed = new List[1];
+        long manyRows = countQueries(() -> listed[0] = transactionService.getAllTransactions());
+
+        assertEquals(1, fewRows);
+        assertEquals(fewRows, manyRows);
+        assertEquals(28, listed[0].size());
+        TransactionSummary newest = listed[0].get(0);
+        assertEquals("Buyer", newest.getBuyer().getFirstName());
+        assertEquals("Seller", newest.getSeller().getFirstName());
+        assertEquals("Beans", newest.getInventory().getCropType().getCropName());
+        for (int i = 1; i < listed[0].size(); i++) {
+            assertFalse(listed[0].get(i).getTransactionDate().isAfter(listed[0].get(i - 1).getTransactionDate()));
+        }
+    }
+
+    @Test
+    void shouldPageSummariesWithAPageQueryAndACountQuery() {
+        addTransactions(12, warehouse);
+        PageRequest firstPage = PageRequest.of(0, 5, Sort.by("transactionDate").descending());
+
+        Page<TransactionSummary>[] page = new Page[1];
+        long queries = countQueries(() -> page[0] = transactionService.getTransactionsPaginated(firstPage));
+
+        assertEquals(2, queries);
+        assertEquals(12, page[0].getTotalElements());
+        assertEquals(5, page[0].getContent().size());
+        assertEquals("TXN-TX-12", page[0].getContent().get(0).getTransactionCode());
+    }
+
+    @Test
+    void shouldPageStorekeeperTransactionsInTheDatabase() {
+        StorageWarehouse other = warehouse("WH-TX-OTHER");
+        StorageWarehouse revoked = warehouse("WH-TX-REVOKED");
+        access(warehouse, WarehouseAccessStatus.APPROVED, true);
+        access(revoked, WarehouseAccessStatus.ACTIVE, false);
+        for (int i = 0; i < 4; i++) {
+            addTransactions(3, warehouse);
+            addTransactions(3, other);
+            addTransactions(1, revoked);
+        }
+        PageRequest firstPage = PageRequest.of(0, 5, Sort.by("transactionDate").descending());
+
+        Page<TransactionSummary>[] page = new Page[1];
+        long queries = countQueries(() -> page[0] = transactionService.getTransactionsPaginated(firstPage, storekeeper.getId()));
+
+        assertEquals(3, queries, "Storekeeper check, page and count");
+        assertEquals(12, page[0].getTotalElements());
+        assertEquals(3, page[0].getTotalPages());
+        assertEquals(5, page[0].getContent().size());
+        List<Long> assigned = entityManager.getEntityManager()
+                .createQuery("SELECT i.id FROM Inventory i WHERE i.warehouse = :warehouse", Long.class)
+                .setParameter("warehouse", warehouse)
+                .getResultList();
+        assertTrue(page[0].getContent().stream().allMatch(t -> assigned.contains(t.getInventory().getId())));
+
+        Page<TransactionSummary> lastPage = transactionService.getTransactionsPaginated(firstPage.withPage(2), storekeeper.getId());
+        assertEquals(2, lastPage.getContent().size());
+        assertEquals(12, lastPage.getTotalElements());
+        assertEquals(12, transactionService.getAllTransactions(storekeeper.getId()).size());
+        assertEquals(28, transactionService.getTransactionsPaginated(firstPage).getTotalElements());
+    }
+
+    @Test
+    void shouldScopeStorekeeperStatusListingsInTheDatabase() {
+        StorageWarehouse other = warehouse("WH-TX-STATUS");
+        access(warehouse, WarehouseAccessStatus.ACTIVE, true);
+        addTransactions(7, warehouse);
+        addTransactions(6, other);
+        PageRequest firstPage = PageRequest.of(0, 3, Sort.by("transactionDate").descending());
+
+        Page<Transaction>[] page = new Page[1];
+        long queries = countQueries(() -> page[0] = transactionService
+                .getTransactionsByPaymentStatusForUser(PaymentStatus.PENDING, firstPage, storekeeper.getId()));
+
+        assertEquals(3, queries, "Storekeeper check, page and count");
+        assertEquals(7, page[0].getTotalElements(), "The total counts every matching transaction, not the fetched page");
+        assertEquals(3, page[0].getTotalPages());
+        assertTrue(page[0].getContent().stream().allMatch(t -> t.getInventory().getWarehouse().getId().equals(warehouse.getId())));
+        assertEquals("TXN-TX-7", page[0].getContent().get(0).getTransactionCode());
+
+        assertEquals(13, transactionService.getTransactionsByPaymentStatusForUser(PaymentStatus.PENDING, firstPage, null).getTotalElements());
+        assertEquals(7, transactionService.getTransactionsByPaymentStatusForUser(PaymentStatus.PENDING, storekeeper.getId()).size());
+        assertEquals(7, transactionService.getTransactionsByPaymentStatusForUser(PaymentStatus.PENDING, Sort.by("transactionCode"), storekeeper.getId()).size());
+        assertEquals(7, transactionService.getTransactionsByDeliveryStatusForUser(DeliveryStatus.PENDING, storekeeper.getId()).size());
+        assertEquals(0, transactionService.getTransactionsByDeliveryStatusForUser(DeliveryStatus.DELIVERED, Sort.by("transactionCode"), storekeeper.getId()).size());
+        Long outside = entityManager.getEntityManager()
+                .createQuery("SELECT i.id FROM Inventory i WHERE i.warehouse = :warehouse", Long.class)
+                .setParameter("warehouse", other)
+                .setMaxResults(1)
+                .getSingleResult();
+        assertTrue(transactionService.getTransactionsByInventoryForUser(outside, storekeeper.getId()).isEmpty());
+        assertEquals(1, transactionService.getTransactionsByInventoryForUser(outside, null).size());
+    }
+
+    private void access(StorageWarehouse to, WarehouseAccessStatus status, boolean active) {
+        WarehouseAccess access = new WarehouseAccess();
+        access.setUser(storekeeper);
+        access.setWarehouse(to);
+        access.setAccessLevel(AccessLevel.MANAGER);
+        access.setGrantedDate(LocalDate.now());
+        access.setStatus(status);
+        access.setIsActive(active);
+        entityManager.persist(access);
+    }
+
+    private long countQueries(Runnable listing) {
+        entityManager.clear();
+        statistics.clear();
+        listing.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void addTransactions(int count, StorageWarehouse in) {
+        for (int i = 0; i < count; i++) {
+            User farmer = entityManager.persist(user(UserType.FARMER));
+            User buyer = entityManager.persist(user(UserType.BUYER));
+            Inventory inventory = entityManager.persist(inventory(farmer, in));
+            entityManager.persist(transaction(inventory, buyer, farmer));
+        }
+        entityManager.flush();
+    }
+
+    private StorageWarehouse warehouse(String code) {
+        StorageWarehouse created = new StorageWarehouse();
+        created.setWarehouseCode(code);
+        created.setWarehouseName("Store " + code);
+        created.setWarehouseType(WarehouseType.COOPERATIVE);
+        created.setTotalCapacityKg(new BigDecimal("100000.00"));
+        created.setAvailableCapacityKg(new BigDecimal("100000.00"));
+        created.setLocation(location);
+        return entityManager.persist(created);
+    }
+
+    private Inventory inventory(User owner, StorageWarehouse in) {
+        Inventory inventory = new Inventory();
+        inventory.setInventoryCode("INV-TX-" + (++sequence));
+        inventory.setFarmer(owner);
+        inventory.setStorekeeper(storekeeper);
+        inventory.setWarehouse(in);
+        inventory.setCropType(cropType);
+        inventory.setQuantityKg(new BigDecimal("100.00"));
+        inventory.setRemainingQuantityKg(new BigDecimal("100.00"));
+        inventory.setQualityGrade("A");
+        inventory.setStorageDate(LocalDate.now());
+        return inventory;
+    }
+
+    private Transaction transaction(Inventory inventory, User buyer, User seller) {
+        int n = ++transactions;
+        Transaction transaction = new Transaction();
+        transaction.setTransactionCode("TXN-TX-" + n);
+        transaction.setInventory(inventory);
+        transaction.setBuyer(buyer);
+        transaction.setSeller(seller);
+        transaction.setQuantityKg(new BigDecimal("10.00"));
+        transaction.setUnitPrice(new BigDecimal("500.00"));
+        transaction.setTotalAmount(new BigDecimal("5000.00"));
+        transaction.setNetAmount(new BigDecimal("4900.00"));
+        transaction.setTransactionDate(LocalDateTime.of(2026, 1, 1, 8, 0).plusHours(n));
+        return transaction;
+    }
+
+    private User user(UserType type) {
+        int n = ++sequence;
+        User user = new User();
+        user.setUserCode("USR-TX-" + n);
+        user.setFirstName(type == UserType.BUYER ? "Buyer" : type == UserType.FARMER ? "Seller" : "Keeper");
+        user.setLastName("Tx");
+        user.setEmail("tx" + n + "@example.com");
+        user.setPhoneNumber("0789" + String.format("%06d", n));
+        user.setPassword("password");
+        user.setUserType(type);
+        user.setLocation(location);
+        return user;
+    }
+}
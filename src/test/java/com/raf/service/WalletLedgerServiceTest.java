@@ -0,0 +1,176 @@
+package com.raf.service;
+
+import com.raf.entity.User;
+import com.raf.entity.Wallet;
+import com.raf.entity.WalletLedgerEntry;
+import com.raf.enums.UserType;
+import com.raf.repository.WalletLedgerRepository;
+import com.raf.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WalletLedgerServiceTest {
+
+    private static final int PAYERS = 32;
+
+    @Autowired
+    private WalletLedgerService walletLedgerService;
+    @Autowired
+    private WalletSnapshotter walletSnapshotter;
+    @Autowired
+    private WalletService walletService;
+    @Autowired
+    private WalletRepository walletRepository;
+    @Autowired
+    private WalletLedgerRepository walletLedgerRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private TestFixtures fixtures;
+
+    private User user;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        user = fixtures.user(UserType.FARMER, "Ledger", "Farmer");
+        wallet = walletService.getWalletByUserId(user.getId());
+    }
+
+    @Test
+    void shouldCreditInParallelWithoutTouchingTheWalletRow() throws Exception {
+        ExecutorService payers = Executors.newFixedThreadPool(PAYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> credits = new ArrayList<>();
+        try {
+            for (int i = 0; i < PAYERS; i++) {
+                credits.add(payers.submit(() -> {
+                    start.await();
+                    walletLedgerService.credit(wallet, new BigDecimal("100.00"), fixtures.next());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> credit : credits) {
+                credit.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            payers.shutdownNow();
+        }
+
+        Wallet row = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0, BigDecimal.ZERO.compareTo(row.getBalance()), "Credits only append to the ledger");
+        assertNull(row.getSnapshotVersion());
+        assertEquals(PAYERS, walletLedgerRepository.findByWalletIdOrderByIdAsc(wallet.getId()).size());
+        assertEquals(0, new BigDecimal("3200.00").compareTo(walletService.getWalletByUserId(user.getId()).getBalance()));
+
+        assertTrue(walletSnapshotter.foldEntriesBefore(LocalDateTime.now().plusSeconds(1)) >= 1);
+
+        row = walletRepository.findById(wallet.getId()).orElseThrow();
+        List<WalletLedgerEntry> entries = walletLedgerRepository.findByWalletIdOrderByIdAsc(wallet.getId());
+        assertEquals(0, new BigDecimal("3200.00").compareTo(row.getBalance()));
+        assertEquals(0, new BigDecimal("3200.00").compareTo(row.getTotalEarned()));
+        assertEquals(1L, row.getSnapshotVersion());
+        assertTrue(entries.stream().allMatch(entry -> Long.valueOf(1L).equals(entry.getSnapshotVersion())));
+        assertEquals(0, new BigDecimal("3200.00").compareTo(walletService.getWalletByUserId(user.getId()).getBalance()),
+                "Folded entries are not counted twice");
+    }
+
+    @Test
+    void shouldDebitAgainstTheSnapshotPlusTail() {
+        walletLedgerService.credit(wallet, new BigDecimal("1000.00"), fixtures.next());
+        walletLedgerService.debit(wallet, new BigDecimal("600.00"), fixtures.next());
+        assertThrows(IllegalArgumentException.class,
+                () -> walletLedgerService.debit(wallet, new BigDecimal("600.00"), fixtures.next()));
+
+        walletSnapshotter.foldEntriesBefore(LocalDateTime.now().plusSeconds(1));
+        long reference = fixtures.next();
+        walletLedgerService.credit(wallet, new BigDecimal("50.00"), reference);
+        assertThrows(DataIntegrityViolationException.class,
+                () -> walletLedgerService.credit(wallet, new BigDecimal("50.00"), reference), "A transaction is credited once");
+
+        Wallet current = walletService.getWalletByUserId(user.getId());
+        assertEquals(0, new BigDecimal("450.00").compareTo(current.getBalance()));
+        assertEquals(0, new BigDecimal("1050.00").compareTo(current.getTotalEarned()));
+        assertEquals(0, new BigDecimal("600.00").compareTo(current.getTotalWithdrawn()));
+        assertEquals(0, new BigDecimal("400.00").compareTo(walletRepository.findById(wallet.getId()).orElseThrow().getBalance()));
+    }
+
+    @Test
+    void shouldRefundABouncedWithdrawalOnceAndKeepItThroughAFold() {
+        walletLedgerService.credit(wallet, new BigDecimal("1000.00"), fixtures.next());
+        long withdrawalId = fixtures.next();
+        walletLedgerService.debit(wallet, new BigDecimal("600.00"), withdrawalId);
+
+        walletLedgerService.refund(wallet, new BigDecimal("600.00"), withdrawalId);
+        assertThrows(DataIntegrityViolationException.class,
+                () -> walletLedgerService.refund(wallet, new BigDecimal("600.00"), withdrawalId), "A withdrawal is refunded once");
+
+        Wallet current = walletService.getWalletByUserId(user.getId());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(current.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(current.getTotalWithdrawn()));
+
+        walletSnapshotter.foldEntriesBefore(LocalDateTime.now().plusSeconds(1));
+        Wallet folded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("1000.00").compareTo(folded.getBalance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(folded.getTotalWithdrawn()));
+    }
+
+    @Test
+    void shouldFoldAnEntryThatCommitsAfterAHigherIdWasFolded() throws Exception {
+        CountDownLatch posted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService payer = Executors.newSingleThreadExecutor();
+        try {
+            // Takes the lower id, then stays uncommitted while a later entry is posted and folded
+            Future<Long> slow = payer.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Long id = walletLedgerService.credit(wallet, new BigDecimal("70.00"), fixtures.next()).getId();
+                posted.countDown();
+                try {
+                    assertTrue(release.await(30, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return id;
+            }));
+            assertTrue(posted.await(30, TimeUnit.SECONDS));
+            WalletLedgerEntry fast = walletLedgerService.credit(wallet, new BigDecimal("30.00"), fixtures.next());
+            walletSnapshotter.foldEntriesBefore(LocalDateTime.now().plusSeconds(1));
+            assertEquals(0, new BigDecimal("30.00").compareTo(walletRepository.findById(wallet.getId()).orElseThrow().getBalance()));
+
+            release.countDown();
+            assertTrue(slow.get(30, TimeUnit.SECONDS) < fast.getId());
+        } finally {
+            release.countDown();
+            payer.shutdownNow();
+        }
+
+        assertEquals(0, new BigDecimal("100.00").compareTo(walletService.getWalletByUserId(user.getId()).getBalance()),
+                "The late entry is counted on read");
+        walletSnapshotter.foldEntriesBefore(LocalDateTime.now().plusSeconds(1));
+        Wallet folded = walletRepository.findById(wallet.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("100.00").compareTo(folded.getBalance()), "and folded by the next run");
+        assertEquals(2L, folded.getSnapshotVersion());
+        assertEquals(0, new BigDecimal("100.00").compareTo(walletService.getWalletByUserId(user.getId()).getBalance()));
+    }
+}
@@ -4,6 +4,8 @@ import com.raf.dto.WithdrawalRequest;
 import com.raf.entity.User;
 import com.raf.entity.Wallet;
 import com.raf.entity.Withdrawal;
+import com.raf.enums.BusinessCodeType;
+import com.raf.enums.OutboxEventType;
 import com.raf.enums.WithdrawalStatus;
 import com.raf.repository.TransactionRepository;
 import com.raf.repository.UserRepository;
@@ -26,6 +28,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,7 +44,11 @@ public class WalletServiceTest {
     @Mock
     private TransactionRepository transactionRepository;
     @Mock
-    private EmailService emailService;
+    private OutboxService outboxService;
+    @Mock
+    private WalletLedgerService walletLedgerService;
+    @Mock
+    private BusinessCodeGenerator businessCodeGenerator;
     @Mock
     private EntityManager entityManager;
 
@@ -68,6 +76,7 @@ public class WalletServiceTest {
     @Test
     void shouldRejectWithdrawalWhenBalanceIsInsufficient() {
         when(walletRepository.findByUserId(1L)).thenReturn(Optional.of(wallet));
+        when(walletLedgerService.current(wallet)).thenReturn(wallet);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
 
         WithdrawalRequest request = new WithdrawalRequest();
@@ -83,8 +92,9 @@ public class WalletServiceTest {
     @Test
     void shouldSuccessfullyRequestWithdrawal() {
         when(walletRepository.findByUserId(1L)).thenReturn(Optional.of(wallet));
+        when(walletLedgerService.current(wallet)).thenReturn(wallet);
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(withdrawalRepository.existsByWithdrawalCode(any(String.class))).thenReturn(false);
+        when(businessCodeGenerator.next(BusinessCodeType.WITHDRAWAL)).thenReturn("WTH-2026-000001");
         when(withdrawalRepository.save(any(Withdrawal.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         WithdrawalRequest request = new WithdrawalRequest();
@@ -93,14 +103,16 @@ public class WalletServiceTest {
         Withdrawal withdrawal = walletService.requestWithdrawal(1L, request);
 
         assertNotNull(withdrawal);
+        assertEquals("WTH-2026-000001", withdrawal.getWithdrawalCode());
         assertEquals(WithdrawalStatus.PENDING, withdrawal.getStatus());
         assertEquals(new BigDecimal("10000.00"), withdrawal.getAmount());
         assertNotNull(withdrawal.getOtpCode());
         assertFalse(withdrawal.getOtpVerified());
+        verify(outboxService).enqueue(OutboxEventType.WITHDRAWAL_OTP, withdrawal.getId());
     }
 
     @Test
-    void shouldCompleteWithdrawalAfterOtpVerification() {
+    void shouldQueueWithdrawalForPayoutAfterOtpVerification() {
         Withdrawal withdrawal = new Withdrawal();
         withdrawal.setId(1L);
         withdrawal.setWallet(wallet);
@@ -112,13 +124,46 @@ public class WalletServiceTest {
 
         when(withdrawalRepository.findById(1L)).thenReturn(Optional.of(withdrawal));
 
-        Withdrawal completed = walletService.verifyOtpAndCompleteWithdrawal(1L, "123456");
+        Withdrawal verified = walletService.verifyOtpAndQueueWithdrawal(1L, "123456");
 
-        assertTrue(completed.getOtpVerified());
-        assertEquals(WithdrawalStatus.COMPLETED, completed.getStatus());
+        assertTrue(verified.getOtpVerified());
+        assertEquals(WithdrawalStatus.PROCESSING, verified.getStatus(), "Waits for the next payout run");
         
-        // Wallet balance should decrease by 10000
-        assertEquals(new BigDecimal("40000.00"), wallet.getBalance());
-        assertEquals(new BigDecimal("10000.00"), wallet.getTotalWithdrawn());
+        // The withdrawal is debited through the wallet ledger
+        verify(walletLedgerService).debit(wallet, new BigDecimal("10000.00"), 1L);
+    }
+
+    @Test
+    void shouldFailABouncedPayoutAndRefundIt() {
+        Withdrawal withdrawal = new Withdrawal();
+        withdrawal.setId(2L);
+        withdrawal.setWithdrawalCode("WTH-2026-000002");
+        withdrawal.setWallet(wallet);
+        withdrawal.setAmount(new BigDecimal("4000.00"));
+        withdrawal.setStatus(WithdrawalStatus.PROCESSING);
+
+        when(withdrawalRepository.lockById(2L)).thenReturn(Optional.of(withdrawal));
+
+        Withdrawal failed = walletService.failPayout(2L, "Account closed");
+
+        assertEquals(WithdrawalStatus.FAILED, failed.getStatus());
+        assertNotNull(failed.getProcessedDate());
+        assertTrue(failed.getProcessingNotes().contains("Account closed"));
+        verify(walletLedgerService).refund(wallet, new BigDecimal("4000.00"), 2L);
+    }
+
+    @Test
+    void shouldNotRefundAWithdrawalThatWasNeverDebited() {
+        Withdrawal withdrawal = new Withdrawal();
+        withdrawal.setId(3L);
+        withdrawal.setWallet(wallet);
+        withdrawal.setAmount(new BigDecimal("4000.00"));
+        withdrawal.setStatus(WithdrawalStatus.PENDING);
+
+        when(withdrawalRepository.lockById(3L)).thenReturn(Optional.of(withdrawal));
+
+        assertThrows(IllegalArgumentException.class, () -> walletService.failPayout(3L, null));
+        assertEquals(WithdrawalStatus.PENDING, withdrawal.getStatus());
+        verify(walletLedgerService, never()).refund(any(), any(), any());
     }
 }
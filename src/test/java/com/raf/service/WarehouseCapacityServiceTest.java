@@ -0,0 +1,232 @@
+package com.raf.service;
+
+import com.raf.entity.CapacityLedgerEntry;
+import com.raf.entity.CropType;
+import com.raf.entity.StorageWarehouse;
+import com.raf.entity.User;
+import com.raf.entity.WarehouseAccess;
+import com.raf.enums.AccessLevel;
+import com.raf.enums.CapacityEntryType;
+import com.raf.enums.UserType;
+import com.raf.enums.WarehouseAccessStatus;
+import com.raf.exception.OperationNotAllowedException;
+import com.raf.repository.InventoryRepository;
+import com.raf.repository.StorageWarehouseRepository;
+import com.raf.repository.WarehouseAccessRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class WarehouseCapacityServiceTest {
+
+    private static final int THREADS = 32;
+
+    @Autowired
+    private WarehouseCapacityService capacityService;
+    @Autowired
+    private StorageRequestService storageRequestService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StorageWarehouseRepository warehouseRepository;
+    @Autowired
+    private WarehouseAccessRepository warehouseAccessRepository;
+    @Autowired
+    private WarehouseAccessService warehouseAccessService;
+    @Autowired
+    private InventoryRepository inventoryRepository;
+    @Autowired
+    private TestFixtures fixtures;
+
+    @Test
+    void shouldNotOvercommitUnderParallelReservations() throws Exception {
+        // 32 requests of 5 kg compete for 100 kg: exactly 20 fit
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("100.00"));
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runInParallel(THREADS, i -> {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        capacityService.reserve(warehouse.getId(), new BigDecimal("5.00"), "test-" + i));
+                reserved.incrementAndGet();
+            } catch (OperationNotAllowedException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(20, reserved.get());
+        assertEquals(THREADS - 20, rejected.get());
+        assertEquals(0, available(warehouse).compareTo(BigDecimal.ZERO));
+        assertEquals(20, ledger(warehouse).size());
+    }
+
+    @Test
+    void shouldSettleEachReservationOnce() {
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("100.00"));
+
+        Long released = inTransaction(() -> capacityService.reserve(warehouse.getId(), new BigDecimal("30.00"), "first"));
+        Long committed = inTransaction(() -> capacityService.reserve(warehouse.getId(), new BigDecimal("20.00"), "second"));
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("50.00")));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            capacityService.release(released);
+            capacityService.commit(committed);
+        });
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("80.00")));
+        assertThrows(OperationNotAllowedException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> capacityService.commit(released)));
+        assertThrows(OperationNotAllowedException.class,
+                () -> transactionTemplate.executeWithoutResult(status -> capacityService.release(committed)));
+
+        BigDecimal restored = inTransaction(() ->
+                capacityService.restore(warehouse.getId(), new BigDecimal("500.00"), "returned"));
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("100.00")), "Never more than the total capacity");
+        assertEquals(0, restored.compareTo(new BigDecimal("20.00")));
+        List<CapacityLedgerEntry> ledger = ledger(warehouse);
+        assertEquals(List.of(CapacityEntryType.RESERVE, CapacityEntryType.RESERVE, CapacityEntryType.RELEASE,
+                CapacityEntryType.COMMIT, CapacityEntryType.RESTORE),
+                ledger.stream().map(CapacityLedgerEntry::getEntryType).toList());
+        assertEquals(0, ledger.get(4).getQuantityKg().compareTo(new BigDecimal("20.00")), "Only what was returned is recorded");
+    }
+
+    @Test
+    void shouldApproveReservedStorageRequestsInParallel() throws Exception {
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("1000.00"));
+        User storekeeper = fixtures.user(UserType.STOREKEEPER);
+        access(storekeeper, warehouse, null, WarehouseAccessStatus.ACTIVE, true);
+        CropType cropType = fixtures.cropType();
+
+        List<WarehouseAccess> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            User farmer = fixtures.user(UserType.FARMER);
+            Long reservation = inTransaction(() -> capacityService.reserve(warehouse.getId(), new BigDecimal("100.00"), "request"));
+            WarehouseAccess request = access(farmer, warehouse, cropType, WarehouseAccessStatus.PENDING, false);
+            request.setCapacityReservationId(reservation);
+            requests.add(warehouseAccessRepository.save(request));
+        }
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("200.00")));
+
+        runInParallel(requests.size() - 1, i -> storageRequestService.approveStorageRequest(requests.get(i).getId(), storekeeper.getId()));
+        storageRequestService.rejectStorageRequest(requests.get(requests.size() - 1).getId(), "No space for this grade");
+
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("300.00")));
+        List<CapacityEntryType> settlements = ledger(warehouse).stream()
+                .map(CapacityLedgerEntry::getEntryType)
+                .filter(type -> type != CapacityEntryType.RESERVE)
+                .toList();
+        assertEquals(7, settlements.stream().filter(type -> type == CapacityEntryType.COMMIT).count());
+        assertEquals(1, settlements.stream().filter(type -> type == CapacityEntryType.RELEASE).count());
+    }
+
+    @Test
+    void shouldReleaseReservationWhenRequestIsDeleted() {
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("1000.00"));
+        User farmer = fixtures.user(UserType.FARMER);
+        WarehouseAccess request = reservedRequest(farmer, warehouse, fixtures.cropType());
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("900.00")));
+
+        warehouseAccessService.deleteWarehouseAccess(request.getId());
+
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("1000.00")));
+        assertEquals(List.of(CapacityEntryType.RESERVE, CapacityEntryType.RELEASE),
+                ledger(warehouse).stream().map(CapacityLedgerEntry::getEntryType).toList());
+    }
+
+    @Test
+    void shouldReleaseReservationWhenApprovedIntoExistingLot() {
+        StorageWarehouse warehouse = fixtures.warehouse(new BigDecimal("1000.00"));
+        User storekeeper = fixtures.user(UserType.STOREKEEPER);
+        access(storekeeper, warehouse, null, WarehouseAccessStatus.ACTIVE, true);
+        User farmer = fixtures.user(UserType.FARMER);
+        CropType cropType = fixtures.cropType();
+        fixtures.lot(farmer, storekeeper, warehouse, cropType, new BigDecimal("50.00"));
+        WarehouseAccess request = reservedRequest(farmer, warehouse, cropType);
+
+        warehouseAccessService.updateStatus(request.getId(), WarehouseAccessStatus.APPROVED, storekeeper.getId());
+
+        assertEquals(0, available(warehouse).compareTo(new BigDecimal("1000.00")));
+        assertEquals(List.of(CapacityEntryType.RESERVE, CapacityEntryType.RELEASE),
+                ledger(warehouse).stream().map(CapacityLedgerEntry::getEntryType).toList());
+        assertEquals(1, inventoryRepository.findByFarmerId(farmer.getId()).size(), "No second lot is created");
+    }
+
+    private WarehouseAccess reservedRequest(User farmer, StorageWarehouse warehouse, CropType cropType) {
+        Long reservation = inTransaction(() -> capacityService.reserve(warehouse.getId(), new BigDecimal("100.00"), "request"));
+        WarehouseAccess request = access(farmer, warehouse, cropType, WarehouseAccessStatus.PENDING, false);
+        request.setCapacityReservationId(reservation);
+        return warehouseAccessRepository.save(request);
+    }
+
+    private void runInParallel(int tasks, TaskBody body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    body.run(index);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface TaskBody {
+        void run(int index);
+    }
+
+    private <T> T inTransaction(java.util.function.Supplier<T> action) {
+        return transactionTemplate.execute(status -> action.get());
+    }
+
+    private BigDecimal available(StorageWarehouse warehouse) {
+        return warehouseRepository.findById(warehouse.getId()).orElseThrow().getAvailableCapacityKg();
+    }
+
+    private List<CapacityLedgerEntry> ledger(StorageWarehouse warehouse) {
+        return capacityService.getLedger(warehouse.getId());
+    }
+
+    private WarehouseAccess access(User user, StorageWarehouse warehouse, CropType cropType,
+                                   WarehouseAccessStatus status, boolean active) {
+        WarehouseAccess access = new WarehouseAccess();
+        access.setUser(user);
+        access.setWarehouse(warehouse);
+        access.setAccessLevel(cropType == null ? AccessLevel.MANAGER : AccessLevel.VIEWER);
+        access.setGrantedDate(LocalDate.now());
+        access.setStatus(status);
+        access.setIsActive(active);
+        if (cropType != null) {
+            access.setCropType(cropType);
+            access.setCropQuantityKg(new BigDecimal("100.00"));
+            access.setQualityGrade("A");
+        }
+        return warehouseAccessRepository.save(access);
+    }
+}
@@ -0,0 +1,94 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvertedIndexTest {
+
+    @Test
+    void shouldMatchTokenPrefixesAcrossFields() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        index.put(1L, List.of("INV-2026-001", "Maize", "Grade A"), List.of("farmer:7"));
+        index.put(2L, List.of("INV-2026-002", "Beans"), List.of("farmer:8"));
+
+        assertEquals(List.of(1L), index.search("maiz", null, 50));
+        assertEquals(List.of(1L, 2L), index.search("inv-2026", null, 50));
+        assertEquals(List.of(2L), index.search("inv beans", null, 50));
+        assertTrue(index.search("rice", null, 50).isEmpty());
+    }
+
+    @Test
+    void shouldIntersectWithOwnerTags() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        index.put(1L, List.of("Maize"), List.of("farmer:7"));
+        index.put(2L, List.of("Maize"), List.of("farmer:8"));
+        index.put(3L, List.of("Maize"), List.of("farmer:9"));
+
+        assertEquals(List.of(2L), index.search("maize", List.of("farmer:8"), 50));
+        assertEquals(List.of(1L, 3L), index.search("maize", List.of("farmer:9", "farmer:7"), 50));
+        assertTrue(index.search("maize", List.of(), 50).isEmpty());
+        assertEquals(List.of(1L), index.search("maize", null, 1));
+    }
+
+    @Test
+    void shouldReplaceAndRemoveDocuments() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        index.put(1L, List.of("Maize"), List.of());
+        index.put(1L, List.of("Sorghum"), List.of());
+
+        assertTrue(index.search("maize", null, 50).isEmpty());
+        assertEquals(List.of(1L), index.search("sorg", null, 50));
+
+        index.remove(1L);
+        assertTrue(index.search("sorg", null, 50).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void shouldMatchPrefixesOfLongFreeTextTokens() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        index.put(1L, List.of("Delivery postponed: transportationarrangements pending"), List.of());
+        index.put(2L, List.of("Transport booked"), List.of());
+
+        assertEquals(List.of(1L, 2L), index.search("transp", null, 50));
+        assertEquals(List.of(1L), index.search("transportationarrange", null, 50));
+        assertEquals(List.of(1L), index.search("transportationarrangements", null, 50));
+        assertTrue(index.search("transportationarrangementsx", null, 50).isEmpty());
+    }
+
+    @Test
+    void shouldNotMatchTagsAsTerms() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        index.put(1L, List.of("Maize"), List.of("farmer:7"));
+
+        assertTrue(index.search("farmer", null, 50).isEmpty());
+        assertEquals(List.of(1L), index.search("maize", List.of("farmer:7"), 50));
+    }
+
+    @Test
+    void shouldCompactRemovedOrdinalsAndKeepInsertionOrder() {
+        InvertedIndex<Long> index = new InvertedIndex<>();
+        for (long key = 0; key < 100; key++) {
+            index.put(key, List.of("Maize lot " + key), List.of(key % 2 == 0 ? "farmer:even" : "farmer:odd"));
+        }
+        for (long key = 0; key < 60; key++) {
+            index.remove(key);
+        }
+
+        assertEquals(40, index.size());
+        assertTrue(index.capacity() < 100, "Removed ordinals are reclaimed");
+        index.put(7L, List.of("Maize lot 7"), List.of("farmer:odd"));
+        List<Long> expected = new ArrayList<>();
+        for (long key = 61; key < 100; key += 2) {
+            expected.add(key);
+        }
+        expected.add(7L);
+        assertEquals(expected, index.search("maize", List.of("farmer:odd"), 50));
+        assertEquals(List.of(99L), index.search("lot 99", null, 50));
+        assertEquals(List.of(62L, 64L), index.search("maize", List.of("farmer:even"), 1, 2));
+    }
+}
@@ -0,0 +1,128 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LegFanOutTest {
+
+    private ThreadPoolExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void pool(int threads, int queueCapacity) {
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Test
+    void shouldRunLegsInParallelAndKeepLegOrder() throws Exception {
+        pool(3, 3);
+        CountDownLatch allStarted = new CountDownLatch(3);
+        Map<String, Callable<List<String>>> legs = new LinkedHashMap<>();
+        for (String name : List.of("crops", "warehouses", "inventory")) {
+            legs.put(name, () -> {
+                allStarted.countDown();
+                // Only returns if all three legs are running at the same time
+                assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+                return List.of(name + "-0", name + "-1");
+            });
+        }
+
+        LegFanOut.Outcome<String> outcome = LegFanOut.run(legs, executor, 5000);
+
+        assertFalse(outcome.partial());
+        assertEquals(List.of("crops-0", "crops-1", "warehouses-0", "warehouses-1", "inventory-0", "inventory-1"),
+                outcome.results());
+        assertEquals(List.of("crops", "warehouses", "inventory"), List.copyOf(outcome.legs().keySet()));
+        outcome.legs().values().forEach(leg -> assertEquals(LegFanOut.Status.OK, leg.status()));
+    }
+
+    @Test
+    void shouldReturnPartialResultsWithDurationWhenALegFails() throws Exception {
+        pool(2, 2);
+        Map<String, Callable<List<String>>> legs = new LinkedHashMap<>();
+        legs.put("crops", () -> List.of("c0"));
+        legs.put("users", () -> {
+            Thread.sleep(50);
+            throw new IllegalStateException("connection refused");
+        });
+
+        LegFanOut.Outcome<String> outcome = LegFanOut.run(legs, executor, 5000);
+
+        assertTrue(outcome.partial());
+        assertEquals(List.of("c0"), outcome.results());
+        LegFanOut.Leg<String> failed = outcome.legs().get("users");
+        assertEquals(LegFanOut.Status.FAILED, failed.status());
+        assertEquals("connection refused", failed.error().getMessage());
+        assertTrue(failed.durationMs() >= 50, "Failed legs report how long they ran");
+    }
+
+    @Test
+    void shouldCancelLegsThatMissTheBudget() throws Exception {
+        pool(2, 2);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Map<String, Callable<List<String>>> legs = new LinkedHashMap<>();
+        legs.put("crops", () -> List.of("c0"));
+        legs.put("messages", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return List.of("late");
+        });
+
+        long started = System.nanoTime();
+        LegFanOut.Outcome<String> outcome = LegFanOut.run(legs, executor, 100);
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) < 5000);
+        assertTrue(outcome.partial());
+        assertEquals(List.of("c0"), outcome.results());
+        assertEquals(LegFanOut.Status.TIMEOUT, outcome.legs().get("messages").status());
+        assertEquals(100, outcome.legs().get("messages").durationMs());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "The late leg is cancelled");
+    }
+
+    @Test
+    void shouldRejectLegsInsteadOfRunningThemOnTheCaller() throws Exception {
+        pool(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        Map<String, Callable<List<String>>> legs = new LinkedHashMap<>();
+        legs.put("first", () -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of("f0");
+        });
+        legs.put("queued", () -> List.of("q0"));
+        legs.put("overflow", () -> {
+            assertNotSame(caller, Thread.currentThread());
+            return List.of("o0");
+        });
+
+        LegFanOut.Outcome<String> outcome;
+        try {
+            outcome = LegFanOut.run(legs, executor, 100);
+        } finally {
+            release.countDown();
+        }
+
+        assertTrue(outcome.partial());
+        assertEquals(LegFanOut.Status.REJECTED, outcome.legs().get("overflow").status());
+        assertEquals(LegFanOut.Status.TIMEOUT, outcome.legs().get("first").status());
+        assertFalse(outcome.results().contains("o0"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrefixTrieTest {
+
+    private static List<String> texts(List<PrefixTrie.Entry<String>> entries) {
+        return entries.stream().map(PrefixTrie.Entry::text).toList();
+    }
+
+    @Test
+    void shouldCompleteWordPrefixesByWeight() {
+        PrefixTrie<String> trie = new PrefixTrie<>(10);
+        trie.put("1", "Maize", "crop", 3);
+        trie.put("2", "Red Beans", "crop", 7);
+        trie.put("3", "Beans", "crop", 1);
+        trie.put("4", "Macadamia", "crop", 5);
+
+        assertEquals(List.of("Macadamia", "Maize"), texts(trie.complete("ma", 10)));
+        assertEquals(List.of("Red Beans", "Beans"), texts(trie.complete("bea", 10)));
+        assertEquals(List.of("Red Beans"), texts(trie.complete("red b", 10)));
+        assertEquals(List.of("Macadamia"), texts(trie.complete("MA", 1)));
+        assertTrue(trie.complete("rice", 10).isEmpty());
+    }
+
+    @Test
+    void shouldRefreshOnRenameAndRemove() {
+        PrefixTrie<String> trie = new PrefixTrie<>(10);
+        trie.put("1", "Kigali Central Store", "warehouse", 4);
+        trie.put("2", "Kigali East Store", "warehouse", 2);
+
+        trie.put("1", "Musanze Store", "warehouse", 4);
+        assertEquals(List.of("Kigali East Store"), texts(trie.complete("kig", 10)));
+        assertEquals(List.of("Musanze Store", "Kigali East Store"), texts(trie.complete("store", 10)));
+
+        trie.remove("2");
+        assertTrue(trie.complete("kig", 10).isEmpty());
+        assertEquals(1, trie.size());
+    }
+
+    @Test
+    void shouldMatchIncrementalAndBulkLoads() {
+        List<PrefixTrie.Entry<String>> entries = List.of(
+                new PrefixTrie.Entry<>("a", "Kabeza", "village", 0),
+                new PrefixTrie.Entry<>("b", "Kabarore", "village", 0),
+                new PrefixTrie.Entry<>("c", "Kabuga", "village", 0),
+                new PrefixTrie.Entry<>("d", "Kacyiru", "sector", 0));
+        PrefixTrie<String> bulk = new PrefixTrie<>(10);
+        bulk.putAll(entries);
+        PrefixTrie<String> incremental = new PrefixTrie<>(10);
+        entries.forEach(entry -> incremental.put(entry.id(), entry.text(), entry.value(), entry.weight()));
+
+        for (String prefix : List.of("k", "ka", "kab", "kabe", "kac")) {
+            assertEquals(texts(incremental.complete(prefix, 10)), texts(bulk.complete(prefix, 10)));
+        }
+        assertEquals(List.of("Kabeza", "Kabuga", "Kacyiru", "Kabarore"), texts(bulk.complete("k", 10)));
+    }
+}
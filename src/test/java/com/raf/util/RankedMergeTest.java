@@ -0,0 +1,58 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RankedMergeTest {
+
+    private static RankedMerge.Source<String> listSource(List<String> items) {
+        return (offset, limit) -> items.subList(Math.min(offset, items.size()), Math.min(offset + limit, items.size()));
+    }
+
+    private static Map<String, RankedMerge.Source<String>> sources() {
+        Map<String, RankedMerge.Source<String>> sources = new LinkedHashMap<>();
+        sources.put("crops", listSource(List.of("c0", "c1", "c2", "c3")));
+        sources.put("warehouses", listSource(List.of("w0")));
+        sources.put("inventory", listSource(List.of("i0", "i1", "i2")));
+        return sources;
+    }
+
+    @Test
+    void shouldInterleaveSourcesByRank() {
+        RankedMerge.Window<String> window = RankedMerge.window(sources(), Map.of(), 5);
+
+        assertEquals(List.of("c0", "w0", "i0", "c1", "i1"), window.items());
+        assertTrue(window.hasMore());
+        assertEquals(Map.of("crops", 2, "warehouses", 1, "inventory", 2), window.positions());
+    }
+
+    @Test
+    void shouldResumeFromCursorPositionsWithoutGapsOrDuplicates() {
+        List<String> paged = new ArrayList<>();
+        String cursor = null;
+        do {
+            Map<String, Integer> positions = SearchCursor.decode(cursor, "maize");
+            RankedMerge.Window<String> window = RankedMerge.window(sources(), positions, 3);
+            paged.addAll(window.items());
+            cursor = window.hasMore() ? SearchCursor.encode("maize", window.positions()) : null;
+        } while (cursor != null);
+
+        assertEquals(RankedMerge.window(sources(), Map.of(), 100).items(), paged);
+        assertEquals(8, paged.size());
+    }
+
+    @Test
+    void shouldRejectCursorFromAnotherQuery() {
+        String cursor = SearchCursor.encode("maize", Map.of("crops", 3));
+
+        assertEquals(Map.of("crops", 3), SearchCursor.decode(cursor, "maize"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(cursor, "beans"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not-a-cursor", "maize"));
+    }
+}
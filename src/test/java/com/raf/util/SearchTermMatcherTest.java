@@ -0,0 +1,64 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchTermMatcherTest {
+
+    enum Status { PARTIALLY_SOLD }
+
+    @Test
+    void shouldMatchIgnoringCase() {
+        SearchTermMatcher matcher = SearchTermMatcher.compile("maize");
+
+        assertTrue(matcher.matches("Yellow MAIZE, grade A"));
+        assertTrue(matcher.matches("maize"));
+        assertFalse(matcher.matches("maiz"));
+        assertFalse(matcher.matches("Beans"));
+        assertFalse(matcher.matches((CharSequence) null));
+        assertTrue(SearchTermMatcher.compile("").matches("anything"));
+    }
+
+    @Test
+    void shouldMatchValuesByTheirStringForm() {
+        assertTrue(SearchTermMatcher.compile("partially").matches(Status.PARTIALLY_SOLD));
+        assertTrue(SearchTermMatcher.compile("12.50").matches(new BigDecimal("112.50")));
+        assertFalse(SearchTermMatcher.compile("sold").matches((Object) null));
+    }
+
+    @Test
+    void shouldCompileOneMatcherPerToken() {
+        SearchTermMatcher[] tokens = SearchTermMatcher.compileTokens("  Jean\tUwimana ");
+
+        assertEquals(2, tokens.length);
+        assertTrue(tokens[0].matches("JEAN"));
+        assertTrue(tokens[1].matches("uwimana"));
+        assertEquals(0, SearchTermMatcher.compileTokens(" ").length);
+        assertEquals(0, SearchTermMatcher.compileTokens(null).length);
+    }
+
+    @Test
+    void shouldAgreeWithLowercaseContains() {
+        Random random = new Random(42);
+        String alphabet = "abcABC éÉ-1";
+        for (int run = 0; run < 5000; run++) {
+            String text = randomText(random, alphabet, random.nextInt(20));
+            String term = randomText(random, alphabet, 1 + random.nextInt(4)).toLowerCase(Locale.ROOT);
+            assertEquals(text.toLowerCase(Locale.ROOT).contains(term), SearchTermMatcher.compile(term).matches(text),
+                () -> "'" + term + "' in '" + text + "'");
+        }
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.raf.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrigramSimilarityTest {
+
+    @Test
+    void shouldMatchPgTrgmTrigrams() {
+        // pg_trgm: show_trgm('cat') = {"  c"," ca","at ","cat"}
+        assertEquals(Set.of("  c", " ca", "cat", "at "), TrigramSimilarity.trigrams("Cat"));
+        assertEquals(1.0, TrigramSimilarity.similarity("Nyarugenge", "nyarugenge"));
+        assertEquals(0.0, TrigramSimilarity.similarity("", "Kigali"));
+    }
+
+    @Test
+    void shouldToleratePartialMisspellingsOfVillageNames() {
+        assertTrue(TrigramSimilarity.similarity("Nyarugenge", "Nyarugenje") >= TrigramSimilarity.DEFAULT_THRESHOLD);
+        assertTrue(TrigramSimilarity.similarity("Kimironko", "Kimirongo") >= TrigramSimilarity.DEFAULT_THRESHOLD);
+        assertTrue(TrigramSimilarity.similarity("Kimironko", "Musanze") < TrigramSimilarity.DEFAULT_THRESHOLD);
+    }
+}